@@ -0,0 +1,85 @@
+package com.game.benchmarks;
+
+import com.game.gamelogic.CheckersBitBoard;
+import com.game.gamelogic.CheckersSearch;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth Checkers search from the opening at 1, 2, 4 and 8 threads. The nodes counter is reported per
+ * second next to the searches per second, so the speedup and the extra nodes parallel search costs can both be
+ * read off one run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckersSearchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SearchState {
+        @Param({"1", "2", "4", "8"})
+        int threads;
+
+        @Param({"10"})
+        int depth;
+
+        CheckersSearch search;
+        CheckersBitBoard opening;
+
+        @Setup
+        public void setUp() {
+            search = new CheckersSearch(threads);
+            opening = new CheckersBitBoard();
+        }
+
+        /**
+         * Each search starts with an empty table, otherwise later ones would only read back the first
+         */
+        @Setup(Level.Invocation)
+        public void clearTable() {
+            search.clear();
+        }
+
+        @TearDown
+        public void tearDown() {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Positions searched, JMH reports it as a rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Benchmark
+    public int search(SearchState state, NodeCounter counter) {
+        int score = state.search.search(state.opening, state.depth);
+        counter.nodes += state.search.getNodes();
+        return score;
+    }
+}
@@ -0,0 +1,227 @@
+package com.game.benchmarks;
+
+import com.game.gamelogic.CheckersBitBoard;
+import com.game.gamelogic.CheckersLogic;
+import com.game.gamelogic.CheckersMoveList;
+import com.game.gamelogic.CheckersPerft;
+import com.game.gamelogic.Connect4BitBoard;
+import com.game.gamelogic.Connect4Board;
+import com.game.gamelogic.Connect4Piece;
+import com.game.gamelogic.TicTacToeBoard;
+import com.game.gamelogic.TicTacToePiece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Win checks and move validation for the three games, run on every move the server relays
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLogicBenchmark {
+
+    /**
+     * Connect 4 boards, hasWon scans the whole board when nobody has won
+     */
+    @State(Scope.Thread)
+    public static class Connect4State {
+        Connect4Board empty;
+        Connect4Board crowded; // 30 pieces, no four in a row
+        Connect4Board won;
+        Connect4BitBoard crowdedBits; // same position as crowded
+
+        @Setup
+        public void setUp() {
+            empty = new Connect4Board();
+
+            crowded = new Connect4Board();
+            for (int row = 1; row < 6; row++) {
+                for (int column = 0; column < 6; column++) {
+                    // pairs of columns swap colour every row, so no line reaches four
+                    String colour = ((column / 2) + row) % 2 == 0 ? "red" : "blue";
+                    crowded.board[row][column] = new Connect4Piece(row, column, colour);
+                }
+            }
+
+            crowdedBits = new Connect4BitBoard();
+            for (int column = 0; column < 6; column++) {
+                for (int row = 5; row >= 1; row--) {
+                    String colour = crowded.board[row][column].getColour();
+                    crowdedBits.play(colour.equals("red") ? Connect4BitBoard.RED : Connect4BitBoard.BLUE, column);
+                }
+            }
+
+            won = new Connect4Board();
+            for (int row = 2; row < 6; row++) {
+                won.board[row][6] = new Connect4Piece(row, 6, "red");
+            }
+        }
+    }
+
+    /**
+     * A Tic Tac Toe board one move from the end
+     */
+    @State(Scope.Thread)
+    public static class TicTacToeState {
+        TicTacToeBoard board;
+        TicTacToePiece winningMove;
+        TicTacToePiece quietMove;
+
+        @Setup
+        public void setUp() {
+            board = new TicTacToeBoard();
+            board.setPiece(new TicTacToePiece(0, 0, "X"));
+            board.setPiece(new TicTacToePiece(1, 1, "X"));
+            board.setPiece(new TicTacToePiece(0, 1, "O"));
+            board.setPiece(new TicTacToePiece(1, 0, "O"));
+            winningMove = new TicTacToePiece(2, 2, "X");
+            quietMove = new TicTacToePiece(0, 2, "O");
+        }
+    }
+
+    /**
+     * A Checkers game in its opening position, shared for the whole run
+     */
+    @State(Scope.Thread)
+    public static class CheckersState {
+        CheckersLogic logic;
+
+        @Setup
+        public void setUp() {
+            logic = newGame();
+        }
+
+        @TearDown
+        public void tearDown() {
+            logic.playerResign(logic.getActivePlayer());
+        }
+    }
+
+    /**
+     * A fresh Checkers game per invocation, so every measured move is a legal opening move.
+     * Ending each game prints the winner, so stdout is muted while this state is alive.
+     */
+    @State(Scope.Thread)
+    public static class CheckersMoveState {
+        CheckersLogic logic;
+        PrintStream stdout;
+
+        @Setup(Level.Trial)
+        public void muteOutput() {
+            stdout = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        @TearDown(Level.Trial)
+        public void restoreOutput() {
+            System.setOut(stdout);
+        }
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            logic = newGame();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            logic.playerResign(logic.getActivePlayer());
+        }
+    }
+
+    /**
+     * The opening position on the bitboard engine
+     */
+    @State(Scope.Thread)
+    public static class CheckersBitBoardState {
+        CheckersBitBoard position = new CheckersBitBoard();
+        CheckersMoveList moves = new CheckersMoveList();
+        CheckersPerft perft = new CheckersPerft();
+    }
+
+    private static CheckersLogic newGame() {
+        CheckersLogic logic = new CheckersLogic("r", "w");
+        logic.setTimerUpdateListener((redTime, whiteTime) -> { });
+        logic.startNewGame();
+        return logic;
+    }
+
+    @Benchmark
+    public boolean connect4HasWonEmpty(Connect4State state) {
+        return state.empty.hasWon("red");
+    }
+
+    @Benchmark
+    public boolean connect4HasWonCrowded(Connect4State state) {
+        return state.crowded.hasWon("red");
+    }
+
+    @Benchmark
+    public boolean connect4HasWonWon(Connect4State state) {
+        return state.won.hasWon("red");
+    }
+
+    @Benchmark
+    public boolean connect4BitBoardHasWonCrowded(Connect4State state) {
+        return state.crowdedBits.hasWon(Connect4BitBoard.RED);
+    }
+
+    @Benchmark
+    public boolean ticTacToeWinningMove(TicTacToeState state) {
+        return state.board.checkIfPlayerWon(state.winningMove);
+    }
+
+    @Benchmark
+    public boolean ticTacToeQuietMove(TicTacToeState state) {
+        return state.board.checkIfPlayerWon(state.quietMove);
+    }
+
+    @Benchmark
+    public String checkersCheckWin(CheckersState state) {
+        return state.logic.checkWin();
+    }
+
+    @Benchmark
+    public int checkersBitBoardGenerateMoves(CheckersBitBoardState state) {
+        state.position.generateMoves(state.moves);
+        return state.moves.size();
+    }
+
+    /**
+     * Every move sequence five moves deep from the opening, 7361 leaves; divide by the time for nodes per second
+     */
+    @Benchmark
+    public long checkersPerft5(CheckersBitBoardState state) {
+        return state.perft.perft(state.position, 5);
+    }
+
+    /**
+     * A move onto an occupied square still pays for the capture scan before it is rejected
+     */
+    @Benchmark
+    public boolean checkersMoveRejected(CheckersState state) {
+        CheckersLogic logic = state.logic;
+        return logic.getActivePlayer().equals("r") ? logic.move("r", 6, 1, 5, 0) : logic.move("w", 1, 0, 2, 1);
+    }
+
+    @Benchmark
+    public boolean checkersMoveAccepted(CheckersMoveState state) {
+        CheckersLogic logic = state.logic;
+        return logic.getActivePlayer().equals("r") ? logic.move("r", 5, 0, 4, 1) : logic.move("w", 2, 1, 3, 0);
+    }
+}
@@ -0,0 +1,105 @@
+package com.game.benchmarks;
+
+import com.game.leaderboard.GameResult;
+import com.game.leaderboard.GameType;
+import com.game.leaderboard.Match;
+import com.game.leaderboard.MatchLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Recording a finished match and reading histories back for profile and leaderboard pages
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchLogBenchmark {
+    private static final int PLAYERS = 10_000;
+
+    /**
+     * A log in a temporary directory, filled with random matches between PLAYERS players
+     */
+    @State(Scope.Benchmark)
+    public static class LogState {
+        @Param({"100000", "1000000"})
+        int matches;
+
+        Path dir;
+        MatchLog log;
+        Random random = new Random(7);
+
+        @Setup
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("match-log-bench");
+            log = MatchLog.open(dir);
+            Random random = new Random(42);
+            GameType[] games = GameType.values();
+            GameResult[] results = GameResult.values();
+            for (int i = 0; i < matches; i++) {
+                int player1 = random.nextInt(PLAYERS);
+                int player2 = (player1 + 1 + random.nextInt(PLAYERS - 1)) % PLAYERS;
+                log.append(player1, "player" + player1, player2, "player" + player2,
+                        games[random.nextInt(games.length)], results[random.nextInt(results.length)], i);
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            log.close();
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long append(LogState state) throws IOException {
+        int player = state.random.nextInt(PLAYERS);
+        return state.log.append(player, "player" + player, (player + 1) % PLAYERS, "opponent",
+                GameType.CHECKERS, GameResult.WIN, System.currentTimeMillis());
+    }
+
+    /**
+     * A profile view: the last three matches of a random player, every field read
+     */
+    @Benchmark
+    public void profileRecentMatches(LogState state, Blackhole blackhole) throws IOException {
+        List<Match> recent = state.log.lastMatches(state.random.nextInt(PLAYERS), 3);
+        for (Match match : recent) {
+            blackhole.consume(match.getPlayer2());
+            blackhole.consume(match.getResult());
+        }
+    }
+
+    /**
+     * One leaderboard row's recent form
+     */
+    @Benchmark
+    public String leaderboardForm(LogState state) throws IOException {
+        return state.log.recentResults(state.random.nextInt(PLAYERS), 5);
+    }
+}
@@ -0,0 +1,144 @@
+package com.game.benchmarks;
+
+import com.game.leaderboard.GameResult;
+import com.game.leaderboard.GameType;
+import com.game.leaderboard.Leaderboard;
+import com.game.leaderboard.Player;
+import com.game.leaderboard.PlayerComparator.EloComparator;
+import com.game.leaderboard.RankingIndex;
+import com.game.matchmaking.EloSystem;
+import com.game.matchmaking.RatingUpdater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard sorting and Elo updates, run whenever a match ends or someone opens the leaderboard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+    private static final int BURST = 1000;
+
+    /**
+     * Fills the shared player list with random ratings, and puts the original players back afterwards
+     */
+    @State(Scope.Benchmark)
+    public static class LeaderboardState {
+        @Param({"1000", "100000", "1000000"})
+        int players;
+
+        Leaderboard leaderboard = new Leaderboard();
+        List<Player> original;
+        RankingIndex ranking;
+        RatingUpdater updater;
+        Random random = new Random(7);
+
+        @Setup
+        public void setUp() {
+            List<Player> all = Leaderboard.getAllPlayers();
+            original = new ArrayList<>(all);
+            all.clear();
+            Random random = new Random(42);
+            for (int i = 0; i < players; i++) {
+                all.add(new Player(i, "player" + i, 800 + random.nextInt(1200), 800 + random.nextInt(1200),
+                        800 + random.nextInt(1200), 0, 0, 0));
+            }
+            ranking = Leaderboard.getRanking("checkers"); // built once here, not in the measurement
+            updater = new RatingUpdater(RatingUpdater.DEFAULT_K, RatingUpdater.DEFAULT_BATCH);
+        }
+
+        @TearDown
+        public void tearDown() throws InterruptedException {
+            updater.close();
+            List<Player> all = Leaderboard.getAllPlayers();
+            all.clear();
+            all.addAll(original);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RatingState {
+        int ratingA = 1450;
+        int ratingB = 1390;
+    }
+
+    @Benchmark
+    public List<Player> sortRankingSystemPlayers(LeaderboardState state) {
+        return state.leaderboard.sortRankingSystemPlayers("checkers");
+    }
+
+    /**
+     * A full comparison sort, every compare reads two ratings from the rating store
+     */
+    @Benchmark
+    public List<Player> eloComparatorSort(LeaderboardState state) {
+        List<Player> copy = new ArrayList<>(Leaderboard.getAllPlayers());
+        copy.sort(new EloComparator("checkers", false));
+        return copy;
+    }
+
+    /**
+     * What a leaderboard page view costs with the ranked index
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public List<Player> rankingTopTen(LeaderboardState state) {
+        return state.ranking.top(10);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int rankingRankOf(LeaderboardState state) {
+        return state.ranking.rankOf(state.random.nextInt(state.players));
+    }
+
+    /**
+     * A finished match: one player's rating changes and they move in the index
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int rankingRatingChange(LeaderboardState state) {
+        Player player = Leaderboard.getAllPlayers().get(state.random.nextInt(state.players));
+        Leaderboard.setElo(player, "checkers", 800 + state.random.nextInt(1200));
+        return state.ranking.size();
+    }
+
+    /**
+     * A burst of finished matches queued on the rating updater and applied in batches
+     */
+    @Benchmark
+    public long ratingUpdaterBurst(LeaderboardState state) throws InterruptedException {
+        List<Player> all = Leaderboard.getAllPlayers();
+        for (int i = 0; i < BURST; i++) {
+            Player player1 = all.get(state.random.nextInt(state.players));
+            Player player2 = all.get(state.random.nextInt(state.players));
+            state.updater.submit(player1, player2, GameType.CHECKERS, GameResult.WIN);
+        }
+        state.updater.flush();
+        return state.updater.getApplied();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int updateRating(RatingState state) {
+        return EloSystem.updateRating(state.ratingA, state.ratingB, 32, 1.0);
+    }
+}
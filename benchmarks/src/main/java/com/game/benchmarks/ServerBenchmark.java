@@ -0,0 +1,102 @@
+package com.game.benchmarks;
+
+import com.game.networking.ClientHandler;
+import com.game.networking.GameServer;
+import com.game.networking.GameType;
+import com.game.networking.MatchmakingService;
+import com.game.networking.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-connection work on the server: reading a player's login line and pairing players for random matches
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerBenchmark {
+
+    /**
+     * ClientHandler without a socket that drops every message
+     */
+    static class SilentClientHandler extends ClientHandler {
+        SilentClientHandler() {
+            super(null, null);
+        }
+
+        @Override
+        public void sendMessage(String message) {
+        }
+    }
+
+    /**
+     * A matchmaking service with one player waiting in every lane, the usual state between joins
+     */
+    @State(Scope.Thread)
+    public static class MatchmakingState {
+        MatchmakingService service;
+        Player[] waiting;
+        Player joining;
+
+        @Setup
+        public void setUp() {
+            ClientHandler handler = new SilentClientHandler();
+            service = new MatchmakingService(null);
+            GameType[] gameTypes = GameType.values();
+            waiting = new Player[gameTypes.length];
+            for (int i = 0; i < gameTypes.length; i++) {
+                waiting[i] = new Player("w" + i, "waiting" + i, "w" + i + "@mail.com", "pw", handler);
+                service.joinRandomQueue(waiting[i], gameTypes[i]);
+            }
+            joining = new Player("j", "joining", "j@mail.com", "pw", handler);
+        }
+
+        @TearDown
+        public void tearDown() {
+            service.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LoginState {
+        String line = "John,john@mail.com,imjohn,123";
+        ClientHandler handler = new SilentClientHandler();
+    }
+
+    @Benchmark
+    public Player parsePlayerData(LoginState state) {
+        return GameServer.parsePlayerData(state.line, state.handler);
+    }
+
+    /**
+     * A sweep over every lane that finds nobody to pair
+     */
+    @Benchmark
+    public List<MatchmakingService.MatchedPair> processImmediateMatch(MatchmakingState state) {
+        return state.service.processImmediateMatch();
+    }
+
+    /**
+     * A join that pairs with the waiting player, then a join that waits again so the next call sees the same lane
+     */
+    @Benchmark
+    public MatchmakingService.MatchedPair joinAndPair(MatchmakingState state) {
+        MatchmakingService.MatchedPair pair = state.service.joinRandomQueue(state.joining, GameType.CHECKERS);
+        state.service.joinRandomQueue(state.waiting[GameType.CHECKERS.ordinal()], GameType.CHECKERS);
+        return pair;
+    }
+}
@@ -1,9 +1,88 @@
 package com.game.gamelogic;
 
+import java.util.SplittableRandom;
+
 public abstract class AbstractBoard {
+    private static final int MAX_SQUARES = 256;
+    private static final int KINDS = 4;
+    // fixed seed, so a position has the same key in every process and stored keys stay valid
+    private static final long[] ZOBRIST = new long[MAX_SQUARES * KINDS];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x2545F4914F6CDD1DL);
+        for (int i = 0; i < ZOBRIST.length; i++) {
+            ZOBRIST[i] = random.nextLong();
+        }
+    }
+
     public AbstractPiece[][] board;
+    protected long key; // XOR of pieceKey for every piece on the board
+
     public AbstractBoard(int rows, int columns) {
         board = new AbstractPiece[rows][columns];
     }
     public abstract boolean canPlay(int x, int y);
-}
\ No newline at end of file
+
+    /**
+     * Zobrist key of one piece standing on one square, XORed into the board key when the piece is placed and
+     * out again when it leaves
+     * @param x row of the square
+     * @param y column of the square
+     * @param piece the piece, never null
+     * @return the piece's share of the key, 0 for a piece that counts as an empty square
+     */
+    protected abstract long pieceKey(int x, int y, AbstractPiece piece);
+
+    /**
+     * 64-bit key of the pieces on the board, kept up to date by each board's own setPiece, removePiece and play,
+     * so reading it is free. Equal positions always have equal keys, different positions almost never do.
+     * The key doesn't include whose turn it is.
+     * @return the key
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Works the key out from scratch, for boards whose squares were written directly through the board array
+     * @return the new key
+     */
+    public long recomputeKey() {
+        key = 0;
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board[x].length; y++) {
+                if (board[x][y] != null) {
+                    key ^= pieceKey(x, y, board[x][y]);
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Puts a piece on a square or takes one off, updating the key
+     * @param x row of the square
+     * @param y column of the square
+     * @param piece new occupant, or null to empty the square
+     */
+    protected void replace(int x, int y, AbstractPiece piece) {
+        AbstractPiece old = board[x][y];
+        if (old != null) {
+            key ^= pieceKey(x, y, old);
+        }
+        if (piece != null) {
+            key ^= pieceKey(x, y, piece);
+        }
+        board[x][y] = piece;
+    }
+
+    /**
+     * @param x row of the square
+     * @param y column of the square
+     * @param kind 0 to 3, what stands on the square
+     * @return the random number for that kind of piece on that square
+     */
+    protected long zobrist(int x, int y, int kind) {
+        return ZOBRIST[((x * board[0].length + y) % MAX_SQUARES) * KINDS + kind];
+    }
+}
@@ -0,0 +1,365 @@
+package com.game.gamelogic;
+
+/**
+ * Checkers position stored as bit masks with legal move generation.
+ * Square x * 8 + y matches CheckersBoard, so x is the row: white starts on rows 0-2 and moves down,
+ * red starts on rows 5-7 and moves up. Men move and capture forwards, kings in every direction.
+ * Captures are mandatory, a jump sequence has to be finished, and a man that reaches the far row is
+ * crowned and ends the move.
+ *
+ * The position can be played a whole move at a time (play) or one step at a time (playStep), which is how
+ * CheckersLogic receives moves from the GUI and the server.
+ */
+public final class CheckersBitBoard {
+    public static final int RED = 0;
+    public static final int WHITE = 1;
+
+    // step offsets: up left, up right, down left, down right
+    private static final int[] DIRECTIONS = {-9, -7, 7, 9};
+    private static final long NOT_LEFT = ~0x0101010101010101L;   // y > 0
+    private static final long NOT_RIGHT = ~0x8080808080808080L;  // y < 7
+    private static final long NOT_LEFT_2 = ~0x0303030303030303L; // y > 1
+    private static final long NOT_RIGHT_2 = ~0xC0C0C0C0C0C0C0C0L; // y < 6
+    private static final long[] STEP_FROM = {NOT_LEFT, NOT_RIGHT, NOT_LEFT, NOT_RIGHT};
+    private static final long[] JUMP_FROM = {NOT_LEFT_2, NOT_RIGHT_2, NOT_LEFT_2, NOT_RIGHT_2};
+    private static final long[] CROWN_ROW = {0xFFL, 0xFFL << 56}; // red crowns on row 0, white on row 7
+    private static final int[] FIRST_FORWARD = {0, 2}; // red men use directions 0-1, white men 2-3
+
+    private final long[] pieces = new long[2]; // indexed by RED / WHITE
+    private long kings;
+    private int sideToMove;
+    private int jumpingSquare = -1; // piece in the middle of a jump sequence, or -1
+
+    private final CheckersMoveList legalMoves = new CheckersMoveList();
+    private boolean legalMovesValid;
+
+    /**
+     * Creates the standard opening position with red to move
+     */
+    public CheckersBitBoard() {
+        reset(RED);
+    }
+
+    /**
+     * Copies a position, so it can be searched on another thread
+     * @param other position to copy
+     */
+    public CheckersBitBoard(CheckersBitBoard other) {
+        copyFrom(other);
+    }
+
+    /**
+     * Makes this position the same as another one, without allocating
+     * @param other position to copy
+     */
+    public void copyFrom(CheckersBitBoard other) {
+        pieces[RED] = other.pieces[RED];
+        pieces[WHITE] = other.pieces[WHITE];
+        kings = other.kings;
+        sideToMove = other.sideToMove;
+        jumpingSquare = other.jumpingSquare;
+        legalMovesValid = false;
+    }
+
+    /**
+     * Sets up the opening position, the same one CheckersBoard.initializeBoard uses
+     * @param firstToMove RED or WHITE
+     */
+    public void reset(int firstToMove) {
+        pieces[WHITE] = 0;
+        pieces[RED] = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 3; x++) {
+                if ((x + y) % 2 == 1) {
+                    pieces[WHITE] |= 1L << (x * 8 + y);
+                }
+            }
+            for (int x = 5; x < 8; x++) {
+                if ((x + y) % 2 == 1) {
+                    pieces[RED] |= 1L << (x * 8 + y);
+                }
+            }
+        }
+        kings = 0;
+        sideToMove = firstToMove;
+        jumpingSquare = -1;
+        legalMovesValid = false;
+    }
+
+    /**
+     * Copies the pieces of a CheckersBoard
+     * @param board the board to copy
+     * @param toMove RED or WHITE
+     * @return a new position
+     */
+    public static CheckersBitBoard fromBoard(CheckersBoard board, int toMove) {
+        CheckersBitBoard position = new CheckersBitBoard();
+        position.clear(toMove);
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                CheckersPiece piece = board.getPiece(x, y);
+                if (piece != null) {
+                    position.setPiece(x * 8 + y, piece.getColour().equals("r") ? RED : WHITE, piece.isKing());
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Removes every piece
+     * @param toMove RED or WHITE
+     */
+    public void clear(int toMove) {
+        pieces[RED] = 0;
+        pieces[WHITE] = 0;
+        kings = 0;
+        sideToMove = toMove;
+        jumpingSquare = -1;
+        legalMovesValid = false;
+    }
+
+    /**
+     * Puts a piece on a square, replacing whatever was there
+     * @param square x * 8 + y
+     * @param side RED or WHITE
+     * @param king true for a king
+     */
+    public void setPiece(int square, int side, boolean king) {
+        long bit = 1L << square;
+        pieces[1 - side] &= ~bit;
+        pieces[side] |= bit;
+        kings = king ? kings | bit : kings & ~bit;
+        legalMovesValid = false;
+    }
+
+    /**
+     * Fills a list with every legal move for the side to move. If any capture exists only captures are listed,
+     * each one a complete jump sequence. During a jump sequence only that piece's continuations are listed.
+     * @param moves list to fill, cleared first
+     */
+    public void generateMoves(CheckersMoveList moves) {
+        moves.clear();
+        int side = sideToMove;
+        long own = pieces[side];
+        long opponents = pieces[1 - side];
+        long empty = ~(own | opponents);
+
+        if (jumpingSquare >= 0) {
+            addJumps(moves, side, jumpingSquare, jumpingSquare, (kings & 1L << jumpingSquare) != 0,
+                    0, 0, 0, opponents, empty | 1L << jumpingSquare);
+            return;
+        }
+
+        // pieces with at least one jump, found for every piece at once
+        long jumpers = 0;
+        for (int d = 0; d < 4; d++) {
+            long movers = isForward(side, d) ? own : own & kings;
+            long landings = shift(shift(movers & JUMP_FROM[d], DIRECTIONS[d]) & opponents, DIRECTIONS[d]) & empty;
+            jumpers |= shift(landings, -2 * DIRECTIONS[d]);
+        }
+        while (jumpers != 0) {
+            int square = Long.numberOfTrailingZeros(jumpers);
+            jumpers &= jumpers - 1;
+            addJumps(moves, side, square, square, (kings & 1L << square) != 0, 0, 0, 0, opponents,
+                    empty | 1L << square);
+        }
+        if (moves.size() > 0) {
+            return; // captures are mandatory
+        }
+
+        for (int d = 0; d < 4; d++) {
+            long movers = isForward(side, d) ? own : own & kings;
+            long targets = shift(movers & STEP_FROM[d], DIRECTIONS[d]) & empty;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                moves.add(to - DIRECTIONS[d], to, 0, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Follows every jump from a square depth first, adding a move when the sequence can't continue
+     */
+    private void addJumps(CheckersMoveList moves, int side, int origin, int square, boolean king, int depth,
+                          long captured, long path, long opponents, long empty) {
+        boolean extended = false;
+        for (int d = 0; d < 4; d++) {
+            if ((!king && !isForward(side, d)) || (JUMP_FROM[d] & 1L << square) == 0) {
+                continue;
+            }
+            int over = square + DIRECTIONS[d];
+            int landing = over + DIRECTIONS[d];
+            if (landing < 0 || landing > 63) {
+                continue; // off the top or bottom row
+            }
+            // jumped pieces stay on the board until the move ends, so they can't be jumped or landed on twice
+            if ((opponents & ~captured & 1L << over) == 0 || (empty & 1L << landing) == 0) {
+                continue;
+            }
+            extended = true;
+            long nextCaptured = captured | 1L << over;
+            long nextPath = CheckersMoveList.appendStep(path, depth, landing);
+            if (!king && (CROWN_ROW[side] & 1L << landing) != 0) {
+                moves.add(origin, landing, depth + 1, nextCaptured, nextPath); // crowning ends the move
+            } else {
+                addJumps(moves, side, origin, landing, king, depth + 1, nextCaptured, nextPath, opponents, empty);
+            }
+        }
+        if (!extended && depth > 0) {
+            moves.add(origin, square, depth, captured, path);
+        }
+    }
+
+    private static boolean isForward(int side, int direction) {
+        return direction >= FIRST_FORWARD[side] && direction < FIRST_FORWARD[side] + 2;
+    }
+
+    private static long shift(long bits, int offset) {
+        return offset > 0 ? bits << offset : bits >>> -offset;
+    }
+
+    /**
+     * Plays a complete move from a list generated for this position
+     * @param moves list from generateMoves
+     * @param index move to play
+     */
+    public void play(CheckersMoveList moves, int index) {
+        int side = sideToMove;
+        long fromBit = 1L << moves.getFrom(index);
+        long toBit = 1L << moves.getTo(index);
+        long captured = moves.getCaptured(index);
+        boolean king = (kings & fromBit) != 0;
+
+        pieces[side] = (pieces[side] & ~fromBit) | toBit;
+        pieces[1 - side] &= ~captured;
+        kings &= ~(fromBit | captured);
+        if (king || (CROWN_ROW[side] & toBit) != 0) {
+            kings |= toBit;
+        }
+        sideToMove = 1 - side;
+        jumpingSquare = -1;
+        legalMovesValid = false;
+    }
+
+    /**
+     * @return the legal moves of this position, generated once per position
+     */
+    public CheckersMoveList getLegalMoves() {
+        if (!legalMovesValid) {
+            generateMoves(legalMoves);
+            legalMovesValid = true;
+        }
+        return legalMoves;
+    }
+
+    /**
+     * Checks one step, a plain move or a single jump, against the legal moves
+     * @param from square the piece is on
+     * @param to square it moves or jumps to
+     * @return true if some legal move starts with this step
+     */
+    public boolean isLegalStep(int from, int to) {
+        CheckersMoveList moves = getLegalMoves();
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.getFrom(i) == from && moves.getStep(i, 0) == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plays one step that isLegalStep accepted. After a jump the same side keeps moving while that piece
+     * can jump again.
+     * @param from square the piece is on
+     * @param to square it moves or jumps to
+     * @return the square of the jumped piece, or -1 for a plain move
+     */
+    public int playStep(int from, int to) {
+        int side = sideToMove;
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        boolean king = (kings & fromBit) != 0;
+        boolean jump = Math.abs(to - from) > 9;
+        int over = jump ? (from + to) / 2 : -1;
+
+        pieces[side] = (pieces[side] & ~fromBit) | toBit;
+        kings &= ~fromBit;
+        if (jump) {
+            pieces[1 - side] &= ~(1L << over);
+            kings &= ~(1L << over);
+        }
+        boolean crowned = !king && (CROWN_ROW[side] & toBit) != 0;
+        if (king || crowned) {
+            kings |= toBit;
+        }
+        legalMovesValid = false;
+
+        jumpingSquare = -1;
+        if (jump && !crowned) {
+            jumpingSquare = to;
+            if (getLegalMoves().size() > 0) {
+                return over; // the same piece has to keep jumping
+            }
+            jumpingSquare = -1;
+            legalMovesValid = false;
+        }
+        sideToMove = 1 - side;
+        return over;
+    }
+
+    /**
+     * @return true if the side to move has a legal move, false means they have lost
+     */
+    public boolean hasLegalMove() {
+        return getLegalMoves().size() > 0;
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Marks a piece as part way through a jump sequence, for positions copied from a CheckersBoard mid-capture
+     * @param square the jumping piece, or -1
+     */
+    void setJumpingSquare(int square) {
+        jumpingSquare = square;
+        legalMovesValid = false;
+    }
+
+    /**
+     * Hashes the whole position, pieces, kings, side to move and any jump in progress, into 64 bits
+     * @return the key, equal positions always have equal keys
+     */
+    public long getKey() {
+        long key = pieces[RED] * 0x9E3779B97F4A7C15L;
+        key = Long.rotateLeft(key, 23) ^ pieces[WHITE] * 0xC2B2AE3D27D4EB4FL;
+        key = Long.rotateLeft(key, 23) ^ kings * 0x165667B19E3779F9L;
+        key ^= (sideToMove + 2L * (jumpingSquare + 1)) * 0x27D4EB2F165667C5L;
+        key ^= key >>> 29;
+        key *= 0xBF58476D1CE4E5B9L;
+        return key ^ key >>> 32;
+    }
+
+    /**
+     * @return true while a piece is part way through a jump sequence
+     */
+    public boolean isJumpInProgress() {
+        return jumpingSquare >= 0;
+    }
+
+    public long getPieces(int side) {
+        return pieces[side];
+    }
+
+    public long getKings() {
+        return kings;
+    }
+
+    public boolean isKing(int square) {
+        return (kings & 1L << square) != 0;
+    }
+}
@@ -1,7 +1,10 @@
 package com.game.gamelogic;
 
 public class CheckersBoard extends AbstractBoard {
-
+    // undo entry: from in bits 0-5, to in 6-11, jumped square + 1 in 12-18, crowned in bit 19
+    private int[] undoMoves = new int[64];
+    private CheckersPiece[] undoCaptured = new CheckersPiece[64]; // the jumped pieces, put back as they were
+    private int movesMade;
 
     /**
      * The constructor for CheckersBoard that takes in
@@ -21,7 +24,7 @@ public class CheckersBoard extends AbstractBoard {
      * @param piece the checker piece that will be place onto the board
      */
     public void setPiece(CheckersPiece piece){
-        board[piece.getxPos()][piece.getyPos()] = piece;
+        replace(piece.getxPos(), piece.getyPos(), piece);
     }
 
     /**
@@ -30,7 +33,18 @@ public class CheckersBoard extends AbstractBoard {
      * @param piece the checker piece that will be removed from the board
      */
     public void removePiece(CheckersPiece piece){
-        board[piece.getxPos()][piece.getyPos()] = null;
+        replace(piece.getxPos(), piece.getyPos(), null);
+    }
+
+    /**
+     * crown function makes a piece on the board a king.
+     * Use it instead of piece.setKing so the board key stays right
+     * @param piece the checker piece that reached the far row
+     */
+    public void crown(CheckersPiece piece){
+        removePiece(piece);
+        piece.setKing(true);
+        setPiece(piece);
     }
 
     /**
@@ -46,6 +60,95 @@ public class CheckersBoard extends AbstractBoard {
     }
 
 
+    /**
+     * encodeMove function packs one step into an int for makeMove
+     * @param from square the piece is on, x * 8 + y
+     * @param to square it moves or jumps to, x * 8 + y
+     * @return the move
+     */
+    public static int encodeMove(int from, int to) {
+        return from | to << 6;
+    }
+
+    /**
+     * makeMove function plays one step, a plain move or a single jump, by moving the piece object that is
+     * already on the board, so nothing is allocated. A jumped piece is taken off and a man reaching the far row
+     * is crowned. The step isn't checked, CheckersLogic or CheckersBitBoard validate it first.
+     * @param move from encodeMove
+     * @return the jumped piece, or null for a plain move
+     */
+    public CheckersPiece makeMove(int move) {
+        int from = move & 63;
+        int to = move >>> 6 & 63;
+        CheckersPiece piece = getPiece(from / 8, from % 8);
+        CheckersPiece jumped = null;
+        int over = -1;
+        if (Math.abs(to / 8 - from / 8) == 2) {
+            over = (from + to) / 2;
+            jumped = getPiece(over / 8, over % 8);
+            replace(over / 8, over % 8, null);
+        }
+        removePiece(piece);
+        piece.setxPos(to / 8);
+        piece.setyPos(to % 8);
+        boolean crowned = !piece.isKing() && to / 8 == (piece.getColour().equals("r") ? 0 : board.length - 1);
+        piece.setKing(piece.isKing() || crowned);
+        setPiece(piece);
+
+        if (movesMade == undoMoves.length) {
+            undoMoves = java.util.Arrays.copyOf(undoMoves, movesMade * 2);
+            undoCaptured = java.util.Arrays.copyOf(undoCaptured, movesMade * 2);
+        }
+        undoMoves[movesMade] = from | to << 6 | (over + 1) << 12 | (crowned ? 1 : 0) << 19;
+        undoCaptured[movesMade] = jumped;
+        movesMade++;
+        return jumped;
+    }
+
+    /**
+     * unmakeMove function takes back the last makeMove, uncrowning the piece and putting back what it jumped
+     */
+    public void unmakeMove() {
+        if (movesMade == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        movesMade--;
+        int undo = undoMoves[movesMade];
+        int from = undo & 63;
+        int to = undo >>> 6 & 63;
+        int over = (undo >>> 12 & 127) - 1;
+        CheckersPiece piece = getPiece(to / 8, to % 8);
+        removePiece(piece);
+        piece.setxPos(from / 8);
+        piece.setyPos(from % 8);
+        if ((undo >>> 19 & 1) != 0) {
+            piece.setKing(false);
+        }
+        setPiece(piece);
+        if (over >= 0) {
+            setPiece(undoCaptured[movesMade]);
+            undoCaptured[movesMade] = null;
+        }
+    }
+
+    /**
+     * @return number of steps made with makeMove that can be taken back
+     */
+    public int getMovesMade() {
+        return movesMade;
+    }
+
+    /**
+     * pieceKey function picks the Zobrist number for a man or king of either colour
+     * @return the piece's share of the board key
+     */
+    @Override
+    protected long pieceKey(int x, int y, AbstractPiece piece) {
+        CheckersPiece checker = (CheckersPiece) piece;
+        return zobrist(x, y, (checker.getColour().equals("r") ? 0 : 1) + (checker.isKing() ? 2 : 0));
+    }
+
+
     /**
      * initializeBoard function place the checker piece to
      * it initial position
@@ -1,7 +1,8 @@
 package com.game.gamelogic;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
 
 public class CheckersLogic {
     private String playerWhite;
@@ -12,59 +13,123 @@ public class CheckersLogic {
     private int noCaptures;
     private boolean captureInProgress;
     private CheckersPiece capturingPiece;
-    private Timer playerRedTimer = new Timer();
-    private Timer playerWhiteTimer = new Timer();
-    private int pRedSecondsLeft;
-    private int pWhiteSecondsLeft;
+    private static final long CLOCK_NANOS = 600 * 1_000_000_000L; // ten minutes each
+    private ScheduledFuture<?> clockTicks; // once a second on the shared GameClock
+    private long redNanosUsed;
+    private long whiteNanosUsed;
+    private long clockCheckedAt;
     private TimerUpdateListener listener;
     private CheckersPiece selectedPiece;
     private int redCapturedPieces;
     private int whiteCapturedPieces;
+    private final CheckersBitBoard engine; // validates moves and detects the end of the game when not null
+    private static final long TIMEOUT_SEARCH_MILLIS = 200;
+    private boolean autoMoveOnTimeout; // the computer plays for a player out of time instead of resigning them
+    private boolean computerThinking; // a timeout move is being searched, so later ticks don't start another
 
-    TimerTask Countdown = new TimerTask() {
-        @Override
-        public void run() {
-            if (activePlayer.equals(playerRed)) {
-                pRedSecondsLeft--;
-                if (pRedSecondsLeft < 0) {
-                    playerResign(playerRed);
-                    playerRedTimer.cancel();
-                    playerWhiteTimer.cancel();
-                    return;
-                }
+    /**
+     * Runs every second: charges the active player's clock, resigns for them if they are out of time and
+     * tells the GUI both times
+     */
+    private synchronized void clockTick() {
+        if (activePlayer.isEmpty()) {
+            return;
+        }
+        chargeClock();
+        if (redNanosUsed > CLOCK_NANOS || whiteNanosUsed > CLOCK_NANOS) {
+            String outOfTime = redNanosUsed > CLOCK_NANOS ? playerRed : playerWhite;
+            if (!autoMoveOnTimeout) {
+                playerResign(outOfTime);
+                return;
+            }
+            if (activePlayer.equals(outOfTime) && !computerThinking) {
+                searchTimeoutMove();
             }
-            else if (activePlayer.equals(playerWhite)) {
-                pWhiteSecondsLeft--;
-                if (pWhiteSecondsLeft < 0) {
-                    playerResign(playerWhite);
-                    playerRedTimer.cancel();
-                    playerWhiteTimer.cancel();
-                    return;
+        }
+        if (listener != null) {
+            listener.onTimerUpdate(getRedSecondsLeft(), getWhiteSecondsLeft());
+        }
+    }
+
+    /**
+     * Searches a move for the player who ran out of time on the ComputerSearch thread, so the GameClock never
+     * waits for it, then plays it under this game's lock. Package-private so tests can run out a clock without waiting.
+     */
+    synchronized void searchTimeoutMove() {
+        computerThinking = true;
+        String player = activePlayer;
+        CheckersBitBoard position = getPosition();
+        ComputerSearch.EXECUTOR.execute(() -> {
+            CheckersMoveList moves = new CheckersMoveList();
+            int best = ComputerSearch.SEARCH.findBestMove(position, moves, TIMEOUT_SEARCH_MILLIS);
+            synchronized (this) {
+                computerThinking = false;
+                if (best >= 0 && playSearchedMove(player, position, moves, best)) {
+                    checkWin();
                 }
             }
-            listener.onTimerUpdate(pRedSecondsLeft, pWhiteSecondsLeft);
+        });
+    }
+
+    /**
+     * Adds the time since the clock was last checked to the player who is moving
+     */
+    private synchronized void chargeClock() {
+        long now = GameClock.now();
+        if (activePlayer.equals(playerRed)) {
+            redNanosUsed += now - clockCheckedAt;
+        } else if (activePlayer.equals(playerWhite)) {
+            whiteNanosUsed += now - clockCheckedAt;
         }
-    };
+        clockCheckedAt = now;
+    }
+
+    /**
+     * Hands the turn over, the previous player's clock stops at this exact moment
+     */
+    private void setActivePlayer(String player) {
+        chargeClock();
+        activePlayer = player;
+    }
+
+    private void stopClock() {
+        if (clockTicks != null) {
+            clockTicks.cancel(false);
+        }
+    }
 
     public CheckersLogic(String playerRed, String playerWhite) {
+        this(playerRed, playerWhite, false);
+    }
+
+    /**
+     * @param useBitBoard true to validate moves and detect wins with a CheckersBitBoard kept in step with the board,
+     *                    instead of scanning every square for captures on each move
+     */
+    public CheckersLogic(String playerRed, String playerWhite, boolean useBitBoard) {
         this.playerWhite = playerWhite;
         this.playerRed = playerRed;
         this.winner = "";
+        this.engine = useBitBoard ? new CheckersBitBoard() : null;
     }
 
-    public void startNewGame() {
+    public synchronized void startNewGame() {
         this.board = new CheckersBoard(8, 8);
         board.initializeBoard();
-        pRedSecondsLeft = 600;
-        pWhiteSecondsLeft = 600;
+        redNanosUsed = 0;
+        whiteNanosUsed = 0;
+        clockCheckedAt = GameClock.now();
         if (Math.round(Math.random()) == 1) {
             this.activePlayer = this.playerRed;
-            playerRedTimer.scheduleAtFixedRate(Countdown, 0, 1000);
         }else {
             this.activePlayer = this.playerWhite;
-            playerWhiteTimer.scheduleAtFixedRate(Countdown, 0, 1000);
         }
+        stopClock();
+        clockTicks = GameClock.getShared().scheduleEvery(this::clockTick, 1000);
         this.winner = "";
+        if (engine != null) {
+            engine.reset(activePlayer.equals(playerRed) ? CheckersBitBoard.RED : CheckersBitBoard.WHITE);
+        }
         this.redCapturedPieces = 0;
         this.whiteCapturedPieces = 0;
     }
@@ -77,15 +142,17 @@ public class CheckersLogic {
         System.out.println(player + " won the game!");
         this.winner = player;
         this.activePlayer = "";
+        stopClock();
     }
 
     public void announceDraw() {
         System.out.println("Draw!");
         this.winner = "Draw";
         this.activePlayer = "";
+        stopClock();
     }
 
-    public boolean capture(String player, int xStart, int yStart, int xStop, int yStop) {
+    public synchronized boolean capture(String player, int xStart, int yStart, int xStop, int yStop) {
         if (activePlayer.equals(player)) {
             CheckersPiece piece = this.board.getPiece(xStart, yStart);
             if (capturingPiece == piece) {
@@ -113,7 +180,10 @@ public class CheckersLogic {
         return false;
     }
 
-    public boolean move(String player, int xStart, int yStart, int xStop, int yStop) {
+    public synchronized boolean move(String player, int xStart, int yStart, int xStop, int yStop) {
+        if (engine != null) {
+            return moveWithEngine(player, xStart, yStart, xStop, yStop);
+        }
         if (captureInProgress) {
             capture(player, xStart, yStart, xStop, yStop);
             return false;
@@ -163,20 +233,11 @@ public class CheckersLogic {
                     if (board.canPlay(xStop, yStop)) {
                         if (piece.isKing() || (activePlayer.equals(playerRed) && xStop < piece.getxPos())|| (activePlayer.equals(playerWhite) && xStop > piece.getxPos())) {
                             if (xStop == xStart - 1 && yStop == yStart - 1 || xStop == xStart + 1 && yStop == yStart - 1 || xStop == xStart - 1 && yStop == yStart + 1 || xStop == xStart + 1 && yStop == yStart + 1) {
-                                board.removePiece(piece);
-                                piece.setxPos(xStop);
-                                piece.setyPos(yStop);
-                                board.setPiece(piece);
-                                if (piece.getColour().equals("r") && xStop == 0) {
-                                    piece.setKing(true);
-                                }
-                                if (piece.getColour().equals("w") && xStop == 7) {
-                                    piece.setKing(true);
-                                }
+                                board.makeMove(CheckersBoard.encodeMove(xStart * 8 + yStart, xStop * 8 + yStop));
                                 if (activePlayer.equals(playerRed)) {
-                                    activePlayer = playerWhite;
+                                    setActivePlayer(playerWhite);
                                 } else {
-                                    activePlayer = playerRed;
+                                    setActivePlayer(playerRed);
                                 }
                                 noCaptures++;
                                 if (noCaptures >= 40) {
@@ -192,7 +253,128 @@ public class CheckersLogic {
         return false;
     }
 
-    public void selectPiece(String player, int row, int col) {
+    /**
+     * Move validated by the bitboard engine. A jump that leaves another jump for the same piece keeps
+     * the turn, like capture does.
+     */
+    private boolean moveWithEngine(String player, int xStart, int yStart, int xStop, int yStop) {
+        if (!activePlayer.equals(player) || !onBoard(xStart, yStart) || !onBoard(xStop, yStop)) {
+            return false;
+        }
+        int from = xStart * 8 + yStart;
+        int to = xStop * 8 + yStop;
+        if (!engine.isLegalStep(from, to)) {
+            return false;
+        }
+        int side = engine.getSideToMove();
+        CheckersPiece piece = board.getPiece(xStart, yStart);
+        int jumped = engine.playStep(from, to);
+        board.makeMove(CheckersBoard.encodeMove(from, to));
+        if (jumped >= 0) {
+            if (side == CheckersBitBoard.RED) {
+                redCapturedPieces++;
+            } else {
+                whiteCapturedPieces++;
+            }
+            noCaptures = 0;
+        }
+
+        captureInProgress = engine.isJumpInProgress();
+        capturingPiece = captureInProgress ? piece : null;
+        if (engine.getSideToMove() != side) {
+            setActivePlayer(engine.getSideToMove() == CheckersBitBoard.RED ? playerRed : playerWhite);
+        }
+        if (jumped < 0) {
+            noCaptures++;
+            if (noCaptures >= 40) {
+                this.announceDraw();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lets the computer play for the active player: searches a copy of the position with the shared CheckersSearch,
+     * without holding this game's lock, and plays every step of the chosen move through move()
+     * @param budgetMillis thinking time
+     * @return true if a move was played, false if the game is over, there is no legal move or the position
+     *         changed while the computer was thinking
+     */
+    public boolean playComputerMove(long budgetMillis) {
+        String player;
+        CheckersBitBoard position;
+        synchronized (this) {
+            if (activePlayer == null || activePlayer.isEmpty()) {
+                return false;
+            }
+            player = activePlayer;
+            position = getPosition();
+        }
+        CheckersMoveList moves = new CheckersMoveList();
+        int best = ComputerSearch.SEARCH.findBestMove(position, moves, budgetMillis);
+        return best >= 0 && playSearchedMove(player, position, moves, best);
+    }
+
+    /**
+     * Plays a searched move, unless someone moved while it was being searched
+     * @param position the position that was searched
+     * @param best index of the chosen move in moves
+     * @return true if the move was played
+     */
+    private synchronized boolean playSearchedMove(String player, CheckersBitBoard position, CheckersMoveList moves, int best) {
+        if (!player.equals(activePlayer) || getPosition().getKey() != position.getKey()) {
+            return false;
+        }
+        int from = moves.getFrom(best);
+        int steps = Math.max(1, Math.min(moves.getJumpCount(best), 10));
+        for (int step = 0; step < steps; step++) {
+            int to = moves.getStep(best, step);
+            move(player, from / 8, from % 8, to / 8, to % 8);
+            from = to;
+        }
+        return true;
+    }
+
+    /**
+     * One search shared by every game, it uses all the processors so games take turns with it. Timeout moves are
+     * searched on EXECUTOR's thread instead of the GameClock.
+     */
+    private static class ComputerSearch {
+        static final CheckersSearch SEARCH = new CheckersSearch(Runtime.getRuntime().availableProcessors());
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkers-timeout-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return a copy of the position with the active player to move, safe to search on another thread
+     */
+    public synchronized CheckersBitBoard getPosition() {
+        if (engine != null) {
+            return new CheckersBitBoard(engine);
+        }
+        CheckersBitBoard position = CheckersBitBoard.fromBoard(board,
+                activePlayer.equals(playerRed) ? CheckersBitBoard.RED : CheckersBitBoard.WHITE);
+        if (captureInProgress && capturingPiece != null) {
+            position.setJumpingSquare(capturingPiece.getxPos() * 8 + capturingPiece.getyPos());
+        }
+        return position;
+    }
+
+    /**
+     * @param autoMove true to have the computer move for a player whose clock has run out, false to resign them
+     */
+    public synchronized void setAutoMoveOnTimeout(boolean autoMove) {
+        this.autoMoveOnTimeout = autoMove;
+    }
+
+    private static boolean onBoard(int x, int y) {
+        return x >= 0 && x < 8 && y >= 0 && y < 8;
+    }
+
+    public synchronized void selectPiece(String player, int row, int col) {
         if (this.selectedPiece != null) {
             if (board.getPiece(row, col) == null) {
                 move(player, selectedPiece.getxPos(), selectedPiece.getyPos(), row, col);
@@ -201,18 +383,11 @@ public class CheckersLogic {
         this.selectedPiece = board.getPiece(row, col);
     }
 
+    /**
+     * Plays a jump over remove, which makeMove takes off the board
+     */
     private void updatePieces(CheckersPiece piece, CheckersPiece remove, int xStop, int yStop) {
-        board.removePiece(piece);
-        piece.setxPos(xStop);
-        piece.setyPos(yStop);
-        board.removePiece(remove);
-        board.setPiece(piece);
-        if (piece.getColour().equals("r") && xStop == 0) {
-            piece.setKing(true);
-        }
-        if (piece.getColour().equals("w") && xStop == 7) {
-            piece.setKing(true);
-        }
+        board.makeMove(CheckersBoard.encodeMove(piece.getxPos() * 8 + piece.getyPos(), xStop * 8 + yStop));
         if (activePlayer.equals(playerRed)) {
             redCapturedPieces ++;
         }
@@ -225,14 +400,14 @@ public class CheckersLogic {
         } else {
             captureInProgress = false;
             if (activePlayer.equals(playerRed)) {
-                activePlayer = playerWhite;
+                setActivePlayer(playerWhite);
             } else {
-                activePlayer = playerRed;
+                setActivePlayer(playerRed);
             }
         }
     }
 
-    public void playerResign(String player) {
+    public synchronized void playerResign(String player) {
         if (player.equals(playerWhite)) {
             this.announceWinner(playerRed);
         }
@@ -326,6 +501,28 @@ public class CheckersLogic {
         this.listener = listener;
     }
 
+    /**
+     * @return whole seconds left on red's clock, worked out from when each turn started
+     */
+    public synchronized int getRedSecondsLeft() {
+        return secondsLeft(redNanosUsed + (activePlayer != null && activePlayer.equals(playerRed) ? sinceChecked() : 0));
+    }
+
+    /**
+     * @return whole seconds left on white's clock, worked out from when each turn started
+     */
+    public synchronized int getWhiteSecondsLeft() {
+        return secondsLeft(whiteNanosUsed + (activePlayer != null && activePlayer.equals(playerWhite) ? sinceChecked() : 0));
+    }
+
+    private long sinceChecked() {
+        return GameClock.now() - clockCheckedAt;
+    }
+
+    private static int secondsLeft(long nanosUsed) {
+        return (int) Math.max(0, (CLOCK_NANOS - nanosUsed) / 1_000_000_000L);
+    }
+
     public int getRedCaptures() {
         return redCapturedPieces;
     }
@@ -334,38 +531,45 @@ public class CheckersLogic {
         return whiteCapturedPieces;
     }
 
-    public String checkWin() {
+    public synchronized String checkWin() {
         if (activePlayer.isEmpty()) {
             return winner;
         }
+        if (engine != null) {
+            if (engine.hasLegalMove()) {
+                return null;
+            }
+        } else if (activeCanMove()) {
+            return null;
+        }
+        if (activePlayer.equals(playerWhite)) {
+            this.announceWinner(playerRed);
+            return playerRed;
+        }
+        else {
+            this.announceWinner(playerWhite);
+            return playerWhite;
+        }
+
+    }
+
+    private boolean activeCanMove() {
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
                 CheckersPiece piece = this.board.getPiece(i, j);
                 if (piece != null) {
                     if (activePlayer.equals(playerRed) && piece.getColour().equals("r") || activePlayer.equals(playerWhite) && piece.getColour().equals("w")) {
                         if (canCapture(piece)) {
-                            return null;
+                            return true;
                         }
                         if (board.canPlay(piece.getxPos()-1, piece.getyPos()-1) || board.canPlay(piece.getxPos()-1, piece.getyPos()+1) || board.canPlay(piece.getxPos()+1, piece.getyPos()-1) || board.canPlay(piece.getxPos()+1, piece.getyPos()+1)) {
-                            return null;
+                            return true;
                         }
                     }
                 }
             }
         }
-        if (activePlayer.equals(playerWhite)) {
-            this.announceWinner(playerRed);
-            playerRedTimer.cancel();
-            playerWhiteTimer.cancel();
-            return playerRed;
-        }
-        else {
-            this.announceWinner(playerWhite);
-            playerRedTimer.cancel();
-            playerWhiteTimer.cancel();
-            return playerWhite;
-        }
-
+        return false;
     }
 
     public String getWinner() {
@@ -0,0 +1,100 @@
+package com.game.gamelogic;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of complete Checkers moves filled by CheckersBitBoard.generateMoves.
+ * Squares are x * 8 + y like CheckersBitBoard. A jump sequence records every landing square in order,
+ * six bits each, so callers that play one step at a time can still check the first step.
+ */
+public class CheckersMoveList {
+    private static final int MAX_RECORDED_STEPS = 10; // 60 bits of landing squares
+
+    private int size;
+    private int[] from = new int[64];
+    private int[] to = new int[64];
+    private int[] jumps = new int[64];
+    private long[] captured = new long[64];
+    private long[] path = new long[64];
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    void add(int fromSquare, int toSquare, int jumpCount, long capturedSquares, long landings) {
+        if (size == from.length) {
+            int capacity = size * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            jumps = Arrays.copyOf(jumps, capacity);
+            captured = Arrays.copyOf(captured, capacity);
+            path = Arrays.copyOf(path, capacity);
+        }
+        from[size] = fromSquare;
+        to[size] = toSquare;
+        jumps[size] = jumpCount;
+        captured[size] = capturedSquares;
+        path[size] = landings;
+        size++;
+    }
+
+    /**
+     * Appends one move of another list, so a search can keep a list while its own is refilled
+     */
+    void copyMove(CheckersMoveList other, int index) {
+        add(other.from[index], other.to[index], other.jumps[index], other.captured[index], other.path[index]);
+    }
+
+    static long appendStep(long landings, int step, int square) {
+        return step < MAX_RECORDED_STEPS ? landings | (long) square << (6 * step) : landings;
+    }
+
+    public int getFrom(int index) {
+        return from[index];
+    }
+
+    /**
+     * @return the square the piece finishes on
+     */
+    public int getTo(int index) {
+        return to[index];
+    }
+
+    /**
+     * @return number of pieces jumped, 0 for a plain move
+     */
+    public int getJumpCount(int index) {
+        return jumps[index];
+    }
+
+    public boolean isCapture(int index) {
+        return jumps[index] > 0;
+    }
+
+    /**
+     * @return mask of the squares whose pieces are taken
+     */
+    public long getCaptured(int index) {
+        return captured[index];
+    }
+
+    /**
+     * Landing square of one jump in the sequence
+     * @param index move index
+     * @param step 0 for the first jump, only the first ten steps are recorded
+     * @return the square, or getTo for a plain move
+     */
+    public int getStep(int index, int step) {
+        if (jumps[index] == 0) {
+            return to[index];
+        }
+        if (step >= MAX_RECORDED_STEPS) {
+            throw new IllegalArgumentException("Only the first " + MAX_RECORDED_STEPS + " jumps are recorded");
+        }
+        return (int) (path[index] >>> (6 * step)) & 63;
+    }
+}
@@ -0,0 +1,130 @@
+package com.game.gamelogic;
+
+/**
+ * Perft for CheckersBitBoard: counts every move sequence of a given length, so the move generator can be checked
+ * against published numbers (mandatory capture, multi-jumps and crowning all change the count) and timed.
+ * <p>
+ * Positions are written as eight rows from row 0 (white's home row) to row 7, separated by '/', one character
+ * per square: '.' empty, 'r' red man, 'R' red king, 'w' white man, 'W' white king.
+ * <p>
+ * Run with: {@code java com.game.gamelogic.CheckersPerft [maxDepth] [position red|white]}
+ */
+public class CheckersPerft {
+    /**
+     * Published perft counts for English draughts from the opening, index = depth - 1
+     */
+    public static final long[] OPENING = {
+            7, 49, 302, 1469, 7361, 36768, 179740, 845931, 3963680, 18391564
+    };
+
+    private static final int MAX_DEPTH = 64;
+
+    private final CheckersMoveList[] moves = new CheckersMoveList[MAX_DEPTH];
+    private final CheckersBitBoard[] boards = new CheckersBitBoard[MAX_DEPTH];
+
+    public CheckersPerft() {
+        for (int ply = 0; ply < MAX_DEPTH; ply++) {
+            moves[ply] = new CheckersMoveList();
+            boards[ply] = new CheckersBitBoard();
+        }
+    }
+
+    /**
+     * Counts the positions reached after exactly depth moves. A jump sequence is one move.
+     * @param position start position, it isn't changed
+     * @param depth moves to play, at least 1
+     * @return number of leaf positions
+     */
+    public long perft(CheckersBitBoard position, int depth) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+        }
+        boards[0].copyFrom(position);
+        return count(0, depth);
+    }
+
+    private long count(int ply, int depth) {
+        CheckersMoveList list = moves[ply];
+        boards[ply].generateMoves(list);
+        if (depth == 1) {
+            return list.size(); // bulk counting, the last moves don't need to be played
+        }
+        long total = 0;
+        CheckersBitBoard child = boards[ply + 1];
+        for (int i = 0; i < list.size(); i++) {
+            child.copyFrom(boards[ply]);
+            child.play(list, i);
+            total += count(ply + 1, depth - 1);
+        }
+        return total;
+    }
+
+    /**
+     * Perft split by first move, to find which move a wrong count comes from
+     * @param position start position, it isn't changed
+     * @param depth moves to play, at least 1
+     * @return one line per legal move, "from-to: count", squares as x * 8 + y
+     */
+    public String divide(CheckersBitBoard position, int depth) {
+        CheckersMoveList first = new CheckersMoveList();
+        position.generateMoves(first);
+        StringBuilder lines = new StringBuilder();
+        CheckersBitBoard child = new CheckersBitBoard();
+        for (int i = 0; i < first.size(); i++) {
+            child.copyFrom(position);
+            child.play(first, i);
+            long count = depth == 1 ? 1 : perft(child, depth - 1);
+            lines.append(first.getFrom(i)).append('-').append(first.getTo(i)).append(": ").append(count).append('\n');
+        }
+        return lines.toString();
+    }
+
+    /**
+     * Reads a position written as eight '/' separated rows
+     * @param diagram the rows, see the class comment
+     * @param toMove CheckersBitBoard.RED or WHITE
+     * @return the position
+     */
+    public static CheckersBitBoard parse(String diagram, int toMove) {
+        String[] rows = diagram.split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("Expected 8 rows but got " + rows.length + ": " + diagram);
+        }
+        CheckersBitBoard position = new CheckersBitBoard();
+        position.clear(toMove);
+        for (int x = 0; x < 8; x++) {
+            if (rows[x].length() != 8) {
+                throw new IllegalArgumentException("Row " + x + " should have 8 squares: " + rows[x]);
+            }
+            for (int y = 0; y < 8; y++) {
+                char square = rows[x].charAt(y);
+                switch (square) {
+                    case '.' -> { }
+                    case 'r', 'R' -> position.setPiece(x * 8 + y, CheckersBitBoard.RED, square == 'R');
+                    case 'w', 'W' -> position.setPiece(x * 8 + y, CheckersBitBoard.WHITE, square == 'W');
+                    default -> throw new IllegalArgumentException("Unknown square '" + square + "' in row " + x);
+                }
+            }
+        }
+        return position;
+    }
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : OPENING.length;
+        boolean opening = args.length < 2;
+        CheckersBitBoard position = opening ? new CheckersBitBoard()
+                : parse(args[1], args.length > 2 && args[2].startsWith("w") ? CheckersBitBoard.WHITE : CheckersBitBoard.RED);
+        CheckersPerft perft = new CheckersPerft();
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = perft.perft(position, depth);
+            long nanos = Math.max(1, System.nanoTime() - start);
+            String check = "";
+            if (opening && depth <= OPENING.length) {
+                check = nodes == OPENING[depth - 1] ? "  ok" : "  MISMATCH, expected " + OPENING[depth - 1];
+            }
+            System.out.printf("depth %2d %,14d nodes %10.1f ms %,14d nodes/s%s%n",
+                    depth, nodes, nanos / 1e6, (long) (nodes * 1e9 / nanos), check);
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.game.gamelogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computer opponent for Checkers: alpha-beta over CheckersBitBoard, run in parallel on a ForkJoinPool with
+ * Young Brothers Wait. At each node deep enough to be worth splitting, the first move (the eldest brother) is
+ * searched alone to get a good bound, then the remaining moves are forked as tasks that share it. When one of
+ * them fails high the others see the cutoff and stop.
+ * <ul>
+ *     <li>iterative deepening under a time budget, the move of the last finished pass is played</li>
+ *     <li>captures are searched past the depth limit, since they are forced anyway</li>
+ *     <li>every thread shares one lock-free transposition table. Each entry is two longs, the key XORed with
+ *     the data and the data, so an entry torn by two threads writing at once fails the key check instead of
+ *     returning another position's data</li>
+ * </ul>
+ * Scores are from the side to move: 100 a man, 160 a king, plus a little for advancing men.
+ *
+ * One search runs at a time per instance, findBestMove and search are synchronized.
+ */
+public class CheckersSearch {
+    public static final int WIN = 100_000;
+
+    private static final int MAX_PLY = 128;
+    private static final int SPLIT_DEPTH = 3; // nodes with less depth left are searched by one thread
+    private static final int MAN = 100;
+    private static final int KING = 160;
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+    private static final long[] ROW = new long[8];
+
+    static {
+        for (int x = 0; x < 8; x++) {
+            ROW[x] = 0xFFL << x * 8;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final long[] table; // pairs of key ^ data, data
+    private final int indexShift;
+    private final LongAdder nodes = new LongAdder();
+
+    private volatile boolean stop;
+    private volatile long deadline;
+    private int rootBest;
+    private int completedDepth;
+    private int lastScore;
+
+    /**
+     * Creates a search with a 2^20 entry table (16 MB)
+     * @param threads number of threads searching, 1 for a plain serial search
+     */
+    public CheckersSearch(int threads) {
+        this(threads, 20);
+    }
+
+    /**
+     * @param threads number of threads searching
+     * @param tableBits log2 of the number of transposition table entries, each one takes 16 bytes
+     */
+    public CheckersSearch(int threads, int tableBits) {
+        pool = new ForkJoinPool(threads);
+        table = new long[2 << tableBits];
+        indexShift = 64 - tableBits;
+    }
+
+    /**
+     * Searches deeper and deeper until the budget runs out
+     * @param position position to search, it is copied and never changed
+     * @param moves filled with the legal moves of the position, the result indexes into it
+     * @param budgetMillis time allowed, the first pass always finishes
+     * @return index of the move to play, or -1 if there are no legal moves
+     */
+    public int findBestMove(CheckersBitBoard position, CheckersMoveList moves, long budgetMillis) {
+        return findBestMove(position, moves, budgetMillis, MAX_PLY / 2);
+    }
+
+    /**
+     * @param maxDepth deepest pass to run, in plies
+     * @see #findBestMove(CheckersBitBoard, CheckersMoveList, long)
+     */
+    public synchronized int findBestMove(CheckersBitBoard position, CheckersMoveList moves, long budgetMillis,
+                                         int maxDepth) {
+        long start = System.nanoTime();
+        position.generateMoves(moves);
+        completedDepth = 0;
+        lastScore = 0;
+        nodes.reset();
+        if (moves.size() <= 1) {
+            return moves.size() - 1; // nothing to think about
+        }
+        int best = 0;
+        deadline = Long.MAX_VALUE;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = runPass(position, depth);
+            if (stop) {
+                break;
+            }
+            best = rootBest;
+            completedDepth = depth;
+            lastScore = score;
+            if (Math.abs(score) > WIN - MAX_PLY) {
+                break; // forced win or loss found
+            }
+            if (depth == 1) {
+                deadline = start + budgetMillis * 1_000_000L;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * One fixed-depth search with no time limit
+     * @param position position to search, it is copied and never changed
+     * @param depth plies to search
+     * @return the score for the side to move
+     */
+    public synchronized int search(CheckersBitBoard position, int depth) {
+        nodes.reset();
+        deadline = Long.MAX_VALUE;
+        return runPass(position, depth);
+    }
+
+    private int runPass(CheckersBitBoard position, int depth) {
+        stop = false;
+        CheckersBitBoard root = new CheckersBitBoard(position);
+        return pool.invoke(new RecursiveTask<Integer>() {
+            @Override
+            protected Integer compute() {
+                Context context = new Context();
+                int score = negamax(context, root, depth, 0, -WIN - 1, WIN + 1, null);
+                nodes.add(context.nodes);
+                return score;
+            }
+        });
+    }
+
+    /**
+     * Per task scratch space, a move list and a board for every ply, so the serial part of the search
+     * allocates nothing
+     */
+    private static final class Context {
+        final CheckersMoveList[] moves = new CheckersMoveList[MAX_PLY + 1];
+        final CheckersBitBoard[] boards = new CheckersBitBoard[MAX_PLY + 1];
+        long nodes;
+
+        CheckersMoveList moves(int ply) {
+            if (moves[ply] == null) {
+                moves[ply] = new CheckersMoveList();
+            }
+            return moves[ply];
+        }
+
+        CheckersBitBoard board(int ply) {
+            if (boards[ply] == null) {
+                boards[ply] = new CheckersBitBoard();
+            }
+            return boards[ply];
+        }
+    }
+
+    /**
+     * Shared bound of a node whose younger brothers are being searched in parallel
+     */
+    private static final class SplitPoint {
+        final SplitPoint parent;
+        final int beta;
+        volatile int alpha;
+        volatile boolean cutoff;
+        int best;
+        int bestIndex = -1;
+
+        SplitPoint(SplitPoint parent, int alpha, int beta, int best, int bestIndex) {
+            this.parent = parent;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.best = best;
+            this.bestIndex = bestIndex;
+        }
+
+        synchronized void update(int score, int index) {
+            if (score > best) {
+                best = score;
+                bestIndex = index;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (score >= beta) {
+                    cutoff = true;
+                }
+            }
+        }
+
+        boolean isCancelled() {
+            for (SplitPoint point = this; point != null; point = point.parent) {
+                if (point.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * One younger brother searched by whichever pool thread picks it up
+     */
+    private final class BrotherTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L; // ForkJoinTask is Serializable, these tasks are never serialized
+        private final transient CheckersBitBoard position;
+        private final transient CheckersMoveList moves;
+        private final int index;
+        private final int depth;
+        private final int ply;
+        private final transient SplitPoint split;
+
+        BrotherTask(CheckersBitBoard parent, CheckersMoveList moves, int index, int depth, int ply, SplitPoint split) {
+            this.position = new CheckersBitBoard(parent);
+            this.moves = moves;
+            this.index = index;
+            this.depth = depth;
+            this.ply = ply;
+            this.split = split;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (System.nanoTime() > deadline) {
+                stop = true; // small tasks never reach the node count check in negamax
+            }
+            if (split.isCancelled() || stop) {
+                return 0;
+            }
+            Context context = new Context();
+            position.play(moves, index);
+            // the window is read when the task starts, so brothers that start late get the tighter bound
+            int score = -negamax(context, position, depth - 1, ply + 1, -split.beta, -split.alpha, split);
+            nodes.add(context.nodes);
+            if (!stop && !split.isCancelled()) {
+                split.update(score, index);
+            }
+            return score;
+        }
+    }
+
+    private int negamax(Context context, CheckersBitBoard position, int depth, int ply, int alpha, int beta,
+                        SplitPoint split) {
+        context.nodes++;
+        if ((context.nodes & 1023) == 0 && System.nanoTime() > deadline) {
+            stop = true;
+        }
+        if (stop || (split != null && split.isCancelled())) {
+            return 0;
+        }
+        CheckersMoveList moves = context.moves(ply);
+        position.generateMoves(moves);
+        int count = moves.size();
+        if (count == 0) {
+            return -(WIN - ply); // no move left, the side to move has lost
+        }
+        if (ply >= MAX_PLY - 1 || (depth <= 0 && !moves.isCapture(0))) {
+            return evaluate(position);
+        }
+
+        long key = position.getKey();
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> indexShift) * 2;
+        int tableMove = -1;
+        long data = table[slot + 1];
+        if ((table[slot] ^ data) == key) {
+            tableMove = (int) (data >>> 40 & 0xFF);
+            if (tableMove >= count) {
+                tableMove = -1;
+            }
+            if ((int) (data >>> 32 & 0xFF) >= depth && ply > 0) {
+                int score = fromTable((int) data, ply);
+                int bound = (int) (data >>> 48 & 3);
+                if (bound == EXACT || (bound == LOWER && score >= beta) || (bound == UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int alphaStart = alpha;
+        int first = tableMove >= 0 ? tableMove : 0;
+        CheckersBitBoard child = context.board(ply + 1);
+
+        // eldest brother, always searched alone
+        child.copyFrom(position);
+        child.play(moves, first);
+        int best = -negamax(context, child, depth - 1, ply + 1, -beta, -alpha, split);
+        int bestIndex = first;
+        if (best > alpha) {
+            alpha = best;
+        }
+
+        if (alpha < beta && count > 1) {
+            if (depth >= SPLIT_DEPTH && pool.getParallelism() > 1 && !stop) {
+                SplitPoint point = new SplitPoint(split, alpha, beta, best, bestIndex);
+                // the list is reused by this context's deeper plies, the brothers need their own copy
+                CheckersMoveList shared = copy(moves);
+                List<BrotherTask> brothers = new ArrayList<>(count - 1);
+                for (int i = 0; i < count; i++) {
+                    if (i != first) {
+                        brothers.add(new BrotherTask(position, shared, i, depth, ply, point));
+                    }
+                }
+                RecursiveTask.invokeAll(brothers);
+                best = point.best;
+                bestIndex = point.bestIndex;
+            } else {
+                for (int i = 0; i < count && alpha < beta; i++) {
+                    if (i == first) {
+                        continue;
+                    }
+                    child.copyFrom(position);
+                    child.play(moves, i);
+                    int score = -negamax(context, child, depth - 1, ply + 1, -beta, -alpha, split);
+                    if (score > best) {
+                        best = score;
+                        bestIndex = i;
+                    }
+                    if (score > alpha) {
+                        alpha = score;
+                    }
+                }
+            }
+        }
+
+        if (stop || (split != null && split.isCancelled())) {
+            return 0; // the result is incomplete, keep it out of the table
+        }
+        int bound = best <= alphaStart ? UPPER : best >= beta ? LOWER : EXACT;
+        long entry = (toTable(best, ply) & 0xFFFFFFFFL) | (long) Math.max(0, depth) << 32
+                | (long) bestIndex << 40 | (long) bound << 48;
+        table[slot] = key ^ entry;
+        table[slot + 1] = entry;
+        if (ply == 0) {
+            rootBest = bestIndex;
+        }
+        return best;
+    }
+
+    /**
+     * Wins are stored as distance from this node, so the same entry is right at any ply
+     */
+    private static int toTable(int score, int ply) {
+        return score > WIN - MAX_PLY ? score + ply : score < -(WIN - MAX_PLY) ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score > WIN - MAX_PLY ? score - ply : score < -(WIN - MAX_PLY) ? score + ply : score;
+    }
+
+    private static CheckersMoveList copy(CheckersMoveList moves) {
+        CheckersMoveList copy = new CheckersMoveList();
+        for (int i = 0; i < moves.size(); i++) {
+            copy.copyMove(moves, i);
+        }
+        return copy;
+    }
+
+    /**
+     * Material, with men worth a little more the closer they are to being crowned
+     */
+    static int evaluate(CheckersBitBoard position) {
+        int side = position.getSideToMove();
+        long kings = position.getKings();
+        int score = 0;
+        for (int colour = 0; colour < 2; colour++) {
+            long pieces = position.getPieces(colour);
+            long men = pieces & ~kings;
+            int value = MAN * Long.bitCount(men) + KING * Long.bitCount(pieces & kings);
+            for (int x = 0; x < 8; x++) {
+                // red crowns on row 0, white on row 7
+                int advance = colour == CheckersBitBoard.RED ? 7 - x : x;
+                value += 2 * advance * Long.bitCount(men & ROW[x]);
+            }
+            score += colour == side ? value : -value;
+        }
+        return score;
+    }
+
+    /**
+     * Forgets every stored position
+     */
+    public synchronized void clear() {
+        java.util.Arrays.fill(table, 0);
+    }
+
+    /**
+     * @return positions visited by the last search, across all threads
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * @return deepest pass the last findBestMove finished
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * @return score of the last finished pass for the player who was to move
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops the search threads
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,182 @@
+package com.game.gamelogic;
+
+/**
+ * Connect 4 board stored as one long per side plus the height of each column.
+ * Bit (column * 7 + height) is a stone, height 0 being the bottom row. The 7th bit of every column is always
+ * empty, so shifting a line past the top of a column can never wrap into the next one.
+ * Playing a move sets one bit and checking for a win is four shift-and-AND tests, neither allocates.
+ */
+public final class Connect4BitBoard {
+    public static final int ROWS = 6;
+    public static final int COLUMNS = 7;
+    public static final int BLUE = 0; // player 1
+    public static final int RED = 1;  // player 2
+    public static final int EMPTY = -1;
+
+    private static final int HEIGHT = ROWS + 1; // bits per column, including the empty guard bit
+
+    private final long[] stones = new long[2]; // indexed by BLUE / RED
+    private final int[] heights = new int[COLUMNS]; // next free bit in each column
+    private int moveCount;
+
+    public Connect4BitBoard() {
+        reset();
+    }
+
+    /**
+     * Copies a position, so it can be searched on another thread
+     * @param other position to copy
+     */
+    public Connect4BitBoard(Connect4BitBoard other) {
+        stones[BLUE] = other.stones[BLUE];
+        stones[RED] = other.stones[RED];
+        System.arraycopy(other.heights, 0, heights, 0, COLUMNS);
+        moveCount = other.moveCount;
+    }
+
+    /**
+     * Copies the pieces of a Connect4Board
+     * @param board board with "blue" and "red" pieces
+     * @return a new position
+     */
+    public static Connect4BitBoard fromBoard(Connect4Board board) {
+        Connect4BitBoard position = new Connect4BitBoard();
+        for (int column = 0; column < COLUMNS; column++) {
+            for (int row = ROWS - 1; row >= 0; row--) { // bottom up, pieces are stacked
+                AbstractPiece piece = board.board[row][column];
+                if (piece == null) {
+                    break;
+                }
+                position.play(piece.getColour().equals("blue") ? BLUE : RED, column);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Empties the board so the instance can be reused for a new game
+     */
+    public void reset() {
+        stones[BLUE] = 0;
+        stones[RED] = 0;
+        for (int column = 0; column < COLUMNS; column++) {
+            heights[column] = column * HEIGHT;
+        }
+        moveCount = 0;
+    }
+
+    /**
+     * @param column column index, anything outside 0..6 is not playable
+     * @return true if the column exists and isn't full
+     */
+    public boolean canPlay(int column) {
+        return column >= 0 && column < COLUMNS && heights[column] < column * HEIGHT + ROWS;
+    }
+
+    /**
+     * Drops a stone into a column
+     * @param side BLUE or RED
+     * @param column column index
+     * @return false if the column can't be played, the board is unchanged
+     */
+    public boolean play(int side, int column) {
+        if (!canPlay(column)) {
+            return false;
+        }
+        stones[side] |= 1L << heights[column]++;
+        moveCount++;
+        return true;
+    }
+
+    /**
+     * Takes back the top stone of a column, used by searches to walk back up the tree
+     * @param column a column with at least one stone
+     */
+    public void undo(int column) {
+        long bit = 1L << --heights[column];
+        stones[BLUE] &= ~bit;
+        stones[RED] &= ~bit;
+        moveCount--;
+    }
+
+    /**
+     * Checks all four directions at once: vertical, horizontal and both diagonals
+     * @param side BLUE or RED
+     * @return true if that side has four in a row
+     */
+    public boolean hasWon(int side) {
+        long board = stones[side];
+        return fourInARow(board, 1) || fourInARow(board, HEIGHT)
+                || fourInARow(board, HEIGHT - 1) || fourInARow(board, HEIGHT + 1);
+    }
+
+    private static boolean fourInARow(long board, int direction) {
+        long pairs = board & (board >>> direction);
+        return (pairs & (pairs >>> 2 * direction)) != 0;
+    }
+
+    public boolean boardFull() {
+        return moveCount == ROWS * COLUMNS;
+    }
+
+    /**
+     * Plays a random legal move, used when a player's turn times out
+     * @param side BLUE or RED
+     */
+    public void autoMove(int side) {
+        int column = (int) (Math.random() * COLUMNS);
+        while (!canPlay(column)) {
+            column = (int) (Math.random() * COLUMNS);
+        }
+        play(side, column);
+    }
+
+    /**
+     * @param row row index, 0 is the top row like Connect4Board
+     * @param column column index
+     * @return BLUE, RED or EMPTY
+     */
+    public int getCell(int row, int column) {
+        long bit = 1L << (column * HEIGHT + ROWS - 1 - row);
+        if ((stones[BLUE] & bit) != 0) {
+            return BLUE;
+        }
+        return (stones[RED] & bit) != 0 ? RED : EMPTY;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @param side BLUE or RED
+     * @return that side's stones, bit column * 7 + height
+     */
+    public long getStones(int side) {
+        return stones[side];
+    }
+
+    /**
+     * @return every stone on the board
+     */
+    public long getOccupied() {
+        return stones[BLUE] | stones[RED];
+    }
+
+    /**
+     * Copies the position into a Connect4Board for code that reads pieces, such as the GUI
+     * @return a new board with "blue" and "red" pieces
+     */
+    public Connect4Board toBoard() {
+        Connect4Board board = new Connect4Board();
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                int cell = getCell(row, column);
+                if (cell != EMPTY) {
+                    board.replace(row, column, new Connect4Piece(row, column, cell == BLUE ? "blue" : "red"));
+                }
+            }
+        }
+        return board;
+    }
+}
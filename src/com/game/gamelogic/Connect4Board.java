@@ -1,10 +1,67 @@
 package com.game.gamelogic;
 
 public class Connect4Board extends AbstractBoard {
+    private static final String[] COLOURS = {"blue", "red"}; // indexed by Connect4BitBoard.BLUE / RED
+
+    private final Connect4Piece[][] pieces = new Connect4Piece[2][42]; // made on first use, then reused
+    private final int[] undoCells = new int[42]; // row * 7 + column of every move made, in order
+    private int movesMade;
+
     public Connect4Board() {
         super(6, 7);
     }
 
+    /**
+     * @param side Connect4BitBoard.BLUE or RED
+     * @param column 0 to 6
+     * @return the move as one int, for makeMove
+     */
+    public static int encodeMove(int side, int column) {
+        return side << 3 | column;
+    }
+
+    /**
+     * Drops a piece without allocating: each cell's piece of each colour is created once and reused.
+     * The move isn't checked, call canPlay first.
+     * @param move from encodeMove
+     * @return the row the piece landed on
+     */
+    public int makeMove(int move) {
+        int side = move >>> 3;
+        int column = move & 7;
+        int row = board.length - 1;
+        while (board[row][column] != null) {
+            row--;
+        }
+        int cell = row * 7 + column;
+        Connect4Piece piece = pieces[side][cell];
+        if (piece == null) {
+            piece = new Connect4Piece(row, column, COLOURS[side]);
+            pieces[side][cell] = piece;
+        }
+        replace(row, column, piece);
+        undoCells[movesMade++] = cell;
+        return row;
+    }
+
+    /**
+     * Takes back the last move made with makeMove or play
+     */
+    public void unmakeMove() {
+        if (movesMade == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        int cell = undoCells[--movesMade];
+        replace(cell / 7, cell % 7, null);
+    }
+
+    /**
+     * @return number of moves made with makeMove or play that can be taken back
+     */
+    public int getMovesMade() {
+        return movesMade;
+    }
+
     public boolean canPlay(int row, int column){ // Since connect4, this should be called with row = 0
         boolean rowInBounds = row > -1 && row < 6;
         if (!rowInBounds) {
@@ -119,13 +176,23 @@ public class Connect4Board extends AbstractBoard {
     }
 
     public void play(String colour, int column) {
+        if (colour.equals("red") || colour.equals("blue")) {
+            makeMove(encodeMove(colour.equals("red") ? Connect4BitBoard.RED : Connect4BitBoard.BLUE, column));
+            return;
+        }
         int lowestRow = -1;
         for (int i = 0; i < board.length; i++) {
             if (board[i][column] == null) {
                 lowestRow = i;
             }
         }
-        board[lowestRow][column] = new Connect4Piece(lowestRow, column, colour);
+        replace(lowestRow, column, new Connect4Piece(lowestRow, column, colour));
+        undoCells[movesMade++] = lowestRow * 7 + column;
+    }
+
+    @Override
+    protected long pieceKey(int row, int column, AbstractPiece piece) {
+        return zobrist(row, column, piece.getColour().equals("red") ? 0 : 1);
     }
 
     public void autoMove(String colour) {
@@ -1,7 +1,8 @@
 package com.game.gamelogic;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
 
 public class Connect4Logic {
 
@@ -13,46 +14,107 @@ public class Connect4Logic {
     int p2TimeOut = 0;
     private int turnNumber;
     private Connect4Board gameBoard;
+    private final Connect4BitBoard bitBoard; // used instead of gameBoard when not null
     private int gameState = 0;
 
-    private int turnLength = 10;
-
-    Timer turnTime = new Timer();
-    TimerTask current;
-
-    public TimerTask makeNew() {
-        TimerTask count = new TimerTask() {
-            @Override
-            public void run() {
-                turnLength--;
-                if (turnLength < 0) {
-                    if (ActivePlayer.equals(Player1)) {
-                        gameBoard.autoMove("blue");
-                        ActivePlayer = Player2;
-                        p1TimeOut++;
-                        if (p1TimeOut == 3) {
-                            playerResign(Player1);
-                        }
-                    } else {
-                        gameBoard.autoMove("red");
-                        ActivePlayer = Player1;
-                        p2TimeOut++;
-                        if (p2TimeOut == 3) {
-                            playerResign(Player2);
-                        }
-                    }
-                    turnLength = 15;
-                    // Notify controller of timeout (implementation depends on callback mechanism)
-                }
+    private static final int TURN_SECONDS = 15;
+    private static final long TIMEOUT_SEARCH_MILLIS = 100;
+    private long turnStartedAt;
+    ScheduledFuture<?> current; // deadline for the active player on the shared GameClock
+
+    public Connect4Logic() {
+        this(false);
+    }
+
+    /**
+     * @param useBitBoard true to keep the position in a Connect4BitBoard, which plays and checks moves without
+     *                    allocating. getGameBoard then returns a copy of the position.
+     */
+    public Connect4Logic(boolean useBitBoard) {
+        this.bitBoard = useBitBoard ? new Connect4BitBoard() : null;
+    }
+
+    /**
+     * Runs on the GameClock when the active player's turn runs out. Only copies the position, the computer's move
+     * is searched on the TimeoutSearch thread so the clock never waits for it. Package-private so tests can
+     * expire a turn without waiting.
+     */
+    synchronized void turnTimedOut() {
+        if (isGameOver()) {
+            return;
+        }
+        String player = ActivePlayer;
+        Connect4BitBoard position = getPosition();
+        int side = getActiveSide();
+        TimeoutSearch.EXECUTOR.execute(() -> {
+            int column = TimeoutSearch.SEARCH.findBestMove(position, side, TIMEOUT_SEARCH_MILLIS);
+            finishTimedOutTurn(player, position.getMoveCount(), column);
+        });
+    }
+
+    /**
+     * Plays the computer's move for a player whose turn timed out, unless the game moved on while it was searched
+     * @param player the player who timed out
+     * @param moveCount number of moves on the board when the search started
+     * @param column the column found, or -1 if there was none
+     */
+    private synchronized void finishTimedOutTurn(String player, int moveCount, int column) {
+        if (isGameOver() || !player.equals(ActivePlayer) || getPosition().getMoveCount() != moveCount) {
+            return;
+        }
+        if (ActivePlayer.equals(Player1)) {
+            boolean won = column >= 0 && playAndCheckWin(Connect4BitBoard.BLUE, "blue", column);
+            ActivePlayer = Player2;
+            if (won) {
+                Winner = Player1;
+                gameState = 1;
+                announceWinner(Player1);
+                return;
+            }
+            p1TimeOut++;
+            if (p1TimeOut == 3) {
+                playerResign(Player1);
+            }
+        } else {
+            boolean won = column >= 0 && playAndCheckWin(Connect4BitBoard.RED, "red", column);
+            ActivePlayer = Player1;
+            if (won) {
+                Winner = Player2;
+                gameState = 2;
+                announceWinner(Player2);
+                return;
             }
-        };
-        return count;
+            p2TimeOut++;
+            if (p2TimeOut == 3) {
+                playerResign(Player2);
+            }
+        }
+        // Notify controller of timeout (implementation depends on callback mechanism)
+        if (!isGameOver() && (bitBoard != null ? bitBoard.boardFull() : gameBoard.boardFull())) {
+            announceDraw();
+        }
+        if (!isGameOver()) {
+            startTurn();
+        }
     }
 
-    public void startNewGame(String p1, String p2) {
+    private void startTurn() {
+        turnStartedAt = GameClock.now();
+        current = GameClock.getShared().schedule(this::turnTimedOut, TURN_SECONDS * 1000L);
+    }
+
+    private void stopTurn() {
+        if (current != null) current.cancel(false);
+    }
+
+    public synchronized void startNewGame(String p1, String p2) {
         Player1 = p1;
         Player2 = p2;
-        gameBoard = new Connect4Board();
+        if (bitBoard != null) {
+            bitBoard.reset();
+        } else {
+            gameBoard = new Connect4Board();
+        }
         turnNumber = 0;
         if (Math.round(Math.random()) == 1) {
             ActivePlayer = Player1;
@@ -60,29 +122,25 @@ public class Connect4Logic {
             ActivePlayer = Player2;
         }
         turnNumber++;
-        if (current != null) current.cancel();
-        current = makeNew();
-        turnLength = 15;
-        turnTime.scheduleAtFixedRate(current, 0, 1000);
+        stopTurn();
+        startTurn();
     }
 
     public String getActivePlayer() {
         return ActivePlayer;
     }
 
-    public Boolean placePiece(String Player, int x) {
-        if (gameBoard.canPlay(0, x)) {
-            if (current != null) current.cancel();
+    public synchronized Boolean placePiece(String Player, int x) {
+        if (bitBoard != null ? bitBoard.canPlay(x) : gameBoard.canPlay(0, x)) {
+            stopTurn();
             if (Player.equals(Player1)) {
-                gameBoard.play("blue", x);
-                if (gameBoard.hasWon("blue")) {
+                if (playAndCheckWin(Connect4BitBoard.BLUE, "blue", x)) {
                     Winner = Player1;
                     gameState = 1;
                 }
                 ActivePlayer = Player2;
             } else {
-                gameBoard.play("red", x);
-                if (gameBoard.hasWon("red")) {
+                if (playAndCheckWin(Connect4BitBoard.RED, "red", x)) {
                     Winner = Player2;
                     gameState = 2;
                 }
@@ -92,19 +150,59 @@ public class Connect4Logic {
 
             if (!Winner.isEmpty()) {
                 announceWinner(Player);
-            } else if (gameBoard.boardFull()) {
+            } else if (bitBoard != null ? bitBoard.boardFull() : gameBoard.boardFull()) {
                 announceDraw();
             } else {
-                turnLength = 15;
-                current = makeNew();
-                turnTime.scheduleAtFixedRate(current, 0, 1000);
+                startTurn();
             }
             return true;
         }
         return false;
     }
 
-    public void playerResign(String Player) {
+    /**
+     * Plays a move on whichever board this game uses
+     * @param side Connect4BitBoard.BLUE or RED
+     * @param colour the matching Connect4Board colour
+     * @param x column
+     * @return true if the move won the game
+     */
+    private boolean playAndCheckWin(int side, String colour, int x) {
+        if (bitBoard != null) {
+            bitBoard.play(side, x);
+            return bitBoard.hasWon(side);
+        }
+        gameBoard.play(colour, x);
+        return gameBoard.hasWon(colour);
+    }
+
+    /**
+     * Timeout moves for every game are searched one at a time on this thread, never on the GameClock
+     */
+    private static class TimeoutSearch {
+        static final Connect4Search SEARCH = new Connect4Search(); // only used on the executor's thread
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "connect4-timeout-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return a copy of the position, safe to search on another thread
+     */
+    public synchronized Connect4BitBoard getPosition() {
+        return bitBoard != null ? new Connect4BitBoard(bitBoard) : Connect4BitBoard.fromBoard(gameBoard);
+    }
+
+    /**
+     * @return Connect4BitBoard.BLUE if Player1 is to move, otherwise RED
+     */
+    public int getActiveSide() {
+        return ActivePlayer.equals(Player1) ? Connect4BitBoard.BLUE : Connect4BitBoard.RED;
+    }
+
+    public synchronized void playerResign(String Player) {
         if (Player.equals(Player1)) {
             Winner = Player2;
             gameState = 2;
@@ -112,6 +210,7 @@ public class Connect4Logic {
             Winner = Player1;
             gameState = 1;
         }
+        stopTurn();
         announceWinner(Winner);
     }
 
@@ -135,8 +234,18 @@ public class Connect4Logic {
         return Winner;
     }
 
+    /**
+     * @return the board, or a snapshot of it when the game uses a Connect4BitBoard
+     */
     public Connect4Board getGameBoard() {
-        return gameBoard;
+        return bitBoard != null ? bitBoard.toBoard() : gameBoard;
+    }
+
+    /**
+     * @return the bitboard, or null if this game uses a Connect4Board
+     */
+    public Connect4BitBoard getBitBoard() {
+        return bitBoard;
     }
 
     public int getTurnCounter() {
@@ -159,7 +268,14 @@ public class Connect4Logic {
         ActivePlayer = player;
     }
 
+    /**
+     * @return whole seconds left in the current turn, worked out from when the turn started
+     */
     public int getTurnLength() {
-        return turnLength;
+        if (current == null) {
+            return TURN_SECONDS;
+        }
+        long elapsedSeconds = (GameClock.now() - turnStartedAt) / 1_000_000_000L;
+        return (int) Math.max(0, TURN_SECONDS - elapsedSeconds);
     }
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.game.gamelogic;
+
+/**
+ * Computer opponent for Connect 4: negamax with alpha-beta pruning over a Connect4BitBoard.
+ * <ul>
+ *     <li>moves are tried centre first, after the best move remembered for the position</li>
+ *     <li>iterative deepening searches one ply deeper each pass until the time budget runs out, and the move of
+ *     the last finished pass is played</li>
+ *     <li>a fixed-size open-addressed transposition table in two long arrays remembers bounds and best moves,
+ *     keyed by the stones of the side to move plus the occupied cells, which identifies a position exactly</li>
+ * </ul>
+ * Wins score WIN minus the number of stones on the board when the game ends, so sooner wins score higher.
+ * Leaves that aren't decided are scored by open threats and centre stones.
+ *
+ * An instance isn't thread safe, give each thread its own or synchronize on it.
+ */
+public class Connect4Search {
+    public static final int WIN = 10_000;
+
+    private static final int ROWS = Connect4BitBoard.ROWS;
+    private static final int COLUMNS = Connect4BitBoard.COLUMNS;
+    private static final int HEIGHT = ROWS + 1;
+    private static final int[] ORDER = {3, 2, 4, 1, 5, 0, 6};
+    private static final long BOTTOM;
+    private static final long BOARD_MASK;
+    private static final long CENTRE = ((1L << ROWS) - 1) << 3 * HEIGHT;
+    private static final int INFINITY = WIN + 1;
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+
+    static {
+        long bottom = 0;
+        for (int column = 0; column < COLUMNS; column++) {
+            bottom |= 1L << column * HEIGHT;
+        }
+        BOTTOM = bottom;
+        BOARD_MASK = bottom * ((1L << ROWS) - 1);
+    }
+
+    // entry: score + 32768 in bits 0-15, depth in 16-23, bound in 24-25, best column + 1 in 26-28
+    private final long[] keys;
+    private final long[] entries;
+    private final int indexShift;
+
+    private long deadline;
+    private boolean aborted;
+    private long nodes;
+    private int rootDepth;
+    private int rootMove;
+    private int completedDepth;
+    private int lastScore;
+
+    /**
+     * Creates a search with a 2^18 entry table (4 MB)
+     */
+    public Connect4Search() {
+        this(18);
+    }
+
+    /**
+     * @param tableBits log2 of the number of transposition table entries, each one takes 16 bytes
+     */
+    public Connect4Search(int tableBits) {
+        keys = new long[1 << tableBits];
+        entries = new long[1 << tableBits];
+        indexShift = 64 - tableBits;
+    }
+
+    /**
+     * Searches deeper and deeper until the budget runs out or the result is known for certain
+     * @param position position to search, it is copied and never changed
+     * @param side Connect4BitBoard.BLUE or RED, the player to move
+     * @param budgetMillis time allowed, at least the first pass always finishes
+     * @return the column to play, or -1 if the board is full
+     */
+    public int findBestMove(Connect4BitBoard position, int side, long budgetMillis) {
+        return findBestMove(position, side, budgetMillis, ROWS * COLUMNS);
+    }
+
+    /**
+     * @param maxDepth deepest pass to run, in plies
+     * @see #findBestMove(Connect4BitBoard, int, long)
+     */
+    public int findBestMove(Connect4BitBoard position, int side, long budgetMillis, int maxDepth) {
+        long start = System.nanoTime();
+        Connect4BitBoard board = new Connect4BitBoard(position);
+        nodes = 0;
+        completedDepth = 0;
+        lastScore = 0;
+        int best = -1;
+        for (int column : ORDER) {
+            if (board.canPlay(column)) {
+                best = column;
+                break;
+            }
+        }
+        if (best < 0) {
+            return -1;
+        }
+        deadline = Long.MAX_VALUE; // the first pass is only one ply
+        int remaining = ROWS * COLUMNS - board.getMoveCount();
+        for (int depth = 1; depth <= Math.min(maxDepth, remaining); depth++) {
+            aborted = false;
+            rootDepth = depth;
+            rootMove = -1;
+            int score = negamax(board, side, depth, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+            best = rootMove;
+            completedDepth = depth;
+            lastScore = score;
+            if (Math.abs(score) > WIN - 2 * ROWS * COLUMNS) {
+                break; // forced win or loss found, deeper passes can't change it
+            }
+            if (depth == 1) {
+                deadline = start + budgetMillis * 1_000_000L;
+            }
+        }
+        return best;
+    }
+
+    private int negamax(Connect4BitBoard board, int side, int depth, int alpha, int beta) {
+        nodes++;
+        if ((nodes & 1023) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+            return 0;
+        }
+        long own = board.getStones(side);
+        long mask = board.getOccupied();
+        long playable = (mask + BOTTOM) & BOARD_MASK;
+        long wins = winningCells(own, mask) & playable;
+        if (wins != 0) {
+            if (depth == rootDepth) {
+                rootMove = Long.numberOfTrailingZeros(wins) / HEIGHT;
+            }
+            return WIN - (board.getMoveCount() + 1);
+        }
+        if (board.boardFull()) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluate(board, side);
+        }
+
+        long key = own + mask + BOTTOM;
+        int index = (int) ((key * 0x9E3779B97F4A7C15L) >>> indexShift);
+        int tableMove = -1;
+        if (keys[index] == key) {
+            long entry = entries[index];
+            tableMove = (int) (entry >>> 26 & 7) - 1;
+            if ((int) (entry >>> 16 & 0xFF) >= depth && depth != rootDepth) {
+                int score = (int) (entry & 0xFFFF) - 32768;
+                int bound = (int) (entry >>> 24 & 3);
+                if (bound == EXACT || (bound == LOWER && score >= beta) || (bound == UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int alphaStart = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = -1; i < COLUMNS; i++) {
+            int column = i < 0 ? tableMove : ORDER[i];
+            if (column < 0 || (i >= 0 && column == tableMove) || !board.canPlay(column)) {
+                continue;
+            }
+            board.play(side, column);
+            int score = -negamax(board, 1 - side, depth - 1, -beta, -alpha);
+            board.undo(column);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = column;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int bound = best <= alphaStart ? UPPER : best >= beta ? LOWER : EXACT;
+        keys[index] = key; // always replace, the newest search is the most useful
+        entries[index] = (best + 32768) | (long) depth << 16 | (long) bound << 24 | (long) (bestMove + 1) << 26;
+        if (depth == rootDepth) {
+            rootMove = bestMove;
+        }
+        return best;
+    }
+
+    /**
+     * Open threats are worth the most, then stones in the centre column where most lines pass
+     */
+    private static int evaluate(Connect4BitBoard board, int side) {
+        long mask = board.getOccupied();
+        long own = board.getStones(side);
+        long opponent = board.getStones(1 - side);
+        int threats = Long.bitCount(winningCells(own, mask)) - Long.bitCount(winningCells(opponent, mask));
+        int centre = Long.bitCount(own & CENTRE) - Long.bitCount(opponent & CENTRE);
+        return 4 * threats + 3 * centre;
+    }
+
+    /**
+     * @param stones one side's stones
+     * @param mask every stone on the board
+     * @return the empty cells that would give that side four in a row, reachable or not
+     */
+    static long winningCells(long stones, long mask) {
+        long cells = (stones << 1) & (stones << 2) & (stones << 3); // vertical, only upwards
+        cells |= line(stones, HEIGHT) | line(stones, HEIGHT - 1) | line(stones, HEIGHT + 1);
+        return cells & (BOARD_MASK ^ mask);
+    }
+
+    /**
+     * Cells that complete three stones along one direction, whichever of the four places is missing
+     */
+    private static long line(long stones, int direction) {
+        long pair = (stones << direction) & (stones << 2 * direction);
+        long cells = pair & (stones << 3 * direction);
+        cells |= pair & (stones >>> direction);
+        pair = (stones >>> direction) & (stones >>> 2 * direction);
+        cells |= pair & (stones << direction);
+        cells |= pair & (stones >>> 3 * direction);
+        return cells;
+    }
+
+    /**
+     * Forgets every stored position
+     */
+    public void clear() {
+        java.util.Arrays.fill(keys, 0);
+        java.util.Arrays.fill(entries, 0);
+    }
+
+    /**
+     * @return deepest pass the last search finished
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * @return score of the last finished pass for the player who was to move
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * @return positions visited by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
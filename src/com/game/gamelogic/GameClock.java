@@ -0,0 +1,82 @@
+package com.game.gamelogic;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One scheduler for the turn clocks of every game in the process, instead of a java.util.Timer thread per game
+ * (or per turn). Games register a deadline when a turn starts and cancel it when the move arrives, cancelled
+ * deadlines are removed from the queue straight away so a busy server doesn't pile them up.
+ *
+ * Time left is never counted down tick by tick: games remember when the turn started with now() and work out
+ * what is left from that, so a late or skipped callback can't make a clock drift.
+ */
+public final class GameClock {
+    private static final GameClock SHARED = new GameClock(2);
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Creates a clock with its own threads, games normally use getShared()
+     * @param threads number of threads running deadline callbacks
+     */
+    public GameClock(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(threads, task -> {
+            Thread thread = new Thread(task, "game-clock-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @return the clock shared by every game
+     */
+    public static GameClock getShared() {
+        return SHARED;
+    }
+
+    /**
+     * @return a monotonic timestamp in nanoseconds, only useful for measuring elapsed time
+     */
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Runs a task once after a delay
+     * @param task what to do when the deadline passes
+     * @param delayMillis time until the deadline
+     * @return handle used to cancel the deadline
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a task repeatedly, for clocks that are shown to the players
+     * @param task what to do on each tick
+     * @param periodMillis time between ticks, the first tick runs straight away
+     * @return handle used to stop the ticks
+     */
+    public ScheduledFuture<?> scheduleEvery(Runnable task, long periodMillis) {
+        return executor.scheduleAtFixedRate(task, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return number of deadlines and ticks waiting to run
+     */
+    public int getScheduledCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the threads of a clock created with the constructor
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
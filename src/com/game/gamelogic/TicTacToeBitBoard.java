@@ -0,0 +1,182 @@
+package com.game.gamelogic;
+
+/**
+ * Tic Tac Toe board stored as one 9-bit mask per player, cell x * 3 + y like TicTacToeBoard.
+ * Every question the game asks is a table lookup:
+ * <ul>
+ *     <li>win checks use a 512 entry table built from the 8 win lines</li>
+ *     <li>empty cells come from a precomputed list per occupancy mask</li>
+ *     <li>best moves and minimax values come from a table of all 5,478 reachable positions, solved once
+ *     when the class loads</li>
+ * </ul>
+ * Solved positions are stored from the point of view of the player to move, so the table works whichever
+ * player went first.
+ */
+public class TicTacToeBitBoard {
+    public static final int X = 0;
+    public static final int O = 1;
+    public static final int FULL = 0x1FF;
+
+    /** Rows, columns and both diagonals */
+    public static final int[] WIN_LINES = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000,
+            0b001_001_001, 0b010_010_010, 0b100_100_100,
+            0b100_010_001, 0b001_010_100
+    };
+
+    private static final boolean[] WINNING = new boolean[512];  // mask contains a win line
+    private static final byte[][] CELLS = new byte[512][];      // set bits of each mask, lowest first
+    private static final int[] BASE3 = new int[512];            // mask written in base 3 with digit 1 per cell
+    private static final int POSITIONS = 19683;                 // 3^9
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+    private static final byte[] SCORE = new byte[POSITIONS];    // > 0 the mover wins, sooner is larger
+    private static final byte[] BEST_MOVE = new byte[POSITIONS];
+    private static int reachablePositions;
+
+    static {
+        for (int mask = 0; mask < 512; mask++) {
+            for (int line : WIN_LINES) {
+                if ((mask & line) == line) {
+                    WINNING[mask] = true;
+                }
+            }
+            CELLS[mask] = new byte[Integer.bitCount(mask)];
+            int count = 0;
+            int power = 1;
+            for (int cell = 0; cell < 9; cell++) {
+                if ((mask & 1 << cell) != 0) {
+                    CELLS[mask][count++] = (byte) cell;
+                    BASE3[mask] += power;
+                }
+                power *= 3;
+            }
+        }
+        java.util.Arrays.fill(SCORE, UNSOLVED);
+        solve(0, 0);
+    }
+
+    /**
+     * Negamax over the whole game tree, each position is solved once
+     * @param mover stones of the player to move
+     * @param opponent stones of the player who just moved
+     * @return the score for the mover
+     */
+    private static int solve(int mover, int opponent) {
+        int code = code(mover, opponent);
+        if (SCORE[code] != UNSOLVED) {
+            return SCORE[code];
+        }
+        reachablePositions++;
+        int occupied = mover | opponent;
+        int best;
+        int bestMove = -1;
+        if (WINNING[opponent]) {
+            best = Integer.bitCount(occupied) - 10; // lost, later losses score higher
+        } else if (occupied == FULL) {
+            best = 0;
+        } else {
+            best = Integer.MIN_VALUE;
+            for (byte cell : CELLS[~occupied & FULL]) {
+                int score = -solve(opponent, mover | 1 << cell);
+                if (score > best) {
+                    best = score;
+                    bestMove = cell;
+                }
+            }
+        }
+        SCORE[code] = (byte) best;
+        BEST_MOVE[code] = (byte) bestMove;
+        return best;
+    }
+
+    private static int code(int mover, int opponent) {
+        return BASE3[mover] + 2 * BASE3[opponent];
+    }
+
+    private final int[] stones = new int[2]; // indexed by X / O
+
+    public void reset() {
+        stones[X] = 0;
+        stones[O] = 0;
+    }
+
+    /**
+     * @param x row
+     * @param y column
+     * @return true if the cell is on the board and empty
+     */
+    public boolean canPlay(int x, int y) {
+        return 0 <= x && x < 3 && 0 <= y && y < 3 && canPlay(x * 3 + y);
+    }
+
+    /**
+     * @param cell x * 3 + y
+     * @return true if the cell is empty
+     */
+    public boolean canPlay(int cell) {
+        return ((stones[X] | stones[O]) & 1 << cell) == 0;
+    }
+
+    /**
+     * @param side X or O
+     * @param cell x * 3 + y, must be empty
+     */
+    public void play(int side, int cell) {
+        stones[side] |= 1 << cell;
+    }
+
+    public boolean hasWon(int side) {
+        return WINNING[stones[side]];
+    }
+
+    public boolean isFull() {
+        return (stones[X] | stones[O]) == FULL;
+    }
+
+    /**
+     * @return a random empty cell, or -1 if the board is full
+     */
+    public int randomEmptyCell() {
+        byte[] empty = CELLS[~(stones[X] | stones[O]) & FULL];
+        return empty.length == 0 ? -1 : empty[(int) (Math.random() * empty.length)];
+    }
+
+    /**
+     * Perfect play for the player to move, winning as soon as possible and losing as late as possible
+     * @param side X or O, the player to move
+     * @return the cell to play, or -1 if the game is over
+     */
+    public int getBestMove(int side) {
+        if (!isSolved(side)) {
+            return -1;
+        }
+        return BEST_MOVE[code(stones[side], stones[1 - side])];
+    }
+
+    /**
+     * Minimax value of the position for the player to move
+     * @param side X or O, the player to move
+     * @return 1 if they win with perfect play, 0 for a draw, -1 if they lose
+     */
+    public int getValue(int side) {
+        if (!isSolved(side)) {
+            throw new IllegalStateException("Position can't be reached with " + (side == X ? "X" : "O") + " to move");
+        }
+        return Integer.signum(SCORE[code(stones[side], stones[1 - side])]);
+    }
+
+    private boolean isSolved(int side) {
+        return SCORE[code(stones[side], stones[1 - side])] != UNSOLVED;
+    }
+
+    public int getStones(int side) {
+        return stones[side];
+    }
+
+    /**
+     * @return number of positions in the solved table
+     */
+    public static int getReachablePositions() {
+        return reachablePositions;
+    }
+}
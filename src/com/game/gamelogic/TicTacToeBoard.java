@@ -1,18 +1,92 @@
 package com.game.gamelogic;
 
 public class TicTacToeBoard extends AbstractBoard {
+    private final String[] colours = {"X", "O"}; // indexed by TicTacToeBitBoard.X / O
+    private final TicTacToePiece[][] pieces = new TicTacToePiece[3][9]; // X, O and EMPTY for each cell, reused
+    private final int[] undoCells = new int[9];
+    private int movesMade;
 
     public TicTacToeBoard(){
         super(3, 3);
         for (int x = 0; x < 3; x++) {
             for (int y = 0; y < 3; y++) {
-                setPiece(new TicTacToePiece(x, y, "EMPTY"));
+                pieces[2][x * 3 + y] = new TicTacToePiece(x, y, "EMPTY");
+                setPiece(pieces[2][x * 3 + y]);
             }
         }
     }
 
+    /**
+     * Names the colours makeMove writes, TicTacToeLogic uses the player names
+     * @param x colour of TicTacToeBitBoard.X
+     * @param o colour of TicTacToeBitBoard.O
+     */
+    public void setColours(String x, String o) {
+        if (!x.equals(colours[0]) || !o.equals(colours[1])) {
+            colours[0] = x;
+            colours[1] = o;
+            pieces[0] = new TicTacToePiece[9];
+            pieces[1] = new TicTacToePiece[9];
+        }
+    }
+
+    /**
+     * @param side TicTacToeBitBoard.X or O
+     * @param cell x * 3 + y
+     * @return the move as one int, for makeMove
+     */
+    public static int encodeMove(int side, int cell) {
+        return side << 4 | cell;
+    }
+
+    /**
+     * Places a piece without allocating, each cell's pieces are created once and reused.
+     * The move isn't checked, call canPlay first.
+     * @param move from encodeMove
+     */
+    public void makeMove(int move) {
+        int side = move >>> 4;
+        int cell = move & 15;
+        TicTacToePiece piece = pieces[side][cell];
+        if (piece == null) {
+            piece = new TicTacToePiece(cell / 3, cell % 3, colours[side]);
+            pieces[side][cell] = piece;
+        }
+        setPiece(piece);
+        undoCells[movesMade++] = cell;
+    }
+
+    /**
+     * Empties the cell of the last move made with makeMove
+     */
+    public void unmakeMove() {
+        if (movesMade == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        setPiece(pieces[2][undoCells[--movesMade]]);
+    }
+
+    /**
+     * @return number of moves made with makeMove that can be taken back
+     */
+    public int getMovesMade() {
+        return movesMade;
+    }
+
     public void setPiece(TicTacToePiece Piece){
-        board[Piece.getxPos()][Piece.getyPos()] = Piece;
+        replace(Piece.getxPos(), Piece.getyPos(), Piece);
+    }
+
+    @Override
+    protected long pieceKey(int x, int y, AbstractPiece piece) {
+        String colour = piece.getColour();
+        if (colour.equals("EMPTY")) {
+            return 0;
+        }
+        // colours are player names, so mix the name into the cell's number instead of looking it up
+        long key = zobrist(x, y, 0) ^ colour.hashCode() * 0x9E3779B97F4A7C15L;
+        key = (key ^ key >>> 31) * 0xBF58476D1CE4E5B9L;
+        return key ^ key >>> 29;
     }
 
     public TicTacToePiece getPiece(int x, int y){ // for testing only
@@ -1,11 +1,11 @@
 package com.game.gamelogic;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledFuture;
 
 public class TicTacToeLogic {
 
     private TicTacToeBoard GameBoard;
+    private final TicTacToeBitBoard Engine = new TicTacToeBitBoard(); // same position as GameBoard, used for all checks
     private String PlayerX;
     private String PlayerO;
     private String ActivePlayer;
@@ -13,60 +13,68 @@ public class TicTacToeLogic {
     private int turnCounter;
 
     // variables for turn timer
-    private Timer TurnTimer;
+    private ScheduledFuture<?> TurnTimer; // deadline on the shared GameClock
+    private long turnStartedAt;
     private int timeOuts_X;
     private int timeOuts_O;
-    private int secondsLeft;
     private final int TURNLENGTH = 30;
     private final int MAXTIMEOUTS = 3;
 
-    public TimerTask newCountdown() {
-        return new TimerTask() {
-            @Override
-            public void run() {
-                if (isGameOver()) {
-                    return;
-                }
-                secondsLeft--;
-                if (secondsLeft < 0) {
-                    if (ActivePlayer.equals(PlayerO)) {
-                        timeOuts_O++;
-                        if (timeOuts_O == MAXTIMEOUTS) {    // force resignation if they exceed maximum number of timeouts
-                            playerResign(PlayerO);
-                            TurnTimer.cancel();
-                            return;
-                        }
-                        ActivePlayer = PlayerX;
-                    }
-                    else {
-                        timeOuts_X++;
-                        if (timeOuts_X == MAXTIMEOUTS) {    // force resignation if they exceed maximum number of timeouts
-                            playerResign(PlayerX);
-                            TurnTimer.cancel();
-                            return;
-                        }
-                        ActivePlayer = PlayerO;
-                    }
-                    // this picks a random empty cell and places the current active player's piece inside it
-                    TicTacToePiece[] EmptyCells = GameBoard.getEmptyCells();
-                    int randomCell = (int) (Math.random() * (9 - turnCounter));
-                    TicTacToePiece Piece = new TicTacToePiece(EmptyCells[randomCell].getxPos(), EmptyCells[randomCell].getyPos(), ActivePlayer);
-                    GameBoard.setPiece(Piece);
-
-                    turnCounter++;
-                    TurnTimer.cancel(); // stop timer
-                    startTurnTimer();
-                }
+    /**
+     * Runs on the GameClock when the active player's turn runs out, package-private so tests can expire a turn without waiting
+     */
+    synchronized void turnTimedOut() {
+        if (isGameOver()) {
+            return;
+        }
+        if (ActivePlayer.equals(PlayerO)) {
+            timeOuts_O++;
+            if (timeOuts_O == MAXTIMEOUTS) {    // force resignation if they exceed maximum number of timeouts
+                playerResign(PlayerO);
+                return;
+            }
+            ActivePlayer = PlayerX;
+        }
+        else {
+            timeOuts_X++;
+            if (timeOuts_X == MAXTIMEOUTS) {    // force resignation if they exceed maximum number of timeouts
+                playerResign(PlayerX);
+                return;
             }
-        };
+            ActivePlayer = PlayerO;
+        }
+        // this picks a random empty cell and places the current active player's piece inside it
+        int randomCell = Engine.randomEmptyCell();
+        if (randomCell < 0) { // nowhere left to play
+            announceDraw();
+            return;
+        }
+        int side = sideOf(ActivePlayer);
+        GameBoard.makeMove(TicTacToeBoard.encodeMove(side, randomCell));
+        Engine.play(side, randomCell);
+
+        // the forced move can end the game just like one from placePiece
+        if (Engine.hasWon(side)) {
+            announceWinner(ActivePlayer);
+            return;
+        }
+        turnCounter++;
+        if (Engine.isFull()) {
+            announceDraw();
+            return;
+        }
+        startTurnTimer();
     }
 
 
     private void startTurnTimer() {
-        if (TurnTimer != null) TurnTimer.cancel(); // Ensure old timer is stopped
-        secondsLeft = TURNLENGTH; // reset time
-        TurnTimer = new Timer();
-        TurnTimer.scheduleAtFixedRate(newCountdown(), 0, 1000);
+        stopTurnTimer(); // Ensure old deadline is cancelled
+        turnStartedAt = GameClock.now(); // reset time
+        TurnTimer = GameClock.getShared().schedule(this::turnTimedOut, TURNLENGTH * 1000L);
+    }
+
+    private void stopTurnTimer() {
+        if (TurnTimer != null) TurnTimer.cancel(false);
     }
 
 
@@ -76,12 +84,13 @@ public class TicTacToeLogic {
         this.Winner = "";
     }
 
-    public void startNewGame() {
+    public synchronized void startNewGame() {
         GameBoard = new TicTacToeBoard();
+        GameBoard.setColours(PlayerX, PlayerO);
+        Engine.reset();
         turnCounter = 0;
         timeOuts_X = 0;
         timeOuts_O = 0;
-        secondsLeft = TURNLENGTH;
         if ((int)(Math.random() * 2) == 0) { //choose random player to start
             ActivePlayer = PlayerX;
         }
@@ -91,8 +100,10 @@ public class TicTacToeLogic {
         startTurnTimer();
     }
 
-    public void restartGame() {
+    public synchronized void restartGame() {
         GameBoard = new TicTacToeBoard();
+        GameBoard.setColours(PlayerX, PlayerO);
+        Engine.reset();
         turnCounter = 0;
         if (Winner.equals(PlayerX)) { //loser goes first
             ActivePlayer = PlayerO;
@@ -114,14 +125,15 @@ public class TicTacToeLogic {
         Winner = "";
     }
 
-    public void placePiece(String Player, int x, int y) {
+    public synchronized void placePiece(String Player, int x, int y) {
         if (ActivePlayer.equals(Player)) {
-            if (GameBoard.canPlay(x, y)) {
-                TurnTimer.cancel(); //do first in case of network lag
-                TicTacToePiece piece = new TicTacToePiece(x, y, ActivePlayer);
-                GameBoard.setPiece(piece); // Bug Fix Piece wasn't being placed on the board
+            if (Engine.canPlay(x, y)) {
+                stopTurnTimer(); //do first in case of network lag
+                int side = sideOf(Player);
+                GameBoard.makeMove(TicTacToeBoard.encodeMove(side, x * 3 + y)); // Bug Fix Piece wasn't being placed on the board
+                Engine.play(side, x * 3 + y);
 
-                if (GameBoard.checkIfPlayerWon(new TicTacToePiece(x, y, Player))) {
+                if (Engine.hasWon(side)) {
                     System.out.println("Player " + Player + " has won in placePiece!"); //System message added by GUI team during their implementation
                     announceWinner(Player);
                 }
@@ -139,7 +151,23 @@ public class TicTacToeLogic {
         }
     }
 
-    public void playerResign(String Player) {
+    private int sideOf(String Player) {
+        return Player.equals(PlayerX) ? TicTacToeBitBoard.X : TicTacToeBitBoard.O;
+    }
+
+    /**
+     * Perfect move for the active player, for a computer opponent or a hint
+     * @return {x, y} of the cell, or null if the game is over
+     */
+    public int[] getBestMove() {
+        if (isGameOver()) {
+            return null;
+        }
+        int cell = Engine.getBestMove(sideOf(ActivePlayer));
+        return cell < 0 ? null : new int[]{cell / 3, cell % 3};
+    }
+
+    public synchronized void playerResign(String Player) {
         if (!isGameOver()) {
             if (Player.equals(PlayerO)) {
                 announceWinner(PlayerX);
@@ -152,14 +180,14 @@ public class TicTacToeLogic {
     }
 
     public void announceWinner(String Player) {
-        TurnTimer.cancel();
+        stopTurnTimer();
         ActivePlayer = ""; //set to empty string to make sure there is no overlap with player name
         Winner = Player;
         System.out.println("Winner set to: " + Winner);
     }
 
     public void announceDraw() {
-        TurnTimer.cancel();
+        stopTurnTimer();
         ActivePlayer = "";
         Winner = "Draw";
         System.out.println("Game is a draw");
@@ -192,8 +220,15 @@ public class TicTacToeLogic {
         return turnCounter;
     }
 
+    /**
+     * @return whole seconds left in the current turn, worked out from when the turn started
+     */
     public int getSecondsLeft() {
-        return secondsLeft;
+        if (TurnTimer == null) {
+            return TURNLENGTH;
+        }
+        long elapsedSeconds = (GameClock.now() - turnStartedAt) / 1_000_000_000L;
+        return (int) Math.max(0, TURNLENGTH - elapsedSeconds);
     }
 
     public int getTimeOuts_X() {
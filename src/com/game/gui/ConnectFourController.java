@@ -1,10 +1,13 @@
 package com.game.gui;
 
+import com.game.gamelogic.Connect4BitBoard;
 import com.game.gamelogic.Connect4Board;
 import com.game.gamelogic.Connect4Logic;
 import com.game.gamelogic.Connect4Piece;
+import com.game.gamelogic.Connect4Search;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -50,6 +53,7 @@ public class ConnectFourController {
     @FXML private ImageView player2PieceImage;  // Image of Player 2's game piece (red or blue).
     @FXML private Button requestDrawButton;     // Button to request a draw.
     @FXML private Button forfeitButton;         // Button to forfeit the game.
+    @FXML private CheckBox computerOpponentToggle; // Lets the computer play Player 2, only shown in local games.
     @FXML private Label timeoutStatusLabel;     // Label to show timeout messages (e.g., "Time expired").
     @FXML private Label gameTitleLabel;         // Title label (e.g., "Connect Four - Casual").
     @FXML private VBox chatMessagesBox;         // Container for chat messages.
@@ -67,6 +71,10 @@ public class ConnectFourController {
     private int timeLeft;                       // Remaining time in seconds for the current player's turn.
     private Label currentTimerLabel;            // Reference to the active player's timer label.
     private GameEnums.MatchType matchType = GameEnums.MatchType.LOCAL; // Match type (LOCAL, CASUAL_ONLINE, RANKED).
+    private static final long COMPUTER_THINK_MILLIS = 1000; // Time the computer opponent searches per move.
+    private final Connect4Search computer = new Connect4Search(); // Plays Player 2 when computerOpponent is set.
+    private boolean computerOpponent;           // True if Player 2 is played by the computer.
+    private boolean computerThinking;           // True while a search runs, clicks are ignored meanwhile.
 
     // Chat avatar images for both players.
     private Image player1ChatAvatar;
@@ -157,6 +165,17 @@ public class ConnectFourController {
         forfeitButton.setText("Forfeit");
         forfeitButton.setFont(Font.font("Inter", 19));
 
+        // The computer opponent is for local practice, an online opponent is always a person.
+        if (computerOpponentToggle != null) {
+            boolean local = matchType == GameEnums.MatchType.LOCAL;
+            computerOpponentToggle.setVisible(local);
+            computerOpponentToggle.setManaged(local);
+            if (!local && computerOpponentToggle.isSelected()) {
+                computerOpponentToggle.setSelected(false);
+                setComputerOpponent(false);
+            }
+        }
+
         switch (matchType) {
             case LOCAL:
                 gameTitleLabel.setText("Connect Four - Casual Match");
@@ -283,6 +302,7 @@ public class ConnectFourController {
      */
     private void handleColumnClick(int col) {
         if (game.getActivePlayer().equals("None")) return; // Ignore clicks if game is over.
+        if (computerThinking) return; // Ignore clicks while it's the computer's move.
         String previousPlayer = game.getActivePlayer();
         game.placePiece(previousPlayer, col); // Attempt to place a piece in the column.
         updateBoardDisplay(); // Reflect the new piece on the board.
@@ -292,9 +312,59 @@ public class ConnectFourController {
             // Update timer display
             updateTurnIndicators();
             updateTimerDisplay();
+            requestComputerMove();
         }
     }
 
+    /**
+     * Makes Player 2 a computer opponent for practice games.
+     * @param computerOpponent True to let the computer play Player 2's moves.
+     */
+    public void setComputerOpponent(boolean computerOpponent) {
+        this.computerOpponent = computerOpponent;
+        requestComputerMove();
+    }
+
+    /**
+     * Handles the "Play vs Computer" toggle shown in local games.
+     */
+    @FXML
+    private void handleComputerOpponentToggle() {
+        setComputerOpponent(computerOpponentToggle.isSelected());
+    }
+
+    /**
+     * Starts the computer's search if it is Player 2's turn. The search runs on its own thread with a copy of
+     * the position, so the FX thread keeps drawing, and the move is played back on the FX thread.
+     */
+    private void requestComputerMove() {
+        if (!computerOpponent || computerThinking || game.isGameOver() || !game.getActivePlayer().equals(game.Player2)) {
+            return;
+        }
+        Connect4Logic searchedGame = game;
+        Connect4BitBoard position = game.getPosition();
+        int side = game.getActiveSide();
+        computerThinking = true;
+        Thread thinker = new Thread(() -> {
+            int column;
+            synchronized (computer) {
+                column = computer.findBestMove(position, side, COMPUTER_THINK_MILLIS);
+            }
+            Platform.runLater(() -> {
+                computerThinking = false;
+                // Drop the move if the game was reset or the turn timed out while searching.
+                if (game == searchedGame && column >= 0 && game.getActivePlayer().equals(game.Player2)
+                        && game.getPosition().getMoveCount() == position.getMoveCount()) {
+                    handleColumnClick(column);
+                } else {
+                    requestComputerMove();
+                }
+            });
+        }, "connect4-computer");
+        thinker.setDaemon(true);
+        thinker.start();
+    }
+
     /**
      * Starts the timer for the current active player.
      */
@@ -557,6 +627,7 @@ public class ConnectFourController {
                 "-fx-background-color: #a3a3a3; -fx-text-fill: #000000;");
         updateTurnIndicators();
         startTimerForActivePlayer();
+        requestComputerMove();
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.game.gui;
 
+import com.game.leaderboard.MatchHistoryManager;
 import com.game.leaderboard.Player;
 import javafx.application.Application;
 import javafx.beans.property.ReadOnlyObjectWrapper;
@@ -23,6 +24,8 @@ public class Leaderboard extends Application {
     private TableView<Player> leaderboardTable;
     private final com.game.leaderboard.Leaderboard logic = new com.game.leaderboard.Leaderboard();
     private String selectedGame = "ticTacToe"; // default
+    private static final int PAGE_SIZE = 100;
+    private static final int RECENT_FORM = 5;
 
     @Override
     public void start(Stage stage) {
@@ -116,7 +119,12 @@ public class Leaderboard extends Application {
         winsColumn.setGraphic(winsHeader);
         winsHeader.setOnMouseClicked(e -> toggleSort(table, winsColumn));
 
-        table.getColumns().addAll(rankColumn, playerColumn, eloColumn, winsColumn);
+        TableColumn<Player, String> formColumn = new TableColumn<>("Recent");
+        // read from the mapped match log, no history file is parsed per row
+        formColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(MatchHistoryManager.recentForm(data.getValue(), RECENT_FORM)));
+        formColumn.setSortable(false);
+
+        table.getColumns().addAll(rankColumn, playerColumn, eloColumn, winsColumn, formColumn);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
         return table;
@@ -124,7 +132,8 @@ public class Leaderboard extends Application {
 
     private void updateLeaderboardData(String game) {
         this.selectedGame = game;
-        List<Player> players = logic.getAllPlayers(); // Ensure this returns the full unsorted list
+        // first page straight from the ranked index, nothing is sorted on a filter click
+        List<Player> players = logic.getRanking(game).top(PAGE_SIZE);
         leaderboardTable.setItems(FXCollections.observableArrayList(players));
 
         // Default sort by ELO DESC
@@ -369,7 +369,7 @@ public class UserProfile extends Application {
         // TODO: Replace with real match history data from backend
         Player user = new Player(1, "User", 300, 400, 500, 3, 5, 6);
         //matchesList.getChildren().addAll();
-        for (Match match : MatchHistoryManager.loadHistory(user)){
+        for (Match match : MatchHistoryManager.loadRecent(user, 3)){
             matchesList.getChildren().add(createMatchItem(match));
         }
 
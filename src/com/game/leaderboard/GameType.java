@@ -6,5 +6,19 @@ package com.game.leaderboard;
 public enum GameType {
     TICTACTOE,
     CHECKERS,
-    CONNECT4
+    CONNECT4;
+
+    /**
+     * Looks up a game by the names used across the string API, ignoring case
+     * @param game "tictactoe", "checkers" or "connect4"
+     * @return the matching type
+     */
+    public static GameType fromName(String game) {
+        return switch (game.toLowerCase()) {
+            case "tictactoe" -> TICTACTOE;
+            case "checkers" -> CHECKERS;
+            case "connect4" -> CONNECT4;
+            default -> throw new IllegalArgumentException("Unknown game: " + game);
+        };
+    }
 }
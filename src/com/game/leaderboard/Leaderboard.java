@@ -1,12 +1,14 @@
 package com.game.leaderboard;
 
 import com.game.leaderboard.Player;
-import com.game.leaderboard.PlayerComparator.EloComparator;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>
@@ -18,7 +20,61 @@ public class Leaderboard {
     /**
      * List of players in the database
      */
-    private static List<Player> players = new ArrayList<>();
+    private static PlayerList players = new PlayerList();
+
+    /**
+     * Rank order of the players for each game, built on first use and then kept in step with the player list
+     */
+    private static final Map<String, RankingIndex> rankings = new HashMap<>();
+
+    /**
+     * Players on the list by username, which is unique, so the server finds both players of a finished game without a scan
+     */
+    private static final Map<String, Player> byName = new ConcurrentHashMap<>();
+
+    /**
+     * Player list that moves players in and out of the rankings, so edits made through getAllPlayers are ranked
+     */
+    private static class PlayerList extends AbstractList<Player> implements RandomAccess {
+        private final List<Player> list = new ArrayList<>();
+
+        @Override
+        public Player get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public Player set(int index, Player player) {
+            Player old = list.set(index, player);
+            byName.remove(old.getName(), old);
+            byName.put(player.getName(), player);
+            unrank(old);
+            rank(player);
+            return old;
+        }
+
+        @Override
+        public void add(int index, Player player) {
+            modCount++;
+            list.add(index, player);
+            byName.put(player.getName(), player);
+            rank(player);
+        }
+
+        @Override
+        public Player remove(int index) {
+            modCount++;
+            Player old = list.remove(index);
+            byName.remove(old.getName(), old);
+            unrank(old);
+            return old;
+        }
+    }
 
     static {
         players.add(new Player(1, "himanshu", 800, 1000, 1200, 0, 0, 0));
@@ -39,14 +95,105 @@ public class Leaderboard {
         return players;
     }
 
+    /**
+     * @param name the player's name
+     * @return the leaderboard player with that name, or null if there is none
+     */
+    public static Player findPlayer(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Ranked index of one game's players, kept up to date by setElo
+     * @param game "tictactoe", "checkers" or "connect4", in any case
+     * @return the index
+     */
+    public static synchronized RankingIndex getRanking(String game) {
+        String key = game.toLowerCase();
+        if (!key.equals("tictactoe") && !key.equals("checkers") && !key.equals("connect4")) {
+            throw new IllegalArgumentException("Invalid game: " + game);
+        }
+        RankingIndex ranking = rankings.get(key);
+        if (ranking == null) {
+            ranking = new RankingIndex(key);
+            for (Player player : players) {
+                ranking.update(player);
+            }
+            rankings.put(key, ranking);
+        }
+        return ranking;
+    }
+
+    /**
+     * Changes a player's rating and moves them in that game's ranking, in O(log n)
+     * @param player the player
+     * @param game "tictactoe", "checkers" or "connect4"
+     * @param elo the new rating
+     */
+    public static synchronized void setElo(Player player, String game, int elo) {
+        player.setElo(GameType.fromName(game), elo);
+        getRanking(game).update(player);
+    }
+
+    /**
+     * Puts a player who joined the list into every ranking built so far, in O(log n) each
+     * @param player the player
+     */
+    private static synchronized void rank(Player player) {
+        for (RankingIndex ranking : rankings.values()) {
+            ranking.update(player);
+        }
+    }
+
+    /**
+     * Takes a player who left the list out of every ranking built so far
+     * @param player the player
+     */
+    private static synchronized void unrank(Player player) {
+        for (RankingIndex ranking : rankings.values()) {
+            if (ranking.contains(player)) {
+                ranking.remove(player.getId());
+            }
+        }
+    }
+
+    /**
+     * @param game the game
+     * @return the index, see getRanking(String)
+     */
+    public static RankingIndex getRanking(GameType game) {
+        return getRanking(game.name());
+    }
+
+    /**
+     * Applies a batch of rating changes for one game and moves the players in its ranking. The ranking is held
+     * for the whole batch, so a reader sees all of it or none of it, and both players of a match move together.
+     * Players who are not on the leaderboard get their new rating but stay out of the ranking.
+     * @param game the game
+     * @param changed players whose rating changed
+     * @param elos their new ratings, same order
+     * @param count number of entries used
+     */
+    public static synchronized void setElos(GameType game, Player[] changed, int[] elos, int count) {
+        RankingIndex ranking = getRanking(game);
+        synchronized (ranking) {
+            for (int i = 0; i < count; i++) {
+                changed[i].setElo(game, elos[i]);
+                if (ranking.contains(changed[i])) {
+                    ranking.update(changed[i]);
+                }
+            }
+        }
+    }
+
     /**
      * Method to sort players within a specific ranking system based on their ranks.
+     * The order comes from the ranking index, so nothing is sorted here.
      * @return sorted list of Players
      */
     public List<Player> sortRankingSystemPlayers(String game) {
-        List<Player> sortedList = new ArrayList<>(players);
-        Collections.sort(sortedList, new EloComparator(game, false));
-        return sortedList;
+        RankingIndex ranking = getRanking(game);
+        return ranking.top(ranking.size());
     }
 
     /**
@@ -56,9 +203,9 @@ public class Leaderboard {
         String[] games = {"checkers", "connect4", "ticTacToe"};
         for (String game : games) {
             System.out.println("Leaderboard for: " + game);
-            List<Player> sortedUsernames = sortRankingSystemPlayers(game);
+            List<Player> sortedUsernames = getRanking(game).top(topN);
 
-            for (int i = 0; i < Math.min(topN, sortedUsernames.size()); i++) {
+            for (int i = 0; i < sortedUsernames.size(); i++) {
                 Player player = sortedUsernames.get(i);
                 int id = player.getId();
                 String username = player.getName();
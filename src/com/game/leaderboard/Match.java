@@ -13,6 +13,7 @@ public class Match {
     private String player2;
     private GameResult result;
     private GameType gameType;
+    private long time;                            // when the match ended, epoch millis, 0 if unknown
 
     public Match() {}
 
@@ -24,6 +25,11 @@ public class Match {
         this.gameType = gameType;
     }
 
+    public Match(String player1ID, String player1, String player2, GameResult result, GameType gameType, long time) {
+        this(player1ID, player1, player2, result, gameType);
+        this.time = time;
+    }
+
     public String getPlayer1ID(){
         return player1ID;
     }
@@ -41,4 +47,8 @@ public class Match {
     public GameType getGameType() {
         return gameType;
     }
+
+    public long getTime() {
+        return time;
+    }
 }
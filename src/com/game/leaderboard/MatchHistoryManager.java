@@ -1,67 +1,179 @@
 package com.game.leaderboard;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * <p>
+ *     Records finished matches in the append-only MatchLog and reads players' histories back.
+ *     Full history is kept. A result is one record appended to the log, no file is read or rewritten.
+ * </p>
+ * Histories written as JSON under match_history/ by earlier versions are still read, before the logged matches.
+ * They are parsed once and kept until the file changes, so a profile view doesn't deserialize anything.
+ */
 public class MatchHistoryManager {
     private static final String BASE_DIR = "match_history/";
-    private static final int MAX_MATCHES = 3;
+    private static final String LOG_DIR = "match_log/";
     private static final ObjectMapper mapper = new ObjectMapper();
-    private static final ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+    private static final Map<Integer, LegacyHistory> legacyCache = new ConcurrentHashMap<>();
+    private static MatchLog log;
 
-    public static void addMatch(Player player, Match newMatch) {
-        File dir = new File(BASE_DIR);
-        dir.mkdirs(); // make sure match_history folder exists
+    /**
+     * A parsed JSON history and the file state it was read from
+     */
+    private static final class LegacyHistory {
+        final long modified;
+        final long length;
+        final List<Match> matches;
 
-        File file = new File(BASE_DIR + player.getId() + ".json");
-        MatchHistory history;
+        LegacyHistory(long modified, long length, List<Match> matches) {
+            this.modified = modified;
+            this.length = length;
+            this.matches = matches;
+        }
+    }
 
-        if (file.exists()) {
-            try {
-                history = mapper.readValue(file, MatchHistory.class);
-            } catch (IOException e) {
-                e.printStackTrace();
-                return;
-            }
-        } else {
-            history = new MatchHistory();
-            history.playerId = String.valueOf(player.getId());
+    /**
+     * @return the log results are recorded in, opened on first use
+     */
+    public static synchronized MatchLog getLog() throws IOException {
+        if (log == null) {
+            log = MatchLog.open(Path.of(LOG_DIR));
         }
+        return log;
+    }
 
-        // Maintain max 3 matches (LinkedList for easy removal)
-        LinkedList<Match> limited = new LinkedList<>(history.matchRecords);
-        if (limited.size() == MAX_MATCHES) {
-            limited.removeFirst(); // remove oldest
+    /**
+     * Points the manager at another log, closing the current one, e.g. to keep tests out of match_log/
+     * @param newLog the log to use, or null to open the default one on next use
+     */
+    public static synchronized void setLog(MatchLog newLog) throws IOException {
+        if (log != null && log != newLog) {
+            log.close();
         }
-        limited.add(newMatch);
-        history.matchRecords = limited;
+        log = newLog;
+    }
 
+    /**
+     * Records a match in one player's history, the opponent is only known by name
+     * @param player the player the match is for
+     * @param newMatch the match, with the result for the player
+     */
+    public static void addMatch(Player player, Match newMatch) {
         try {
-            writer.writeValue(file, history);
+            getLog().append(player.getId(), player.getName(), MatchLog.UNKNOWN_ID, newMatch.getPlayer2(),
+                    newMatch.getGameType(), newMatch.getResult(), System.currentTimeMillis());
             System.out.println("Match saved for " + player.getName());
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Records a match once, in both players' histories
+     * @param player1 the player the result is for
+     * @param player2 their opponent
+     * @param gameType the game played
+     * @param result the result for player1
+     */
+    public static void addMatch(Player player1, Player player2, GameType gameType, GameResult result) {
+        try {
+            getLog().append(player1.getId(), player1.getName(), player2.getId(), player2.getName(),
+                    gameType, result, System.currentTimeMillis());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return every match the player has played, oldest first
+     */
     public static List<Match> loadHistory(Player player) {
-        File file = new File(BASE_DIR + player.getId() + ".json");
+        List<Match> history = loadLegacy(player);
+        try {
+            history.addAll(getLog().history(player.getId()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return history;
+    }
 
-        if (!file.exists()) return new ArrayList<>();
+    /**
+     * The player's last few matches, without reading the rest of their history
+     * @param count number of matches wanted
+     * @return up to count matches, oldest first
+     */
+    public static List<Match> loadRecent(Player player, int count) {
+        List<Match> recent = new ArrayList<>();
+        try {
+            recent = getLog().lastMatches(player.getId(), count); // decoded from the mapped log as it is read
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (recent.size() < count) {
+            List<Match> legacy = loadLegacy(player);
+            if (!legacy.isEmpty()) {
+                List<Match> merged = new ArrayList<>(legacy.subList(Math.max(0, legacy.size() - (count - recent.size())), legacy.size()));
+                merged.addAll(recent);
+                return merged;
+            }
+        }
+        return recent;
+    }
 
+    /**
+     * The player's last results as a short string such as "WWLDW", read without building any Match
+     * @param count number of results wanted
+     * @return one letter per match, oldest first, only matches in the log are counted
+     */
+    public static String recentForm(Player player, int count) {
         try {
-            return mapper.readValue(file, new TypeReference<List<Match>>() {});
+            return getLog().recentResults(player.getId(), count);
         } catch (IOException e) {
             e.printStackTrace();
-            return new ArrayList<>();
+            return "";
         }
     }
 
+    /**
+     * Reads a JSON history written by an earlier version, either a list of matches or a MatchHistory
+     */
+    private static List<Match> loadLegacy(Player player) {
+        File file = new File(BASE_DIR + player.getId() + ".json");
+
+        if (!file.exists()) {
+            legacyCache.remove(player.getId());
+            return new ArrayList<>();
+        }
+        long modified = file.lastModified();
+        long length = file.length();
+        LegacyHistory cached = legacyCache.get(player.getId());
+        if (cached == null || cached.modified != modified || cached.length != length) {
+            cached = new LegacyHistory(modified, length, parseLegacy(file));
+            legacyCache.put(player.getId(), cached);
+        }
+        return new ArrayList<>(cached.matches);
+    }
 
+    private static List<Match> parseLegacy(File file) {
+        try {
+            JsonNode root = mapper.readTree(file);
+            JsonNode records = root.isArray() ? root : root.path("matchRecords");
+            if (!records.isArray()) {
+                return new ArrayList<>();
+            }
+            return mapper.convertValue(records, new TypeReference<ArrayList<Match>>() {});
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
 }
@@ -10,14 +10,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  *     Reads from a JSON file.
  *     Dependencies: Uses the Jackson library for JSON parsing
  * </p>
+ * Histories recorded since the match log was added are read with MatchHistoryManager instead.
  */
 
 public class MatchHistoryReader {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     public static MatchHistory loadMatchHistory(String filename) {
-        ObjectMapper mapper = new ObjectMapper();
-        String filePath = "matches.json";
         try {
-            return mapper.readValue(new File(filePath), MatchHistory.class);
+            return mapper.readValue(new File(filename), MatchHistory.class);
         } catch (IOException e) {
             System.err.println("Error reading match history from file: " + filename);
             return null;
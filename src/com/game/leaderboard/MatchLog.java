@@ -0,0 +1,552 @@
+package com.game.leaderboard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Append-only match history. Every finished match is one fixed-size binary record written to the end of the
+ *     current segment file and never rewritten, so recording a result costs one small write however long the
+ *     players' histories are. A segment holds segmentRecords records, so a record's sequence number gives its
+ *     segment and its offset.
+ * </p>
+ * <p>
+ *     Each player's sequence numbers are kept in memory. Reads go through read-only mappings of the segments, so
+ *     a player's recent matches come straight from the page cache and are decoded only when looked at.
+ *     When a segment fills up a background thread compacts its player index into an .idx file next to it, and
+ *     opening the log loads those instead of reading every record again. Only the segment being written is scanned.
+ * </p>
+ * Record layout, big-endian: time (long), player 1 id (int), player 2 id (int, -1 if unknown), game ordinal (byte),
+ * result for player 1 (byte), the two name lengths (bytes), then each name in UTF-8 cut to NAME_BYTES.
+ */
+public class MatchLog implements Closeable {
+    public static final int RECORD_SIZE = 64;
+    public static final int NAME_BYTES = 22;
+    public static final int SEGMENT_RECORDS = 1 << 16;
+    public static final int UNKNOWN_ID = -1;
+
+    static final int NAMES_OFFSET = 20;
+    private static final int INDEX_MAGIC = 0x4D4C4958; // "MLIX"
+    private static final int SCAN_RECORDS = 1024;
+
+    /**
+     * A player's matches, decoded from the mapped segments when get is called
+     */
+    private static final class MappedMatches extends AbstractList<Match> implements RandomAccess {
+        private final long[] sequences;
+        private final ByteBuffer[] maps;
+        private final int segmentRecords;
+        private final int playerId;
+
+        MappedMatches(long[] sequences, ByteBuffer[] maps, int segmentRecords, int playerId) {
+            this.sequences = sequences;
+            this.maps = maps;
+            this.segmentRecords = segmentRecords;
+            this.playerId = playerId;
+        }
+
+        @Override
+        public Match get(int index) {
+            long sequence = sequences[index];
+            return decode(maps[(int) (sequence / segmentRecords)], (int) (sequence % segmentRecords) * RECORD_SIZE, playerId);
+        }
+
+        @Override
+        public int size() {
+            return sequences.length;
+        }
+    }
+
+    /**
+     * One player's sequence numbers, oldest first
+     */
+    private static final class Sequences {
+        long[] values = new long[4];
+        int size;
+
+        void add(long sequence) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = sequence;
+        }
+    }
+
+    private final Path dir;
+    private final int segmentRecords;
+    private final List<FileChannel> segments = new ArrayList<>();
+    private final List<MappedByteBuffer> maps = new ArrayList<>();
+    private final Map<Integer, Sequences> byPlayer = new HashMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final ExecutorService compactor;
+    private long size;
+    private boolean closed;
+
+    /**
+     * Opens the log in a directory, creating it if needed
+     * @param dir directory holding the segment files
+     * @return the open log
+     */
+    public static MatchLog open(Path dir) throws IOException {
+        return open(dir, SEGMENT_RECORDS);
+    }
+
+    /**
+     * @param dir directory holding the segment files
+     * @param segmentRecords records per segment, must be the same every time the directory is opened
+     * @return the open log
+     */
+    public static MatchLog open(Path dir, int segmentRecords) throws IOException {
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("A segment needs room for at least one record");
+        }
+        Files.createDirectories(dir);
+        MatchLog log = new MatchLog(dir, segmentRecords);
+        try {
+            log.load();
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        log.compact(); // index any full segment an earlier run didn't get to
+        return log;
+    }
+
+    private MatchLog(Path dir, int segmentRecords) {
+        this.dir = dir;
+        this.segmentRecords = segmentRecords;
+        compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "match-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void load() throws IOException {
+        for (int segment = 0; Files.exists(segmentPath(segment)); segment++) {
+            segments.add(FileChannel.open(segmentPath(segment), StandardOpenOption.READ, StandardOpenOption.WRITE));
+        }
+        if (segments.isEmpty()) {
+            segments.add(createSegment(0));
+        }
+        int last = segments.size() - 1;
+        for (int segment = 0; segment <= last; segment++) {
+            FileChannel channel = segments.get(segment);
+            int records = (int) (channel.size() / RECORD_SIZE);
+            if (segment < last && records != segmentRecords) {
+                throw new IOException("Segment " + segment + " has " + records + " records, expected " + segmentRecords);
+            }
+            if (segment == last) {
+                channel.truncate((long) records * RECORD_SIZE); // drops a record torn by a crash
+            }
+            if (records < segmentRecords || !loadIndex(segment)) {
+                scan(segment, records);
+            }
+            size += records;
+        }
+    }
+
+    /**
+     * Records a finished match in both players' histories
+     * @param player1Id first player, the one the result is for
+     * @param player1 first player's name
+     * @param player2Id second player, UNKNOWN_ID to record it in the first player's history only
+     * @param player2 second player's name
+     * @param game the game played
+     * @param result the result for the first player
+     * @param time when the match ended, epoch millis
+     * @return the record's sequence number
+     */
+    public synchronized long append(int player1Id, String player1, int player2Id, String player2,
+                                    GameType game, GameResult result, long time) throws IOException {
+        ensureOpen();
+        int segment = (int) (size / segmentRecords);
+        if (segment == segments.size()) {
+            segments.add(createSegment(segment));
+            compact();
+        }
+        byte[] name1 = encodeName(player1);
+        byte[] name2 = encodeName(player2);
+        Arrays.fill(record.array(), (byte) 0);
+        record.clear();
+        record.putLong(time).putInt(player1Id).putInt(player2Id)
+                .put((byte) (game == null ? -1 : game.ordinal()))
+                .put((byte) (result == null ? -1 : result.ordinal()))
+                .put((byte) name1.length).put((byte) name2.length)
+                .put(name1).position(NAMES_OFFSET + NAME_BYTES);
+        record.put(name2).clear();
+
+        FileChannel channel = segments.get(segment);
+        long position = (size % segmentRecords) * RECORD_SIZE;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        long sequence = size++;
+        index(sequence, player1Id, player2Id);
+        return sequence;
+    }
+
+    /**
+     * A player's most recent matches as that player saw them, so their name and result come first.
+     * The list reads the mapped segments, each match is decoded when it is looked at.
+     * @param playerId the player
+     * @param count number of matches wanted
+     * @return up to count matches, oldest first
+     */
+    public synchronized List<Match> lastMatches(int playerId, int count) throws IOException {
+        long[] sequences = recentSequences(playerId, count);
+        return new MappedMatches(sequences, mapAll(sequences), segmentRecords, playerId);
+    }
+
+    /**
+     * A player's recent results without building any Match, for showing form in a table
+     * @param playerId the player
+     * @param count number of results wanted
+     * @return 'W', 'D' or 'L' for each match from the player's side, oldest first, '?' if the result is missing
+     */
+    public String recentResults(int playerId, int count) throws IOException {
+        long[] sequences;
+        ByteBuffer[] mapped;
+        synchronized (this) {
+            sequences = recentSequences(playerId, count);
+            mapped = mapAll(sequences);
+        }
+        char[] results = new char[sequences.length];
+        for (int i = 0; i < sequences.length; i++) {
+            long sequence = sequences[i];
+            GameResult result = resultFor(mapped[(int) (sequence / segmentRecords)],
+                    (int) (sequence % segmentRecords) * RECORD_SIZE, playerId);
+            results[i] = result == null ? '?' : result.name().charAt(0);
+        }
+        return new String(results);
+    }
+
+    /**
+     * @param playerId the player
+     * @return every match the player has played, oldest first
+     */
+    public List<Match> history(int playerId) throws IOException {
+        return lastMatches(playerId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param playerId the player
+     * @return number of matches recorded for them
+     */
+    public synchronized int countMatches(int playerId) {
+        Sequences played = byPlayer.get(playerId);
+        return played == null ? 0 : played.size;
+    }
+
+    /**
+     * @return number of records in the log
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    public int getSegmentRecords() {
+        return segmentRecords;
+    }
+
+    /**
+     * Writes the player index of every full segment that doesn't have one yet, on the log's background thread
+     * @return completes with the number of index files written
+     */
+    public CompletableFuture<Integer> compact() {
+        int full;
+        synchronized (this) {
+            ensureOpen();
+            full = (int) (size / segmentRecords);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            int written = 0;
+            for (int segment = 0; segment < full; segment++) {
+                if (!Files.exists(indexPath(segment))) {
+                    try {
+                        writeIndex(segment);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written++;
+                }
+            }
+            return written;
+        }, compactor);
+    }
+
+    /**
+     * Waits for compaction to finish and closes the segment files
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (FileChannel channel : segments) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a record as the given player saw it
+     * @param record buffer holding the record
+     * @param offset where the record starts in the buffer
+     * @param playerId the player whose history is being read
+     * @return the match, with the player as player 1
+     */
+    static Match decode(ByteBuffer record, int offset, int playerId) {
+        long time = record.getLong(offset);
+        int player1Id = record.getInt(offset + 8);
+        int player2Id = record.getInt(offset + 12);
+        int game = record.get(offset + 16);
+        String name1 = decodeName(record, offset + NAMES_OFFSET, record.get(offset + 18));
+        String name2 = decodeName(record, offset + NAMES_OFFSET + NAME_BYTES, record.get(offset + 19));
+        GameType gameType = game < 0 ? null : GameType.values()[game];
+        GameResult result = resultFor(record, offset, playerId);
+        if (playerId == player2Id && playerId != player1Id) {
+            return new Match(String.valueOf(player2Id), name2, name1, result, gameType, time);
+        }
+        return new Match(String.valueOf(player1Id), name1, name2, result, gameType, time);
+    }
+
+    /**
+     * @return the record's result from the given player's side, null if it wasn't recorded
+     */
+    static GameResult resultFor(ByteBuffer record, int offset, int playerId) {
+        int result = record.get(offset + 17);
+        if (result < 0) {
+            return null;
+        }
+        GameResult forPlayer1 = GameResult.values()[result];
+        if (playerId != record.getInt(offset + 12) || playerId == record.getInt(offset + 8)) {
+            return forPlayer1;
+        }
+        if (forPlayer1 == GameResult.WIN) {
+            return GameResult.LOSE;
+        }
+        return forPlayer1 == GameResult.LOSE ? GameResult.WIN : forPlayer1;
+    }
+
+    /**
+     * UTF-8 bytes of a name, cut to NAME_BYTES without splitting a character
+     */
+    static byte[] encodeName(String name) {
+        if (name == null) {
+            return new byte[0];
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= NAME_BYTES) {
+            return bytes;
+        }
+        int cut = NAME_BYTES;
+        while (cut > 0 && (bytes[cut] & 0xC0) == 0x80) {
+            cut--;
+        }
+        return Arrays.copyOf(bytes, cut);
+    }
+
+    private static String decodeName(ByteBuffer record, int offset, int length) {
+        byte[] bytes = new byte[length];
+        record.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    Path segmentPath(int segment) {
+        return dir.resolve(String.format("%08d.seg", segment));
+    }
+
+    Path indexPath(int segment) {
+        return dir.resolve(String.format("%08d.idx", segment));
+    }
+
+    private FileChannel createSegment(int segment) throws IOException {
+        return FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private long[] recentSequences(int playerId, int count) {
+        ensureOpen();
+        Sequences played = byPlayer.get(playerId);
+        if (played == null || count <= 0) {
+            return new long[0];
+        }
+        return Arrays.copyOfRange(played.values, Math.max(0, played.size - count), played.size);
+    }
+
+    /**
+     * Mappings for the segments holding the given records, indexed by segment
+     */
+    private ByteBuffer[] mapAll(long[] sequences) throws IOException {
+        ByteBuffer[] mapped = new ByteBuffer[segments.size()];
+        for (int i = sequences.length - 1; i >= 0; i--) {
+            int segment = (int) (sequences[i] / segmentRecords);
+            if (mapped[segment] == null) { // the newest record of the segment comes first
+                mapped[segment] = map(segment, (int) (sequences[i] % segmentRecords) + 1);
+            }
+        }
+        return mapped;
+    }
+
+    /**
+     * A read-only mapping of a segment covering at least its first records records. A segment still being
+     * written is mapped again once reads reach past the end of its last mapping.
+     */
+    private MappedByteBuffer map(int segment, int records) throws IOException {
+        while (maps.size() <= segment) {
+            maps.add(null);
+        }
+        MappedByteBuffer map = maps.get(segment);
+        if (map == null || map.capacity() < records * RECORD_SIZE) {
+            long written = Math.min(segmentRecords, size - (long) segment * segmentRecords);
+            map = segments.get(segment).map(FileChannel.MapMode.READ_ONLY, 0, written * RECORD_SIZE);
+            maps.set(segment, map);
+        }
+        return map;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Match log is closed");
+        }
+    }
+
+    private void index(long sequence, int player1Id, int player2Id) {
+        if (player1Id != UNKNOWN_ID) {
+            byPlayer.computeIfAbsent(player1Id, id -> new Sequences()).add(sequence);
+        }
+        if (player2Id != UNKNOWN_ID && player2Id != player1Id) {
+            byPlayer.computeIfAbsent(player2Id, id -> new Sequences()).add(sequence);
+        }
+    }
+
+    private void scan(int segment, int records) throws IOException {
+        FileChannel channel = segments.get(segment);
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_RECORDS * RECORD_SIZE);
+        long base = (long) segment * segmentRecords;
+        for (int first = 0; first < records; first += SCAN_RECORDS) {
+            int count = Math.min(SCAN_RECORDS, records - first);
+            buffer.clear().limit(count * RECORD_SIZE);
+            long position = (long) first * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Segment " + segment + " ended early");
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                int offset = i * RECORD_SIZE;
+                index(base + first + i, buffer.getInt(offset + 8), buffer.getInt(offset + 12));
+            }
+        }
+    }
+
+    /**
+     * Adds a full segment's players from its index file
+     * @return false if there is no usable index and the segment has to be scanned
+     */
+    private boolean loadIndex(int segment) {
+        Path path = indexPath(segment);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        long base = (long) segment * segmentRecords;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != segmentRecords) {
+                return false;
+            }
+            int entries = in.readInt();
+            int[] players = new int[entries];
+            int[] slots = new int[entries];
+            for (int i = 0; i < entries; i++) {
+                players[i] = in.readInt();
+                slots[i] = in.readInt();
+            }
+            for (int i = 0; i < entries; i++) {
+                byPlayer.computeIfAbsent(players[i], id -> new Sequences()).add(base + slots[i]);
+            }
+            return true;
+        } catch (IOException e) {
+            return false; // a broken index is rebuilt from the records
+        }
+    }
+
+    /**
+     * Writes a full segment's (player, slot) pairs sorted by player, then moves the file into place so a
+     * half-written index is never loaded
+     */
+    private void writeIndex(int segment) throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            channel = segments.get(segment);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(segmentRecords * RECORD_SIZE);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("Segment " + segment + " ended early");
+            }
+        }
+        long[] entries = new long[segmentRecords * 2];
+        int count = 0;
+        for (int slot = 0; slot < segmentRecords; slot++) {
+            int player1Id = buffer.getInt(slot * RECORD_SIZE + 8);
+            int player2Id = buffer.getInt(slot * RECORD_SIZE + 12);
+            if (player1Id != UNKNOWN_ID) {
+                entries[count++] = (long) player1Id << 32 | slot;
+            }
+            if (player2Id != UNKNOWN_ID && player2Id != player1Id) {
+                entries[count++] = (long) player2Id << 32 | slot;
+            }
+        }
+        Arrays.sort(entries, 0, count);
+
+        Path temp = dir.resolve(indexPath(segment).getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(segmentRecords);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt((int) (entries[i] >> 32));
+                out.writeInt((int) entries[i]);
+            }
+        }
+        Files.move(temp, indexPath(segment), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
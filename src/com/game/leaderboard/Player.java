@@ -10,14 +10,20 @@ public class Player {
     private final String name;                    // username of the player
     private final EloRatings eloRatings;          // elo ratings
     private final GameStats gameStats;            // game stats
+    private final int ratingIndex;                // row in the RatingStore shared by eloRatings and gameStats
     private long queuedAt;
     //public long getQueuedAt;
 
     public Player(int id, String name, int tttElo, int checkersElo, int connect4Elo, int tttwins, int checkersWins, int connect4Wins) {
         this.id = id;
         this.name = name;
-        this.eloRatings = new EloRatings(tttElo, checkersElo, connect4Elo);
-        this.gameStats = new GameStats(tttwins, checkersWins, connect4Wins);
+        RatingStore store = RatingStore.getShared();
+        this.ratingIndex = store.add(new int[]{tttElo, checkersElo, connect4Elo},
+                new int[]{tttwins, checkersWins, connect4Wins});
+        this.eloRatings = new EloRatings(store, ratingIndex);
+        this.gameStats = new GameStats(store, ratingIndex);
+        // only this player reaches eloRatings, so the row is free once it goes; throwaway players don't keep it forever
+        store.releaseWhenUnreachable(eloRatings, ratingIndex);
         this.queuedAt = System.currentTimeMillis();
     }
 
@@ -28,20 +34,43 @@ public class Player {
         return name;
     }
 
+    /**
+     * @return this player's row in RatingStore.getShared()
+     */
+    public int getRatingIndex() {
+        return ratingIndex;
+    }
+
+    public int getElo(GameType game) {
+        return eloRatings.getElo(game);
+    }
+
+    public void setElo(GameType game, int elo) {
+        eloRatings.setElo(game, elo);
+    }
+
+    public int getWins(GameType game) {
+        return gameStats.getWins(game);
+    }
+
+    public void incrementWins(GameType game) {
+        gameStats.incrementWins(game);
+    }
+
     public int getElo(String game){
         game = game.toLowerCase(); // NORMALIZE INPUT
         return switch (game) {
-            case "connect4" -> eloRatings.getElo("connect4");
-            case "checkers" -> eloRatings.getElo("checkers");
-            case "tictactoe" -> eloRatings.getElo("tictactoe");
+            case "connect4" -> getElo(GameType.CONNECT4);
+            case "checkers" -> getElo(GameType.CHECKERS);
+            case "tictactoe" -> getElo(GameType.TICTACTOE);
             default -> throw new IllegalArgumentException("Invalid game: " + game);
         };
     }
 
     public void setElo(String game, int elo){
         switch (game) {
-            case "connect4" -> eloRatings.setElo("connect4", elo);
-            case "checkers" -> eloRatings.setElo("checkers", elo);
+            case "connect4" -> setElo(GameType.CONNECT4, elo);
+            case "checkers" -> setElo(GameType.CHECKERS, elo);
             case "tictactoe" -> eloRatings.setElo("ticTacToe", elo);
             default -> throw new IllegalArgumentException("Invalid game: " + game);
         }
@@ -49,9 +78,9 @@ public class Player {
 
     public int getWins(String game){
         return switch (game) {
-            case "connect4" -> gameStats.getWins("connect4");
-            case "checkers" -> gameStats.getWins("checkers");
-            case "ticTacToe" -> gameStats.getWins("ticTacToe");
+            case "connect4" -> getWins(GameType.CONNECT4);
+            case "checkers" -> getWins(GameType.CHECKERS);
+            case "ticTacToe" -> getWins(GameType.TICTACTOE);
             default -> throw new IllegalStateException("Unexpected value: " + game);
         };
     }
@@ -66,9 +95,9 @@ public class Player {
 
     public void incrementWins(String game) {
         switch (game) {
-            case "ticTacToe" -> gameStats.incrementWins("ticTacToe");
-            case "checkers" -> gameStats.incrementWins("checkers");
-            case "connect4" -> gameStats.incrementWins("connect4");
+            case "ticTacToe" -> incrementWins(GameType.TICTACTOE);
+            case "checkers" -> incrementWins(GameType.CHECKERS);
+            case "connect4" -> incrementWins(GameType.CONNECT4);
             default -> throw new IllegalStateException("Unexpected value: " + game);
         }
     }
@@ -1,11 +1,13 @@
 package com.game.leaderboard.PlayerComparator;
 
+import com.game.leaderboard.GameType;
 import com.game.leaderboard.Player;
 
 import java.util.Comparator;
 
 public class EloComparator implements Comparator<Player> {
     private String mode;
+    private GameType game;  // mode looked up once, null if it isn't a game
     private boolean ascending;
 
     // mode: the specific Elo type (e.g., "blitz", "rapid")
@@ -13,6 +15,12 @@ public class EloComparator implements Comparator<Player> {
     public EloComparator(String mode, boolean ascending) {
         this.mode = mode;
         this.ascending = ascending;
+        switch (mode) {
+            case "tictactoe" -> game = GameType.TICTACTOE;
+            case "checkers" -> game = GameType.CHECKERS;
+            case "connect4" -> game = GameType.CONNECT4;
+            default -> game = null;
+        }
     }
 
     /**
@@ -25,22 +33,11 @@ public class EloComparator implements Comparator<Player> {
      */
     @Override
     public int compare(Player p1, Player p2) {
-        switch (mode) {
-            case "tictactoe":
-                int ticTacToeElo1 = p1.getElo("tictactoe");
-                int ticTacToeElo2 = p2.getElo("tictactoe");
-                return ascending ? Integer.compare(ticTacToeElo1, ticTacToeElo2) : Integer.compare(ticTacToeElo2, ticTacToeElo1);
-            case "checkers":
-                int checkersElo1 = p1.getElo("checkers");
-                int checkersElo2 = p2.getElo("checkers");
-                return ascending ? Integer.compare(checkersElo1, checkersElo2) : Integer.compare(checkersElo2, checkersElo1);
-            case "connect4":
-                int connect4Elo1 = p1.getElo("connect4");
-                int connect4Elo2 = p2.getElo("connect4");
-                return ascending ? Integer.compare(connect4Elo1, connect4Elo2) : Integer.compare(connect4Elo2, connect4Elo1);
-            default:
-                throw new IllegalArgumentException("Invalid mode. Choose one of 1, 2, 3.");
+        if (game == null) {
+            throw new IllegalArgumentException("Invalid mode. Choose one of 1, 2, 3.");
         }
-
+        int elo1 = p1.getElo(game);
+        int elo2 = p2.getElo(game);
+        return ascending ? Integer.compare(elo1, elo2) : Integer.compare(elo2, elo1);
     }
 }
\ No newline at end of file
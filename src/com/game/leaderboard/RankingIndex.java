@@ -0,0 +1,307 @@
+package com.game.leaderboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ *     Players of one game kept in rank order, highest Elo first and lowest id first on equal Elo.
+ *     It is an order-statistic treap: every node knows the size of its subtree, so the rank of a player and the
+ *     player at a rank are found in O(log n), and a rating change moves one player in O(log n) instead of
+ *     sorting everyone again.
+ * </p>
+ * The index keeps the Elo each player had when it was added or last updated, call update after changing a rating.
+ * All methods are synchronized, so the GUI can read while the server records results.
+ */
+public class RankingIndex {
+    private static final class Node {
+        final Player player;
+        final int id;
+        final int elo;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(Player player, int elo, int priority) {
+            this.player = player;
+            this.id = player.getId();
+            this.elo = elo;
+            this.priority = priority;
+        }
+    }
+
+    private final String game;
+    private final GameType type;
+    private final Map<Integer, Node> byId = new HashMap<>();
+    private Node root;
+    private int seed = 0x9E3779B9;
+
+    /**
+     * @param game the game whose Elo orders the players, as accepted by Player.getElo
+     */
+    public RankingIndex(String game) {
+        this.game = game;
+        this.type = GameType.fromName(game);
+    }
+
+    /**
+     * Adds a player, or moves them if their rating changed since they were added
+     * @param player the player
+     */
+    public synchronized void update(Player player) {
+        Node old = byId.get(player.getId());
+        int elo = player.getElo(type);
+        if (old != null) {
+            if (old.elo == elo && old.player == player) {
+                return;
+            }
+            root = delete(root, old.elo, old.id);
+        }
+        Node node = new Node(player, elo, nextPriority());
+        byId.put(node.id, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * @param player the player
+     * @return true if this player, not just someone with the same id, is in the index
+     */
+    public synchronized boolean contains(Player player) {
+        Node node = byId.get(player.getId());
+        return node != null && node.player == player;
+    }
+
+    /**
+     * @param id id of the player to take out
+     * @return true if they were in the index
+     */
+    public synchronized boolean remove(int id) {
+        Node old = byId.remove(id);
+        if (old == null) {
+            return false;
+        }
+        root = delete(root, old.elo, old.id);
+        return true;
+    }
+
+    /**
+     * @param id a player id
+     * @return the player's rank starting at 1, or 0 if they aren't in the index
+     */
+    public synchronized int rankOf(int id) {
+        Node target = byId.get(id);
+        if (target == null) {
+            return 0;
+        }
+        int rank = 1;
+        Node node = root;
+        while (node != null) {
+            int order = compare(target.elo, target.id, node);
+            if (order < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left);
+                if (order == 0) {
+                    return rank;
+                }
+                rank++;
+                node = node.right;
+            }
+        }
+        throw new IllegalStateException("Player " + id + " is missing from the tree");
+    }
+
+    /**
+     * @param rank starting at 1
+     * @return the player at that rank, or null if there are fewer players
+     */
+    public synchronized Player getAt(int rank) {
+        if (rank < 1 || rank > size(root)) {
+            return null;
+        }
+        int index = rank - 1;
+        Node node = root;
+        while (true) {
+            int left = size(node.left);
+            if (index < left) {
+                node = node.left;
+            } else if (index == left) {
+                return node.player;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * @param count number of players wanted
+     * @return the best players, best first
+     */
+    public List<Player> top(int count) {
+        return range(1, count);
+    }
+
+    /**
+     * A page of the leaderboard, found without walking the players before it
+     * @param fromRank first rank, starting at 1
+     * @param count number of players wanted
+     * @return the players from that rank on, fewer at the end of the list
+     */
+    public synchronized List<Player> range(int fromRank, int count) {
+        int from = Math.max(0, fromRank - 1);
+        int to = (int) Math.min(size(root), (long) fromRank - 1 + count);
+        List<Player> players = new ArrayList<>(Math.max(0, to - from));
+        collect(root, 0, from, to, players);
+        return players;
+    }
+
+    /**
+     * The players ranked just above and below someone, for showing a player where they stand
+     * @param id the player in the middle
+     * @param radius number of players wanted on each side
+     * @return up to 2 * radius + 1 players in rank order, empty if the player isn't in the index
+     */
+    public synchronized List<Player> around(int id, int radius) {
+        int rank = rankOf(id);
+        if (rank == 0) {
+            return new ArrayList<>();
+        }
+        int from = Math.max(1, rank - radius);
+        return range(from, rank + radius - from + 1);
+    }
+
+    public synchronized int size() {
+        return size(root);
+    }
+
+    public synchronized void clear() {
+        root = null;
+        byId.clear();
+    }
+
+    public String getGame() {
+        return game;
+    }
+
+    /**
+     * In-order walk that skips every subtree outside ranks [from, to), offset is the rank index of the subtree's
+     * first node
+     */
+    private static void collect(Node node, int offset, int from, int to, List<Player> out) {
+        while (node != null && offset < to) {
+            int here = offset + size(node.left);
+            if (from < here) {
+                collect(node.left, offset, from, to, out);
+            }
+            if (here >= from && here < to) {
+                out.add(node.player);
+            }
+            offset = here + 1;
+            node = node.right;
+        }
+    }
+
+    /**
+     * Negative when (elo, id) ranks above the node
+     */
+    private static int compare(int elo, int id, Node node) {
+        if (elo != node.elo) {
+            return elo > node.elo ? -1 : 1;
+        }
+        return Integer.compare(id, node.id);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void resize(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node[] parts = split(node, added.elo, added.id);
+            added.left = parts[0];
+            added.right = parts[1];
+            resize(added);
+            return added;
+        }
+        if (compare(added.elo, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        resize(node);
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the nodes ranked above (elo, id) and the rest
+     */
+    private static Node[] split(Node node, int elo, int id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        Node[] parts;
+        if (compare(elo, id, node) <= 0) {
+            parts = split(node.left, elo, id);
+            node.left = parts[1];
+            parts[1] = node;
+        } else {
+            parts = split(node.right, elo, id);
+            node.right = parts[0];
+            parts[0] = node;
+        }
+        resize(node);
+        return parts;
+    }
+
+    private static Node delete(Node node, int elo, int id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(elo, id, node);
+        if (order == 0) {
+            return merge(node.left, node.right);
+        }
+        if (order < 0) {
+            node.left = delete(node.left, elo, id);
+        } else {
+            node.right = delete(node.right, elo, id);
+        }
+        resize(node);
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            resize(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        resize(right);
+        return right;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
@@ -1,31 +1,47 @@
 package com.game.matchmaking;
 
-public class EloRatings {
-    private int ticTacToeElo;
-    private int checkersElo;
-    private int connect4Elo;
+import com.game.leaderboard.GameType;
+
+/**
+ * One player's Elo ratings, a view onto their row in the RatingStore
+ */
+public final class EloRatings {
+    private final RatingStore store;
+    private final int index;
 
     public EloRatings(int ticTacToe, int checkers, int connect4) {
-        this.ticTacToeElo = ticTacToe;
-        this.checkersElo = checkers;
-        this.connect4Elo = connect4;
+        this(RatingStore.getShared(), RatingStore.getShared().add(
+                new int[]{ticTacToe, checkers, connect4}, new int[RatingStore.GAMES]));
+        store.releaseWhenUnreachable(this, index); // this object is the row's only user
+    }
+
+    /**
+     * @param store the store holding the ratings
+     * @param index the player's index in it
+     */
+    public EloRatings(RatingStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    public int getElo(GameType game) {
+        return store.getElo(index, game);
+    }
+
+    public void setElo(GameType game, int value) {
+        store.setElo(index, game, value);
     }
 
     public int getElo(String game) {
-        return switch (game.toLowerCase()) {
-            case "tictactoe" -> ticTacToeElo;
-            case "checkers" -> checkersElo;
-            case "connect4" -> connect4Elo;
-            default -> throw new IllegalArgumentException("Unknown game: " + game);
-        };
+        return getElo(GameType.fromName(game));
     }
 
     public void setElo(String game, int value) {
-        switch (game.toLowerCase()) {
-            case "ticTacToe" -> ticTacToeElo = value;
-            case "checkers" -> checkersElo = value;
-            case "connect4" -> connect4Elo = value;
-            default -> throw new IllegalArgumentException("Unknown game: " + game);
+        GameType type = GameType.fromName(game);
+        if (type == GameType.TICTACTOE) {
+            // the string setter has never accepted Tic Tac Toe (its case label wasn't lowercase), use setElo(GameType, int)
+            throw new IllegalArgumentException("Unknown game: " + game);
         }
+        setElo(type, value);
     }
 }
@@ -15,7 +15,7 @@ public class EloSystem{
      */
     private static double probability(int rA, int rB)
     {
-        return 1.0 / ((1 + Math.pow(10.0, rA - rB) / 400.0));
+        return 1.0 / (1 + Math.pow(10.0, (rB - rA) / 400.0));
     }
 
     /**
@@ -1,5 +1,9 @@
 package com.game.matchmaking;
 
+import com.game.leaderboard.GameResult;
+import com.game.leaderboard.GameType;
+import com.game.leaderboard.Player;
+
 /**
  * <p>
  *     Implements Game sessions. Used by Matchmaking.
@@ -17,6 +21,10 @@ public class GameSession {
     private String player1;
     private String player2;
     private boolean isActive;
+    private Player rated1;          // set when the session's result should change ratings
+    private Player rated2;
+    private GameType gameType;
+    private RatingUpdater ratingUpdater;
 
     /**
      * Public constructor
@@ -29,6 +37,21 @@ public class GameSession {
         this.isActive = true;
     }
 
+    /**
+     * A rated session, its result goes to the rating updater when it ends
+     * @param player1 player 1
+     * @param player2 player 2
+     * @param gameType the game being played
+     * @param ratingUpdater applies the result, usually RatingUpdater.getShared()
+     */
+    public GameSession(Player player1, Player player2, GameType gameType, RatingUpdater ratingUpdater) {
+        this(player1.getName(), player2.getName());
+        this.rated1 = player1;
+        this.rated2 = player2;
+        this.gameType = gameType;
+        this.ratingUpdater = ratingUpdater;
+    }
+
     public String getPlayer1() {
         return player1;
     }
@@ -46,12 +69,22 @@ public class GameSession {
     }
 
     /**
-     * ends the game session
-     * @param winner the id of the player who won the round
+     * ends the game session, a rated session queues its result without waiting for the ratings to change
+     * @param winner the id of the player who won the round, anything else for a draw
      */
     public void endSession(String winner) {
+        boolean wasActive = isActive;
         this.isActive = false;
         System.out.println("Game over! Winner: " + winner);
+        if (wasActive && ratingUpdater != null) {
+            GameResult result = GameResult.DRAW;
+            if (player1.equals(winner)) {
+                result = GameResult.WIN;
+            } else if (player2.equals(winner)) {
+                result = GameResult.LOSE;
+            }
+            ratingUpdater.submit(rated1, rated2, gameType, result);
+        }
     }
 
     /**
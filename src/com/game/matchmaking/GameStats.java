@@ -1,31 +1,42 @@
 package com.game.matchmaking;
 
-public class GameStats {
-    private int tictactoeWins;
-    private int checkersWins;
-    private int connect4Wins;
+import com.game.leaderboard.GameType;
+
+/**
+ * One player's win counts, a view onto their row in the RatingStore
+ */
+public final class GameStats {
+    private final RatingStore store;
+    private final int index;
 
     public GameStats(int tttWins, int checkersWins, int connect4Wins) {
-        this.tictactoeWins = tttWins;
-        this.checkersWins = checkersWins;
-        this.connect4Wins = connect4Wins;
+        this(RatingStore.getShared(), RatingStore.getShared().add(
+                new int[RatingStore.GAMES], new int[]{tttWins, checkersWins, connect4Wins}));
+        store.releaseWhenUnreachable(this, index); // this object is the row's only user
+    }
+
+    /**
+     * @param store the store holding the wins
+     * @param index the player's index in it
+     */
+    public GameStats(RatingStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    public int getWins(GameType game) {
+        return store.getWins(index, game);
+    }
+
+    public void incrementWins(GameType game) {
+        store.incrementWins(index, game);
     }
 
     public int getWins(String game) {
-        return switch (game.toLowerCase()) {
-            case "tictactoe" -> tictactoeWins;
-            case "checkers" -> checkersWins;
-            case "connect4" -> connect4Wins;
-            default -> throw new IllegalArgumentException("Unknown game: " + game);
-        };
+        return getWins(GameType.fromName(game));
     }
 
     public void incrementWins(String game) {
-        switch (game.toLowerCase()) {
-            case "tictactoe" -> tictactoeWins++;
-            case "checkers" -> checkersWins++;
-            case "connect4" -> connect4Wins++;
-            default -> throw new IllegalArgumentException("Unknown game: " + game);
-        }
+        incrementWins(GameType.fromName(game));
     }
 }
@@ -1,36 +1,79 @@
 package com.game.matchmaking;
 
+import com.game.leaderboard.GameType;
 import com.game.leaderboard.Player;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Skill based matchmaking. Queued players are indexed by Elo per game in a skip list, so the closest
+ * opponent is one of a player's two neighbours in the index and is found in O(log n).
+ * A player's search window starts at INITIAL_RANGE and widens with how long they have been waiting.
+ * Nothing here takes the instance lock, so enqueue never waits for a matchmaking pass.
+ */
 public class Matchmaking {
-    private final List<Player> queue = new ArrayList<>();
+    private static final String[] GAMES = {"tictactoe", "checkers", "connect4"};
+    private static final GameType[] TYPES = GameType.values(); // same order as GAMES
+
     private final int INITIAL_RANGE = 50;
     private final int RANGE_INCREMENT = 25;
+    // widen by RANGE_INCREMENT per this much waiting, fully open after 56 s, just before TIMEOUT
+    private final long RANGE_INCREMENT_MS = 4_000;
+    private final int MAX_RANGE = 400;
     private final long TIMEOUT = 60_000;
 
-    public synchronized void enqueue(Player p) {
-        queue.add(p);
+    private final Queue<Ticket> queue = new ConcurrentLinkedQueue<>(); // FIFO order for timeouts
+    private final Map<String, ConcurrentSkipListMap<Long, Ticket>> eloIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private volatile MatchListener matchListener;
+
+    /**
+     * Receives every pair created by a matchmaking pass
+     */
+    public interface MatchListener {
+        void onMatch(Player p1, Player p2, String game);
+    }
+
+    /**
+     * A queued player and their keys in each game's index
+     */
+    private static class Ticket {
+        final Player player;
+        final long[] keys = new long[GAMES.length];
+        final AtomicBoolean queued = new AtomicBoolean(true);
+
+        Ticket(Player player) {
+            this.player = player;
+        }
+    }
+
+    public Matchmaking() {
+        for (String game : GAMES) {
+            eloIndex.put(game, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    public void enqueue(Player p) {
+        Ticket ticket = new Ticket(p);
+        // index key: Elo in the high bits, a sequence number in the low bits so equal ratings don't collide
+        long seq = sequence.getAndIncrement() & 0x7FFF_FFFFL;
+        for (int i = 0; i < GAMES.length; i++) {
+            ticket.keys[i] = ((long) p.getElo(TYPES[i]) << 32) | seq;
+            eloIndex.get(GAMES[i]).put(ticket.keys[i], ticket);
+        }
+        queue.add(ticket);
     }
 
-    public synchronized void runMatchmaking(String game) {
+    public void runMatchmaking(String game) {
         while (true) {
-            Iterator<Player> it = queue.iterator();
-            while (it.hasNext()) {
-                Player p1 = it.next();
-                Player match = findMatch(p1, game);
-                if (match != null) {
-                    it.remove();
-                    queue.remove(match);
-                    startGame(p1, match, game);
-                } else if (System.currentTimeMillis() - p1.getQueuedAt() > TIMEOUT) {
-                    System.out.println("⏳ Matchmaking timed out for " + p1.getName());
-                    it.remove();
-                }
-            }
+            matchOnce(game, System.currentTimeMillis());
             try {
                 Thread.sleep(1000); // tick every second
             } catch (InterruptedException e) {
@@ -39,24 +82,119 @@ public class Matchmaking {
         }
     }
 
-    private Player findMatch(Player p1, String game) {
-        int range = INITIAL_RANGE;
-        int p1Elo = p1.getElo(game);
+    /**
+     * Replaces the placeholder startGame with a callback, used by the load simulator
+     * @param matchListener called for each pair, or null for the default behaviour
+     */
+    public void setMatchListener(MatchListener matchListener) {
+        this.matchListener = matchListener;
+    }
 
-        while (range <= 400) {
-            for (Player p2 : queue) {
-                if (!p2.getName().equals(p1.getName())) {
-                    int p2Elo = p2.getElo(game);
-                    if (Math.abs(p1Elo - p2Elo) <= range) {
-                        return p2;
+    /**
+     * One matchmaking pass over the queue, oldest player first
+     * @param game game to match for
+     * @param now current time in milliseconds, used for search windows and timeouts
+     * @return number of pairs created
+     */
+    public int matchOnce(String game, long now) {
+        int matches = 0;
+        int gameIndex = gameIndex(game);
+        Iterator<Ticket> it = queue.iterator();
+        while (it.hasNext()) {
+            Ticket t1 = it.next();
+            if (!t1.queued.get()) {
+                it.remove(); // matched earlier in this pass
+                continue;
+            }
+            Ticket match = findMatch(t1, gameIndex, now);
+            if (match != null && claim(t1)) {
+                if (claim(match)) {
+                    it.remove();
+                    matches++;
+                    MatchListener listener = matchListener;
+                    if (listener != null) {
+                        listener.onMatch(t1.player, match.player, game);
+                    } else {
+                        startGame(t1.player, match.player, game);
                     }
+                    continue;
                 }
+                release(t1); // the opponent was taken by another pass
+            } else if (now - t1.player.getQueuedAt() > TIMEOUT && claim(t1)) {
+                System.out.println("⏳ Matchmaking timed out for " + t1.player.getName());
+                it.remove();
             }
-            range += RANGE_INCREMENT;
+        }
+        return matches;
+    }
+
+    /**
+     * Search window for a player, widening the longer they wait
+     * @param waitedMs time since the player was queued
+     * @return the largest Elo difference accepted
+     */
+    int rangeFor(long waitedMs) {
+        long steps = Math.max(0, waitedMs) / RANGE_INCREMENT_MS;
+        return (int) Math.min(MAX_RANGE, INITIAL_RANGE + steps * RANGE_INCREMENT);
+    }
+
+    private Ticket findMatch(Ticket t1, int gameIndex, long now) {
+        ConcurrentSkipListMap<Long, Ticket> index = eloIndex.get(GAMES[gameIndex]);
+        long key = t1.keys[gameIndex];
+        long p1Elo = key >> 32;
+        int range = rangeFor(now - t1.player.getQueuedAt());
+
+        // the closest ratings are the neighbours on either side of this player's key
+        Map.Entry<Long, Ticket> below = index.lowerEntry(key);
+        Map.Entry<Long, Ticket> above = index.higherEntry(key);
+        long belowDiff = below == null ? Long.MAX_VALUE : p1Elo - (below.getKey() >> 32);
+        long aboveDiff = above == null ? Long.MAX_VALUE : (above.getKey() >> 32) - p1Elo;
+        if (belowDiff <= aboveDiff && belowDiff <= range) {
+            return below.getValue();
+        }
+        if (aboveDiff <= range) {
+            return above.getValue();
         }
         return null;
     }
 
+    /**
+     * Takes a ticket out of the queue and every index, only one caller can win
+     */
+    private boolean claim(Ticket ticket) {
+        if (!ticket.queued.compareAndSet(true, false)) {
+            return false;
+        }
+        for (int i = 0; i < GAMES.length; i++) {
+            eloIndex.get(GAMES[i]).remove(ticket.keys[i], ticket);
+        }
+        return true;
+    }
+
+    private void release(Ticket ticket) {
+        for (int i = 0; i < GAMES.length; i++) {
+            eloIndex.get(GAMES[i]).put(ticket.keys[i], ticket);
+        }
+        ticket.queued.set(true);
+    }
+
+    private static int gameIndex(String game) {
+        String normalized = game.toLowerCase();
+        for (int i = 0; i < GAMES.length; i++) {
+            if (GAMES[i].equals(normalized)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid game: " + game);
+    }
+
+    /**
+     * @return number of players still waiting
+     */
+    public int getQueuedCount() {
+        return eloIndex.get(GAMES[0]).size();
+    }
+
     private void startGame(Player p1, Player p2, String game) {
         System.out.printf("🎮 Game started: %s vs %s in %s (ELO: %d vs %d)%n",
                 p1.getName(), p2.getName(),
@@ -64,6 +202,6 @@ public class Matchmaking {
 
         // Simulate p1 winning for now
         p1.incrementWins(game);
-        System.out.printf("🏆 %s now has %d wins in %s%n", p1.getName(), p1.getWins(game));
+        System.out.printf("🏆 %s now has %d wins in %s%n", p1.getName(), p1.getWins(game), game);
     }
 }
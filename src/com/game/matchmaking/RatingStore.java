@@ -0,0 +1,140 @@
+package com.game.matchmaking;
+
+import com.game.leaderboard.GameType;
+
+import java.lang.ref.Cleaner;
+
+/**
+ * <p>
+ *     Elo ratings and win counts for every player, kept in int columns instead of three named fields per object.
+ *     Each player gets a dense index when they are added, and a value lives at index * GAMES + game.ordinal(),
+ *     so reading a rating is an array load with no string to lowercase and switch on.
+ * </p>
+ * The columns are split into fixed chunks that never move once allocated, so adding players can grow the chunk
+ * table while other threads read and write existing players without a lock. A released index goes on a free list
+ * and the next add reuses it, so the store only grows with the number of live players.
+ */
+public final class RatingStore {
+    /**
+     * Number of games, the width of one player's row
+     */
+    public static final int GAMES = GameType.values().length;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_PLAYERS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_PLAYERS - 1;
+
+    private static final RatingStore SHARED = new RatingStore();
+
+    private static final Cleaner CLEANER = Cleaner.create(task -> {
+        Thread thread = new Thread(task, "rating-store-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int[][] eloChunks = new int[1][];
+    private volatile int[][] winChunks = new int[1][];
+    private int size;                       // indexes ever handed out, released ones included
+    private int[] freeIndexes = new int[16];
+    private int freeCount;
+
+    /**
+     * @return the store every Player keeps its ratings in
+     */
+    public static RatingStore getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Adds a player
+     * @param elos one rating per game, in GameType order
+     * @param wins one win count per game, in GameType order
+     * @return the player's index
+     */
+    public synchronized int add(int[] elos, int[] wins) {
+        if (elos.length != GAMES || wins.length != GAMES) {
+            throw new IllegalArgumentException("Expected " + GAMES + " values per player");
+        }
+        if (freeCount > 0) {
+            int index = freeIndexes[--freeCount];
+            write(index, elos, wins);
+            return index;
+        }
+        int index = size;
+        int chunk = index >>> CHUNK_BITS;
+        if (chunk == eloChunks.length) {
+            int[][] grownElos = new int[chunk * 2][];
+            int[][] grownWins = new int[chunk * 2][];
+            System.arraycopy(eloChunks, 0, grownElos, 0, chunk);
+            System.arraycopy(winChunks, 0, grownWins, 0, chunk);
+            eloChunks = grownElos;
+            winChunks = grownWins;
+        }
+        if (eloChunks[chunk] == null) {
+            eloChunks[chunk] = new int[CHUNK_PLAYERS * GAMES];
+            winChunks[chunk] = new int[CHUNK_PLAYERS * GAMES];
+        }
+        write(index, elos, wins);
+        size = index + 1;
+        return index;
+    }
+
+    private void write(int index, int[] elos, int[] wins) {
+        int chunk = index >>> CHUNK_BITS;
+        int offset = (index & CHUNK_MASK) * GAMES;
+        System.arraycopy(elos, 0, eloChunks[chunk], offset, GAMES);
+        System.arraycopy(wins, 0, winChunks[chunk], offset, GAMES);
+    }
+
+    /**
+     * Gives a player's index back, the next add may reuse it
+     * @param index an index returned by add that nothing reads or writes any more
+     */
+    public synchronized void release(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Unknown index: " + index);
+        }
+        if (freeCount == freeIndexes.length) {
+            int[] grown = new int[freeCount * 2];
+            System.arraycopy(freeIndexes, 0, grown, 0, freeCount);
+            freeIndexes = grown;
+        }
+        freeIndexes[freeCount++] = index;
+    }
+
+    /**
+     * Releases an index once the object using it is garbage collected
+     * @param owner the only object that reads and writes the index, it must not be referenced by the store
+     * @param index the owner's index
+     */
+    public void releaseWhenUnreachable(Object owner, int index) {
+        CLEANER.register(owner, () -> release(index));
+    }
+
+    /**
+     * @return number of players holding an index
+     */
+    public synchronized int size() {
+        return size - freeCount;
+    }
+
+    public int getElo(int index, GameType game) {
+        return eloChunks[index >>> CHUNK_BITS][slot(index, game)];
+    }
+
+    public void setElo(int index, GameType game, int elo) {
+        eloChunks[index >>> CHUNK_BITS][slot(index, game)] = elo;
+    }
+
+    public int getWins(int index, GameType game) {
+        return winChunks[index >>> CHUNK_BITS][slot(index, game)];
+    }
+
+    public void incrementWins(int index, GameType game) {
+        winChunks[index >>> CHUNK_BITS][slot(index, game)]++;
+    }
+
+    private static int slot(int index, GameType game) {
+        return (index & CHUNK_MASK) * GAMES + game.ordinal();
+    }
+}
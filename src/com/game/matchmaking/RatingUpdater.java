@@ -0,0 +1,282 @@
+package com.game.matchmaking;
+
+import com.game.leaderboard.GameResult;
+import com.game.leaderboard.GameType;
+import com.game.leaderboard.Leaderboard;
+import com.game.leaderboard.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Applies Elo changes after matches end. submit queues a finished match and returns at once, so a burst of
+ *     games ending never waits on the leaderboard. The updater's own thread drains up to maxBatch results at a
+ *     time, works out both players' new ratings with EloSystem and writes each game's changes to the rating store
+ *     and the leaderboard ranking in one step, so both players of a match always move together.
+ * </p>
+ * Results are applied in the order they were submitted, a player with several results in one batch gets each
+ * change on top of the last. Queue depth and lag are exposed for monitoring.
+ */
+public class RatingUpdater implements AutoCloseable {
+    public static final int DEFAULT_K = 32;
+    public static final int DEFAULT_BATCH = 512;
+
+    private static final RatingUpdater SHARED = new RatingUpdater(DEFAULT_K, DEFAULT_BATCH);
+    private static final GameType[] GAMES = GameType.values();
+
+    /**
+     * A finished match waiting to be applied
+     */
+    private static final class Result {
+        final Player player1;
+        final Player player2;
+        final GameType game;
+        final GameResult result;
+        final long endedAt;
+
+        Result(Player player1, Player player2, GameType game, GameResult result, long endedAt) {
+            this.player1 = player1;
+            this.player2 = player2;
+            this.game = game;
+            this.result = result;
+            this.endedAt = endedAt;
+        }
+    }
+
+    private final int k;
+    private final int maxBatch;
+    private final Queue<Result> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ExecutorService executor;
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile long lastLagNanos;
+
+    // only touched by the updater thread
+    private final List<Result> batch = new ArrayList<>();
+    private final Map<Player, Integer> ratings = new IdentityHashMap<>();
+    private Player[] changed = new Player[16];
+    private int[] elos = new int[16];
+
+    /**
+     * @param k the Elo K factor, the most a rating moves in one match
+     * @param maxBatch most results applied per flush
+     */
+    public RatingUpdater(int k, int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.k = k;
+        this.maxBatch = maxBatch;
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "rating-updater");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the updater used by matchmaking and game sessions
+     */
+    public static RatingUpdater getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Queues a finished match, the ratings change shortly after on the updater's thread
+     * @param player1 first player
+     * @param player2 second player
+     * @param game the game played
+     * @param result the result for player1
+     */
+    public void submit(Player player1, Player player2, GameType game, GameResult result) {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("Rating updater is closed");
+        }
+        if (game == null || result == null) {
+            throw new IllegalArgumentException("A result needs a game and an outcome");
+        }
+        pending.add(new Result(player1, player2, game, result, System.nanoTime()));
+        depth.incrementAndGet();
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Waits until every result submitted before the call has been applied
+     */
+    public void flush() throws InterruptedException {
+        try {
+            executor.submit(this::drain).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rating update failed", e.getCause());
+        }
+    }
+
+    /**
+     * Applies what is queued and stops the updater thread. If the caller is interrupted the queue is left
+     * to drain on its own and the interrupt flag is restored.
+     */
+    @Override
+    public void close() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        try {
+            flush();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return results submitted but not applied yet
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * @return how long the oldest queued result has been waiting, 0 when the queue is empty
+     */
+    public long getLagMillis() {
+        Result oldest = pending.peek();
+        return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.endedAt);
+    }
+
+    /**
+     * @return time from the oldest result of the last batch being submitted to the batch being applied
+     */
+    public long getLastBatchLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLagNanos);
+    }
+
+    public long getApplied() {
+        return applied.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * Builds a one line report of the queue and how far behind it is
+     * @return the report
+     */
+    public String report() {
+        return "Ratings: queued " + depth.get()
+                + " | Lag: " + getLagMillis() + "ms (last batch " + getLastBatchLagMillis() + "ms)"
+                + " | Applied: " + applied.get() + " in " + batches.get() + " batches";
+    }
+
+    /**
+     * Applies batches until the queue is empty. The flag is cleared first, so a result submitted while this
+     * runs either is seen here or schedules another pass.
+     */
+    private void drain() {
+        scheduled.set(false);
+        while (true) {
+            try {
+                if (applyBatch() == 0) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // the batch is lost, keep the updater going for the rest
+                batch.clear();
+                ratings.clear();
+            }
+        }
+    }
+
+    private int applyBatch() {
+        Result next;
+        while (batch.size() < maxBatch && (next = pending.poll()) != null) {
+            batch.add(next);
+        }
+        int size = batch.size();
+        if (size == 0) {
+            return 0;
+        }
+        depth.addAndGet(-size);
+        for (GameType game : GAMES) {
+            for (Result result : batch) {
+                if (result.game == game) {
+                    rate(result);
+                }
+            }
+            if (!ratings.isEmpty()) {
+                publish(game);
+            }
+        }
+        lastLagNanos = System.nanoTime() - batch.get(0).endedAt;
+        applied.addAndGet(size);
+        batches.incrementAndGet();
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * Works out both players' new ratings from their ratings before this match
+     */
+    private void rate(Result result) {
+        GameType game = result.game;
+        int elo1 = current(result.player1, game);
+        int elo2 = current(result.player2, game);
+        double score = switch (result.result) {
+            case WIN -> 1.0;
+            case DRAW -> 0.5;
+            case LOSE -> 0.0;
+        };
+        ratings.put(result.player1, EloSystem.updateRating(elo1, elo2, k, score));
+        ratings.put(result.player2, EloSystem.updateRating(elo2, elo1, k, 1.0 - score));
+        if (result.result == GameResult.WIN) {
+            result.player1.incrementWins(game);
+        } else if (result.result == GameResult.LOSE) {
+            result.player2.incrementWins(game);
+        }
+    }
+
+    /**
+     * @return the player's rating including changes earlier in this batch
+     */
+    private int current(Player player, GameType game) {
+        Integer rated = ratings.get(player);
+        return rated != null ? rated : player.getElo(game);
+    }
+
+    /**
+     * Writes one game's changes to the store and the ranking together
+     */
+    private void publish(GameType game) {
+        if (changed.length < ratings.size()) {
+            changed = Arrays.copyOf(changed, ratings.size() * 2);
+            elos = Arrays.copyOf(elos, ratings.size() * 2);
+        }
+        int count = 0;
+        for (Map.Entry<Player, Integer> entry : ratings.entrySet()) {
+            changed[count] = entry.getKey();
+            elos[count++] = entry.getValue();
+        }
+        Leaderboard.setElos(game, changed, elos, count);
+        Arrays.fill(changed, 0, count, null);
+        ratings.clear();
+    }
+}
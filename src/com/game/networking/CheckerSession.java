@@ -1,7 +1,12 @@
 package com.game.networking;
 
+import com.game.gamelogic.CheckersBitBoard;
+import com.game.networking.protocol.FrameCodec;
 
 public class CheckerSession extends GameSession {
+    // the server's copy of the game, player 1 is red and moves first
+    private final CheckersBitBoard board = new CheckersBitBoard();
+
     /**
      * Constructor for a GameSession
      *
@@ -16,6 +21,7 @@ public class CheckerSession extends GameSession {
         @Override
         public void start(ClientHandler player1Handler, ClientHandler player2Handler) {
             super.start(player1Handler, player2Handler);
+            board.reset(CheckersBitBoard.RED);
 
             // Set the current player to player 1 at the start
             currentPlayer = player1;
@@ -35,4 +41,46 @@ public class CheckerSession extends GameSession {
     public Player getPlayer2() {
         return player2;
     }
+
+    /**
+     * Moves arrive one step at a time, so a multi-jump is several moves from the same player
+     */
+    @Override
+    protected int applyMove(int seat, int move) {
+        if (move == MoveCodec.INVALID) {
+            return FrameCodec.ERROR_ILLEGAL_MOVE;
+        }
+        int from = move & 63;
+        int to = (move >>> 6) & 63;
+        if (!board.isLegalStep(from, to)) {
+            return FrameCodec.ERROR_ILLEGAL_MOVE;
+        }
+        board.playStep(from, to);
+        return ACCEPTED;
+    }
+
+    @Override
+    protected boolean keepsTurn() {
+        return board.isJumpInProgress();
+    }
+
+    @Override
+    protected boolean isGameOver() {
+        return !board.hasLegalMove();
+    }
+
+    /**
+     * The side left without a legal move loses
+     */
+    @Override
+    protected int winningSeat() {
+        return 1 - board.getSideToMove();
+    }
+
+    /**
+     * @return the server's copy of the board
+     */
+    public CheckersBitBoard getBoard() {
+        return board;
+    }
 }
\ No newline at end of file
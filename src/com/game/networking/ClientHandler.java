@@ -1,10 +1,22 @@
 package com.game.networking;
 
+import com.game.networking.protocol.BufferPool;
+import com.game.networking.protocol.Frame;
+import com.game.networking.protocol.FrameCodec;
+import com.game.networking.protocol.Opcode;
+import com.game.networking.protocol.WireFormat;
+
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ClientHandler implements Runnable {
     private Socket clientSocket;
@@ -19,8 +31,20 @@ public class ClientHandler implements Runnable {
     private int packetsSent;
     private int packetsReceived;
     private InetSocketAddress originalAddress;
-    private ConnectionHealth clientConnectionHealth;
-    List<String> messagesSent;
+    private final ConnectionHealth clientConnectionHealth; // shared by the whole server, see GameServer.getConnectionHealth
+    private volatile NioConnection connection; // set when this client is driven by the NIO transport
+    private volatile WireFormat wireFormat = WireFormat.TEXT;
+    private volatile GameSession gameSession;
+    private volatile long pingStartTime; // set by the heartbeat thread, read when the PONG arrives
+    private volatile boolean awaitingPong;
+    // ReentrantLock instead of synchronized so a virtual thread waiting in reconnect() does not pin its carrier
+    private final ReentrantLock connectionLock = new ReentrantLock();
+    // messages waiting for the socket, drained by one writer at a time (see flush)
+    private final OutboundQueue outbound = new OutboundQueue(OutboundQueue.DEFAULT_CAPACITY);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private WritableByteChannel blockingChannel; // only touched while holding writeLock
+    private final AtomicBoolean backgroundFlush = new AtomicBoolean(); // a flushInBackground writer is running
+    List<String> messagesSent; // only filled while the handler has no socket (tests and offline use)
 
     public ClientHandler(Socket clientSocket, GameServer gameServer) {
         this.clientSocket = clientSocket;
@@ -28,6 +52,7 @@ public class ClientHandler implements Runnable {
         this.connectionState = ConnectionState.CONNECTED;
         this.isRunning = true;
         this.messagesSent = new ArrayList<>();
+        this.clientConnectionHealth = gameServer != null ? gameServer.getConnectionHealth() : new ConnectionHealth();
         if(clientSocket != null){
             this.originalAddress = new InetSocketAddress(clientSocket.getInetAddress(), clientSocket.getPort());
         }
@@ -53,26 +78,47 @@ public class ClientHandler implements Runnable {
     /**
      * Disconnects player by changing connection state
      */
-    public synchronized void disconnect() {
-        if (connectionState == ConnectionState.DISCONNECTED) {
-            return;
-        }
+    public void disconnect() {
+        connectionLock.lock();
         try {
-            if (clientSocket != null && !clientSocket.isClosed()) {
-                clientSocket.close();
+            if (connectionState == ConnectionState.DISCONNECTED) {
+                return;
+            }
+            try {
+                if (clientSocket != null && !clientSocket.isClosed()) {
+                    clientSocket.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Error disconnecting " + clientID + ": " + e.getMessage());
+            } finally {
+                connectionState = ConnectionState.DISCONNECTED;
+                isRunning = false;
+                outbound.clear();
+                if (clientID != null) {
+                    clientConnectionHealth.remove(clientID); // the registry is shared, don't keep stats for players who left
+                }
             }
-        } catch (IOException e) {
-            System.err.println("Error disconnecting " + clientID + ": " + e.getMessage());
         } finally {
-            connectionState = ConnectionState.DISCONNECTED;
-            isRunning = false;
+            connectionLock.unlock();
         }
     }
 
     /**
      * Reconnects player by changing connection state
      */
-    public synchronized void reconnect() {
+    public void reconnect() {
+        connectionLock.lock();
+        try {
+            reconnectLocked();
+        } finally {
+            connectionLock.unlock();
+        }
+    }
+
+    /**
+     * Reconnection attempts, called with connectionLock held
+     */
+    private void reconnectLocked() {
         if (connectionState != ConnectionState.DISCONNECTED) {
             return;
         }
@@ -93,13 +139,12 @@ public class ClientHandler implements Runnable {
                     newSocket.connect(originalAddress, 3000); // 3-second connection timeout
 
                     // Successfully reconnection changes states of current clientHandler
-                    synchronized (this) {
-                        this.clientSocket = newSocket;
-                        connectionState = ConnectionState.CONNECTED;
-                        isRunning = true;
-                        System.out.println("Reconnected successfully!");
-                        return;
-                    }
+                    this.clientSocket = newSocket;
+                    this.blockingChannel = null; // re-resolved for the new socket on the next flush
+                    connectionState = ConnectionState.CONNECTED;
+                    isRunning = true;
+                    System.out.println("Reconnected successfully!");
+                    return;
                 } catch (IOException e) {
                     System.err.println("Reconnection attempt failed: " + e.getMessage());
                 }
@@ -118,8 +163,13 @@ public class ClientHandler implements Runnable {
      * Checks if the player is currently connected
      * @return Boolean if the connectionState is CONNECTED
      */
-    public synchronized boolean isConnected(){
-        return connectionState == ConnectionState.CONNECTED && !clientSocket.isClosed() && clientSocket != null;
+    public boolean isConnected(){
+        connectionLock.lock();
+        try {
+            return connectionState == ConnectionState.CONNECTED && clientSocket != null && !clientSocket.isClosed();
+        } finally {
+            connectionLock.unlock();
+        }
     }
 
     /**
@@ -152,11 +202,260 @@ public class ClientHandler implements Runnable {
      */
     public void sendMessage(String message) {
         if (message != null) {
+            queueMessage(message);
+            flush();
+        }
+    }
+
+    /**
+     * Queues a message without writing it, so several messages can go out in one write when flush() is called
+     * @param message message to send
+     */
+    public void queueMessage(String message) {
+        if (clientSocket == null && connection == null) { // nothing to write to, keep it for inspection
             System.out.println(message);
             messagesSent.add(message);
+            return;
+        }
+        ByteBuffer buffer;
+        if (wireFormat == WireFormat.BINARY) {
+            buffer = BufferPool.FRAMES.acquire();
+            if (!FrameCodec.writeText(buffer, Opcode.TEXT, message)) { // too long for a pooled buffer
+                BufferPool.FRAMES.release(buffer);
+                buffer = ByteBuffer.allocate(FrameCodec.HEADER_SIZE + 2 + message.length() * 3);
+                FrameCodec.writeText(buffer, Opcode.TEXT, message);
+            }
+            buffer.flip();
+        } else {
+            buffer = ByteBuffer.wrap((message + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        queueFrame(buffer);
+    }
+
+    /**
+     * Queues an encoded binary frame without writing it. Ownership of the buffer passes to this handler,
+     * it goes back to BufferPool.FRAMES once written.
+     * @param frame buffer in read mode holding one or more frames
+     */
+    public void queueFrame(ByteBuffer frame) {
+        if (!outbound.offer(frame)) {
+            BufferPool.FRAMES.release(frame);
+            System.err.println("Outbound queue full for " + clientID + ", dropping connection");
+            NioConnection nio = connection;
+            if (nio != null) {
+                nio.close();
+            } else {
+                disconnect();
+            }
+        }
+    }
+
+    /**
+     * Writes everything queued with queueMessage/queueFrame. On the NIO transport the event loop does the write,
+     * otherwise the calling thread writes unless another thread is already flushing, in which case that thread
+     * picks up these messages too.
+     */
+    public void flush() {
+        NioConnection nio = connection;
+        if (nio != null) {
+            nio.requestFlush();
+            return;
+        }
+        if (clientSocket == null || clientSocket.getChannel() != null && !clientSocket.getChannel().isBlocking()) {
+            return; // an NIO socket that hasn't been attached yet, attachConnection flushes it
+        }
+        while (!outbound.isEmpty() && writeLock.tryLock()) {
+            try {
+                if (blockingChannel == null) {
+                    // sockets accepted by GameServer have a channel, sockets made by reconnect() only have a stream
+                    blockingChannel = clientSocket.getChannel() != null
+                            ? clientSocket.getChannel() : Channels.newChannel(clientSocket.getOutputStream());
+                }
+                outbound.writeTo(blockingChannel);
+            } catch (IOException e) {
+                System.err.println("Write failed for " + clientID + ": " + e.getMessage());
+                disconnect();
+                return;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes everything queued without blocking the caller. NIO clients are flushed by their event loop, a blocking
+     * socket by a virtual thread of its own, so a client that stops reading only ever stalls that thread.
+     * Used by the HeartbeatScheduler, whose one thread serves every connection.
+     */
+    void flushInBackground() {
+        NioConnection nio = connection;
+        if (nio != null) {
+            nio.requestFlush();
+            return;
+        }
+        // one background writer per client. Anything queued while it finishes goes out with the next flush
+        if (backgroundFlush.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("omg-flush").start(() -> {
+                try {
+                    flush();
+                } finally {
+                    backgroundFlush.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Messages waiting to be written, drained by the NIO event loop for NIO clients
+     * @return this client's outbound queue
+     */
+    OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
 
+    /**
+     * Attaches the NIO connection that owns this client's socket. Once attached, messages are written
+     * by the connection's event loop and run() is never called for this handler.
+     * @param connection the connection created by the NIO transport
+     */
+    void attachConnection(NioConnection connection) {
+        this.connection = connection;
+        if (!outbound.isEmpty()) { // messages sent between registration and now
+            connection.requestFlush();
         }
     }
+
+    /**
+     * Sends an encoded binary frame to the client. Ownership of the buffer passes to this handler,
+     * it goes back to BufferPool.FRAMES once written (or straight away if there is no socket).
+     * @param frame buffer in read mode holding one or more frames
+     */
+    public void sendFrame(ByteBuffer frame) {
+        if (clientSocket == null && connection == null) {
+            BufferPool.FRAMES.release(frame);
+            return;
+        }
+        queueFrame(frame);
+        flush();
+    }
+
+    /**
+     * Getter for the negotiated wire format
+     * @return BINARY if the client asked for binary frames during its handshake, otherwise TEXT
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Sets the wire format negotiated during the handshake
+     * @param wireFormat format used for every message after the handshake
+     */
+    public void setWireFormat(WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * Links this client to the game they are playing so incoming moves can be routed to it
+     * @param gameSession the current game, or null when the game is over
+     */
+    public void setGameSession(GameSession gameSession) {
+        this.gameSession = gameSession;
+    }
+
+    public GameSession getGameSession() {
+        return gameSession;
+    }
+
+    /**
+     * Handles a line read from the client by the NIO transport
+     * @param line the line without its newline
+     */
+    public void onMessage(String line) {
+        if ("PONG".equals(line)) {
+            recordPong(System.nanoTime());
+        } else if (line.startsWith("MOVE:") && gameSession != null) {
+            // MOVE:playerId:move, the move is applied for this connection's player whatever id was sent
+            int moveStart = line.indexOf(':', 5);
+            if (moveStart > 0) {
+                gameSession.UpdateMove(clientID, line.substring(moveStart + 1));
+            }
+        } else {
+            System.out.println("Received from " + clientID + ": " + line);
+        }
+    }
+
+    /**
+     * Handles a binary frame read from the client by the NIO transport
+     * @param frame decoded frame, only valid during this call
+     */
+    public void onFrame(Frame frame) {
+        switch (frame.getOpcode()) {
+            case PONG:
+                recordPong(System.nanoTime());
+                break;
+            case MOVE:
+                GameSession session = gameSession;
+                if (session != null) {
+                    session.updateMove(player, frame.getMove());
+                }
+                break;
+            case TEXT:
+                onMessage(frame.getText());
+                break;
+            default:
+                System.out.println("Ignoring " + frame.getOpcode() + " frame from " + clientID);
+        }
+    }
+
+    /**
+     * Queues a PING and starts the latency timer. Called by the server's HeartbeatScheduler, so the write is
+     * left to flushInBackground. The matching PONG arrives on the read path through onMessage or onFrame.
+     */
+    void sendPing() {
+        if (clientSocket == null && connection == null) {
+            return;
+        }
+        if (awaitingPong) { // the previous PING was never answered
+            clientConnectionHealth.recordLostHeartbeat(clientID);
+        }
+        packetsSent++;
+        awaitingPong = true;
+        pingStartTime = System.nanoTime();
+        if (wireFormat == WireFormat.BINARY) {
+            ByteBuffer frame = BufferPool.FRAMES.acquire();
+            FrameCodec.writePing(frame, pingStartTime);
+            frame.flip();
+            queueFrame(frame);
+        } else {
+            queueMessage("PING");
+        }
+        flushInBackground();
+        if (packetsSent % 5 == 0) {
+            updateConnectionHealth();
+        }
+    }
+
+    /**
+     * Records a PONG and the latency since the last PING
+     * @param endTime System.nanoTime() when the PONG arrived
+     */
+    private void recordPong(long endTime) {
+        if (!awaitingPong || !isRunning) {
+            return; // unsolicited or duplicate PONG, or one arriving after disconnect() cleared the stats
+        }
+        awaitingPong = false;
+        packetsReceived++; // We received a packet so we increment the counter
+        latencyMS = (int) ((endTime - pingStartTime) / 1_000_000); // Making sure to divide by 1 000 000 to convert the nanoseconds to milliseconds
+        clientConnectionHealth.recordLatency(clientID, latencyMS); // every sample goes into the player's rolling histogram
+    }
+
+    /**
+     * Displays the connection health, latency and loss are already recorded per heartbeat
+     */
+    private void updateConnectionHealth() {
+        monitorConnectionHealth(clientConnectionHealth);
+    }
     /**
     * returns of a list of messages
     *
@@ -190,54 +489,20 @@ public class ClientHandler implements Runnable {
         }
 
         /**
-         * Essentially starts the client handler for a player. In this function, it is constantly sending "pings" and looking for "pongs" to record
-         * latency and packet loss percentage. Since the server will be running on a local machine latency and packet loss won't every be too high.
-         * But this code does properly record it so if the server was ever put online it'll work as intended.
+         * Reads everything the client sends on a blocking socket and hands each line to onMessage, so game traffic
+         * and PONGs share one reader. PINGs are sent by the server's HeartbeatScheduler, not by this thread.
          */
         @Override
         public void run () {
-            clientConnectionHealth = new ConnectionHealth();
-            // Gets latency and packet information between the connection of the client and the server
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-                 PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)) {
-
-                while (!clientSocket.isClosed()) {
-                    packetsSent++; // Sending a packet so should increment by 1
-                    long startTime = System.nanoTime(); // Start a timer so latency between sending and receiving a ping can be calculated
-
-                    out.println("PING");  // Sends a "ping" to the client
-                    out.flush();  // This ensures its done right away
-
-                    Thread.sleep(1000); // Used this to test if latency changes (it does)
-
-                    String response = in.readLine();
-                    if ("PONG".equals(response)) {
-                        packetsReceived++; // We received a packet so we increment the counter
-                        long endTime = System.nanoTime();// We record the end time once the packet is received
-
-                        // Now the latency will be calculated
-                        latencyMS = (int) ((endTime - startTime) / 1_000_000); // Making sure to divide by 1 000 000 to convert the nanoseconds to milliseconds
-                    }
-
-                    // Going to check connection health every 5 packets (don't want to over check)
-                    if (packetsSent % 5 == 0) {
-                        // Calculate packet loss here (as a percentage)
-                        int packetLoss = (int) (((double) (packetsSent - packetsReceived) / packetsSent) * 100);
-                        // Record our data
-                        clientConnectionHealth.recordPacketLoss(clientID, packetLoss);
-                        clientConnectionHealth.recordLatency(clientID, latencyMS);
-                        monitorConnectionHealth(clientConnectionHealth);
-                    }
-
-                    Thread.sleep(1000); // wait one second before pings (This prevents over pinging (IMPORTANT))
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    onMessage(line);
                 }
-            } catch (IOException | InterruptedException e) {
+            } catch (IOException e) {
                 System.err.println("Connection error: " + e.getMessage());
             } finally {
-                try {
-                    clientSocket.close();
-                } catch (IOException ignored) {
-                }
+                disconnect();
             }
         }
 
@@ -1,7 +1,13 @@
 package com.game.networking;
 
+import com.game.gamelogic.Connect4BitBoard;
+import com.game.networking.protocol.FrameCodec;
 
 public class ConnectFourSession extends GameSession {
+    // the server's copy of the game, player 1 is BLUE
+    private final Connect4BitBoard board = new Connect4BitBoard();
+    private int winner = DRAW; // seat that connected four
+
     /**
      * Constructor for a GameSession
      *
@@ -9,13 +15,15 @@ public class ConnectFourSession extends GameSession {
      */
 
     public ConnectFourSession(String sessionId,Player player1, Player player2) {
-        super(sessionId, GameType.CHECKERS);
+        super(sessionId, GameType.CONNECT4);
         this.player1 = player1;
         this.player2 = player2;
     }
         @Override
         public void start(ClientHandler player1Handler, ClientHandler player2Handler) {
             super.start(player1Handler, player2Handler);
+            board.reset();
+            winner = DRAW;
 
             // Set the current player to player 1 at the start
             currentPlayer = player1;
@@ -36,4 +44,33 @@ public class ConnectFourSession extends GameSession {
     public Player getPlayer2() {
         return player2;
     }
+
+    @Override
+    protected int applyMove(int seat, int move) {
+        // seats match Connect4BitBoard.BLUE and RED, play rejects full and unknown columns
+        if (!board.play(seat, move)) {
+            return FrameCodec.ERROR_ILLEGAL_MOVE;
+        }
+        if (board.hasWon(seat)) {
+            winner = seat;
+        }
+        return ACCEPTED;
+    }
+
+    @Override
+    protected boolean isGameOver() {
+        return winner != DRAW || board.boardFull();
+    }
+
+    @Override
+    protected int winningSeat() {
+        return winner;
+    }
+
+    /**
+     * @return the server's copy of the board
+     */
+    public Connect4BitBoard getBoard() {
+        return board;
+    }
 }
\ No newline at end of file
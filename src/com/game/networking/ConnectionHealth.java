@@ -1,29 +1,41 @@
 package com.game.networking;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ConnectionHealth tracks players networking connection data. This data is used either display the information
  * to the player or used to determine the strength of a connection.
+ * The GameServer keeps one shared instance for every connection, so it is safe to use from any thread:
+ * each player gets a LatencyHistogram of their recent heartbeats, and recording a sample never locks.
  */
 public class ConnectionHealth {
-    // Holding latency Data in a hashmap using the player as the key (latency is measured in milliseconds)
-    private HashMap<String, Integer> latencyData;
-    // Holding packet loss data in a hashmap also using the player as the key (packet loss is represented as a percentage)
-    private HashMap<String, Float> packetLossData;
-
-    public ConnectionHealth() { // not 100% sure on this decision ****
-        this.latencyData = new HashMap<>();
-        this.packetLossData = new HashMap<>();
+    private static final int UNSTABLE_LATENCY_MS = 400; // p95 round trip above this is unstable
+    private static final float UNSTABLE_LOSS_PERCENT = 5;
+
+    // Rolling heartbeat statistics using the player as the key (latency is measured in milliseconds)
+    private final Map<String, LatencyHistogram> latencyData = new ConcurrentHashMap<>();
+    // Packet loss reported by the ClientHandler using the player as the key (packet loss is represented as a percentage)
+    private final Map<String, Float> packetLossData = new ConcurrentHashMap<>();
+
+    public ConnectionHealth() {
     }
 
     /**
-     * Stores player latency
+     * Adds a round trip sample to a player's rolling window
      * @param ID
      * @param latency
      */
     public void recordLatency(String ID, int latency) {
-        latencyData.put(ID, latency);
+        histogram(ID).recordLatency(latency);
+    }
+
+    /**
+     * Records a heartbeat that was never answered
+     * @param ID
+     */
+    public void recordLostHeartbeat(String ID) {
+        histogram(ID).recordLost();
     }
 
     /**
@@ -35,33 +47,96 @@ public class ConnectionHealth {
         packetLossData.put(ID, packetsLostPercentage);
     }
 
+    private LatencyHistogram histogram(String ID) {
+        LatencyHistogram histogram = latencyData.get(ID); // plain get first, computeIfAbsent only for new players
+        return histogram != null ? histogram : latencyData.computeIfAbsent(ID, id -> new LatencyHistogram());
+    }
+
     /**
      * Returns a players latency
      * @param ID
-     * @return A players latency
+     * @return A players most recent latency, or -1 if nothing was recorded
      */
     public int getLatency(String ID){
-        return latencyData.get(ID);
+        LatencyHistogram histogram = latencyData.get(ID);
+        return histogram == null ? -1 : histogram.getLatest();
     }
 
     /**
      * Returns a player packet loss percentage
      * @param ID
-     * @return A players packet loss
+     * @return the loss reported by the ClientHandler, or the loss over the heartbeat window if none was reported
      */
     public float getPacketsLost(String ID){
-        return packetLossData.get(ID);
+        Float reported = packetLossData.get(ID);
+        if (reported != null) {
+            return reported;
+        }
+        LatencyHistogram histogram = latencyData.get(ID);
+        return histogram == null ? 0 : histogram.getLossPercent();
+    }
+
+    /**
+     * Latency percentile over a player's recent heartbeats
+     * @param ID
+     * @param percentile e.g. 50, 95 or 99
+     * @return latency in ms, or -1 if nothing was recorded
+     */
+    public int getLatencyPercentile(String ID, double percentile) {
+        LatencyHistogram histogram = latencyData.get(ID);
+        return histogram == null ? -1 : histogram.getPercentile(percentile);
+    }
+
+    /**
+     * Returns a players jitter
+     * @param ID
+     * @return smoothed variation between round trips in ms, or -1 if nothing was recorded
+     */
+    public int getJitter(String ID) {
+        LatencyHistogram histogram = latencyData.get(ID);
+        return histogram == null ? -1 : histogram.getJitter();
+    }
+
+    /**
+     * Cheap estimate of the round trip between two players through the server, used for latency-aware pairing
+     * @param firstID
+     * @param secondID
+     * @return sum of both players' median round trips in ms, or -1 if either has no samples
+     */
+    public int estimateRoundTrip(String firstID, String secondID) {
+        int first = getLatencyPercentile(firstID, 50);
+        int second = getLatencyPercentile(secondID, 50);
+        return first < 0 || second < 0 ? -1 : first + second;
+    }
+
+    /**
+     * Getter for a player's raw statistics
+     * @param ID
+     * @return the player's histogram, or null if nothing was recorded
+     */
+    public LatencyHistogram getHistogram(String ID) {
+        return latencyData.get(ID);
+    }
+
+    /**
+     * Forgets a player, used when they leave the server
+     * @param ID
+     */
+    public void remove(String ID) {
+        latencyData.remove(ID);
+        packetLossData.remove(ID);
     }
 
     /**
-     * Checks a players latency and packetLoss and determines if the connection is strong or unstable
+     * Checks a players p95 latency and packetLoss and determines if the connection is strong or unstable
      * @param ID
      */
     public String checkConnectionHealth(String ID){ // this could actually return a boolean
-        if (latencyData.containsKey(ID) && packetLossData.containsKey(ID)) {
-            int latency = latencyData.get(ID);
-            float packetLoss = packetLossData.get(ID);
-            if (latency > 400 || packetLoss > 5) {
+        LatencyHistogram histogram = latencyData.get(ID);
+        if (histogram != null && histogram.getSampleCount() > 0) {
+            int latency = histogram.getP95();
+            float packetLoss = Math.max(getPacketsLost(ID), histogram.getLossPercent());
+            if (latency > UNSTABLE_LATENCY_MS || packetLoss > UNSTABLE_LOSS_PERCENT) {
                 return "WARNING: Network connection is unstable!";
             } else {
                 return "Connection is strong!";
@@ -2,10 +2,17 @@ package com.game.networking;
 
 
 
+import com.game.leaderboard.Leaderboard;
+import com.game.matchmaking.RatingUpdater;
+
 import java.io.*;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -15,29 +22,49 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class GameServer {
     private static final int DEFAULT_PORT = 8888;
+    private ServerSocketChannel serverChannel;
     private ServerSocket serverSocket;
-    private boolean running;
+    private final TransportMode transportMode;
+    private NioServerTransport nioTransport;
+    private final VirtualThreadMonitor threadMonitor = new VirtualThreadMonitor();
+    private final ConnectionHealth connectionHealth = new ConnectionHealth(); // latency stats for every connection
+    private final HeartbeatScheduler heartbeat = new HeartbeatScheduler(); // pings every connection from one thread
+    private volatile boolean running;
     private final ChatHandler chatHandler = new ChatHandler();
     private Map<String, Player> lobby = new ConcurrentHashMap<>();
     private Map<String, ClientHandler> connectedClients = new ConcurrentHashMap<>();
     private MatchmakingService matchmakingService;
+    private RatingUpdater ratingUpdater = RatingUpdater.getShared(); // finished games between leaderboard players change their Elo
 
 
     /**
-     * Creates a GameServer
+     * Creates a GameServer using the blocking transport
      *
      * @param port the port to broadcast the server on
      */
     public GameServer(int port) {
+        this(port, TransportMode.BLOCKING);
+    }
 
+    /**
+     * Creates a GameServer
+     *
+     * @param port the port to broadcast the server on
+     * @param transportMode how client connections are driven (BLOCKING or NIO)
+     */
+    public GameServer(int port, TransportMode transportMode) {
+        this.transportMode = transportMode;
         try {
-            this.serverSocket = new ServerSocket(port);
+            // The socket is backed by a channel so the same server can be driven by either transport
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.bind(new InetSocketAddress(port));
+            this.serverSocket = serverChannel.socket();
             this.connectedClients = new ConcurrentHashMap<>();  // map to store connected clients
             this.lobby = new ConcurrentHashMap<>(); // Map to store list of players
             this.matchmakingService = new MatchmakingService(this);
             this.running = true;
 
-            System.out.println("Game server started on port " + port);
+            System.out.println("Game server started on port " + port + " (" + transportMode + ")");
         } catch (IOException e) {
             System.err.println("Failed to initialize server");
             e.printStackTrace();
@@ -53,11 +80,18 @@ public class GameServer {
             System.err.println("error, lobby is not initialized.");
             return;
         }
+        heartbeat.start();
+        if (transportMode == TransportMode.NIO) {
+            startNio();
+            return;
+        }
+        if (transportMode == TransportMode.VIRTUAL) {
+            Thread.ofVirtual().start(threadMonitor::start); // flight recorder startup is slow, don't delay accepting
+        }
         while (running) {
             try {
                 Socket playerSocket = serverSocket.accept(); // creates new socket for players
-                Thread player = new Thread(() -> newPlayer(playerSocket)); //accept new players
-                player.start();
+                startConnectionThread(() -> newPlayer(playerSocket)); //accept new players
 
                 System.out.println("New connection accepted");
             } catch (Exception e) {
@@ -67,6 +101,35 @@ public class GameServer {
 
     }
 
+    /**
+     * Starts a thread for connection work. VIRTUAL mode uses a virtual thread so thousands of blocked
+     * readers only cost a handful of carrier threads, BLOCKING mode keeps the original platform thread.
+     * @param task the work to run
+     */
+    private void startConnectionThread(Runnable task) {
+        if (transportMode == TransportMode.VIRTUAL) {
+            Thread.ofVirtual().name("omg-client").start(task);
+        } else {
+            new Thread(task).start();
+        }
+    }
+
+    /**
+     * Runs the NIO transport on the calling thread with one event loop per available core
+     */
+    private void startNio() {
+        if (serverChannel == null) {
+            System.err.println("error, server socket is not initialized.");
+            return;
+        }
+        try {
+            nioTransport = new NioServerTransport(this, serverChannel, Runtime.getRuntime().availableProcessors());
+            nioTransport.start();
+        } catch (IOException e) {
+            System.err.println("NIO transport failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Adds a new Player to the server through the socket
      * @param playerSocket a client's socket
@@ -76,21 +139,11 @@ public class GameServer {
             // Parse player data and create the client handler
             BufferedReader in = new BufferedReader(new InputStreamReader(playerSocket.getInputStream()));
             String playerData = in.readLine();
-            System.out.println("playerData received: " + playerData);
-            String clientID = playerData.split(",")[3]; // extract ID
-            ClientHandler clientHandler = new ClientHandler(playerSocket, this);
-            clientHandler.setClientId(clientID);
-
-            // Create a player object (assuming playerData contains necessary information)
-            Player player = GameServer.parsePlayerData(playerData, clientHandler);
-
-            if (clientID != null) {
-                System.out.println("Player connected: " + clientID);
-                lobby.put(clientID, player);
-                connectedClients.put(clientID, clientHandler);
+            ClientHandler clientHandler = registerPlayer(playerData, playerSocket);
 
+            if (clientHandler != null) {
                 // Start the ClientHandler in a new thread
-                new Thread(clientHandler).start(); // This calls the 'run' method of ClientHandler
+                startConnectionThread(threadMonitor.track(clientHandler)); // This calls the 'run' method of ClientHandler
             } else {
                 playerSocket.close();
             }
@@ -102,6 +155,35 @@ public class GameServer {
         }
     }
 
+    /**
+     * Creates the ClientHandler and Player for a handshake line and adds them to the lobby.
+     * Shared by both transports.
+     * @param playerData handshake line in the form "username,email,password,id" with an optional ",BINARY/1"
+     *                   (see WireFormat, only honoured by the NIO transport)
+     * @param playerSocket the client's socket
+     * @return the new ClientHandler, or null if the handshake was invalid
+     */
+    ClientHandler registerPlayer(String playerData, Socket playerSocket) {
+        System.out.println("playerData received: " + playerData);
+        if (playerData == null || playerData.split(",").length < 4) {
+            System.err.println("Invalid player data, closing connection");
+            return null;
+        }
+        ClientHandler clientHandler = new ClientHandler(playerSocket, this);
+
+        // Create a player object (assuming playerData contains necessary information)
+        Player player = GameServer.parsePlayerData(playerData, clientHandler);
+        String clientID = player.getID();
+        clientHandler.setClientId(clientID);
+        clientHandler.setPlayer(player);
+
+        System.out.println("Player connected: " + clientID);
+        lobby.put(clientID, player);
+        connectedClients.put(clientID, clientHandler);
+        heartbeat.schedule(clientHandler);
+        return clientHandler;
+    }
+
     /**
      * Gets a player by their ID
      * @param playerId ID of the player to retrieve
@@ -119,11 +201,6 @@ public class GameServer {
         return new ArrayList<>(lobby.values());
     }
 
-    /**
-     * Places a player in the random matchmaking queue
-     * @param playerId ID of the player joining the queue
-     * @param gameType Type of game to play
-     */
     /**
      * Places a player in the random matchmaking queue
      * @param playerId ID of the player joining the queue
@@ -134,24 +211,17 @@ public class GameServer {
 
         if (player != null && player.getState() == PlayerState.LOBBY) {
             // Player is in the lobby, they can join matchmaking
-            matchmakingService.joinRandomQueue(player, gameType);
             player.setState(PlayerState.MATCHMAKING);  // Change player state to matchmaking
             System.out.println("Player " + playerId + " joined matchmaking for " + gameType);
 
-            // Try to find a match immediately
-            List<MatchmakingService.MatchedPair> matches = matchmakingService.processImmediateMatch();
-
-            // Check if this player is in one of the matched pairs
-            for (MatchmakingService.MatchedPair match : matches) {
-                if (match.getPlayer1Id().equals(playerId) || match.getPlayer2Id().equals(playerId)) {
-                    // Found a match for this player
-                    Player player1 = getPlayerById(match.getPlayer1Id());
-                    Player player2 = getPlayerById(match.getPlayer2Id());
+            // Paired straight away if someone is already waiting for this game
+            MatchmakingService.MatchedPair match = matchmakingService.joinRandomQueue(player, gameType);
+            if (match != null) {
+                Player player1 = getPlayerById(match.getPlayer1Id());
+                Player player2 = getPlayerById(match.getPlayer2Id());
 
-                    if (player1 != null && player2 != null) {
-                        matchPlayers(player1, player2, match.getGameType());
-                        return; // We've matched this player, no need to continue
-                    }
+                if (player1 != null && player2 != null) {
+                    matchPlayers(player1, player2, match.getGameType());
                 }
             }
         } else {
@@ -198,6 +268,7 @@ public class GameServer {
         // Create the game session
         GameSession session = createGameSession(gameType, p1, p2);
         session.addPlayers(p1, p2);
+        session.setResultListener(ratedResult(p1, p2, gameType));
 
 
         // Notify both players that a match has been found
@@ -218,6 +289,29 @@ public class GameServer {
 
     }
 
+    /**
+     * Links a networked game to a rated session, so its result goes through the rating updater when it ends
+     * @return the listener to give the networked session, or null if either player has no leaderboard entry
+     */
+    GameSession.ResultListener ratedResult(Player p1, Player p2, GameType gameType) {
+        com.game.leaderboard.Player rated1 = Leaderboard.findPlayer(p1.getUsername());
+        com.game.leaderboard.Player rated2 = Leaderboard.findPlayer(p2.getUsername());
+        if (rated1 == null || rated2 == null) { // unrated game
+            return null;
+        }
+        com.game.matchmaking.GameSession rated = new com.game.matchmaking.GameSession(rated1, rated2,
+                com.game.leaderboard.GameType.valueOf(gameType.name()), ratingUpdater);
+        return (session, winner) -> rated.endSession(winner == null ? "" : winner == p1 ? rated1.getName() : rated2.getName());
+    }
+
+    /**
+     * SPECIFICALLY USED FOR TESTING
+     * @param ratingUpdater updater that receives the results of rated games
+     */
+    void setRatingUpdater(RatingUpdater ratingUpdater) {
+        this.ratingUpdater = ratingUpdater;
+    }
+
     /**
      * Creates a new GameSession to place players in
      * @param gameType the type of game they are playing
@@ -428,6 +522,18 @@ public class GameServer {
      */
     public void stop() {
         running = false;
+        if (nioTransport != null) {
+            nioTransport.stop();
+        }
+        threadMonitor.stop();
+        heartbeat.stop();
+        if (serverChannel != null) {
+            try {
+                serverChannel.close(); // frees the port and wakes a blocked accept
+            } catch (IOException e) {
+                System.err.println("Failed to close server socket: " + e.getMessage());
+            }
+        }
     }
 
     /**
@@ -470,6 +576,65 @@ public class GameServer {
 
     public boolean isRunning(){
     return running;}
+
+    /**
+     * Getter for the transport this server was started with
+     * @return the TransportMode
+     */
+    public TransportMode getTransportMode() {
+        return transportMode;
+    }
+
+    /**
+     * Getter for the server-wide connection health registry, used for latency-aware matchmaking
+     * @return the ConnectionHealth shared by every ClientHandler
+     */
+    public ConnectionHealth getConnectionHealth() {
+        return connectionHealth;
+    }
+
+    /**
+     * Getter for the thread usage / carrier pinning report
+     * @return the VirtualThreadMonitor of this server
+     */
+    public VirtualThreadMonitor getThreadMonitor() {
+        return threadMonitor;
+    }
+
+    /**
+     * Starts a standalone server.
+     * Usage: GameServer [port] [--transport=blocking|virtual|nio] [--thread-report=SECONDS]
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int reportSeconds = 0;
+        TransportMode mode = TransportMode.fromFlag(System.getProperty("omg.transport"));
+        for (String arg : args) {
+            if (arg.startsWith("--transport=")) {
+                mode = TransportMode.fromFlag(arg.substring("--transport=".length()));
+            } else if (arg.startsWith("--thread-report=")) {
+                reportSeconds = Integer.parseInt(arg.substring("--thread-report=".length()));
+            } else {
+                try {
+                    port = Integer.parseInt(arg);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid port '" + arg + "'. Defaulting to " + DEFAULT_PORT);
+                }
+            }
+        }
+        GameServer server = new GameServer(port, mode);
+        if (reportSeconds > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "omg-thread-report");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(() -> System.out.println(server.getThreadMonitor().report()),
+                    reportSeconds, reportSeconds, TimeUnit.SECONDS);
+        }
+        server.start();
+    }
 }
 
 
@@ -1,7 +1,13 @@
 package com.game.networking;
 
+import com.game.networking.protocol.BufferPool;
+import com.game.networking.protocol.FrameCodec;
+import com.game.networking.protocol.WireFormat;
+
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Creates a GameSession which records a list of states of a current game.
@@ -15,6 +21,43 @@ public abstract class GameSession {
     protected Player player1;
     protected Player player2;
     public Player currentPlayer;
+    // session id as the two longs carried in binary frames, computed once instead of per move
+    private final long sessionHigh;
+    private final long sessionLow;
+    private GameState gameState;
+    private volatile ResultListener resultListener;
+
+    /** Returned by applyMove when the move was played */
+    protected static final int ACCEPTED = 0;
+    /** Returned by winningSeat when the game ended without a winner */
+    protected static final int DRAW = -1;
+
+    // rejections are built once and copied out, a bad move costs no encoding and no allocation
+    private static final byte[][] ERROR_FRAMES = new byte[4][];
+    private static final String[] ERROR_MESSAGES = new String[4];
+
+    static {
+        int[] codes = {FrameCodec.ERROR_NOT_YOUR_TURN, FrameCodec.ERROR_ILLEGAL_MOVE, FrameCodec.ERROR_GAME_OVER};
+        for (int code : codes) {
+            ByteBuffer frame = ByteBuffer.allocate(FrameCodec.ERROR_FRAME_SIZE);
+            FrameCodec.writeError(frame, code);
+            ERROR_FRAMES[code] = frame.array();
+        }
+        ERROR_MESSAGES[FrameCodec.ERROR_NOT_YOUR_TURN] = "Move rejected: not your turn";
+        ERROR_MESSAGES[FrameCodec.ERROR_ILLEGAL_MOVE] = "Move rejected: illegal move";
+        ERROR_MESSAGES[FrameCodec.ERROR_GAME_OVER] = "Move rejected: game over";
+    }
+
+    /**
+     * Told once when a validated move ends the game
+     */
+    public interface ResultListener {
+        /**
+         * @param session the finished session
+         * @param winner the player who won, or null for a draw
+         */
+        void onResult(GameSession session, Player winner);
+    }
 
     /**
      * Constructor for a GameSession
@@ -26,19 +69,15 @@ public abstract class GameSession {
         this.gameType = gameType;
         this.sessionID = sessionId;
         isActive = true;
+        UUID uuid = FrameCodec.sessionUuid(sessionId);
+        sessionHigh = uuid.getMostSignificantBits();
+        sessionLow = uuid.getLeastSignificantBits();
     }
 
     public void start(ClientHandler c1, ClientHandler c2) {
-        GameState initState;
-        if (gameType.equals(GameType.CHECKERS)) {
-            initState = new GameState(sessionID, gameType, c1.getPlayer(), c2.getPlayer());
-        } else if (gameType.equals(GameType.TICTACTOE)) {
-            initState = new GameState(sessionID, gameType, c1.getPlayer(), c2.getPlayer());
-        } else if (gameType.equals(GameType.CONNECT4)) {
-            initState = new GameState(sessionID, gameType, c1.getPlayer(), c2.getPlayer());
-        } else {
-            throw new RuntimeException("Unsupported gameType: " + gameType);
-        }
+        gameState = new GameState(sessionID, gameType, c1.getPlayer(), c2.getPlayer());
+        c1.setGameSession(this);
+        c2.setGameSession(this);
     }
 
     /**
@@ -64,6 +103,13 @@ public abstract class GameSession {
         return sessionID;
     }
 
+    /**
+     * @param resultListener called when the game ends, or null
+     */
+    public void setResultListener(ResultListener resultListener) {
+        this.resultListener = resultListener;
+    }
+
 
     /**
      * Sends a message to the Player indicating turns
@@ -78,27 +124,183 @@ public abstract class GameSession {
     }
 
     /**
-     * update move from player and relays to both players
+     * update move from player, checks it and relays it to both players
+     *
+     * @return false if the move was rejected, the player is told why and nothing is relayed
      */
     public boolean UpdateMove(String playerId, String move) {
 
         System.out.println(move + "from player:" + playerId);
 
-        String moveUpdate = "Move:" + playerId + ":" + move;  // send move updates to both players
-        sendMessageToPlayer(player1, moveUpdate);
-        sendMessageToPlayer(player2, moveUpdate);
-        if (currentPlayer == player1) {    //switch turn after player one made a move
-            currentPlayer = player2;
-            sendMessageToPlayer(player1, "Opponents turn");
-            sendMessageToPlayer(player2, "Now it's your turn");
-        } else {
-            currentPlayer = player1;
-            sendMessageToPlayer(player1, "Your turn");
-            sendMessageToPlayer(player2, "Opponents turn");
+        Player mover = player1 != null && player1.getID().equals(playerId) ? player1
+                : player2 != null && player2.getID().equals(playerId) ? player2 : null;
+        if (mover == null) {
+            return false;
+        }
+        int encodedMove = MoveCodec.encode(gameType, move);
+        return submitMove(mover, move, encodedMove);
+    }
+
+    /**
+     * update move received as a binary frame, checks it and relays it to both players
+     *
+     * @param player the player who made the move
+     * @param move   the move encoded by MoveCodec
+     * @return false if the move was rejected, the player is told why and nothing is relayed
+     */
+    public boolean updateMove(Player player, int move) {
+        if (player != player1 && player != player2) {
+            return false;
+        }
+        return submitMove(player, null, move);
+    }
+
+    /**
+     * Checks the turn and the move against the game, then relays it. The check and the turn switch happen
+     * together so two moves arriving at once can't both be accepted.
+     * @param move the text move, or null to format it from encodedMove if a text client needs it
+     */
+    private boolean submitMove(Player mover, String move, int encodedMove) {
+        int seat = mover == player2 ? 1 : 0;
+        int seatToMove;
+        boolean finished = false;
+        int winner = DRAW;
+        synchronized (this) {
+            int result;
+            if (!isActive) {
+                result = FrameCodec.ERROR_GAME_OVER;
+            } else if (mover != currentPlayer) {
+                result = FrameCodec.ERROR_NOT_YOUR_TURN;
+            } else {
+                result = applyMove(seat, encodedMove);
+            }
+            if (result != ACCEPTED) {
+                reject(mover, result);
+                return false;
+            }
+            seatToMove = keepsTurn() ? seat : 1 - seat;
+            currentPlayer = seatToMove == 0 ? player1 : player2;
+            if (isGameOver()) {
+                endGame();
+                finished = true;
+                winner = winningSeat();
+            }
+        }
+        if (move == null) {
+            move = encodedMove == MoveCodec.INVALID ? "" : MoveCodec.format(gameType, encodedMove);
+        }
+        relayMove(seat, seatToMove, mover.getID(), move, encodedMove);
+        if (finished) { // after the move, so both players see the last move before the result
+            announceResult(winner);
         }
         return true;
     }
 
+    /**
+     * Checks a move against the game and plays it if it is legal. Only called for the player whose turn it is.
+     * The default accepts every move, sessions that own a game engine override it.
+     *
+     * @param seat 0 for player 1, 1 for player 2
+     * @param move the move encoded by MoveCodec, may be MoveCodec.INVALID
+     * @return ACCEPTED, or the FrameCodec error code sent back to the player
+     */
+    protected int applyMove(int seat, int move) {
+        return ACCEPTED;
+    }
+
+    /**
+     * @return true if the player who just moved moves again, like in the middle of a Checkers jump sequence
+     */
+    protected boolean keepsTurn() {
+        return false;
+    }
+
+    /**
+     * @return true once the last accepted move ended the game
+     */
+    protected boolean isGameOver() {
+        return false;
+    }
+
+    /**
+     * Only called once isGameOver has returned true
+     * @return the seat that won, or DRAW
+     */
+    protected int winningSeat() {
+        return DRAW;
+    }
+
+    /**
+     * Tells both players how the game ended
+     * @param winner the seat that won, or DRAW
+     */
+    private void announceResult(int winner) {
+        if (winner == DRAW) {
+            sendMessageToPlayer(player1, "Game over: draw");
+            sendMessageToPlayer(player2, "Game over: draw");
+        } else {
+            sendMessageToPlayer(player1, winner == 0 ? "Game over: you won" : "Game over: you lost");
+            sendMessageToPlayer(player2, winner == 1 ? "Game over: you won" : "Game over: you lost");
+        }
+        ResultListener listener = resultListener;
+        if (listener != null) {
+            listener.onResult(this, winner == DRAW ? null : winner == 0 ? player1 : player2);
+        }
+    }
+
+    /**
+     * Tells only the mover why their move was rejected, using the prebuilt frame or message
+     */
+    private void reject(Player player, int errorCode) {
+        ClientHandler handler = player.getClientHandler();
+        if (handler == null) {
+            return;
+        }
+        if (handler.getWireFormat() == WireFormat.BINARY) {
+            ByteBuffer frame = BufferPool.FRAMES.acquire();
+            frame.put(ERROR_FRAMES[errorCode]);
+            frame.flip();
+            handler.sendFrame(frame);
+        } else {
+            handler.sendMessage(ERROR_MESSAGES[errorCode]);
+        }
+    }
+
+    /**
+     * Sends the move and the turn switch to both players with one write per player. Text clients get the
+     * original strings, binary clients get a single pooled buffer holding a MOVE frame followed by a TURN frame.
+     */
+    private void relayMove(int seat, int seatToMove, String playerId, String move, int encodedMove) {
+        boolean player2ToMove = seatToMove == 1;
+
+        String moveUpdate = null; // only built if a text client needs it
+        for (Player player : new Player[]{player1, player2}) {
+            if (player == null || player.getClientHandler() == null) {
+                continue;
+            }
+            ClientHandler handler = player.getClientHandler();
+            if (handler.getWireFormat() == WireFormat.BINARY && encodedMove != MoveCodec.INVALID) {
+                ByteBuffer frames = BufferPool.FRAMES.acquire();
+                FrameCodec.writeMove(frames, sessionHigh, sessionLow, seat, encodedMove);
+                FrameCodec.writeTurn(frames, sessionHigh, sessionLow, seatToMove);
+                frames.flip();
+                handler.sendFrame(frames);
+                continue;
+            }
+            if (moveUpdate == null) {
+                moveUpdate = "Move:" + playerId + ":" + move;  // send move updates to both players
+            }
+            // queue the move and the turn notice, then flush once so they leave in a single write
+            handler.queueMessage(moveUpdate);
+            if (player2ToMove) {
+                handler.queueMessage(player == player1 ? "Opponents turn" : "Now it's your turn");
+            } else {
+                handler.queueMessage(player == player1 ? "Your turn" : "Opponents turn");
+            }
+            handler.flush();
+        }
+    }
+
     public void endGame() {
         isActive = false;
     }
@@ -107,6 +309,13 @@ public abstract class GameSession {
         return isActive;
     }
 
+    /**
+     * @return the state created when the game started, or null before start
+     */
+    public GameState getGameState() {
+        return gameState;
+    }
+
 
 }
 
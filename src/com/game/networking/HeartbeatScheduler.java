@@ -0,0 +1,129 @@
+package com.game.networking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel that sends heartbeat PINGs for every connection on the server from a single thread.
+ * Each tick only visits the slot that is due, and the wheel spans more than one heartbeat interval,
+ * so a tick costs O(connections due) rather than one sleeping thread per player.
+ * The matching PONGs are handled on each connection's normal read path (ClientHandler.onMessage / onFrame).
+ */
+public class HeartbeatScheduler implements Runnable {
+    public static final long DEFAULT_INTERVAL_MS = 2000; // same cadence as the old per-client loop
+    private static final long DEFAULT_TICK_MS = 100;
+
+    private final long tickNanos;
+    private final long intervalTicks;
+    private final List<List<ClientHandler>> wheel;    // only touched by the wheel thread
+    private final Queue<ClientHandler> pending = new ConcurrentLinkedQueue<>(); // new connections from any thread
+    private volatile boolean running;
+    private Thread thread;
+    private long tick;
+    private volatile long heartbeatsSent; // written by the wheel thread only
+
+    public HeartbeatScheduler() {
+        this(DEFAULT_INTERVAL_MS, DEFAULT_TICK_MS);
+    }
+
+    /**
+     * Creates a wheel
+     * @param intervalMs time between two PINGs to the same client
+     * @param tickMs resolution of the wheel
+     */
+    public HeartbeatScheduler(long intervalMs, long tickMs) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.intervalTicks = Math.max(1, intervalMs / tickMs);
+        // one slot more than an interval, so every client found in a slot is due on that pass
+        this.wheel = new ArrayList<>((int) intervalTicks + 1);
+        for (int i = 0; i <= intervalTicks; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Starts the wheel thread, calling this twice does nothing
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "omg-heartbeat");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Adds a connection to the wheel. Its first PING goes out one interval from now, and it keeps
+     * being rescheduled until the ClientHandler stops running.
+     * @param clientHandler a connected client
+     */
+    public void schedule(ClientHandler clientHandler) {
+        pending.add(clientHandler);
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime();
+        while (running) {
+            deadline += tickNanos;
+            long wait;
+            while (running && (wait = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+            advance();
+        }
+    }
+
+    /**
+     * Processes one tick: places new connections, then pings everyone in the current slot.
+     * sendPing only queues the PING, so a client that stopped reading can't hold up the rest of the slot.
+     */
+    void advance() {
+        ClientHandler added;
+        while ((added = pending.poll()) != null) {
+            slotFor(tick + intervalTicks).add(added);
+        }
+        List<ClientHandler> due = slotFor(tick);
+        long next = tick + intervalTicks;
+        for (int i = 0; i < due.size(); i++) {
+            ClientHandler clientHandler = due.get(i);
+            if (!clientHandler.isRunning()) {
+                continue; // disconnected, drop it from the wheel
+            }
+            try {
+                clientHandler.sendPing();
+                heartbeatsSent++;
+            } catch (RuntimeException e) {
+                System.err.println("Heartbeat failed for " + clientHandler.getClientId() + ": " + e.getMessage());
+            }
+            slotFor(next).add(clientHandler);
+        }
+        due.clear();
+        tick++;
+    }
+
+    private List<ClientHandler> slotFor(long tick) {
+        return wheel.get((int) (tick % wheel.size()));
+    }
+
+    /**
+     * SPECIFICALLY USED FOR TESTING
+     * @return number of PINGs sent since the wheel was created
+     */
+    public long getHeartbeatsSent() {
+        return heartbeatsSent;
+    }
+}
@@ -0,0 +1,169 @@
+package com.game.networking;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rolling round-trip statistics for one player over the last WINDOW heartbeats, kept in fixed primitive arrays.
+ * Recording never allocates or locks: a writer claims a ring slot with one atomic increment, evicts the sample it
+ * replaces from the bucket counts and adds the new one. Percentiles are read by walking the bucket counts.
+ * Buckets are 2ms wide up to 256ms, 16ms wide up to 2048ms, and everything slower lands in the last bucket,
+ * so percentiles are accurate to within one bucket.
+ */
+public class LatencyHistogram {
+    public static final int WINDOW = 128; // heartbeats remembered per player, must be a power of two
+    private static final int LOST = -1;   // ring marker for a PING that never got its PONG
+
+    private static final int FINE_LIMIT_MS = 256;
+    private static final int FINE_WIDTH_MS = 2;
+    private static final int COARSE_LIMIT_MS = 2048;
+    private static final int COARSE_WIDTH_MS = 16;
+    private static final int FINE_BUCKETS = FINE_LIMIT_MS / FINE_WIDTH_MS;
+    private static final int BUCKETS = FINE_BUCKETS + (COARSE_LIMIT_MS - FINE_LIMIT_MS) / COARSE_WIDTH_MS + 1;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int[] ring = new int[WINDOW];      // last WINDOW samples in ms, or LOST
+    private final int[] buckets = new int[BUCKETS];  // how many ring entries fall in each bucket
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicInteger lostInWindow = new AtomicInteger();
+    private volatile int latest;
+    private volatile int jitterX16; // RFC 3550 style smoothed jitter, scaled by 16
+
+    /**
+     * Records a round trip
+     * @param latencyMs measured round trip in milliseconds
+     */
+    public void recordLatency(int latencyMs) {
+        int sample = Math.max(0, latencyMs);
+        if (recorded.get() > 0) {
+            // jitter += (|D| - jitter) / 16, racing writers can only lose an update, never corrupt it
+            int jitter = jitterX16;
+            jitterX16 = jitter + Math.abs(sample - latest) - ((jitter + 8) >> 4);
+        }
+        latest = sample;
+        store(sample);
+    }
+
+    /**
+     * Records a heartbeat that was never answered
+     */
+    public void recordLost() {
+        store(LOST);
+    }
+
+    private void store(int sample) {
+        long index = recorded.getAndIncrement();
+        int slot = (int) (index & (WINDOW - 1));
+        if (index >= WINDOW) {
+            int evicted = (int) INTS.getAndSet(ring, slot, sample);
+            forget(evicted);
+        } else {
+            INTS.setRelease(ring, slot, sample);
+        }
+        if (sample == LOST) {
+            lostInWindow.incrementAndGet();
+        } else {
+            INTS.getAndAdd(buckets, bucketOf(sample), 1);
+        }
+    }
+
+    private void forget(int sample) {
+        if (sample == LOST) {
+            lostInWindow.decrementAndGet();
+        } else {
+            INTS.getAndAdd(buckets, bucketOf(sample), -1);
+        }
+    }
+
+    static int bucketOf(int ms) {
+        if (ms < FINE_LIMIT_MS) {
+            return ms / FINE_WIDTH_MS;
+        }
+        if (ms < COARSE_LIMIT_MS) {
+            return FINE_BUCKETS + (ms - FINE_LIMIT_MS) / COARSE_WIDTH_MS;
+        }
+        return BUCKETS - 1;
+    }
+
+    /**
+     * @return the upper edge of a bucket in ms, the value reported for samples in it
+     */
+    static int bucketUpperMs(int bucket) {
+        if (bucket < FINE_BUCKETS) {
+            return (bucket + 1) * FINE_WIDTH_MS - 1;
+        }
+        if (bucket < BUCKETS - 1) {
+            return FINE_LIMIT_MS + (bucket - FINE_BUCKETS + 1) * COARSE_WIDTH_MS - 1;
+        }
+        return COARSE_LIMIT_MS;
+    }
+
+    /**
+     * Latency at a percentile of the current window
+     * @param percentile between 0 and 100, e.g. 50, 95 or 99
+     * @return latency in ms (upper edge of the bucket), or -1 if there are no samples
+     */
+    public int getPercentile(double percentile) {
+        int total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += (int) INTS.getAcquire(buckets, i);
+        }
+        if (total <= 0) {
+            return -1;
+        }
+        int rank = Math.max(1, (int) Math.ceil(percentile / 100.0 * total));
+        int seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += (int) INTS.getAcquire(buckets, i);
+            if (seen >= rank) {
+                return bucketUpperMs(i);
+            }
+        }
+        return bucketUpperMs(BUCKETS - 1);
+    }
+
+    public int getP50() {
+        return getPercentile(50);
+    }
+
+    public int getP95() {
+        return getPercentile(95);
+    }
+
+    public int getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * @return the most recent round trip in ms
+     */
+    public int getLatest() {
+        return latest;
+    }
+
+    /**
+     * @return smoothed variation between consecutive round trips in ms
+     */
+    public int getJitter() {
+        return jitterX16 >> 4;
+    }
+
+    /**
+     * @return percentage of heartbeats in the window that were never answered
+     */
+    public float getLossPercent() {
+        long count = Math.min(recorded.get(), WINDOW);
+        return count == 0 ? 0 : lostInWindow.get() * 100f / count;
+    }
+
+    /**
+     * @return number of latency samples (answered heartbeats) in the window
+     */
+    public int getSampleCount() {
+        long count = Math.min(recorded.get(), WINDOW);
+        return (int) count - lostInWindow.get();
+    }
+}
@@ -1,25 +1,45 @@
 package com.game.networking;
 
+import com.game.networking.protocol.BufferPool;
+import com.game.networking.protocol.FrameCodec;
+import com.game.networking.protocol.WireFormat;
+
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Manages the matchmaking queue and matches players based on different criteria.
+ * Each GameType has its own FIFO lane, a player joining is paired with the longest waiting player of the same
+ * game straight away, so a join costs O(1) no matter how many players are queued. The periodic sweep only
+ * expires players who have waited longer than QUEUE_TIMEOUT_MS.
  */
 public class MatchmakingService {
     private final GameServer gameServer;
-    private final Map<String, QueuedPlayer> randomQueue = new ConcurrentHashMap<>();
+    private final Map<String, QueuedPlayer> randomQueue = new ConcurrentHashMap<>(); // playerId -> live queue entry
+    private final Map<GameType, Lane> lanes = new EnumMap<>(GameType.class);
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     private final long QUEUE_CHECK_INTERVAL_MS = 1000; // Check the queue every second
+    static final long QUEUE_TIMEOUT_MS = 5 * 60 * 1000; // players waiting longer than this are sent back to the lobby
+
+    /**
+     * Waiting players for one GameType, oldest first. The lock only guards the O(1) pair-or-enqueue decision,
+     * leaving and the timeout sweep mark entries instead, and stale entries are skipped when they reach the head.
+     */
+    private static class Lane {
+        final Deque<QueuedPlayer> waiting = new ConcurrentLinkedDeque<>();
+        final ReentrantLock lock = new ReentrantLock();
+    }
 
     public MatchmakingService(GameServer gameServer) {
         this.gameServer = gameServer;
-        // Start the queue processor
-        scheduler.scheduleAtFixedRate(() -> {
-            //process the queues to find potential matches
-            // but don't automatically match players
-            processQueues();
-        }, 0, QUEUE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        for (GameType gameType : GameType.values()) {
+            lanes.put(gameType, new Lane());
+        }
+        // Matching happens on join, the sweeper only expires players who waited too long
+        scheduler.scheduleAtFixedRate(() -> expireQueuedPlayers(System.currentTimeMillis()),
+                QUEUE_CHECK_INTERVAL_MS, QUEUE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -43,17 +63,55 @@ public class MatchmakingService {
 
 
     /**
-     * Adds a player to the random matchmaking queue.
+     * Adds a player to the random matchmaking queue. If someone is already waiting for the same game
+     * the two are paired immediately and the player never enters the queue.
      * @param player Player to be added to the queue
      * @param gameType Type of game the player wants to play
+     * @return the pair (longest waiting player first), or null if the player is now waiting
      */
-    public void joinRandomQueue(Player player, GameType gameType) {
+    public MatchedPair joinRandomQueue(Player player, GameType gameType) {
         QueuedPlayer queuedPlayer = new QueuedPlayer(player, gameType, System.currentTimeMillis());
-        randomQueue.put(player.getID(), queuedPlayer);
-        notifyQueueStatus(player, "Searching for a random opponent...");
-    }
+        QueuedPlayer previous = randomQueue.put(player.getID(), queuedPlayer);
+        if (previous != null) {
+            previous.claim(); // joined again, the old entry is skipped when it reaches the head
+        }
 
+        Lane lane = lanes.get(gameType);
+        QueuedPlayer opponent;
+        lane.lock.lock();
+        try {
+            opponent = pollLive(lane);
+            if (opponent == null) {
+                lane.waiting.addLast(queuedPlayer);
+            } else {
+                queuedPlayer.claim();
+            }
+        } finally {
+            lane.lock.unlock();
+        }
 
+        if (opponent == null) {
+            notifyQueueStatus(player, "Searching for a random opponent...");
+            return null;
+        }
+        randomQueue.remove(opponent.getPlayer().getID(), opponent);
+        randomQueue.remove(player.getID(), queuedPlayer);
+        return new MatchedPair(opponent.getPlayer().getID(), player.getID(), gameType);
+    }
+
+    /**
+     * Takes the oldest player in a lane who is still waiting, dropping entries that left or were replaced
+     * @return the claimed player, or null if nobody is waiting
+     */
+    private QueuedPlayer pollLive(Lane lane) {
+        QueuedPlayer head;
+        while ((head = lane.waiting.pollFirst()) != null) {
+            if (head.claim()) {
+                return head;
+            }
+        }
+        return null;
+    }
 
 
     /**
@@ -63,7 +121,7 @@ public class MatchmakingService {
     public void leaveQueue(String playerId) {
         QueuedPlayer removed = randomQueue.remove(playerId);
 
-        if (removed != null) {
+        if (removed != null && removed.claim()) { // false if they were paired a moment ago
             Player player = removed.getPlayer();
             player.getClientHandler().sendMessage("QUEUE_LEFT|Search canceled");
         }
@@ -71,19 +129,41 @@ public class MatchmakingService {
 
 
     /**
-     * Processes queue to match players.
+     * Pairs any players left waiting in the same lane. Joins already pair players as they arrive,
+     * so this normally finds nothing.
      *
-     * @return
+     * @return List of matched pairs found
      */
     private List<MatchedPair> processQueues() {
-        // Process random queue - simply pair any two players who want the same game
-        processRandomQueue();
-        return processRandomQueue();
+        List<MatchedPair> matchedPairs = new ArrayList<>();
+        for (Map.Entry<GameType, Lane> entry : lanes.entrySet()) {
+            Lane lane = entry.getValue();
+            lane.lock.lock();
+            try {
+                QueuedPlayer first;
+                while ((first = pollLive(lane)) != null) {
+                    QueuedPlayer second = pollLive(lane);
+                    if (second == null) {
+                        // nobody to pair with, put them back at the front with their original queue time
+                        if (randomQueue.get(first.getPlayer().getID()) == first) { // unless they left meanwhile
+                            first.release();
+                            lane.waiting.addFirst(first);
+                        }
+                        break;
+                    }
+                    randomQueue.remove(first.getPlayer().getID(), first);
+                    randomQueue.remove(second.getPlayer().getID(), second);
+                    matchedPairs.add(new MatchedPair(first.getPlayer().getID(), second.getPlayer().getID(), entry.getKey()));
+                }
+            } finally {
+                lane.lock.unlock();
+            }
+        }
+        return matchedPairs;
     }
 
     /**
      * Processes queue immediately to try to find matches.
-     * This is useful when a player just joined the queue.
      * @return List of matched pairs found
      */
     public List<MatchedPair> processImmediateMatch() {
@@ -91,44 +171,37 @@ public class MatchmakingService {
     }
 
     /**
-     * Processes the random matchmaking queue.
+     * Sends players who have waited longer than QUEUE_TIMEOUT_MS back to the lobby. Lanes are oldest first,
+     * so each sweep stops at the first player who hasn't timed out.
+     * @param now current time in milliseconds
+     * @return number of players removed
      */
-    private List<MatchedPair> processRandomQueue() {
-        Map<GameType, List<QueuedPlayer>> gameTypeGroups = new HashMap<>();
-        List<MatchedPair> matchedPairs = new ArrayList<>();
-
-        // Group players by game type
-        for (QueuedPlayer qp : randomQueue.values()) {
-            gameTypeGroups.computeIfAbsent(qp.getGameType(), k -> new ArrayList<>()).add(qp);
-        }
-
-        // For each game type, match pairs of players
-        for (Map.Entry<GameType, List<QueuedPlayer>> entry : gameTypeGroups.entrySet()) {
-            List<QueuedPlayer> players = entry.getValue();
-            GameType gameType = entry.getKey();
-
-            // Sort by wait time (oldest first)
-            players.sort(Comparator.comparingLong(QueuedPlayer::getQueueTime));
-
-            // Match pairs
-            for (int i = 0; i < players.size() - 1; i += 2) {
-                QueuedPlayer player1 = players.get(i);
-                QueuedPlayer player2 = players.get(i + 1);
-
-                // Remove from queue
-                randomQueue.remove(player1.getPlayer().getID());
-                randomQueue.remove(player2.getPlayer().getID());
-
-                // Add to matched pairs
-                matchedPairs.add(new MatchedPair(
-                        player1.getPlayer().getID(),
-                        player2.getPlayer().getID(),
-                        gameType
-                ));
+    final int expireQueuedPlayers(long now) {
+        int expired = 0;
+        for (Lane lane : lanes.values()) {
+            QueuedPlayer head;
+            while ((head = lane.waiting.peekFirst()) != null) {
+                if (head.isWaiting() && now - head.getQueueTime() < QUEUE_TIMEOUT_MS) {
+                    break;
+                }
+                if (lane.waiting.removeFirstOccurrence(head) && head.claim()) {
+                    expired++;
+                    randomQueue.remove(head.getPlayer().getID(), head);
+                    head.getPlayer().setState(PlayerState.LOBBY);
+                    notifyQueueStatus(head.getPlayer(), "No opponent found, returned to lobby");
+                }
             }
         }
+        return expired;
+    }
 
-        return matchedPairs;
+    /**
+     * SPECIFICALLY USED FOR TESTING
+     * @param gameType a game type
+     * @return number of entries in that lane, including ones that are about to be skipped
+     */
+    int getLaneSize(GameType gameType) {
+        return lanes.get(gameType).waiting.size();
     }
 
 
@@ -145,14 +218,21 @@ public class MatchmakingService {
      * Notifies a player about their match being found.
      */
     public void notifyMatchFound(Player player, Player opponent, String sessionId, GameType gameType) {
-        // Format: MATCH_FOUND|sessionId|opponentId|opponentUsername|opponentRank|gameType
-        String message = String.format("MATCH_FOUND|%s|%s|%s|%s",
-                sessionId,
-                opponent.getID(),
-                opponent.getUsername(),
-                gameType.toString());
-
-        player.getClientHandler().sendMessage(message);
+        ClientHandler handler = player.getClientHandler();
+        if (handler.getWireFormat() == WireFormat.BINARY) {
+            UUID session = FrameCodec.sessionUuid(sessionId);
+            ByteBuffer frame = BufferPool.FRAMES.acquire();
+            if (FrameCodec.writeMatchFound(frame, session.getMostSignificantBits(), session.getLeastSignificantBits(),
+                    gameType.ordinal(), opponent.getID(), opponent.getUsername())) {
+                frame.flip();
+                handler.sendFrame(frame);
+                return;
+            }
+            BufferPool.FRAMES.release(frame); // names too long for a pooled frame, fall back to text
+        }
+        // Format: MATCH_FOUND|sessionId|opponentId|opponentUsername|gameType
+        handler.sendMessage("MATCH_FOUND|" + sessionId + "|" + opponent.getID() + "|"
+                + opponent.getUsername() + "|" + gameType);
     }
 
     /**
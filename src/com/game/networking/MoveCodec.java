@@ -0,0 +1,87 @@
+package com.game.networking;
+
+/**
+ * Converts moves between the text protocol and the fixed-width int carried in binary MOVE frames.
+ * <ul>
+ *     <li>TICTACTOE: "A1".."C3" (row letter, column number) or "row,col", encoded as row * 3 + col</li>
+ *     <li>CONNECT4: the column "0".."6", encoded as the column</li>
+ *     <li>CHECKERS: "x1,y1,x2,y2", encoded as (x1 * 8 + y1) | (x2 * 8 + y2) &lt;&lt; 6</li>
+ * </ul>
+ */
+public final class MoveCodec {
+    /** Returned by encode when a text move can't be represented as an int */
+    public static final int INVALID = -1;
+
+    private MoveCodec() {
+    }
+
+    /**
+     * Encodes a text move without allocating
+     * @param gameType game the move belongs to
+     * @param move the text move
+     * @return the encoded move, or INVALID
+     */
+    public static int encode(GameType gameType, String move) {
+        if (move == null) {
+            return INVALID;
+        }
+        switch (gameType) {
+            case TICTACTOE:
+                if (move.length() == 2 && Character.isLetter(move.charAt(0))) {
+                    int row = Character.toUpperCase(move.charAt(0)) - 'A';
+                    int col = move.charAt(1) - '1';
+                    return inRange(row, 3) && inRange(col, 3) ? row * 3 + col : INVALID;
+                }
+                if (move.length() == 3 && move.charAt(1) == ',') {
+                    int row = move.charAt(0) - '0';
+                    int col = move.charAt(2) - '0';
+                    return inRange(row, 3) && inRange(col, 3) ? row * 3 + col : INVALID;
+                }
+                return INVALID;
+            case CONNECT4:
+                if (move.length() == 1 && inRange(move.charAt(0) - '0', 7)) {
+                    return move.charAt(0) - '0';
+                }
+                return INVALID;
+            case CHECKERS:
+                // x1,y1,x2,y2 with single digit coordinates
+                if (move.length() == 7 && move.charAt(1) == ',' && move.charAt(3) == ',' && move.charAt(5) == ',') {
+                    int x1 = move.charAt(0) - '0';
+                    int y1 = move.charAt(2) - '0';
+                    int x2 = move.charAt(4) - '0';
+                    int y2 = move.charAt(6) - '0';
+                    if (inRange(x1, 8) && inRange(y1, 8) && inRange(x2, 8) && inRange(y2, 8)) {
+                        return (x1 * 8 + y1) | (x2 * 8 + y2) << 6;
+                    }
+                }
+                return INVALID;
+            default:
+                return INVALID;
+        }
+    }
+
+    /**
+     * Formats an encoded move for text clients
+     * @param gameType game the move belongs to
+     * @param move the encoded move
+     * @return the text move
+     */
+    public static String format(GameType gameType, int move) {
+        switch (gameType) {
+            case TICTACTOE:
+                return "" + (char) ('A' + move / 3) + (move % 3 + 1);
+            case CONNECT4:
+                return Integer.toString(move);
+            case CHECKERS:
+                int from = move & 63;
+                int to = (move >>> 6) & 63;
+                return (from / 8) + "," + (from % 8) + "," + (to / 8) + "," + (to % 8);
+            default:
+                return Integer.toString(move);
+        }
+    }
+
+    private static boolean inRange(int value, int size) {
+        return value >= 0 && value < size;
+    }
+}
@@ -0,0 +1,198 @@
+package com.game.networking;
+
+import com.game.networking.protocol.Frame;
+import com.game.networking.protocol.FrameCodec;
+import com.game.networking.protocol.WireFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-connection state for the NIO transport. Outgoing messages live in the ClientHandler's OutboundQueue. The owning NioEventLoop calls onReadable/onWritable when the
+ * selector reports readiness, so no thread ever blocks on this socket.
+ * The first line received is the player handshake. After that the client either keeps sending text lines
+ * or, if it negotiated WireFormat.BINARY, length-prefixed frames that are decoded in place from the read buffer.
+ * The read buffer starts small and only grows while a frame's length prefix says it needs more room.
+ */
+class NioConnection {
+    private static final int READ_BUFFER_SIZE = 1024; // holds many moves and pings, a bigger frame grows it
+    private static final int MAX_LINE_LENGTH = 8192; // a client sending more than this without a newline is dropped
+
+    private final SocketChannel channel;
+    private final NioEventLoop eventLoop;
+    private final GameServer gameServer;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+    private final Frame frame = new Frame(); // reused for every decoded frame
+    private boolean binary;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private SelectionKey key;
+    private ClientHandler clientHandler; // null until the handshake line has been received
+
+    NioConnection(SocketChannel channel, NioEventLoop eventLoop, GameServer gameServer) {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.gameServer = gameServer;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    ClientHandler getClientHandler() {
+        return clientHandler;
+    }
+
+    /**
+     * Called by the event loop when the socket has bytes to read
+     */
+    void onReadable() {
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (read < 0) { // client closed the connection
+            close();
+            return;
+        }
+        readBuffer.flip();
+        if (!binary) {
+            readLines();
+        }
+        if (binary && channel.isOpen()) {
+            readFrames();
+        }
+        if (!readBuffer.hasRemaining() && readBuffer.capacity() > READ_BUFFER_SIZE) {
+            readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE); // the big frame is done, don't hold on to its room
+            return;
+        }
+        if (binary && channel.isOpen() && readBuffer.remaining() >= FrameCodec.LENGTH_FIELD_SIZE) {
+            // readFrames already rejected bad lengths, so needed is at most MAX_FRAME_LENGTH + LENGTH_FIELD_SIZE
+            int needed = FrameCodec.LENGTH_FIELD_SIZE + readBuffer.getInt(readBuffer.position());
+            if (needed > readBuffer.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocate(needed);
+                grown.put(readBuffer);
+                readBuffer = grown;
+                return;
+            }
+        }
+        readBuffer.compact(); // keep any partial frame for the next read
+    }
+
+    private void readLines() {
+        while (readBuffer.hasRemaining() && !binary) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                String line = partialLine.toString(StandardCharsets.UTF_8);
+                partialLine.reset();
+                if (line.endsWith("\r")) {
+                    line = line.substring(0, line.length() - 1);
+                }
+                handleLine(line);
+                if (!channel.isOpen()) {
+                    return;
+                }
+            } else {
+                partialLine.write(b);
+                if (partialLine.size() > MAX_LINE_LENGTH) {
+                    System.err.println("Dropping connection: line too long");
+                    close();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readFrames() {
+        try {
+            while (frame.next(readBuffer)) {
+                clientHandler.onFrame(frame);
+                if (!channel.isOpen()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) { // corrupt frame, or a handler choking on one, only costs this connection
+            System.err.println("Dropping connection: " + e.getMessage());
+            close();
+        }
+    }
+
+    private void handleLine(String line) {
+        if (clientHandler == null) {
+            clientHandler = gameServer.registerPlayer(line, channel.socket());
+            if (clientHandler == null) {
+                close();
+                return;
+            }
+            clientHandler.attachConnection(this);
+            if (WireFormat.fromHandshake(line) == WireFormat.BINARY) {
+                clientHandler.sendMessage("PROTOCOL|" + WireFormat.BINARY_TOKEN); // last text line, text clients never see an ack
+                clientHandler.setWireFormat(WireFormat.BINARY);
+                binary = true;
+            }
+        } else {
+            clientHandler.onMessage(line);
+        }
+    }
+
+    /**
+     * Asks the event loop to write this client's outbound queue. Several calls before the loop gets to it
+     * collapse into one flush. Safe to call from any thread.
+     */
+    void requestFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.requestWrite(this);
+        }
+    }
+
+    /**
+     * Called on the event loop when a flush was requested or the socket became writable again
+     */
+    void onWritable() {
+        flushScheduled.set(false); // anything queued after this point schedules another flush
+        if (clientHandler == null || !key.isValid()) {
+            return;
+        }
+        try {
+            if (clientHandler.getOutboundQueue().writeTo(channel)) {
+                key.interestOps(SelectionKey.OP_READ);
+            } else { // socket send buffer is full, wait for OP_WRITE
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Closes the channel and tells the ClientHandler it has been disconnected
+     */
+    void close() {
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        if (clientHandler != null) {
+            clientHandler.disconnect();
+        }
+    }
+
+    boolean isOpen() {
+        return channel.isOpen();
+    }
+}
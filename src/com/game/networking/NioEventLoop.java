@@ -0,0 +1,134 @@
+package com.game.networking;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A single I/O thread that owns a Selector and every connection registered with it.
+ * All reads and writes for those connections happen on this thread, other threads hand work over through the task queue.
+ */
+class NioEventLoop implements Runnable {
+    private final GameServer gameServer;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    NioEventLoop(GameServer gameServer) throws IOException {
+        this.gameServer = gameServer;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Starts the loop on its own thread
+     * @param name name of the I/O thread
+     */
+    void start(String name) {
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Hands a freshly accepted socket to this loop
+     * @param channel accepted socket channel
+     */
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                NioConnection connection = new NioConnection(channel, this, gameServer);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connection.setKey(key);
+            } catch (IOException e) {
+                System.err.println("Failed to register connection: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+    }
+
+    /**
+     * Asks the loop to flush a connection's outbound queue
+     * @param connection connection with pending writes
+     */
+    void requestWrite(NioConnection connection) {
+        if (Thread.currentThread() == thread) {
+            connection.onWritable();
+        } else {
+            execute(connection::onWritable);
+        }
+    }
+
+    private void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select(); // woken by execute() or stop(), heartbeats come from the server's HeartbeatScheduler
+            } catch (IOException e) {
+                System.err.println("Selector failed: " + e.getMessage());
+                break;
+            }
+            runTasks();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                NioConnection connection = (NioConnection) key.attachment();
+                if (!key.isValid()) {
+                    continue;
+                }
+                try {
+                    if (key.isReadable()) {
+                        connection.onReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.onWritable();
+                    }
+                } catch (RuntimeException e) { // one misbehaving client must not take the loop and its other connections down
+                    System.err.println("Dropping connection after error: " + e);
+                    connection.close();
+                }
+            }
+        }
+        closeAll();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Event loop task failed: " + e);
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            ((NioConnection) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
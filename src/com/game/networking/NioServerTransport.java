@@ -0,0 +1,84 @@
+package com.game.networking;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Non-blocking transport for the GameServer. The thread that calls start() accepts sockets and hands them
+ * round-robin to a small fixed set of NioEventLoops, so the number of threads no longer grows with the number of players.
+ */
+public class NioServerTransport {
+    private static final long ACCEPT_POLL_MS = 500; // how often the acceptor checks if the server was stopped
+
+    private final GameServer gameServer;
+    private final ServerSocketChannel serverChannel;
+    private final NioEventLoop[] eventLoops;
+    private volatile boolean running;
+    private int nextLoop;
+
+    /**
+     * Creates the transport
+     * @param gameServer server that registers players and owns the lobby
+     * @param serverChannel bound server channel to accept on
+     * @param eventLoopCount number of I/O threads to spread connections across
+     */
+    public NioServerTransport(GameServer gameServer, ServerSocketChannel serverChannel, int eventLoopCount) throws IOException {
+        this.gameServer = gameServer;
+        this.serverChannel = serverChannel;
+        this.eventLoops = new NioEventLoop[Math.max(1, eventLoopCount)];
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new NioEventLoop(gameServer);
+        }
+    }
+
+    /**
+     * Starts the event loops and runs the accept loop on the calling thread until stop() is called
+     */
+    public void start() throws IOException {
+        running = true;
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i].start("omg-io-" + i);
+        }
+        serverChannel.configureBlocking(false);
+        try (Selector acceptSelector = Selector.open()) {
+            serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+            while (running && gameServer.isRunning()) {
+                acceptSelector.select(ACCEPT_POLL_MS);
+                Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    keys.next();
+                    keys.remove();
+                    SocketChannel channel;
+                    while ((channel = serverChannel.accept()) != null) {
+                        eventLoops[nextLoop].register(channel);
+                        nextLoop = (nextLoop + 1) % eventLoops.length;
+                        System.out.println("New connection accepted");
+                    }
+                }
+            }
+        } finally {
+            stop();
+        }
+    }
+
+    /**
+     * Stops accepting and closes every connection owned by the event loops
+     */
+    public void stop() {
+        running = false;
+        for (NioEventLoop loop : eventLoops) {
+            loop.stop();
+        }
+    }
+
+    /**
+     * @return number of I/O threads used by this transport
+     */
+    public int getEventLoopCount() {
+        return eventLoops.length;
+    }
+}
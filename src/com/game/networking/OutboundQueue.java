@@ -0,0 +1,131 @@
+package com.game.networking;
+
+import com.game.networking.protocol.BufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded multi-producer single-consumer queue of encoded messages waiting to be written to one client.
+ * Any thread may offer, but only one thread at a time may call writeTo (the NIO event loop, or whoever holds
+ * the ClientHandler's write lock). writeTo coalesces everything queued into gathering writes, so a burst of
+ * messages costs one syscall instead of one per message.
+ */
+class OutboundQueue {
+    static final int DEFAULT_CAPACITY = 1024; // messages, a client this far behind is dropped
+    static final int MAX_BATCH = 64;          // buffers handed to a single gathering write
+
+    private final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    // writer-only state: the current batch, batch[0..batchCount) still has bytes to write
+    private final ByteBuffer[] batch = new ByteBuffer[MAX_BATCH];
+    private int batchCount;
+
+    OutboundQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues a buffer for writing
+     * @param buffer buffer in read mode, pooled buffers go back to BufferPool.FRAMES once written
+     * @return false if the queue is full, the caller still owns the buffer in that case
+     */
+    boolean offer(ByteBuffer buffer) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.offer(buffer);
+        return true;
+    }
+
+    /**
+     * Writes as much as the channel accepts. Must only be called by one thread at a time.
+     * @param channel the client's channel
+     * @return true if everything queued was written, false if the channel is full (non-blocking channels only)
+     * @throws IOException if the write fails
+     */
+    boolean writeTo(WritableByteChannel channel) throws IOException {
+        while (true) {
+            fillBatch();
+            if (batchCount == 0) {
+                return true;
+            }
+            if (channel instanceof GatheringByteChannel) {
+                ((GatheringByteChannel) channel).write(batch, 0, batchCount);
+            } else {
+                for (int i = 0; i < batchCount; i++) { // e.g. a stream wrapped by Channels.newChannel
+                    channel.write(batch[i]);
+                    if (batch[i].hasRemaining()) {
+                        break;
+                    }
+                }
+            }
+            if (!releaseWritten()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Moves queued buffers into the batch behind any partially written ones
+     */
+    private void fillBatch() {
+        ByteBuffer next;
+        while (batchCount < MAX_BATCH && (next = queue.poll()) != null) {
+            batch[batchCount++] = next;
+        }
+    }
+
+    /**
+     * Drops fully written buffers from the front of the batch
+     * @return true if the whole batch was written
+     */
+    private boolean releaseWritten() {
+        int written = 0;
+        while (written < batchCount && !batch[written].hasRemaining()) {
+            BufferPool.FRAMES.release(batch[written]); // ignored for buffers that didn't come from the pool
+            written++;
+        }
+        size.addAndGet(-written);
+        System.arraycopy(batch, written, batch, 0, batchCount - written);
+        for (int i = batchCount - written; i < batchCount; i++) {
+            batch[i] = null;
+        }
+        batchCount -= written;
+        return batchCount == 0;
+    }
+
+    /**
+     * Drops everything still queued, used when the connection closes.
+     * A batch the writer is part way through is left alone, the next write fails on the closed channel anyway.
+     */
+    void clear() {
+        ByteBuffer buffer;
+        while ((buffer = queue.poll()) != null) {
+            BufferPool.FRAMES.release(buffer);
+            size.decrementAndGet();
+        }
+    }
+
+    boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * @return number of buffers queued or partially written
+     */
+    int size() {
+        return size.get();
+    }
+}
@@ -1,5 +1,7 @@
 package com.game.networking;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Represents a player in the matchmaking queue.
  */
@@ -7,6 +9,7 @@ class QueuedPlayer {
     private final Player player;
     private final GameType gameType;
     private final long queueTime;
+    private final AtomicBoolean waiting = new AtomicBoolean(true); // false once paired, removed or replaced
 
     public QueuedPlayer(Player player, GameType gameType, long queueTime) {
         this.player = player;
@@ -25,4 +28,23 @@ class QueuedPlayer {
     public long getQueueTime() {
         return queueTime;
     }
+
+    public boolean isWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * Takes this entry out of the queue, only one caller can win (pairing, leaving or timing out)
+     * @return true if this call claimed it
+     */
+    boolean claim() {
+        return waiting.compareAndSet(true, false);
+    }
+
+    /**
+     * Puts a claimed entry back, used when a claimed player ends up without an opponent
+     */
+    void release() {
+        waiting.set(true);
+    }
 }
@@ -1,11 +1,17 @@
 package com.game.networking;
 
+import com.game.gamelogic.TicTacToeBitBoard;
+import com.game.networking.protocol.FrameCodec;
+
 /**
         * Constructor for a GameSession
      *
  */
 
 public class TicTacToeSession extends GameSession {
+    // the server's copy of the game, player 1 is X
+    private final TicTacToeBitBoard board = new TicTacToeBitBoard();
+
     public TicTacToeSession(String sessionId,Player player1,Player player2) {
         super(sessionId, GameType.TICTACTOE);
         this.player1 = player1;
@@ -24,6 +30,7 @@ public class TicTacToeSession extends GameSession {
     @Override
     public void start(ClientHandler player1Handler, ClientHandler player2Handler) {
         super.start(player1Handler, player2Handler);
+        board.reset();
 
         // Set the current player to player 1 at the start
         currentPlayer = player1;
@@ -36,8 +43,34 @@ public class TicTacToeSession extends GameSession {
         sendMessageToPlayer(currentPlayer, "Your Turn");
    }
 
+    @Override
+    protected int applyMove(int seat, int move) {
+        if (move < 0 || move > 8 || !board.canPlay(move)) {
+            return FrameCodec.ERROR_ILLEGAL_MOVE;
+        }
+        board.play(seat, move); // seats match TicTacToeBitBoard.X and O
+        return ACCEPTED;
+    }
+
+    @Override
+    protected boolean isGameOver() {
+        return board.hasWon(TicTacToeBitBoard.X) || board.hasWon(TicTacToeBitBoard.O) || board.isFull();
+    }
 
+    @Override
+    protected int winningSeat() {
+        if (board.hasWon(TicTacToeBitBoard.X)) {
+            return TicTacToeBitBoard.X;
+        }
+        return board.hasWon(TicTacToeBitBoard.O) ? TicTacToeBitBoard.O : DRAW;
+    }
 
+    /**
+     * @return the server's copy of the board
+     */
+    public TicTacToeBitBoard getBoard() {
+        return board;
+    }
 }
 
 
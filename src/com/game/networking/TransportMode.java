@@ -0,0 +1,29 @@
+package com.game.networking;
+
+/**
+ * Enum class regarding how the GameServer drives its client connections
+ */
+public enum TransportMode {
+    BLOCKING, // one accept thread per socket plus one thread per ClientHandler (original behaviour)
+    VIRTUAL,  // same blocking code, but every connection thread is a virtual thread (JDK 21+)
+    NIO;      // a few selector event loops own every connection
+
+    /**
+     * Reads the transport mode from a startup flag such as "nio" or "blocking".
+     * Anything unknown falls back to BLOCKING so existing setups keep working.
+     * @param flag value of the --transport flag (may be null)
+     * @return the matching TransportMode
+     */
+    public static TransportMode fromFlag(String flag) {
+        if (flag == null) {
+            return BLOCKING;
+        }
+        for (TransportMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(flag.trim())) {
+                return mode;
+            }
+        }
+        System.err.println("Unknown transport mode '" + flag + "', using BLOCKING");
+        return BLOCKING;
+    }
+}
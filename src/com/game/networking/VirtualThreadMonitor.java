@@ -0,0 +1,116 @@
+package com.game.networking;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports how many threads the server is really using and how often virtual threads pin their carrier.
+ * Pinning is read from the JDK's own jdk.VirtualThreadPinned flight recorder event, so nothing has to be instrumented.
+ */
+public class VirtualThreadMonitor {
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20); // JDK default threshold for the event
+    private static final String CARRIER_CLASS = "jdk.internal.misc.CarrierThread";
+
+    private final AtomicInteger activeConnectionThreads = new AtomicInteger();
+    private final AtomicLong connectionThreadsStarted = new AtomicLong();
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private RecordingStream recording;
+
+    /**
+     * Starts listening for carrier pinning events. Safe to call more than once.
+     */
+    public synchronized void start() {
+        if (recording != null) {
+            return;
+        }
+        try {
+            recording = new RecordingStream();
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(PINNED_THRESHOLD).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinnedEvents.incrementAndGet();
+                pinnedNanos.addAndGet(event.getDuration().toNanos());
+            });
+            recording.startAsync();
+        } catch (RuntimeException e) { // JFR can be disabled in some JVMs, the thread counts still work without it
+            System.err.println("Pinning monitor unavailable: " + e.getMessage());
+            recording = null;
+        }
+    }
+
+    /**
+     * Stops the flight recorder stream
+     */
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Wraps a connection task so the monitor can count live connection threads
+     * @param task the connection task (usually a ClientHandler)
+     * @return the wrapped task
+     */
+    public Runnable track(Runnable task) {
+        return () -> {
+            activeConnectionThreads.incrementAndGet();
+            connectionThreadsStarted.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeConnectionThreads.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Counts the platform threads currently carrying virtual threads
+     * @return number of live virtual thread scheduler workers
+     */
+    public static int getCarrierThreadCount() {
+        int carriers = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (isCarrier(thread)) {
+                carriers++;
+            }
+        }
+        return carriers;
+    }
+
+    /**
+     * The virtual thread scheduler's workers are CarrierThreads. Matching on the ForkJoinPool-N-worker name would
+     * also count the workers of any other ForkJoinPool, such as the one CheckersSearch runs on.
+     */
+    static boolean isCarrier(Thread thread) {
+        return thread.getClass().getName().equals(CARRIER_CLASS);
+    }
+
+    public int getActiveConnectionThreads() {
+        return activeConnectionThreads.get();
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    /**
+     * Builds a one line report of thread usage and pinning
+     * @return the report
+     */
+    public String report() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return "Connections: " + activeConnectionThreads.get()
+                + " (started " + connectionThreadsStarted.get() + ")"
+                + " | Platform threads: " + threads.getThreadCount()
+                + " (peak " + threads.getPeakThreadCount() + ")"
+                + " | Carriers: " + getCarrierThreadCount()
+                + " | Pinned: " + pinnedEvents.get() + " events, " + (pinnedNanos.get() / 1_000_000) + "ms";
+    }
+}
@@ -0,0 +1,70 @@
+package com.game.networking.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of fixed-size direct ByteBuffers so frames can be encoded and written without allocating per message.
+ * Whoever acquires a buffer owns it until it is released, buffers are never shared between owners.
+ */
+public class BufferPool {
+    /** Shared pool for outgoing frames, big enough for every fixed-width frame and short text messages */
+    public static final BufferPool FRAMES = new BufferPool(512, 4096);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * Creates a pool
+     * @param bufferSize capacity of each buffer in bytes
+     * @param maxPooled maximum number of idle buffers kept, extra releases are left to the GC
+     */
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating one if the pool is empty
+     * @return a buffer ready for writing
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Gives a buffer back to the pool. Buffers of another size are ignored.
+     * @param buffer a buffer previously returned by acquire()
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize || !buffer.isDirect()) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return number of idle buffers currently pooled
+     */
+    public int getPooledCount() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,166 @@
+package com.game.networking.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable view of one decoded frame. Fields are read straight out of the receive buffer
+ * with absolute gets, so decoding copies nothing and allocates nothing (except for string fields).
+ * The view is only valid until the next call to next() or until the buffer is compacted.
+ */
+public class Frame {
+    private ByteBuffer buffer;
+    private int start;       // index of the version byte
+    private int length;      // bytes after the length field
+    private Opcode opcode;
+
+    /**
+     * Moves this view onto the next complete frame in the buffer, consuming it.
+     * The buffer must be in read mode. Partial frames are left in place for the next read.
+     * @param in buffer holding received bytes
+     * @return true if a frame was decoded
+     * @throws IllegalStateException if the stream is corrupt (bad length, version or opcode, or a payload
+     *                               too short for its opcode or for the strings it declares)
+     */
+    public boolean next(ByteBuffer in) {
+        if (in.remaining() < FrameCodec.LENGTH_FIELD_SIZE) {
+            return false;
+        }
+        int frameLength = in.getInt(in.position());
+        if (frameLength < 2 || frameLength > FrameCodec.MAX_FRAME_LENGTH) {
+            throw new IllegalStateException("Bad frame length " + frameLength);
+        }
+        if (in.remaining() < FrameCodec.LENGTH_FIELD_SIZE + frameLength) {
+            return false;
+        }
+        int versionIndex = in.position() + FrameCodec.LENGTH_FIELD_SIZE;
+        byte version = in.get(versionIndex);
+        if (version != FrameCodec.VERSION) {
+            throw new IllegalStateException("Unsupported protocol version " + version);
+        }
+        Opcode decoded = Opcode.fromCode(in.get(versionIndex + 1));
+        if (decoded == null) {
+            throw new IllegalStateException("Unknown opcode " + in.get(versionIndex + 1));
+        }
+        checkPayload(in, decoded, versionIndex + 2, frameLength - 2);
+        this.buffer = in;
+        this.start = versionIndex;
+        this.length = frameLength;
+        this.opcode = decoded;
+        in.position(versionIndex + frameLength);
+        return true;
+    }
+
+    /**
+     * Makes sure every field the accessors read for this opcode lies inside the frame, so a client can't make
+     * them read into the next frame or past the buffer
+     */
+    private static void checkPayload(ByteBuffer in, Opcode opcode, int payload, int payloadLength) {
+        int end = payload + payloadLength;
+        switch (opcode) {
+            case PING, PONG -> require(opcode, payloadLength, 8);
+            case ERROR -> require(opcode, payloadLength, 2);
+            case TURN -> require(opcode, payloadLength, 8 + 8 + 1);
+            case MOVE -> require(opcode, payloadLength, 8 + 8 + 1 + 4);
+            case TEXT, QUEUE_STATUS -> checkString(in, opcode, payload, end);
+            case MATCH_FOUND -> {
+                require(opcode, payloadLength, 8 + 8 + 1);
+                int name = checkString(in, opcode, payload + 17, end);
+                checkString(in, opcode, name, end);
+            }
+        }
+    }
+
+    private static void require(Opcode opcode, int payloadLength, int needed) {
+        if (payloadLength < needed) {
+            throw new IllegalStateException(opcode + " frame too short: " + payloadLength + " payload bytes");
+        }
+    }
+
+    /**
+     * @return index just past the string
+     */
+    private static int checkString(ByteBuffer in, Opcode opcode, int index, int end) {
+        if (end - index < 2) {
+            throw new IllegalStateException(opcode + " frame too short for its string length");
+        }
+        int stringEnd = index + 2 + (in.getShort(index) & 0xFFFF);
+        if (stringEnd > end) {
+            throw new IllegalStateException(opcode + " string runs past the end of the frame");
+        }
+        return stringEnd;
+    }
+
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * @return number of payload bytes (after version and opcode)
+     */
+    public int getPayloadLength() {
+        return length - 2;
+    }
+
+    private int payload() {
+        return start + 2;
+    }
+
+    // MOVE, TURN and MATCH_FOUND all start with the session id
+    public long getSessionHigh() {
+        return buffer.getLong(payload());
+    }
+
+    public long getSessionLow() {
+        return buffer.getLong(payload() + 8);
+    }
+
+    /**
+     * @return seat of a MOVE, or seat to move of a TURN
+     */
+    public int getSeat() {
+        return buffer.get(payload() + 16);
+    }
+
+    public int getMove() {
+        return buffer.getInt(payload() + 17);
+    }
+
+    /**
+     * @return timestamp of a PING or PONG
+     */
+    public long getTimestamp() {
+        return buffer.getLong(payload());
+    }
+
+    public int getErrorCode() {
+        return buffer.getShort(payload());
+    }
+
+    /**
+     * @return the string of a TEXT or QUEUE_STATUS frame
+     */
+    public String getText() {
+        return readString(payload());
+    }
+
+    public int getGameType() {
+        return buffer.get(payload() + 16);
+    }
+
+    public String getOpponentId() {
+        return readString(payload() + 17);
+    }
+
+    public String getOpponentName() {
+        int idLength = buffer.getShort(payload() + 17) & 0xFFFF;
+        return readString(payload() + 17 + 2 + idLength);
+    }
+
+    private String readString(int index) {
+        int stringLength = buffer.getShort(index) & 0xFFFF;
+        byte[] bytes = new byte[stringLength];
+        buffer.get(index + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
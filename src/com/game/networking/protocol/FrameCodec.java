@@ -0,0 +1,131 @@
+package com.game.networking.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Encoder for the binary wire protocol.
+ * <p>
+ * Every frame is: int length (bytes after this field) | byte version | byte opcode | payload.
+ * Hot frames only use fixed-width fields:
+ * <pre>
+ *   MOVE  : long sessionHigh | long sessionLow | byte seat | int move     (27 bytes total)
+ *   TURN  : long sessionHigh | long sessionLow | byte seatToMove          (23 bytes total)
+ *   PING / PONG : long timestamp                                          (14 bytes total)
+ *   ERROR : short errorCode                                               (8 bytes total)
+ * </pre>
+ * Seats are 0 for player 1 and 1 for player 2, so player ids never travel with a move.
+ * Strings (only in MATCH_FOUND, QUEUE_STATUS and TEXT) are an unsigned short length followed by UTF-8 bytes.
+ * </p>
+ */
+public final class FrameCodec {
+    public static final byte VERSION = 1;
+    public static final int LENGTH_FIELD_SIZE = 4;
+    public static final int HEADER_SIZE = LENGTH_FIELD_SIZE + 2; // length + version + opcode
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;        // larger length prefixes are treated as garbage
+
+    public static final int MOVE_FRAME_SIZE = HEADER_SIZE + 8 + 8 + 1 + 4;
+    public static final int TURN_FRAME_SIZE = HEADER_SIZE + 8 + 8 + 1;
+    public static final int PING_FRAME_SIZE = HEADER_SIZE + 8;
+    public static final int ERROR_FRAME_SIZE = HEADER_SIZE + 2;
+
+    // ERROR codes sent back when the server rejects a move
+    public static final int ERROR_NOT_YOUR_TURN = 1;
+    public static final int ERROR_ILLEGAL_MOVE = 2;
+    public static final int ERROR_GAME_OVER = 3;
+
+    private FrameCodec() {
+    }
+
+    /**
+     * Converts a session id to the UUID carried in frames. Server session ids are UUIDs already,
+     * anything else (tests, custom ids) is hashed into a name based UUID. Call once per session, not per move.
+     * @param sessionId the session id string
+     * @return the UUID for the session
+     */
+    public static UUID sessionUuid(String sessionId) {
+        try {
+            return UUID.fromString(sessionId);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(sessionId.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void header(ByteBuffer buf, int frameSize, Opcode opcode) {
+        buf.putInt(frameSize - LENGTH_FIELD_SIZE);
+        buf.put(VERSION);
+        buf.put(opcode.getCode());
+    }
+
+    public static void writeMove(ByteBuffer buf, long sessionHigh, long sessionLow, int seat, int move) {
+        header(buf, MOVE_FRAME_SIZE, Opcode.MOVE);
+        buf.putLong(sessionHigh);
+        buf.putLong(sessionLow);
+        buf.put((byte) seat);
+        buf.putInt(move);
+    }
+
+    public static void writeTurn(ByteBuffer buf, long sessionHigh, long sessionLow, int seatToMove) {
+        header(buf, TURN_FRAME_SIZE, Opcode.TURN);
+        buf.putLong(sessionHigh);
+        buf.putLong(sessionLow);
+        buf.put((byte) seatToMove);
+    }
+
+    public static void writePing(ByteBuffer buf, long timestamp) {
+        header(buf, PING_FRAME_SIZE, Opcode.PING);
+        buf.putLong(timestamp);
+    }
+
+    public static void writePong(ByteBuffer buf, long timestamp) {
+        header(buf, PING_FRAME_SIZE, Opcode.PONG);
+        buf.putLong(timestamp);
+    }
+
+    public static void writeError(ByteBuffer buf, int errorCode) {
+        header(buf, ERROR_FRAME_SIZE, Opcode.ERROR);
+        buf.putShort((short) errorCode);
+    }
+
+    /**
+     * Writes a frame whose payload is a single string (TEXT, QUEUE_STATUS)
+     * @return false if the buffer is too small, nothing is written in that case
+     */
+    public static boolean writeText(ByteBuffer buf, Opcode opcode, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int frameSize = HEADER_SIZE + 2 + bytes.length;
+        if (bytes.length > 0xFFFF || buf.remaining() < frameSize) {
+            return false;
+        }
+        header(buf, frameSize, opcode);
+        putString(buf, bytes);
+        return true;
+    }
+
+    /**
+     * Writes a MATCH_FOUND frame: session | byte gameType ordinal | string opponentId | string opponentName
+     * @return false if the buffer is too small, nothing is written in that case
+     */
+    public static boolean writeMatchFound(ByteBuffer buf, long sessionHigh, long sessionLow, int gameType,
+                                          String opponentId, String opponentName) {
+        byte[] id = opponentId.getBytes(StandardCharsets.UTF_8);
+        byte[] name = opponentName.getBytes(StandardCharsets.UTF_8);
+        int frameSize = HEADER_SIZE + 8 + 8 + 1 + 2 + id.length + 2 + name.length;
+        if (id.length > 0xFFFF || name.length > 0xFFFF || buf.remaining() < frameSize) {
+            return false;
+        }
+        header(buf, frameSize, Opcode.MATCH_FOUND);
+        buf.putLong(sessionHigh);
+        buf.putLong(sessionLow);
+        buf.put((byte) gameType);
+        putString(buf, id);
+        putString(buf, name);
+        return true;
+    }
+
+    private static void putString(ByteBuffer buf, byte[] bytes) {
+        buf.putShort((short) bytes.length);
+        buf.put(bytes);
+    }
+}
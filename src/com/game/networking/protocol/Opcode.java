@@ -0,0 +1,43 @@
+package com.game.networking.protocol;
+
+/**
+ * Enum class regarding the type byte of a binary frame.
+ * The code is part of the wire format, so existing codes must never be renumbered.
+ */
+public enum Opcode {
+    PING(1),
+    PONG(2),
+    MOVE(3),
+    TURN(4),
+    MATCH_FOUND(5),
+    QUEUE_STATUS(6),
+    ERROR(7),
+    TEXT(8); // any message that has no dedicated frame yet, carried as UTF-8
+
+    private static final Opcode[] BY_CODE = new Opcode[16];
+
+    static {
+        for (Opcode opcode : values()) {
+            BY_CODE[opcode.code] = opcode;
+        }
+    }
+
+    private final byte code;
+
+    Opcode(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Looks up an opcode without allocating
+     * @param code the byte read from the wire
+     * @return the Opcode, or null if unknown
+     */
+    public static Opcode fromCode(byte code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.game.networking.protocol;
+
+/**
+ * Enum class regarding the format a client speaks after its handshake
+ */
+public enum WireFormat {
+    TEXT,   // newline separated strings (original protocol, always supported)
+    BINARY; // length-prefixed frames built by FrameCodec
+
+    /** Token a client appends as the 5th handshake field to ask for binary frames */
+    public static final String BINARY_TOKEN = "BINARY/" + FrameCodec.VERSION;
+
+    /**
+     * Picks the wire format from the handshake line "username,email,password,id[,BINARY/1]".
+     * Clients that don't ask, or ask for a version we don't speak, stay on TEXT.
+     * @param playerData handshake line
+     * @return the negotiated format
+     */
+    public static WireFormat fromHandshake(String playerData) {
+        if (playerData != null && playerData.endsWith("," + BINARY_TOKEN)) {
+            return BINARY;
+        }
+        return TEXT;
+    }
+}
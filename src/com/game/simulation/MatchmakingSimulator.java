@@ -0,0 +1,197 @@
+package com.game.simulation;
+
+import com.game.matchmaking.Matchmaking;
+import com.game.networking.ClientHandler;
+import com.game.networking.GameType;
+import com.game.networking.MatchmakingService;
+import com.game.networking.Player;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Feeds synthetic player arrivals into the matchmakers and reports how they cope.
+ * Arrivals follow a Poisson process with Elo drawn from a normal distribution and the game picked from a weighted mix.
+ * Time runs on a simulated clock, so time-to-match numbers are repeatable for a given seed,
+ * while matches/sec and CPU per match are measured on the real clock around the matchmaker calls.
+ *
+ * Usage: java com.game.simulation.MatchmakingSimulator [--target=service|rated|both] [--rate=200] [--seconds=60]
+ *        [--elo-mean=1200] [--elo-sd=200] [--mix=tictactoe:1,checkers:1,connect4:1] [--seed=42]
+ */
+public class MatchmakingSimulator {
+    private static final long TICK_MS = 1000; // Matchmaking.runMatchmaking ticks every second
+
+    private final SimulationConfig config;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /**
+     * One synthetic player arriving
+     */
+    private static class Arrival {
+        final int id;
+        final long timeMs;
+        final int elo;
+        final GameType gameType;
+
+        Arrival(int id, long timeMs, int elo, GameType gameType) {
+            this.id = id;
+            this.timeMs = timeMs;
+            this.elo = elo;
+            this.gameType = gameType;
+        }
+    }
+
+    /**
+     * ClientHandler that drops every message, the simulator only cares about the pairs
+     */
+    private static class SilentClientHandler extends ClientHandler {
+        SilentClientHandler() {
+            super(null, null);
+        }
+
+        @Override
+        public void sendMessage(String message) {
+        }
+    }
+
+    public MatchmakingSimulator(SimulationConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Runs the configured targets
+     * @return one report per target
+     */
+    public List<SimulationReport> run() {
+        List<Arrival> arrivals = generateArrivals();
+        List<SimulationReport> reports = new ArrayList<>();
+        if (config.getTarget() != SimulationConfig.Target.RATED) {
+            reports.add(runService(arrivals));
+        }
+        if (config.getTarget() != SimulationConfig.Target.SERVICE) {
+            reports.add(runRated(arrivals));
+        }
+        return reports;
+    }
+
+    private List<Arrival> generateArrivals() {
+        Random random = new Random(config.getSeed());
+        List<Arrival> arrivals = new ArrayList<>();
+        GameType[] gameTypes = GameType.values();
+        double totalWeight = 0;
+        for (GameType gameType : gameTypes) {
+            totalWeight += config.getGameMix().get(gameType);
+        }
+        long endMs = config.getDurationSeconds() * 1000L;
+        double time = 0;
+        int id = 0;
+        while (true) {
+            time += -Math.log(1 - random.nextDouble()) / config.getArrivalsPerSecond() * 1000; // exponential gaps
+            if (time >= endMs) {
+                return arrivals;
+            }
+            int elo = (int) Math.round(config.getEloMean() + random.nextGaussian() * config.getEloStdDev());
+            double pick = random.nextDouble() * totalWeight;
+            GameType gameType = gameTypes[gameTypes.length - 1];
+            for (GameType candidate : gameTypes) {
+                pick -= config.getGameMix().get(candidate);
+                if (pick < 0) {
+                    gameType = candidate;
+                    break;
+                }
+            }
+            arrivals.add(new Arrival(id++, (long) time, Math.max(0, elo), gameType));
+        }
+    }
+
+    /**
+     * Drives com.game.networking.MatchmakingService, which pairs on join
+     */
+    private SimulationReport runService(List<Arrival> arrivals) {
+        SimulationReport report = new SimulationReport("service");
+        MatchmakingService service = new MatchmakingService(null);
+        ClientHandler handler = new SilentClientHandler();
+        Map<String, Arrival> waiting = new HashMap<>();
+        try {
+            for (Arrival arrival : arrivals) {
+                report.recordArrival();
+                String id = Integer.toString(arrival.id);
+                Player player = new Player(id, "sim" + id, id + "@sim", "sim", handler);
+                waiting.put(id, arrival);
+
+                long cpuStart = cpuTime();
+                long wallStart = System.nanoTime();
+                MatchmakingService.MatchedPair pair = service.joinRandomQueue(player, arrival.gameType);
+                report.addTime(System.nanoTime() - wallStart, cpuDelta(cpuStart));
+
+                if (pair != null) {
+                    Arrival first = waiting.remove(pair.getPlayer1Id());
+                    Arrival second = waiting.remove(pair.getPlayer2Id());
+                    report.recordMatch(arrival.timeMs - first.timeMs, arrival.timeMs - second.timeMs,
+                            Math.abs(first.elo - second.elo));
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+        return report;
+    }
+
+    /**
+     * Drives com.game.matchmaking.Matchmaking with one instance per game, ticking once per simulated second
+     */
+    private SimulationReport runRated(List<Arrival> arrivals) {
+        SimulationReport report = new SimulationReport("rated");
+        Map<GameType, Matchmaking> matchmakers = new EnumMap<>(GameType.class);
+        long[] now = new long[1]; // simulated time of the current tick, read by the listener
+        for (GameType gameType : GameType.values()) {
+            Matchmaking matchmaking = new Matchmaking();
+            matchmaking.setMatchListener((p1, p2, game) -> report.recordMatch(
+                    now[0] - p1.getQueuedAt(), now[0] - p2.getQueuedAt(),
+                    Math.abs(p1.getElo(game) - p2.getElo(game))));
+            matchmakers.put(gameType, matchmaking);
+        }
+
+        int next = 0;
+        long endMs = config.getDurationSeconds() * 1000L;
+        for (now[0] = TICK_MS; now[0] <= endMs; now[0] += TICK_MS) {
+            long cpuStart = cpuTime();
+            long wallStart = System.nanoTime();
+            while (next < arrivals.size() && arrivals.get(next).timeMs <= now[0]) {
+                Arrival arrival = arrivals.get(next++);
+                report.recordArrival();
+                com.game.leaderboard.Player player = new com.game.leaderboard.Player(arrival.id, "sim" + arrival.id,
+                        arrival.elo, arrival.elo, arrival.elo, 0, 0, 0);
+                player.setQueuedAt(arrival.timeMs);
+                matchmakers.get(arrival.gameType).enqueue(player);
+            }
+            for (Map.Entry<GameType, Matchmaking> entry : matchmakers.entrySet()) {
+                entry.getValue().matchOnce(entry.getKey().name().toLowerCase(), now[0]);
+            }
+            report.addTime(System.nanoTime() - wallStart, cpuDelta(cpuStart));
+        }
+        return report;
+    }
+
+    private long cpuTime() {
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private long cpuDelta(long start) {
+        return start < 0 ? -1 : threads.getCurrentThreadCpuTime() - start;
+    }
+
+    public static void main(String[] args) {
+        SimulationConfig config = SimulationConfig.fromArgs(args);
+        System.out.println("Simulating " + config);
+        for (SimulationReport report : new MatchmakingSimulator(config).run()) {
+            System.out.println(report);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.game.simulation;
+
+import com.game.networking.GameType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for a MatchmakingSimulator run. Every field has a default, so a run can be started with no flags.
+ */
+public class SimulationConfig {
+    /**
+     * Which matchmaker a run drives
+     */
+    public enum Target {
+        SERVICE, // com.game.networking.MatchmakingService, random pairing on join
+        RATED,   // com.game.matchmaking.Matchmaking, Elo pairing on one second ticks
+        BOTH
+    }
+
+    private Target target = Target.BOTH;
+    private double arrivalsPerSecond = 200;  // mean of the Poisson arrival process
+    private int durationSeconds = 60;        // simulated time, not wall clock
+    private double eloMean = 1200;
+    private double eloStdDev = 200;
+    private long seed = 42;
+    private final Map<GameType, Double> gameMix = new EnumMap<>(GameType.class);
+
+    public SimulationConfig() {
+        for (GameType gameType : GameType.values()) {
+            gameMix.put(gameType, 1.0);
+        }
+    }
+
+    /**
+     * Reads flags such as "--rate=500 --seconds=120 --elo-sd=300 --mix=checkers:2,connect4:1 --target=rated"
+     * @param args command line arguments
+     * @return the config, unknown flags are reported and ignored
+     */
+    public static SimulationConfig fromArgs(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                System.err.println("Ignoring argument " + arg);
+                continue;
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+                case "target" -> config.setTarget(Target.valueOf(value.toUpperCase()));
+                case "rate" -> config.setArrivalsPerSecond(Double.parseDouble(value));
+                case "seconds" -> config.setDurationSeconds(Integer.parseInt(value));
+                case "elo-mean" -> config.setEloMean(Double.parseDouble(value));
+                case "elo-sd" -> config.setEloStdDev(Double.parseDouble(value));
+                case "seed" -> config.setSeed(Long.parseLong(value));
+                case "mix" -> config.setGameMix(value);
+                default -> System.err.println("Ignoring unknown flag --" + name);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Sets the relative weight of each game, e.g. "tictactoe:1,checkers:3". Games that aren't listed get weight 0.
+     * @param mix comma separated game:weight pairs
+     */
+    public void setGameMix(String mix) {
+        gameMix.replaceAll((gameType, weight) -> 0.0);
+        for (String part : mix.split(",")) {
+            int colon = part.indexOf(':');
+            GameType gameType = GameType.valueOf(part.substring(0, colon).trim().toUpperCase());
+            gameMix.put(gameType, Double.parseDouble(part.substring(colon + 1)));
+        }
+    }
+
+    public Map<GameType, Double> getGameMix() {
+        return gameMix;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    public void setTarget(Target target) {
+        this.target = target;
+    }
+
+    public double getArrivalsPerSecond() {
+        return arrivalsPerSecond;
+    }
+
+    public void setArrivalsPerSecond(double arrivalsPerSecond) {
+        this.arrivalsPerSecond = arrivalsPerSecond;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public double getEloMean() {
+        return eloMean;
+    }
+
+    public void setEloMean(double eloMean) {
+        this.eloMean = eloMean;
+    }
+
+    public double getEloStdDev() {
+        return eloStdDev;
+    }
+
+    public void setEloStdDev(double eloStdDev) {
+        this.eloStdDev = eloStdDev;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return "target=" + target + " rate=" + arrivalsPerSecond + "/s seconds=" + durationSeconds
+                + " elo=" + eloMean + "±" + eloStdDev + " mix=" + gameMix + " seed=" + seed;
+    }
+}
@@ -0,0 +1,125 @@
+package com.game.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Results of one simulator run against one matchmaker. Times to match are in simulated milliseconds,
+ * throughput and CPU are measured on the real clock around the matchmaker calls only.
+ */
+public class SimulationReport {
+    private final String name;
+    private int arrivals;
+    private int matches;
+    private long[] timesToMatch = new long[1024];
+    private int[] eloSpreads = new int[1024];
+    private long wallNanos;
+    private long cpuNanos;
+
+    public SimulationReport(String name) {
+        this.name = name;
+    }
+
+    void recordArrival() {
+        arrivals++;
+    }
+
+    /**
+     * Records one created pair
+     * @param firstWaitMs simulated wait of the first player
+     * @param secondWaitMs simulated wait of the second player
+     * @param eloSpread absolute Elo difference of the pair
+     */
+    void recordMatch(long firstWaitMs, long secondWaitMs, int eloSpread) {
+        if (matches * 2 + 2 > timesToMatch.length) {
+            timesToMatch = Arrays.copyOf(timesToMatch, timesToMatch.length * 2);
+        }
+        if (matches + 1 > eloSpreads.length) {
+            eloSpreads = Arrays.copyOf(eloSpreads, eloSpreads.length * 2);
+        }
+        timesToMatch[matches * 2] = firstWaitMs;
+        timesToMatch[matches * 2 + 1] = secondWaitMs;
+        eloSpreads[matches] = eloSpread;
+        matches++;
+    }
+
+    /**
+     * Adds time spent inside the matchmaker
+     * @param wallNanos elapsed real time
+     * @param cpuNanos CPU time of the calling thread, negative if it can't be measured
+     */
+    void addTime(long wallNanos, long cpuNanos) {
+        this.wallNanos += wallNanos;
+        this.cpuNanos = cpuNanos < 0 || this.cpuNanos < 0 ? -1 : this.cpuNanos + cpuNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getArrivals() {
+        return arrivals;
+    }
+
+    public int getMatches() {
+        return matches;
+    }
+
+    /**
+     * @return pairs created per second of real time spent inside the matchmaker
+     */
+    public double getMatchesPerSecond() {
+        return wallNanos == 0 ? 0 : matches / (wallNanos / 1e9);
+    }
+
+    /**
+     * @return CPU time per created pair in microseconds, or -1 if the JVM can't measure thread CPU time
+     */
+    public double getCpuMicrosPerMatch() {
+        if (cpuNanos < 0) {
+            return -1;
+        }
+        return matches == 0 ? 0 : cpuNanos / 1e3 / matches;
+    }
+
+    /**
+     * @param percentile e.g. 50 or 99
+     * @return simulated time from joining to being paired, in ms
+     */
+    public long getTimeToMatchPercentile(double percentile) {
+        return percentile(Arrays.copyOf(timesToMatch, matches * 2), percentile);
+    }
+
+    public double getMeanEloSpread() {
+        long total = 0;
+        for (int i = 0; i < matches; i++) {
+            total += eloSpreads[i];
+        }
+        return matches == 0 ? 0 : (double) total / matches;
+    }
+
+    public long getEloSpreadPercentile(double percentile) {
+        long[] spreads = new long[matches];
+        for (int i = 0; i < matches; i++) {
+            spreads[i] = eloSpreads[i];
+        }
+        return percentile(spreads, percentile);
+    }
+
+    private static long percentile(long[] values, double percentile) {
+        if (values.length == 0) {
+            return 0;
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100.0 * values.length);
+        return values[Math.max(0, Math.min(values.length - 1, rank - 1))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s arrivals=%d matches=%d | %.0f matches/s, %.1f us CPU/match"
+                        + " | time to match p50=%dms p99=%dms | Elo spread mean=%.1f p99=%d",
+                name, arrivals, matches, getMatchesPerSecond(), getCpuMicrosPerMatch(),
+                getTimeToMatchPercentile(50), getTimeToMatchPercentile(99),
+                getMeanEloSpread(), getEloSpreadPercentile(99));
+    }
+}
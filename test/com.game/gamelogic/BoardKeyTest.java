@@ -0,0 +1,86 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the incremental Zobrist keys of the three boards
+ */
+public class BoardKeyTest {
+
+    @Test
+    public void checkersKeyFollowsMoves() {
+        CheckersBoard board = new CheckersBoard(8, 8);
+        assertEquals(0, board.getKey());
+        board.initializeBoard();
+        long opening = board.getKey();
+        assertNotEquals(0, opening);
+        assertEquals(opening, board.recomputeKey());
+
+        CheckersPiece piece = board.getPiece(5, 0);
+        board.removePiece(piece);
+        piece.setxPos(4);
+        piece.setyPos(1);
+        board.setPiece(piece);
+        long moved = board.getKey();
+        assertNotEquals(opening, moved);
+        assertEquals(moved, board.recomputeKey());
+
+        board.crown(piece);
+        assertNotEquals(moved, board.getKey());
+        assertEquals(board.getKey(), board.recomputeKey());
+    }
+
+    @Test
+    public void checkersLogicKeepsKeyInStep() {
+        CheckersLogic logic = new CheckersLogic("r", "w", true);
+        logic.startNewGame();
+        for (int i = 0; i < 20 && logic.playComputerMove(10); i++) {
+            CheckersBoard board = logic.getBoard();
+            assertEquals(board.recomputeKey(), board.getKey());
+        }
+    }
+
+    @Test
+    public void connect4TranspositionsShareAKey() {
+        Connect4Board first = new Connect4Board();
+        first.play("red", 3);
+        first.play("blue", 4);
+        first.play("red", 2);
+        Connect4Board second = new Connect4Board();
+        second.play("red", 2);
+        second.play("blue", 4);
+        second.play("red", 3);
+        assertEquals(first.getKey(), second.getKey());
+        assertEquals(first.getKey(), first.recomputeKey());
+
+        Connect4Board swapped = new Connect4Board();
+        swapped.play("blue", 3);
+        swapped.play("red", 4);
+        swapped.play("blue", 2);
+        assertNotEquals(first.getKey(), swapped.getKey());
+    }
+
+    @Test
+    public void connect4BitBoardCopyHasTheSameKey() {
+        Connect4Board board = new Connect4Board();
+        board.play("blue", 0);
+        board.play("red", 0);
+        board.play("blue", 6);
+        assertEquals(board.getKey(), Connect4BitBoard.fromBoard(board).toBoard().getKey());
+    }
+
+    @Test
+    public void ticTacToeKeyIgnoresEmptyCells() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        assertEquals(0, board.getKey());
+        board.setPiece(new TicTacToePiece(1, 1, "X"));
+        long centre = board.getKey();
+        assertNotEquals(0, centre);
+        board.setPiece(new TicTacToePiece(1, 1, "O"));
+        assertNotEquals(centre, board.getKey());
+        board.setPiece(new TicTacToePiece(1, 1, "EMPTY"));
+        assertEquals(0, board.getKey());
+    }
+}
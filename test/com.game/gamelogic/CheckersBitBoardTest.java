@@ -0,0 +1,166 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the bitboard Checkers move generator and CheckersLogic delegating to it
+ */
+public class CheckersBitBoardTest {
+
+    private static int square(int x, int y) {
+        return x * 8 + y;
+    }
+
+    private static long count(CheckersBitBoard position, int depth) {
+        CheckersMoveList moves = new CheckersMoveList();
+        position.generateMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            CheckersBitBoard child = copy(position);
+            child.play(moves, i);
+            total += count(child, depth - 1);
+        }
+        return total;
+    }
+
+    private static CheckersBitBoard copy(CheckersBitBoard position) {
+        CheckersBitBoard copy = new CheckersBitBoard();
+        copy.clear(position.getSideToMove());
+        for (int side = 0; side < 2; side++) {
+            long bits = position.getPieces(side);
+            while (bits != 0) {
+                int square = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                copy.setPiece(square, side, position.isKing(square));
+            }
+        }
+        return copy;
+    }
+
+    @Test
+    public void openingMoves() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        assertEquals(12, Long.bitCount(position.getPieces(CheckersBitBoard.RED)));
+        assertEquals(12, Long.bitCount(position.getPieces(CheckersBitBoard.WHITE)));
+        assertEquals(7, position.getLegalMoves().size());
+        assertTrue(position.isLegalStep(square(5, 0), square(4, 1)));
+        assertFalse(position.isLegalStep(square(5, 0), square(6, 1)));
+    }
+
+    @Test
+    public void perftFromOpening() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        assertEquals(49, count(position, 2));
+        assertEquals(302, count(position, 3));
+        assertEquals(1469, count(position, 4));
+        assertEquals(7361, count(position, 5));
+    }
+
+    @Test
+    public void captureIsMandatory() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        position.clear(CheckersBitBoard.RED);
+        position.setPiece(square(5, 2), CheckersBitBoard.RED, false);
+        position.setPiece(square(6, 7), CheckersBitBoard.RED, false);
+        position.setPiece(square(4, 3), CheckersBitBoard.WHITE, false);
+        CheckersMoveList moves = position.getLegalMoves();
+        assertEquals(1, moves.size());
+        assertEquals(square(3, 4), moves.getTo(0));
+        assertEquals(1L << square(4, 3), moves.getCaptured(0));
+        assertFalse(position.isLegalStep(square(6, 7), square(5, 6)));
+    }
+
+    @Test
+    public void menDoNotCaptureBackwards() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        position.clear(CheckersBitBoard.RED);
+        position.setPiece(square(3, 2), CheckersBitBoard.RED, false);
+        position.setPiece(square(4, 3), CheckersBitBoard.WHITE, false);
+        CheckersMoveList moves = position.getLegalMoves();
+        for (int i = 0; i < moves.size(); i++) {
+            assertFalse(moves.isCapture(i));
+        }
+        position.setPiece(square(3, 2), CheckersBitBoard.RED, true);
+        assertTrue(position.isLegalStep(square(3, 2), square(5, 4)));
+    }
+
+    @Test
+    public void multiJumpIsOneMove() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        position.clear(CheckersBitBoard.RED);
+        position.setPiece(square(6, 1), CheckersBitBoard.RED, false);
+        position.setPiece(square(5, 2), CheckersBitBoard.WHITE, false);
+        position.setPiece(square(3, 4), CheckersBitBoard.WHITE, false);
+        CheckersMoveList moves = position.getLegalMoves();
+        assertEquals(1, moves.size());
+        assertEquals(2, moves.getJumpCount(0));
+        assertEquals(square(4, 3), moves.getStep(0, 0));
+        assertEquals(square(2, 5), moves.getStep(0, 1));
+
+        // played a step at a time, red keeps the turn until the sequence ends
+        assertEquals(square(5, 2), position.playStep(square(6, 1), square(4, 3)));
+        assertTrue(position.isJumpInProgress());
+        assertEquals(CheckersBitBoard.RED, position.getSideToMove());
+        assertFalse(position.isLegalStep(square(4, 3), square(3, 2)));
+        position.playStep(square(4, 3), square(2, 5));
+        assertFalse(position.isJumpInProgress());
+        assertEquals(CheckersBitBoard.WHITE, position.getSideToMove());
+        assertEquals(0, position.getPieces(CheckersBitBoard.WHITE));
+        assertFalse(position.hasLegalMove());
+    }
+
+    @Test
+    public void crowningEndsTheMove() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        position.clear(CheckersBitBoard.RED);
+        position.setPiece(square(2, 1), CheckersBitBoard.RED, false);
+        position.setPiece(square(1, 2), CheckersBitBoard.WHITE, false);
+        position.setPiece(square(1, 4), CheckersBitBoard.WHITE, false);
+        CheckersMoveList moves = position.getLegalMoves();
+        assertEquals(1, moves.size());
+        assertEquals(1, moves.getJumpCount(0));
+        position.play(moves, 0);
+        assertTrue(position.isKing(square(0, 3)));
+        assertEquals(CheckersBitBoard.WHITE, position.getSideToMove());
+    }
+
+    @Test
+    public void matchesBoardCopy() {
+        CheckersBoard board = new CheckersBoard(8, 8);
+        board.initializeBoard();
+        CheckersBitBoard position = CheckersBitBoard.fromBoard(board, CheckersBitBoard.WHITE);
+        CheckersBitBoard opening = new CheckersBitBoard();
+        assertEquals(opening.getPieces(CheckersBitBoard.RED), position.getPieces(CheckersBitBoard.RED));
+        assertEquals(opening.getPieces(CheckersBitBoard.WHITE), position.getPieces(CheckersBitBoard.WHITE));
+        assertEquals(7, position.getLegalMoves().size());
+    }
+
+    @Test
+    public void logicDelegatesToEngine() {
+        CheckersLogic logic = new CheckersLogic("r", "w", true);
+        logic.setTimerUpdateListener((redTime, whiteTime) -> { });
+        logic.startNewGame();
+        if (logic.getActivePlayer().equals("w")) {
+            assertTrue(logic.move("w", 2, 1, 3, 0));
+        }
+        assertFalse(logic.move("r", 5, 2, 3, 4)); // not a jump
+        assertFalse(logic.move("r", 5, 2, 6, 3)); // occupied and backwards
+        assertFalse(logic.move("r", 5, 2, 4, 9)); // off the board
+        assertTrue(logic.move("r", 5, 2, 4, 3));
+        assertTrue(logic.move("w", 2, 5, 3, 4));
+
+        // red has to take the piece on 3,4
+        assertFalse(logic.move("r", 5, 6, 4, 7));
+        assertTrue(logic.move("r", 4, 3, 2, 5));
+        assertNull(logic.getBoard().getPiece(3, 4));
+        assertEquals(1, logic.getRedCaptures());
+        assertEquals(0, logic.getNoCaptures());
+        assertNull(logic.checkWin());
+        logic.playerResign("r");
+    }
+}
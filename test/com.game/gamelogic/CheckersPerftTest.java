@@ -0,0 +1,68 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests Checkers perft against the published counts and hand-counted positions
+ */
+public class CheckersPerftTest {
+
+    @Test
+    public void openingMatchesPublishedCounts() {
+        CheckersPerft perft = new CheckersPerft();
+        CheckersBitBoard opening = new CheckersBitBoard();
+        for (int depth = 1; depth <= 8; depth++) {
+            assertEquals(CheckersPerft.OPENING[depth - 1], perft.perft(opening, depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    public void whiteFirstIsTheMirrorImage() {
+        CheckersBitBoard opening = new CheckersBitBoard();
+        opening.reset(CheckersBitBoard.WHITE);
+        assertEquals(CheckersPerft.OPENING[5], new CheckersPerft().perft(opening, 6));
+    }
+
+    @Test
+    public void kingJumpsAllTheWayRound() {
+        // the king can take all four men in a circle starting either way, then white has no move
+        CheckersBitBoard position = CheckersPerft.parse(
+                "......../...w.w../......../...w.w../....R.../......../......../........", CheckersBitBoard.RED);
+        CheckersPerft perft = new CheckersPerft();
+        assertEquals(2, perft.perft(position, 1));
+        assertEquals(0, perft.perft(position, 2));
+    }
+
+    @Test
+    public void crowningEndsTheMove() {
+        // the man is crowned on row 0 after the first jump and may not go on to take the man on (1, 6) as a king
+        CheckersBitBoard position = CheckersPerft.parse(
+                "......../....w.w./...r..../......../......../......../......../........", CheckersBitBoard.RED);
+        CheckersMoveList moves = position.getLegalMoves();
+        assertEquals(1, moves.size());
+        assertEquals(1, moves.getJumpCount(0));
+        assertEquals(5, moves.getTo(0));
+    }
+
+    @Test
+    public void divideAddsUpToPerft() {
+        CheckersPerft perft = new CheckersPerft();
+        CheckersBitBoard opening = new CheckersBitBoard();
+        long total = 0;
+        String[] lines = perft.divide(opening, 5).split("\n");
+        assertEquals(7, lines.length);
+        for (String line : lines) {
+            total += Long.parseLong(line.substring(line.indexOf(':') + 2));
+        }
+        assertEquals(perft.perft(opening, 5), total);
+    }
+
+    @Test
+    public void parseRejectsBadDiagrams() {
+        assertThrows(IllegalArgumentException.class, () -> CheckersPerft.parse("......../........", CheckersBitBoard.RED));
+        assertThrows(IllegalArgumentException.class, () -> CheckersPerft.parse(
+                "......x./......../......../......../......../......../......../........", CheckersBitBoard.RED));
+    }
+}
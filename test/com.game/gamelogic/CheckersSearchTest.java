@@ -0,0 +1,101 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the parallel Checkers search and CheckersLogic playing its moves
+ */
+public class CheckersSearchTest {
+
+    @Test
+    public void findsTheForcedWin() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        position.clear(CheckersBitBoard.RED);
+        position.setPiece(3 * 8 + 2, CheckersBitBoard.RED, true);
+        position.setPiece(4 * 8 + 5, CheckersBitBoard.RED, true);
+        position.setPiece(1, CheckersBitBoard.WHITE, false);
+        CheckersSearch search = new CheckersSearch(2, 16);
+        try {
+            int best = search.findBestMove(position, new CheckersMoveList(), 1000);
+            assertTrue(best >= 0);
+            assertTrue(search.getLastScore() > CheckersSearch.WIN - 128);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void threadCountsAgree() {
+        CheckersSearch serial = new CheckersSearch(1, 16);
+        CheckersSearch parallel = new CheckersSearch(4, 16);
+        try {
+            for (int depth = 1; depth <= 8; depth++) {
+                assertEquals(serial.search(new CheckersBitBoard(), depth),
+                        parallel.search(new CheckersBitBoard(), depth), "depth " + depth);
+            }
+        } finally {
+            serial.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void staysWithinBudgetAndLeavesThePosition() {
+        CheckersBitBoard position = new CheckersBitBoard();
+        long key = position.getKey();
+        CheckersSearch search = new CheckersSearch(4, 16);
+        try {
+            long start = System.nanoTime();
+            int best = search.findBestMove(position, new CheckersMoveList(), 200);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(best >= 0 && best < 7);
+            assertTrue(search.getCompletedDepth() >= 1);
+            assertTrue(elapsedMillis < 1000, elapsedMillis + " ms");
+            assertEquals(key, position.getKey());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void logicPlaysComputerMove() {
+        CheckersLogic logic = new CheckersLogic("r", "w", true);
+        logic.startNewGame();
+        String first = logic.getActivePlayer();
+        assertTrue(logic.playComputerMove(50));
+        assertNotEquals(first, logic.getActivePlayer());
+        assertEquals(12, Long.bitCount(logic.getPosition().getPieces(CheckersBitBoard.RED)));
+        assertTrue(logic.playComputerMove(50));
+        assertEquals(first, logic.getActivePlayer());
+    }
+
+    @Test
+    public void timeoutMoveIsSearchedOffTheClock() throws InterruptedException {
+        CheckersLogic logic = new CheckersLogic("r", "w", true);
+        logic.startNewGame();
+        String first = logic.getActivePlayer();
+        logic.searchTimeoutMove(); // what the clock tick does for a player out of time, the move arrives later
+        for (int i = 0; i < 100 && logic.getActivePlayer().equals(first); i++) {
+            Thread.sleep(20);
+        }
+        assertNotEquals(first, logic.getActivePlayer());
+    }
+
+    @Test
+    public void staleSearchIsNotPlayed() throws InterruptedException {
+        CheckersLogic logic = new CheckersLogic("r", "w", true);
+        logic.startNewGame();
+        String first = logic.getActivePlayer();
+        CheckersMoveList moves = logic.getPosition().getLegalMoves();
+        int from = moves.getFrom(0);
+        int to = moves.getStep(0, 0);
+        logic.searchTimeoutMove();
+        assertTrue(logic.move(first, from / 8, from % 8, to / 8, to % 8)); // the player beats the computer to it
+        long afterMove = logic.getPosition().getKey();
+        Thread.sleep(500); // well past the timeout search
+        assertNotEquals(first, logic.getActivePlayer());
+        assertEquals(afterMove, logic.getPosition().getKey()); // the search result was dropped, nobody moved twice
+    }
+}
@@ -0,0 +1,141 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the bitboard Connect 4 engine against the array board
+ */
+public class Connect4BitBoardTest {
+
+    @Test
+    public void emptyBoardTest() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        assertFalse(board.hasWon(Connect4BitBoard.BLUE));
+        assertFalse(board.hasWon(Connect4BitBoard.RED));
+        assertFalse(board.boardFull());
+        assertEquals(Connect4BitBoard.EMPTY, board.getCell(5, 0));
+    }
+
+    @Test
+    public void canPlayTest() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        assertFalse(board.canPlay(-1));
+        assertFalse(board.canPlay(7));
+        for (int i = 0; i < 6; i++) {
+            assertTrue(board.play(Connect4BitBoard.RED, 0));
+        }
+        assertFalse(board.canPlay(0));
+        assertFalse(board.play(Connect4BitBoard.RED, 0));
+        assertEquals(6, board.getMoveCount());
+    }
+
+    @Test
+    public void cellsMatchArrayRows() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        board.play(Connect4BitBoard.BLUE, 3);
+        board.play(Connect4BitBoard.RED, 3);
+        assertEquals(Connect4BitBoard.BLUE, board.getCell(5, 3)); // row 5 is the bottom
+        assertEquals(Connect4BitBoard.RED, board.getCell(4, 3));
+        assertEquals("red", board.toBoard().board[4][3].getColour());
+    }
+
+    @Test
+    public void winColumnTest() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        board.play(Connect4BitBoard.RED, 0);
+        for (int i = 0; i < 3; i++) {
+            board.play(Connect4BitBoard.BLUE, 0);
+        }
+        assertFalse(board.hasWon(Connect4BitBoard.BLUE));
+        board.play(Connect4BitBoard.BLUE, 0);
+        assertTrue(board.hasWon(Connect4BitBoard.BLUE));
+        assertFalse(board.hasWon(Connect4BitBoard.RED));
+    }
+
+    @Test
+    public void winRowTest() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        for (int column = 3; column < 6; column++) {
+            board.play(Connect4BitBoard.BLUE, column);
+        }
+        assertFalse(board.hasWon(Connect4BitBoard.BLUE));
+        board.play(Connect4BitBoard.BLUE, 6);
+        assertTrue(board.hasWon(Connect4BitBoard.BLUE));
+    }
+
+    @Test
+    public void columnsDoNotWrap() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        // top two of column 0 and bottom two of column 1 are next to each other in bit order only
+        for (int i = 0; i < 4; i++) {
+            board.play(Connect4BitBoard.RED, 0);
+        }
+        board.play(Connect4BitBoard.BLUE, 0);
+        board.play(Connect4BitBoard.BLUE, 0);
+        board.play(Connect4BitBoard.BLUE, 1);
+        board.play(Connect4BitBoard.BLUE, 1);
+        assertFalse(board.hasWon(Connect4BitBoard.BLUE));
+    }
+
+    @Test
+    public void winDiagonalsTest() {
+        Connect4BitBoard forward = new Connect4BitBoard();
+        Connect4BitBoard backward = new Connect4BitBoard();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < i; j++) {
+                forward.play(Connect4BitBoard.RED, i);
+                backward.play(Connect4BitBoard.RED, 6 - i);
+            }
+            forward.play(Connect4BitBoard.BLUE, i);
+            backward.play(Connect4BitBoard.BLUE, 6 - i);
+        }
+        assertTrue(forward.hasWon(Connect4BitBoard.BLUE));
+        assertTrue(backward.hasWon(Connect4BitBoard.BLUE));
+        assertFalse(forward.hasWon(Connect4BitBoard.RED));
+    }
+
+    @Test
+    public void agreesWithArrayBoard() {
+        Random random = new Random(11);
+        for (int game = 0; game < 500; game++) {
+            Connect4BitBoard bitBoard = new Connect4BitBoard();
+            Connect4Board board = new Connect4Board();
+            int side = Connect4BitBoard.BLUE;
+            while (!bitBoard.boardFull()) {
+                int column = random.nextInt(7);
+                assertEquals(board.canPlay(0, column), bitBoard.canPlay(column));
+                if (!bitBoard.canPlay(column)) {
+                    continue;
+                }
+                String colour = side == Connect4BitBoard.BLUE ? "blue" : "red";
+                board.play(colour, column);
+                bitBoard.play(side, column);
+                assertEquals(board.hasWon(colour), bitBoard.hasWon(side));
+                if (bitBoard.hasWon(side)) {
+                    break;
+                }
+                side = 1 - side;
+            }
+            assertEquals(board.boardFull(), bitBoard.boardFull());
+        }
+    }
+
+    @Test
+    public void logicWinPlace() {
+        Connect4Logic test = new Connect4Logic(true);
+        for (int i = 0; i < 10; i++) {
+            test.startNewGame("Croy", "Rhys");
+            String temp = test.getActivePlayer();
+            for (int move = 0; move < 7; move++) {
+                test.placePiece(test.getActivePlayer(), move % 2 == 0 ? 1 : 2);
+            }
+            assertEquals(temp, test.getWinner());
+            assertEquals(temp.equals("Croy") ? 1 : 2, test.getGameState());
+            assertNotNull(test.getGameBoard().board[2][1]);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the alpha-beta Connect 4 search
+ */
+public class Connect4SearchTest {
+    private static final int BLUE = Connect4BitBoard.BLUE;
+    private static final int RED = Connect4BitBoard.RED;
+
+    @Test
+    public void takesTheWin() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        for (int i = 0; i < 3; i++) {
+            board.play(BLUE, 6);
+            board.play(RED, 2);
+        }
+        Connect4Search search = new Connect4Search(12);
+        assertEquals(6, search.findBestMove(board, BLUE, 100));
+        assertTrue(search.getLastScore() > Connect4Search.WIN - 42);
+    }
+
+    @Test
+    public void blocksTheThreat() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        board.play(RED, 0);
+        board.play(BLUE, 0);
+        board.play(RED, 1);
+        board.play(BLUE, 1);
+        board.play(RED, 2);
+        assertEquals(3, new Connect4Search(12).findBestMove(board, BLUE, 100));
+    }
+
+    @Test
+    public void opensInTheCentreWithinBudget() {
+        Connect4Search search = new Connect4Search();
+        long start = System.nanoTime();
+        assertEquals(3, search.findBestMove(new Connect4BitBoard(), BLUE, 200));
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        assertTrue(search.getCompletedDepth() >= 6);
+    }
+
+    @Test
+    public void findsForcedWin() {
+        // blue to move wins with 3: it makes two threats on the bottom row at once
+        Connect4BitBoard board = new Connect4BitBoard();
+        board.play(BLUE, 2);
+        board.play(RED, 2);
+        board.play(BLUE, 4);
+        board.play(RED, 4);
+        Connect4Search search = new Connect4Search(16);
+        assertEquals(3, search.findBestMove(board, BLUE, 1000, 5));
+        assertTrue(search.getLastScore() > Connect4Search.WIN - 42);
+    }
+
+    @Test
+    public void searchLeavesPositionAlone() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        board.play(BLUE, 3);
+        board.play(RED, 4);
+        new Connect4Search(12).findBestMove(board, BLUE, 50);
+        assertEquals(2, board.getMoveCount());
+        assertEquals(BLUE, board.getCell(5, 3));
+        assertEquals(RED, board.getCell(5, 4));
+    }
+
+    @Test
+    public void undoAndCopy() {
+        Connect4BitBoard board = new Connect4BitBoard();
+        board.play(BLUE, 3);
+        board.play(RED, 3);
+        Connect4BitBoard copy = new Connect4BitBoard(board);
+        board.undo(3);
+        assertEquals(1, board.getMoveCount());
+        assertEquals(Connect4BitBoard.EMPTY, board.getCell(4, 3));
+        assertEquals(RED, copy.getCell(4, 3));
+        assertEquals(copy.getOccupied(), Connect4BitBoard.fromBoard(copy.toBoard()).getOccupied());
+        assertEquals(copy.getStones(RED), Connect4BitBoard.fromBoard(copy.toBoard()).getStones(RED));
+    }
+
+    @Test
+    public void beatsRandomPlay() {
+        Random random = new Random(7);
+        Connect4Search search = new Connect4Search(16);
+        for (int game = 0; game < 5; game++) {
+            Connect4BitBoard board = new Connect4BitBoard();
+            int side = game % 2 == 0 ? BLUE : RED;
+            while (true) {
+                if (side == BLUE) {
+                    board.play(BLUE, search.findBestMove(board, BLUE, 20));
+                } else {
+                    int column = random.nextInt(7);
+                    while (!board.canPlay(column)) {
+                        column = random.nextInt(7);
+                    }
+                    board.play(RED, column);
+                }
+                if (board.hasWon(side) || board.boardFull()) {
+                    break;
+                }
+                side = 1 - side;
+            }
+            assertTrue(board.hasWon(BLUE), "game " + game);
+        }
+    }
+
+    @Test
+    public void timedOutTurnIsPlayedByTheComputer() throws InterruptedException {
+        Connect4Logic logic = new Connect4Logic(true);
+        logic.startNewGame("a", "b");
+        String timedOut = logic.getActivePlayer();
+        logic.turnTimedOut(); // returns straight away, the search runs on its own thread
+        for (int i = 0; i < 100 && logic.getActivePlayer().equals(timedOut); i++) {
+            Thread.sleep(20);
+        }
+        assertNotEquals(timedOut, logic.getActivePlayer());
+        assertEquals(1, logic.getPosition().getMoveCount());
+    }
+
+    @Test
+    public void moveMadeDuringTheSearchIsKept() throws InterruptedException {
+        Connect4Logic logic = new Connect4Logic(true);
+        logic.startNewGame("a", "b");
+        String player = logic.getActivePlayer();
+        logic.turnTimedOut();
+        assertTrue(logic.placePiece(player, 0)); // arrives while the computer is still thinking
+        Thread.sleep(500); // well past the timeout search
+        assertEquals(1, logic.getPosition().getMoveCount());
+        assertNotEquals(player, logic.getActivePlayer());
+        assertFalse(logic.isGameOver());
+    }
+}
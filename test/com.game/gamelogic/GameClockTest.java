@@ -0,0 +1,83 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the shared game clock and the logic classes reading their time from it
+ */
+public class GameClockTest {
+
+    @Test
+    public void deadlineRunsOnce() throws InterruptedException {
+        GameClock clock = new GameClock(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        clock.schedule(ran::countDown, 10);
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        clock.shutdown();
+    }
+
+    @Test
+    public void cancelledDeadlinesLeaveTheQueue() {
+        GameClock clock = new GameClock(1);
+        ScheduledFuture<?>[] deadlines = new ScheduledFuture<?>[100];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = clock.schedule(() -> fail("cancelled"), 60_000);
+        }
+        assertEquals(100, clock.getScheduledCount());
+        for (ScheduledFuture<?> deadline : deadlines) {
+            deadline.cancel(false);
+        }
+        assertEquals(0, clock.getScheduledCount());
+        clock.shutdown();
+    }
+
+    @Test
+    public void turnTimersDoNotStartThreads() {
+        new TicTacToeLogic("X", "O").startNewGame(); // starts the shared clock's threads if needed
+        int threads = Thread.activeCount();
+        for (int i = 0; i < 200; i++) {
+            TicTacToeLogic ticTacToe = new TicTacToeLogic("X", "O");
+            ticTacToe.startNewGame();
+            Connect4Logic connect4 = new Connect4Logic();
+            connect4.startNewGame("a", "b");
+            ticTacToe.playerResign("X");
+            connect4.playerResign("a");
+        }
+        assertTrue(Thread.activeCount() <= threads + 2);
+    }
+
+    @Test
+    public void timeLeftComesFromTurnStart() {
+        TicTacToeLogic ticTacToe = new TicTacToeLogic("X", "O");
+        assertEquals(30, ticTacToe.getSecondsLeft());
+        ticTacToe.startNewGame();
+        assertTrue(ticTacToe.getSecondsLeft() >= 29);
+
+        Connect4Logic connect4 = new Connect4Logic();
+        connect4.startNewGame("a", "b");
+        assertTrue(connect4.getTurnLength() >= 14);
+        connect4.playerResign("a");
+        ticTacToe.playerResign("X");
+    }
+
+    @Test
+    public void checkersClockOnlyRunsForTheActivePlayer() throws InterruptedException {
+        CheckersLogic logic = new CheckersLogic("r", "w");
+        logic.startNewGame();
+        Thread.sleep(1100);
+        if (logic.getActivePlayer().equals("r")) {
+            assertTrue(logic.getRedSecondsLeft() < 600);
+            assertEquals(600, logic.getWhiteSecondsLeft());
+        } else {
+            assertTrue(logic.getWhiteSecondsLeft() < 600);
+            assertEquals(600, logic.getRedSecondsLeft());
+        }
+        logic.playerResign("r");
+    }
+}
@@ -0,0 +1,109 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests makeMove and unmakeMove on the three boards
+ */
+public class MakeMoveTest {
+
+    @Test
+    public void checkersJumpAndCrownAreTakenBack() {
+        CheckersBoard board = new CheckersBoard(8, 8);
+        CheckersPiece red = new CheckersPiece(2, 3, "r");
+        CheckersPiece white = new CheckersPiece(1, 4, "w");
+        board.setPiece(red);
+        board.setPiece(white);
+        long key = board.getKey();
+
+        CheckersPiece jumped = board.makeMove(CheckersBoard.encodeMove(2 * 8 + 3, 5));
+        assertSame(white, jumped);
+        assertSame(red, board.getPiece(0, 5));
+        assertTrue(red.isKing());
+        assertNull(board.getPiece(1, 4));
+        assertEquals(board.recomputeKey(), board.getKey());
+
+        board.unmakeMove();
+        assertSame(red, board.getPiece(2, 3));
+        assertFalse(red.isKing());
+        assertSame(white, board.getPiece(1, 4));
+        assertNull(board.getPiece(0, 5));
+        assertEquals(key, board.getKey());
+        assertEquals(0, board.getMovesMade());
+        assertThrows(IllegalStateException.class, board::unmakeMove);
+    }
+
+    @Test
+    public void checkersOpeningMovesUnwind() {
+        CheckersBoard board = new CheckersBoard(8, 8);
+        board.initializeBoard();
+        long opening = board.getKey();
+        board.makeMove(CheckersBoard.encodeMove(5 * 8 + 2, 4 * 8 + 3));
+        board.makeMove(CheckersBoard.encodeMove(2 * 8 + 5, 3 * 8 + 4));
+        board.makeMove(CheckersBoard.encodeMove(4 * 8 + 3, 2 * 8 + 5)); // red jumps the white man
+        assertNull(board.getPiece(3, 4));
+        assertEquals(3, board.getMovesMade());
+        while (board.getMovesMade() > 0) {
+            board.unmakeMove();
+        }
+        assertEquals(opening, board.getKey());
+        assertEquals("w", board.getPiece(2, 5).getColour());
+        assertEquals("r", board.getPiece(5, 2).getColour());
+    }
+
+    @Test
+    public void connect4ReusesPieces() {
+        Connect4Board board = new Connect4Board();
+        int move = Connect4Board.encodeMove(Connect4BitBoard.RED, 3);
+        assertEquals(5, board.makeMove(move));
+        AbstractPiece first = board.board[5][3];
+        assertEquals("red", first.getColour());
+        board.unmakeMove();
+        assertNull(board.board[5][3]);
+        assertEquals(0, board.getKey());
+        board.makeMove(move);
+        assertSame(first, board.board[5][3]);
+    }
+
+    @Test
+    public void connect4PlayCanBeTakenBack() {
+        Connect4Board board = new Connect4Board();
+        for (int i = 0; i < 4; i++) {
+            board.play("blue", 2);
+        }
+        assertTrue(board.hasWon("blue"));
+        board.unmakeMove();
+        assertFalse(board.hasWon("blue"));
+        assertEquals(3, board.getMovesMade());
+        assertEquals(board.recomputeKey(), board.getKey());
+    }
+
+    @Test
+    public void ticTacToeUsesTheColourNames() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        board.setColours("alice", "bob");
+        board.makeMove(TicTacToeBoard.encodeMove(TicTacToeBitBoard.O, 4));
+        assertEquals("bob", board.getPiece(1, 1).getColour());
+        assertFalse(board.canPlay(1, 1));
+        board.unmakeMove();
+        assertTrue(board.canPlay(1, 1));
+        assertEquals(0, board.getKey());
+    }
+
+    @Test
+    public void ticTacToeLogicStillFindsTheWinner() {
+        TicTacToeLogic logic = new TicTacToeLogic("alice", "bob");
+        logic.startNewGame();
+        String first = logic.getActivePlayer();
+        String second = first.equals("alice") ? "bob" : "alice";
+        logic.placePiece(first, 0, 0);
+        logic.placePiece(second, 1, 0);
+        logic.placePiece(first, 0, 1);
+        logic.placePiece(second, 1, 1);
+        logic.placePiece(first, 0, 2);
+        assertEquals(first, logic.getWinner());
+        assertEquals(first, logic.getGameBoard().getPiece(0, 2).getColour());
+    }
+}
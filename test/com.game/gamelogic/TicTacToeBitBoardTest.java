@@ -0,0 +1,119 @@
+package com.game.gamelogic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the 9-bit Tic Tac Toe engine and its solved table
+ */
+public class TicTacToeBitBoardTest {
+
+    @Test
+    public void solvedTableCoversEveryReachablePosition() {
+        new TicTacToeBitBoard();
+        assertEquals(5478, TicTacToeBitBoard.getReachablePositions());
+    }
+
+    @Test
+    public void emptyBoardIsADraw() {
+        TicTacToeBitBoard board = new TicTacToeBitBoard();
+        assertEquals(0, board.getValue(TicTacToeBitBoard.X));
+        assertEquals(0, board.getValue(TicTacToeBitBoard.O)); // either player may start
+    }
+
+    @Test
+    public void winLines() {
+        for (int line : TicTacToeBitBoard.WIN_LINES) {
+            TicTacToeBitBoard board = new TicTacToeBitBoard();
+            for (int cell = 0; cell < 9; cell++) {
+                if ((line & 1 << cell) != 0) {
+                    assertFalse(board.hasWon(TicTacToeBitBoard.X));
+                    board.play(TicTacToeBitBoard.X, cell);
+                }
+            }
+            assertTrue(board.hasWon(TicTacToeBitBoard.X));
+            assertFalse(board.hasWon(TicTacToeBitBoard.O));
+        }
+    }
+
+    @Test
+    public void agreesWithBoardWinCheck() {
+        // every X mask of 3 to 5 stones against the string board
+        for (int mask = 0; mask < 512; mask++) {
+            int stones = Integer.bitCount(mask);
+            if (stones < 3 || stones > 5) {
+                continue;
+            }
+            TicTacToeBitBoard bits = new TicTacToeBitBoard();
+            TicTacToeBoard board = new TicTacToeBoard();
+            boolean won = false;
+            for (int cell = 0; cell < 9; cell++) {
+                if ((mask & 1 << cell) != 0) {
+                    bits.play(TicTacToeBitBoard.X, cell);
+                    won |= board.checkIfPlayerWon(new TicTacToePiece(cell / 3, cell % 3, "X"));
+                }
+            }
+            assertEquals(won, bits.hasWon(TicTacToeBitBoard.X), "mask " + Integer.toBinaryString(mask));
+        }
+    }
+
+    @Test
+    public void bestMoveTakesTheWin() {
+        TicTacToeBitBoard board = new TicTacToeBitBoard();
+        board.play(TicTacToeBitBoard.X, 0);
+        board.play(TicTacToeBitBoard.O, 3);
+        board.play(TicTacToeBitBoard.X, 1);
+        board.play(TicTacToeBitBoard.O, 4);
+        assertEquals(1, board.getValue(TicTacToeBitBoard.X));
+        assertEquals(2, board.getBestMove(TicTacToeBitBoard.X));
+    }
+
+    @Test
+    public void bestMoveBlocks() {
+        TicTacToeBitBoard board = new TicTacToeBitBoard();
+        board.play(TicTacToeBitBoard.X, 0);
+        board.play(TicTacToeBitBoard.O, 4);
+        board.play(TicTacToeBitBoard.X, 1);
+        assertEquals(2, board.getBestMove(TicTacToeBitBoard.O));
+    }
+
+    @Test
+    public void perfectPlayDraws() {
+        TicTacToeBitBoard board = new TicTacToeBitBoard();
+        int side = TicTacToeBitBoard.O;
+        while (!board.isFull()) {
+            board.play(side, board.getBestMove(side));
+            assertFalse(board.hasWon(side));
+            side = 1 - side;
+        }
+        assertEquals(-1, board.getBestMove(side));
+    }
+
+    @Test
+    public void randomEmptyCell() {
+        TicTacToeBitBoard board = new TicTacToeBitBoard();
+        for (int cell = 0; cell < 8; cell++) {
+            board.play(cell % 2, cell);
+        }
+        assertEquals(8, board.randomEmptyCell());
+        board.play(TicTacToeBitBoard.X, 8);
+        assertEquals(-1, board.randomEmptyCell());
+    }
+
+    @Test
+    public void logicSuggestsWinningMove() {
+        TicTacToeLogic logic = new TicTacToeLogic("X", "O");
+        logic.startNewGame();
+        String first = logic.getActivePlayer();
+        String second = first.equals("X") ? "O" : "X";
+        logic.placePiece(first, 0, 0);
+        logic.placePiece(second, 1, 0);
+        logic.placePiece(first, 0, 1);
+        logic.placePiece(second, 1, 1);
+        assertArrayEquals(new int[]{0, 2}, logic.getBestMove());
+        logic.placePiece(first, 0, 2);
+        assertEquals(first, logic.getWinner());
+        assertNull(logic.getBestMove());
+    }
+}
@@ -208,6 +208,38 @@ public class TicTacToeTest {
         assertEquals(StartingPlayer, Logic.getLoser());
     }
 
+    /**
+     * Plays the listed cells, alternating between whoever starts and their opponent
+     */
+    private static void playCells(TicTacToeLogic Logic, int[][] cells) {
+        for (int[] cell : cells) {
+            Logic.placePiece(Logic.getActivePlayer(), cell[0], cell[1]);
+        }
+    }
+
+    @Test
+    public void testTimeout_ForcedMoveFillsBoard() {
+        TicTacToeLogic Logic = new TicTacToeLogic("X", "O");
+        Logic.startNewGame();
+        playCells(Logic, new int[][]{{0, 0}, {1, 1}, {0, 2}, {0, 1}, {2, 1}, {1, 2}, {1, 0}, {2, 0}});
+        Logic.turnTimedOut(); // the last empty cell is forced in, nobody has three in a row
+        assertTrue(Logic.isGameOver());
+        assertEquals("Draw", Logic.getWinner());
+        Logic.turnTimedOut(); // a late deadline on a finished game does nothing
+        assertEquals("Draw", Logic.getWinner());
+    }
+
+    @Test
+    public void testTimeout_ForcedMoveWins() {
+        TicTacToeLogic Logic = new TicTacToeLogic("X", "O");
+        Logic.startNewGame();
+        String StartingPlayer = Logic.getActivePlayer();
+        playCells(Logic, new int[][]{{0, 0}, {0, 1}, {0, 2}, {1, 1}, {1, 2}, {1, 0}, {2, 0}, {2, 2}});
+        Logic.turnTimedOut(); // the opponent's piece lands in the last cell and completes the middle column
+        assertTrue(Logic.isGameOver());
+        assertEquals(StartingPlayer, Logic.getLoser());
+    }
+
     @Test
     public void testResignation_GameRunning() {
         TicTacToeLogic Logic = new TicTacToeLogic("X", "O");
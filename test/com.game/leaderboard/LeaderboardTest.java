@@ -1,6 +1,7 @@
 package com.game.leaderboard;// LeaderboardTest.java
 import static org.junit.jupiter.api.Assertions.*;
 import java.io.*;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,6 +10,7 @@ import com.game.leaderboard.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * JUnit 5 test suite to achieve 100% coverage for the leaderboard-related classes.
@@ -98,6 +100,20 @@ public class LeaderboardTest {
         setUp();
     }
 
+    // Matches are appended to a log in a temporary directory instead of match_log/.
+    @TempDir
+    Path logDir;
+
+    @BeforeEach
+    public void useTemporaryLog() throws IOException {
+        MatchHistoryManager.setLog(MatchLog.open(logDir));
+    }
+
+    @AfterEach
+    public void closeTemporaryLog() throws IOException {
+        MatchHistoryManager.setLog(null);
+    }
+
 
     // ----- Tests for enums (GameResult and GameType) -----
     @Test
@@ -215,16 +231,17 @@ public class LeaderboardTest {
         // Add the match.
         MatchHistoryManager.addMatch(player, match);
 
-        // Verify that the match history file was created.
+        // The match goes to the log, no JSON file is written.
         File historyFile = new File("match_history/" + player.getId() + ".json");
-        assertTrue(historyFile.exists(), "Match history file should exist");
+        assertFalse(historyFile.exists(), "addMatch should not write a JSON file");
 
-        // Call loadHistory; note that due to type mismatch, we only verify that a non-null list is returned.
         List<Match> loaded = MatchHistoryManager.loadHistory(player);
-        assertNotNull(loaded, "Loaded match history list should not be null");
+        assertEquals(1, loaded.size(), "The added match should be loaded back");
+        assertEquals("opponent", loaded.get(0).getPlayer2());
+        assertEquals(GameResult.WIN, loaded.get(0).getResult());
+        assertEquals(GameType.CONNECT4, loaded.get(0).getGameType());
 
         // Clean up
-        historyFile.delete();
         tempDir.delete();
     }
 
@@ -353,44 +370,23 @@ public class LeaderboardTest {
     }
     @Test
     public void testAddMatchWhenFileDoesNotExist() throws IOException {
-        // Ensure the match_history directory exists.
-        File dir = new File("match_history");
-        if (!dir.exists()) {
-            dir.mkdirs();
-        }
-
-        // Create a dummy player.
         Player player = new Player(2000, "player2000", 800, 800, 800, 0, 0, 0);
         File file = new File("match_history/" + player.getId() + ".json");
-        if (file.exists()) {
-            file.delete();
-        }
 
-        // Create a match.
         Match match = new Match("2000", "player2000", "opponent", GameResult.WIN, GameType.CHECKERS);
-        // Call addMatch when file does not exist.
         MatchHistoryManager.addMatch(player, match);
 
-        // Verify that the file was created.
-        assertTrue(file.exists(), "Match history file should exist after addMatch is called");
-        // Basic check that file is non-empty.
-        assertTrue(file.length() > 0, "File should not be empty after writing match history");
-
-        // Now call loadHistory.
-        // (Since loadHistory expects a JSON array, it will fail to deserialize our MatchHistory object,
-        // catch the exception, and return an empty list.)
+        // Nothing is written under match_history/, the log has the match.
+        assertFalse(file.exists(), "addMatch should not write a JSON file");
+        assertEquals(1, MatchHistoryManager.getLog().countMatches(player.getId()));
         List<Match> loaded = MatchHistoryManager.loadHistory(player);
-        assertEquals(0, loaded.size(), "loadHistory should return an empty list on deserialization failure");
-
-        // Clean up.
-        file.delete();
-        if (dir.isDirectory() && dir.list().length == 0) {
-            dir.delete();
-        }
+        assertEquals(1, loaded.size(), "loadHistory should return the logged match");
+        assertEquals("player2000", loaded.get(0).getPlayer1());
+        assertEquals(GameType.CHECKERS, loaded.get(0).getGameType());
     }
 
     @Test
-    public void testAddMatchWhenFileExistsAndExceedsMaxMatches() throws IOException {
+    public void testAddMatchKeepsFullHistory() throws IOException {
         // Ensure the match_history directory exists.
         File dir = new File("match_history");
         if (!dir.exists()) {
@@ -399,51 +395,34 @@ public class LeaderboardTest {
 
         Player player = new Player(3000, "player3000", 800, 800, 800, 0, 0, 0);
         File file = new File("match_history/" + player.getId() + ".json");
-        if (file.exists()) {
-            file.delete();
-        }
 
         ObjectMapper mapper = new ObjectMapper();
 
-        // Pre-create a MatchHistory with exactly MAX_MATCHES (3) matches.
+        // Pre-create a MatchHistory written by an earlier version, with three matches.
         MatchHistory history = new MatchHistory();
         history.playerId = String.valueOf(player.getId());
         history.matchRecords = new ArrayList<>();
         history.matchRecords.add(new Match("3000", "player3000", "opponent1", GameResult.DRAW, GameType.CHECKERS));
         history.matchRecords.add(new Match("3000", "player3000", "opponent2", GameResult.WIN, GameType.CONNECT4));
         history.matchRecords.add(new Match("3000", "player3000", "opponent3", GameResult.LOSE, GameType.TICTACTOE));
-
-        // Write the initial MatchHistory to file.
         mapper.writerWithDefaultPrettyPrinter().writeValue(file, history);
+        long written = file.length();
 
         // Now add a new match via addMatch.
         Match newMatch = new Match("3000", "player3000", "opponent4", GameResult.WIN, GameType.CHECKERS);
         MatchHistoryManager.addMatch(player, newMatch);
 
-        // Directly read the file as MatchHistory to inspect its contents.
-        MatchHistory updatedHistory = null;
-        try {
-            updatedHistory = mapper.readValue(file, MatchHistory.class);
-        } catch (Exception e) {
-            e.printStackTrace();
-            fail("Deserialization of MatchHistory failed: " + e.getMessage());
-        }
-
-        // The size should remain MAX_MATCHES (i.e. 3) because addMatch should remove the oldest match.
-        assertNotNull(updatedHistory, "Updated MatchHistory should not be null");
-        assertEquals(3, updatedHistory.matchRecords.size(), "MatchHistory should contain exactly 3 matches after adding a fourth");
-
-        // Verify that the first match (opponent1) was removed.
-        // The remaining records should be, in order: opponent2, opponent3, and then the new match (opponent4).
-        assertEquals("opponent2", updatedHistory.matchRecords.get(0).getPlayer2(),
-                "The oldest match should have been removed (opponent1)");
-        assertEquals("opponent4", updatedHistory.matchRecords.get(2).getPlayer2(),
-                "The newest match should be added at the end");
-
-        // Now call loadHistory. As before, this will attempt to deserialize a JSON array from an object,
-        // catch the exception, and return an empty list.
+        // The old file isn't rewritten and no match is dropped.
+        assertEquals(written, file.length(), "The JSON history should not be rewritten");
         List<Match> loaded = MatchHistoryManager.loadHistory(player);
-        assertEquals(0, loaded.size(), "loadHistory should return an empty list on deserialization failure");
+        assertEquals(4, loaded.size(), "Full history should be kept");
+        assertEquals("opponent1", loaded.get(0).getPlayer2(), "Older matches come first");
+        assertEquals("opponent4", loaded.get(3).getPlayer2(), "The newest match should be added at the end");
+
+        List<Match> recent = MatchHistoryManager.loadRecent(player, 2);
+        assertEquals(2, recent.size());
+        assertEquals("opponent3", recent.get(0).getPlayer2());
+        assertEquals("opponent4", recent.get(1).getPlayer2());
 
         // Clean up.
         file.delete();
@@ -0,0 +1,142 @@
+package com.game.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the append-only match log, its per-player index and segment compaction
+ */
+public class MatchLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void bothPlayersSeeTheMatch() throws IOException {
+        try (MatchLog log = MatchLog.open(dir)) {
+            log.append(1, "alice", 2, "bob", GameType.CHECKERS, GameResult.WIN, 1234L);
+            Match alice = log.history(1).get(0);
+            assertEquals("1", alice.getPlayer1ID());
+            assertEquals("alice", alice.getPlayer1());
+            assertEquals("bob", alice.getPlayer2());
+            assertEquals(GameResult.WIN, alice.getResult());
+            assertEquals(GameType.CHECKERS, alice.getGameType());
+            assertEquals(1234L, alice.getTime());
+
+            Match bob = log.history(2).get(0);
+            assertEquals("2", bob.getPlayer1ID());
+            assertEquals("bob", bob.getPlayer1());
+            assertEquals("alice", bob.getPlayer2());
+            assertEquals(GameResult.LOSE, bob.getResult());
+            assertTrue(log.history(3).isEmpty());
+        }
+    }
+
+    @Test
+    public void lastMatchesAreTheNewest() throws IOException {
+        try (MatchLog log = MatchLog.open(dir)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(1, "alice", 10 + i, "opponent" + i, GameType.CONNECT4, GameResult.DRAW, i);
+            }
+            List<Match> last = log.lastMatches(1, 3);
+            assertEquals(3, last.size());
+            assertEquals("opponent7", last.get(0).getPlayer2());
+            assertEquals("opponent9", last.get(2).getPlayer2());
+            assertEquals(10, log.lastMatches(1, 50).size());
+            assertEquals(10, log.countMatches(1));
+            assertEquals(1, log.countMatches(15));
+        }
+    }
+
+    @Test
+    public void fullSegmentsAreIndexedAndReopened() throws Exception {
+        try (MatchLog log = MatchLog.open(dir, 4)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(i % 3, "p" + i % 3, MatchLog.UNKNOWN_ID, "guest", GameType.TICTACTOE, GameResult.WIN, i);
+            }
+            log.compact().get();
+            assertTrue(Files.exists(dir.resolve("00000000.idx")));
+            assertTrue(Files.exists(dir.resolve("00000001.idx")));
+            assertFalse(Files.exists(dir.resolve("00000002.idx"))); // still being written
+        }
+        try (MatchLog log = MatchLog.open(dir, 4)) {
+            assertEquals(10, log.size());
+            List<Match> history = log.history(0);
+            assertEquals(4, history.size());
+            assertEquals(9, history.get(3).getTime());
+            log.append(0, "p0", 1, "p1", GameType.TICTACTOE, GameResult.LOSE, 10);
+            assertEquals(5, log.countMatches(0));
+            assertEquals(GameResult.WIN, log.history(1).get(3).getResult());
+        }
+        Files.delete(dir.resolve("00000001.idx")); // scanned again instead
+        try (MatchLog log = MatchLog.open(dir, 4)) {
+            assertEquals(5, log.history(0).size());
+        }
+    }
+
+    @Test
+    public void tornRecordIsDropped() throws IOException {
+        try (MatchLog log = MatchLog.open(dir)) {
+            log.append(1, "alice", 2, "bob", GameType.CHECKERS, GameResult.WIN, 1);
+        }
+        Files.write(dir.resolve("00000000.seg"), new byte[10], StandardOpenOption.APPEND);
+        try (MatchLog log = MatchLog.open(dir)) {
+            assertEquals(1, log.size());
+            log.append(2, "bob", 1, "alice", GameType.CHECKERS, GameResult.DRAW, 2);
+            assertEquals(2, log.history(1).size());
+            assertEquals(GameResult.DRAW, log.history(1).get(1).getResult());
+        }
+    }
+
+    @Test
+    public void longNamesAreCutOnACharacter() throws IOException {
+        try (MatchLog log = MatchLog.open(dir)) {
+            String name = "ééééééééééééééééé"; // two bytes each
+            log.append(1, name, 2, null, null, null, 0);
+            Match match = log.history(1).get(0);
+            assertEquals(name.substring(0, MatchLog.NAME_BYTES / 2), match.getPlayer1());
+            assertEquals("", match.getPlayer2());
+            assertNull(match.getGameType());
+            assertNull(match.getResult());
+        }
+    }
+
+    @Test
+    public void mappedReadsFollowAppends() throws IOException {
+        try (MatchLog log = MatchLog.open(dir, 4)) {
+            log.append(1, "alice", 2, "bob", GameType.CHECKERS, GameResult.WIN, 1);
+            log.append(1, "alice", 3, "carol", GameType.CHECKERS, GameResult.WIN, 2);
+            List<Match> before = log.lastMatches(1, 10);
+            for (int i = 0; i < 5; i++) { // past the mapped end and into the next segment
+                log.append(1, "alice", 10 + i, "opponent" + i, GameType.CONNECT4, GameResult.LOSE, 10 + i);
+            }
+            List<Match> after = log.lastMatches(1, 10);
+            assertEquals(7, after.size());
+            assertEquals("opponent4", after.get(6).getPlayer2());
+            assertEquals(14, after.get(6).getTime());
+            assertEquals("carol", after.get(1).getPlayer2());
+            assertEquals(2, before.size());
+            assertEquals("bob", before.get(0).getPlayer2());
+        }
+    }
+
+    @Test
+    public void recentResultsFromEitherSide() throws IOException {
+        try (MatchLog log = MatchLog.open(dir)) {
+            log.append(1, "alice", 2, "bob", GameType.TICTACTOE, GameResult.WIN, 1);
+            log.append(1, "alice", 2, "bob", GameType.TICTACTOE, GameResult.DRAW, 2);
+            log.append(2, "bob", 1, "alice", GameType.TICTACTOE, GameResult.WIN, 3);
+            log.append(1, "alice", 2, "bob", GameType.TICTACTOE, null, 4);
+            assertEquals("WDL?", log.recentResults(1, 10));
+            assertEquals("DW?", log.recentResults(2, 3));
+            assertEquals("", log.recentResults(5, 3));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.game.leaderboard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the order-statistic ranking index and the Leaderboard keeping it in step
+ */
+public class RankingIndexTest {
+    private List<Player> original;
+
+    @BeforeEach
+    public void setUp() {
+        original = new ArrayList<>(Leaderboard.getAllPlayers());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Leaderboard.getAllPlayers().clear();
+        Leaderboard.getAllPlayers().addAll(original);
+    }
+
+    private static List<Player> randomPlayers(int count, long seed) {
+        Random random = new Random(seed);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // a narrow range, so plenty of players share a rating
+            players.add(new Player(i, "player" + i, 1000 + random.nextInt(50), 1000 + random.nextInt(50),
+                    1000 + random.nextInt(50), 0, 0, 0));
+        }
+        return players;
+    }
+
+    private static List<Player> sorted(List<Player> players, String game) {
+        List<Player> copy = new ArrayList<>(players);
+        copy.sort(Comparator.comparingInt((Player p) -> -p.getElo(game)).thenComparingInt(Player::getId));
+        return copy;
+    }
+
+    @Test
+    public void matchesAFullSort() {
+        List<Player> players = randomPlayers(2000, 1);
+        RankingIndex index = new RankingIndex("connect4");
+        for (Player player : players) {
+            index.update(player);
+        }
+        List<Player> expected = sorted(players, "connect4");
+        assertEquals(expected, index.top(players.size()));
+        for (int rank = 1; rank <= expected.size(); rank += 97) {
+            Player player = expected.get(rank - 1);
+            assertEquals(rank, index.rankOf(player.getId()));
+            assertSame(player, index.getAt(rank));
+        }
+        assertEquals(expected.subList(500, 520), index.range(501, 20));
+        assertNull(index.getAt(players.size() + 1));
+    }
+
+    @Test
+    public void ratingChangesMoveOnePlayer() {
+        List<Player> players = randomPlayers(500, 2);
+        RankingIndex index = new RankingIndex("checkers");
+        for (Player player : players) {
+            index.update(player);
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            Player player = players.get(random.nextInt(players.size()));
+            player.setElo("checkers", 900 + random.nextInt(300));
+            index.update(player);
+        }
+        assertEquals(sorted(players, "checkers"), index.top(players.size()));
+        assertEquals(players.size(), index.size());
+    }
+
+    @Test
+    public void aroundAndRemove() {
+        RankingIndex index = new RankingIndex("checkers");
+        for (int i = 0; i < 10; i++) {
+            index.update(new Player(i, "p" + i, 0, 2000 - i * 10, 0, 0, 0, 0));
+        }
+        List<Player> around = index.around(5, 2);
+        assertEquals(5, around.size());
+        assertEquals(3, around.get(0).getId());
+        assertEquals(7, around.get(4).getId());
+        assertEquals(3, index.around(0, 2).size()); // nobody above the leader
+
+        assertTrue(index.remove(0));
+        assertFalse(index.remove(0));
+        assertEquals(0, index.rankOf(0));
+        assertEquals(1, index.rankOf(1));
+        assertTrue(index.around(0, 2).isEmpty());
+    }
+
+    @Test
+    public void leaderboardRanksFollowTheList() {
+        List<Player> all = Leaderboard.getAllPlayers();
+        all.clear();
+        List<Player> players = randomPlayers(100, 4);
+        all.addAll(players);
+        Leaderboard leaderboard = new Leaderboard();
+        assertEquals(sorted(players, "connect4"), leaderboard.sortRankingSystemPlayers("connect4"));
+
+        Player last = Leaderboard.getRanking("connect4").getAt(100);
+        Leaderboard.setElo(last, "connect4", 5000);
+        assertEquals(1, Leaderboard.getRanking("Connect4").rankOf(last.getId()));
+
+        RankingIndex ranking = Leaderboard.getRanking("connect4");
+        Player newcomer = new Player(1000, "newcomer", 0, 0, 6000, 0, 0, 0);
+        all.add(newcomer); // added straight to the list, the index is updated in place
+        assertSame(ranking, Leaderboard.getRanking("connect4"));
+        assertSame(newcomer, ranking.getAt(1));
+        assertEquals(101, ranking.size());
+
+        all.remove(last);
+        assertEquals(0, ranking.rankOf(last.getId()));
+        Player replacement = new Player(2000, "replacement", 0, 0, 7000, 0, 0, 0);
+        all.set(all.indexOf(newcomer), replacement);
+        assertSame(replacement, ranking.getAt(1));
+        assertEquals(0, ranking.rankOf(newcomer.getId()));
+        assertEquals(100, ranking.size());
+    }
+
+    @Test
+    public void playersAreFoundByNameWhileOnTheList() {
+        List<Player> all = Leaderboard.getAllPlayers();
+        Player alice = new Player(4000, "lookupAlice", 1000, 1000, 1000, 0, 0, 0);
+        Player bob = new Player(4001, "lookupBob", 1000, 1000, 1000, 0, 0, 0);
+        assertNull(Leaderboard.findPlayer("lookupAlice"));
+
+        all.add(alice);
+        assertSame(alice, Leaderboard.findPlayer("lookupAlice"));
+        all.set(all.indexOf(alice), bob);
+        assertNull(Leaderboard.findPlayer("lookupAlice"));
+        assertSame(bob, Leaderboard.findPlayer("lookupBob"));
+        all.remove(bob);
+        assertNull(Leaderboard.findPlayer("lookupBob"));
+    }
+
+    @Test
+    public void setEloAcceptsAnyCaseOfTheGame() {
+        Player player = new Player(3000, "caseless", 1000, 1000, 1000, 0, 0, 0);
+        Leaderboard.getAllPlayers().add(player);
+        Leaderboard.setElo(player, "ticTacToe", 4000);
+        assertEquals(4000, player.getElo(GameType.TICTACTOE));
+        assertEquals(1, Leaderboard.getRanking("tictactoe").rankOf(player.getId()));
+        Leaderboard.setElo(player, "tictactoe", 4100);
+        assertEquals(4100, player.getElo(GameType.TICTACTOE));
+    }
+}
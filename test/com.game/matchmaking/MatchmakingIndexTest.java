@@ -0,0 +1,67 @@
+package com.game.matchmaking;
+
+import com.game.leaderboard.Player;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the Elo index and wait-based search window used by Matchmaking
+ */
+class MatchmakingIndexTest {
+
+    private static Player player(int id, int elo, long queuedAt) {
+        Player player = new Player(id, "P" + id, elo, elo, elo, 0, 0, 0);
+        player.setQueuedAt(queuedAt);
+        return player;
+    }
+
+    @Test
+    void windowWidensWithWaitTime() {
+        Matchmaking matchmaking = new Matchmaking();
+        assertEquals(50, matchmaking.rangeFor(0));
+        assertEquals(50, matchmaking.rangeFor(1_000)); // one matchmaking tick doesn't widen it
+        assertEquals(75, matchmaking.rangeFor(4_000));
+        assertEquals(175, matchmaking.rangeFor(20_000));
+        assertEquals(375, matchmaking.rangeFor(55_999));
+        assertEquals(400, matchmaking.rangeFor(56_000)); // fully open just before the 60 s timeout
+        assertEquals(400, matchmaking.rangeFor(120_000));
+    }
+
+    @Test
+    void closestOpponentIsChosen() {
+        long now = System.currentTimeMillis();
+        Matchmaking matchmaking = new Matchmaking();
+        Player first = player(1, 1200, now);
+        Player far = player(2, 1240, now);
+        Player close = player(3, 1190, now);
+        matchmaking.enqueue(first);
+        matchmaking.enqueue(far);
+        matchmaking.enqueue(close);
+
+        matchmaking.matchOnce("connect4", now);
+
+        assertEquals(1, first.getWins("connect4")); // first in the queue plays and "wins"
+        assertEquals(1, matchmaking.getQueuedCount());
+    }
+
+    @Test
+    void playersOutsideTheWindowWaitUntilItWidens() {
+        long now = System.currentTimeMillis();
+        Matchmaking matchmaking = new Matchmaking();
+        Player first = player(1, 1000, now);
+        Player second = player(2, 1200, now);
+        matchmaking.enqueue(first);
+        matchmaking.enqueue(second);
+
+        matchmaking.matchOnce("checkers", now);
+        assertEquals(2, matchmaking.getQueuedCount());
+
+        matchmaking.matchOnce("checkers", now + 20_000); // window is 50 + 5 * 25 = 175
+        assertEquals(2, matchmaking.getQueuedCount());
+
+        matchmaking.matchOnce("checkers", now + 24_000); // window is now 50 + 6 * 25 = 200
+        assertEquals(0, matchmaking.getQueuedCount());
+        assertEquals(1, first.getWins("checkers"));
+    }
+}
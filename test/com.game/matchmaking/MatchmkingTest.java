@@ -120,8 +120,9 @@ class MatchmakingTest {
         // Or if you never increment enough times.
         Player p1 = new Player(1, "A", 1000, 1000, 1000, 0, 0, 0);
         Player p2 = new Player(2, "B", 1320, 1320, 1320, 0, 0, 0);
-        p1.setQueuedAt(System.currentTimeMillis());
-        p2.setQueuedAt(System.currentTimeMillis());
+        // queued 44 s ago: the window has widened to 325 but the 60 s timeout hasn't been reached
+        p1.setQueuedAt(System.currentTimeMillis() - 44_000);
+        p2.setQueuedAt(System.currentTimeMillis() - 44_000);
 
         Matchmaking matchmaking = new Matchmaking();
         matchmaking.enqueue(p1);
@@ -0,0 +1,97 @@
+package com.game.matchmaking;
+
+import com.game.leaderboard.GameType;
+import com.game.leaderboard.Player;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the columnar rating store and the string API kept on top of it
+ */
+public class RatingStoreTest {
+
+    @Test
+    public void rowsKeepTheirValuesAcrossChunks() {
+        RatingStore store = new RatingStore();
+        int count = 10_000; // more than two chunks
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, store.add(new int[]{i, i + 1, i + 2}, new int[]{0, i % 7, 0}));
+        }
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i += 37) {
+            assertEquals(i, store.getElo(i, GameType.TICTACTOE));
+            assertEquals(i + 1, store.getElo(i, GameType.CHECKERS));
+            assertEquals(i + 2, store.getElo(i, GameType.CONNECT4));
+            assertEquals(i % 7, store.getWins(i, GameType.CHECKERS));
+        }
+        store.setElo(9000, GameType.CONNECT4, 1234);
+        store.incrementWins(9000, GameType.TICTACTOE);
+        assertEquals(1234, store.getElo(9000, GameType.CONNECT4));
+        assertEquals(9001, store.getElo(9000, GameType.CHECKERS));
+        assertEquals(1, store.getWins(9000, GameType.TICTACTOE));
+        assertEquals(9003, store.getElo(9001, GameType.CONNECT4)); // the next row is untouched
+    }
+
+    @Test
+    public void addRejectsShortRows() {
+        RatingStore store = new RatingStore();
+        assertThrows(IllegalArgumentException.class, () -> store.add(new int[]{1, 2}, new int[3]));
+    }
+
+    @Test
+    public void releasedIndexIsReused() {
+        RatingStore store = new RatingStore();
+        store.add(new int[]{1, 1, 1}, new int[3]);
+        int released = store.add(new int[]{2, 2, 2}, new int[]{5, 5, 5});
+        store.release(released);
+        assertEquals(1, store.size());
+
+        assertEquals(released, store.add(new int[]{3, 4, 5}, new int[3]));
+        assertEquals(4, store.getElo(released, GameType.CHECKERS));
+        assertEquals(0, store.getWins(released, GameType.CHECKERS)); // nothing left over from the old row
+        assertEquals(2, store.add(new int[3], new int[3])); // free list is empty again
+        assertThrows(IllegalArgumentException.class, () -> store.release(3));
+    }
+
+    @Test
+    public void indexIsReleasedWhenItsOwnerIsCollected() throws InterruptedException {
+        RatingStore store = new RatingStore();
+        Object owner = new Object();
+        store.releaseWhenUnreachable(owner, store.add(new int[3], new int[3]));
+        assertEquals(1, store.size());
+
+        owner = null;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (store.size() > 0 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void playerStatsShareOneRow() {
+        Player player = new Player(1, "alice", 1000, 1100, 1200, 3, 4, 5);
+        RatingStore store = RatingStore.getShared();
+        int index = player.getRatingIndex();
+        assertEquals(1100, store.getElo(index, GameType.CHECKERS));
+        assertEquals(5, store.getWins(index, GameType.CONNECT4));
+
+        player.setElo(GameType.TICTACTOE, 1500);
+        assertEquals(1500, player.getElo("TicTacToe"));
+        player.setElo("checkers", 900);
+        assertEquals(900, player.getElo(GameType.CHECKERS));
+        player.incrementWins("ticTacToe");
+        assertEquals(4, player.getWins(GameType.TICTACTOE));
+        assertEquals(4, store.getWins(index, GameType.TICTACTOE));
+    }
+
+    @Test
+    public void gameTypeFromName() {
+        assertEquals(GameType.TICTACTOE, GameType.fromName("ticTacToe"));
+        assertEquals(GameType.CONNECT4, GameType.fromName("CONNECT4"));
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> GameType.fromName("chess"));
+        assertTrue(ex.getMessage().contains("Unknown game"));
+    }
+}
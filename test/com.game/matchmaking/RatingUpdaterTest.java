@@ -0,0 +1,164 @@
+package com.game.matchmaking;
+
+import com.game.leaderboard.GameResult;
+import com.game.leaderboard.GameType;
+import com.game.leaderboard.Leaderboard;
+import com.game.leaderboard.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the batched rating updater and the results it is fed
+ */
+public class RatingUpdaterTest {
+    private List<Player> original;
+    private RatingUpdater updater;
+
+    @BeforeEach
+    public void setUp() {
+        original = new ArrayList<>(Leaderboard.getAllPlayers());
+        updater = new RatingUpdater(32, 3);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        updater.close();
+        Leaderboard.getAllPlayers().clear();
+        Leaderboard.getAllPlayers().addAll(original);
+    }
+
+    @Test
+    public void bothPlayersAreRated() throws InterruptedException {
+        Player winner = new Player(100, "winner", 1000, 1000, 1000, 0, 0, 0);
+        Player loser = new Player(101, "loser", 1000, 1000, 1000, 0, 0, 0);
+        updater.submit(winner, loser, GameType.CHECKERS, GameResult.WIN);
+        updater.flush();
+
+        assertEquals(1016, winner.getElo(GameType.CHECKERS));
+        assertEquals(984, loser.getElo(GameType.CHECKERS));
+        assertEquals(1000, winner.getElo(GameType.CONNECT4));
+        assertEquals(1, winner.getWins(GameType.CHECKERS));
+        assertEquals(0, loser.getWins(GameType.CHECKERS));
+        assertEquals(0, updater.getQueueDepth());
+        assertEquals(0, updater.getLagMillis());
+        assertEquals(1, updater.getApplied());
+    }
+
+    @Test
+    public void resultsBuildOnEachOtherInOrder() throws InterruptedException {
+        Player a = new Player(100, "a", 1200, 1200, 1200, 0, 0, 0);
+        Player b = new Player(101, "b", 1100, 1100, 1100, 0, 0, 0);
+        Player c = new Player(102, "c", 1000, 1000, 1000, 0, 0, 0);
+        int eloA = 1200;
+        int eloB = 1100;
+        int eloC = 1000;
+        for (int i = 0; i < 10; i++) {
+            GameResult result = GameResult.values()[i % 3];
+            updater.submit(a, b, GameType.TICTACTOE, result);
+            updater.submit(b, c, GameType.TICTACTOE, GameResult.DRAW);
+            double score = result == GameResult.WIN ? 1.0 : result == GameResult.DRAW ? 0.5 : 0.0;
+            int newA = EloSystem.updateRating(eloA, eloB, 32, score);
+            eloB = EloSystem.updateRating(eloB, eloA, 32, 1.0 - score);
+            eloA = newA;
+            int newB = EloSystem.updateRating(eloB, eloC, 32, 0.5);
+            eloC = EloSystem.updateRating(eloC, eloB, 32, 0.5);
+            eloB = newB;
+        }
+        updater.flush();
+
+        assertEquals(eloA, a.getElo(GameType.TICTACTOE));
+        assertEquals(eloB, b.getElo(GameType.TICTACTOE));
+        assertEquals(eloC, c.getElo(GameType.TICTACTOE));
+        assertEquals(20, updater.getApplied());
+        assertTrue(updater.getBatches() >= 7, "at most 3 results per batch");
+    }
+
+    @Test
+    public void rankingMovesWithTheBatch() throws InterruptedException {
+        List<Player> all = Leaderboard.getAllPlayers();
+        all.clear();
+        Player top = new Player(100, "top", 0, 0, 1500, 0, 0, 0);
+        Player bottom = new Player(101, "bottom", 0, 0, 1000, 0, 0, 0);
+        all.add(top);
+        all.add(bottom);
+        assertEquals(2, Leaderboard.getRanking(GameType.CONNECT4).rankOf(bottom.getId()));
+
+        for (int i = 0; i < 40; i++) {
+            updater.submit(bottom, top, GameType.CONNECT4, GameResult.WIN);
+        }
+        updater.flush();
+        assertEquals(1, Leaderboard.getRanking(GameType.CONNECT4).rankOf(bottom.getId()));
+        assertEquals(bottom.getElo(GameType.CONNECT4), Leaderboard.getRanking("connect4").getAt(1).getElo("connect4"));
+        assertEquals(40, bottom.getWins(GameType.CONNECT4));
+    }
+
+    @Test
+    public void playersOffTheLeaderboardStayUnranked() throws InterruptedException {
+        List<Player> all = Leaderboard.getAllPlayers();
+        all.clear();
+        Player ranked = new Player(100, "ranked", 0, 0, 1000, 0, 0, 0);
+        Player guest = new Player(101, "guest", 0, 0, 1000, 0, 0, 0);
+        all.add(ranked);
+        assertEquals(1, Leaderboard.getRanking(GameType.CONNECT4).size());
+
+        updater.submit(guest, ranked, GameType.CONNECT4, GameResult.WIN);
+        updater.flush();
+        assertEquals(1016, guest.getElo(GameType.CONNECT4));
+        assertEquals(1, Leaderboard.getRanking(GameType.CONNECT4).size());
+        assertFalse(Leaderboard.getRanking(GameType.CONNECT4).contains(guest));
+        assertEquals(984, Leaderboard.getRanking(GameType.CONNECT4).getAt(1).getElo(GameType.CONNECT4));
+    }
+
+    @Test
+    public void concurrentSubmitsAreAllApplied() throws InterruptedException {
+        Thread[] threads = new Thread[8];
+        List<Player> players = new ArrayList<>();
+        for (int t = 0; t < threads.length; t++) {
+            Player p1 = new Player(200 + 2 * t, "p" + t, 1000, 1000, 1000, 0, 0, 0);
+            Player p2 = new Player(201 + 2 * t, "q" + t, 1000, 1000, 1000, 0, 0, 0);
+            players.add(p1);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    updater.submit(p1, p2, GameType.CHECKERS, GameResult.WIN);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        updater.flush();
+        assertEquals(4000, updater.getApplied());
+        assertEquals(0, updater.getQueueDepth());
+        for (Player player : players) {
+            assertEquals(500, player.getWins(GameType.CHECKERS));
+        }
+    }
+
+    @Test
+    public void ratedSessionSubmitsItsResult() throws InterruptedException {
+        Player alice = new Player(100, "alice", 1000, 1000, 1000, 0, 0, 0);
+        Player bob = new Player(101, "bob", 1000, 1000, 1000, 0, 0, 0);
+        GameSession session = new GameSession(alice, bob, GameType.TICTACTOE, updater);
+        session.endSession("bob");
+        session.endSession("bob"); // already over, not counted twice
+        updater.flush();
+        assertEquals(1, bob.getWins(GameType.TICTACTOE));
+        assertEquals(984, alice.getElo(GameType.TICTACTOE));
+        assertEquals(1, updater.getApplied());
+    }
+
+    @Test
+    public void closedUpdaterRejectsResults() throws InterruptedException {
+        Player a = new Player(100, "a", 1000, 1000, 1000, 0, 0, 0);
+        updater.close();
+        assertThrows(IllegalStateException.class, () -> updater.submit(a, a, GameType.CHECKERS, GameResult.DRAW));
+        assertThrows(IllegalArgumentException.class, () -> RatingUpdater.getShared().submit(a, a, null, GameResult.DRAW));
+    }
+}
@@ -0,0 +1,49 @@
+package com.game.networking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests CheckerSession checking each step against its own board
+ */
+public class CheckerSessionTest {
+    private ClientHandler redHandler;
+    private ClientHandler whiteHandler;
+    private Player red;
+    private Player white;
+    private CheckerSession session;
+
+    @BeforeEach
+    public void setUp() {
+        redHandler = new ClientHandler(null, null);
+        whiteHandler = new ClientHandler(null, null);
+        red = new Player("0000", "Alice", "alice@mail.com", "pass", redHandler);
+        white = new Player("1111", "Bob", "bob@mail.com", "pass", whiteHandler);
+        redHandler.setPlayer(red);
+        whiteHandler.setPlayer(white);
+        session = new CheckerSession("checkers", red, white);
+        session.start(redHandler, whiteHandler);
+    }
+
+    @Test
+    public void rejectsIllegalSteps() {
+        assertFalse(session.UpdateMove("0000", "5,2,3,4")); // not a jump
+        assertFalse(session.UpdateMove("0000", "2,1,3,0")); // white's piece
+        assertFalse(session.UpdateMove("0000", "5,2"));
+        assertTrue(redHandler.getMessagesSent().contains("Move rejected: illegal move"));
+        assertTrue(session.UpdateMove("0000", "5,2,4,3"));
+        assertEquals(white, session.currentPlayer);
+    }
+
+    @Test
+    public void captureIsMandatory() {
+        assertTrue(session.UpdateMove("0000", "5,2,4,3"));
+        assertTrue(session.UpdateMove("1111", "2,5,3,4"));
+        assertFalse(session.UpdateMove("0000", "5,6,4,7"));
+        assertTrue(session.UpdateMove("0000", "4,3,2,5"));
+        assertTrue(whiteHandler.getMessagesSent().contains("Move:0000:4,3,2,5"));
+        assertEquals(white, session.currentPlayer);
+    }
+}
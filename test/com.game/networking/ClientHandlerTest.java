@@ -74,6 +74,22 @@ public class ClientHandlerTest {
         assertEquals(ConnectionState.DISCONNECTED, sender.getClientHandler().getConnectionState());
     }
 
+    /**
+     * Tests that a disconnected player's latency stats leave the server's shared ConnectionHealth
+     */
+    @Test
+    public void testDisconnectionForgetsConnectionHealth() {
+        ConnectionHealth health = server.getConnectionHealth();
+        health.recordLatency("0000", 40);
+        health.recordLatency("1111", 60);
+        health.recordPacketLoss("0000", 10);
+
+        senderHandler.disconnect();
+        assertNull(health.getHistogram("0000"));
+        assertEquals(0, health.getPacketsLost("0000"));
+        assertEquals(60, health.getLatency("1111"));
+    }
+
     @Test
     void sendFriendRequestTest() {
         senderHandler.sendFriendRequest("1111");
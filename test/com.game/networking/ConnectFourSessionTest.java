@@ -1,4 +1,75 @@
 package com.game.networking;
 
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ConnectFourSession checking moves against its own board before relaying them
+ */
 public class ConnectFourSessionTest {
+    private ClientHandler player1Handler;
+    private ClientHandler player2Handler;
+    private Player player1;
+    private Player player2;
+    private ConnectFourSession session;
+
+    @BeforeEach
+    public void setUp() {
+        player1Handler = new ClientHandler(null, null);
+        player2Handler = new ClientHandler(null, null);
+        player1 = new Player("0000", "Alice", "alice@mail.com", "pass", player1Handler);
+        player2 = new Player("1111", "Bob", "bob@mail.com", "pass", player2Handler);
+        player1Handler.setPlayer(player1);
+        player2Handler.setPlayer(player2);
+        session = new ConnectFourSession("c4", player1, player2);
+        session.start(player1Handler, player2Handler);
+    }
+
+    @Test
+    public void sessionIsConnectFour() {
+        assertEquals(GameType.CONNECT4, session.gameType);
+        assertEquals(GameType.CONNECT4, session.getGameState().getGameType());
+    }
+
+    @Test
+    public void rejectsMoveOutOfTurn() {
+        assertFalse(session.UpdateMove("1111", "3"));
+        List<String> player2Messages = player2Handler.getMessagesSent();
+        assertTrue(player2Messages.contains("Move rejected: not your turn"));
+        assertFalse(player1Handler.getMessagesSent().contains("Move:1111:3"));
+        assertEquals(player1, session.currentPlayer);
+    }
+
+    @Test
+    public void rejectsFullColumnAndBadInput() {
+        for (int i = 0; i < 6; i++) {
+            assertTrue(session.UpdateMove(i % 2 == 0 ? "0000" : "1111", "0"));
+        }
+        assertFalse(session.UpdateMove("0000", "0"));
+        assertFalse(session.UpdateMove("0000", "7"));
+        assertFalse(session.UpdateMove("0000", "left"));
+        assertTrue(player1Handler.getMessagesSent().contains("Move rejected: illegal move"));
+        assertEquals(player1, session.currentPlayer); // still their turn
+        assertTrue(session.UpdateMove("0000", "1"));
+    }
+
+    @Test
+    public void winningMoveEndsTheGame() {
+        for (int i = 0; i < 3; i++) {
+            session.UpdateMove("0000", "0");
+            session.UpdateMove("1111", "1");
+        }
+        assertTrue(session.UpdateMove("0000", "0"));
+        assertFalse(session.isActive());
+        List<String> player1Messages = player1Handler.getMessagesSent();
+        assertEquals("Game over: you won", player1Messages.get(player1Messages.size() - 1));
+        assertTrue(player1Messages.contains("Move:0000:0")); // the winning move still reaches both players
+        assertTrue(player2Handler.getMessagesSent().contains("Game over: you lost"));
+        assertFalse(session.UpdateMove("1111", "1"));
+        assertTrue(player2Handler.getMessagesSent().contains("Move rejected: game over"));
+    }
 }
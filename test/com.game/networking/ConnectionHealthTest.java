@@ -67,5 +67,22 @@ public class ConnectionHealthTest {
         assertEquals("Player ID doesn't exist", connection);
     }
 
+    /**
+     * Tests that the health check uses the p95 of recent samples rather than only the latest one
+     */
+    @Test
+    void checkConnectionHealthUsesPercentilesTest() {
+        for (int i = 0; i < 19; i++) {
+            connectionHealth.recordLatency("2222", 40);
+        }
+        connectionHealth.recordLatency("2222", 900); // one spike is not enough
+        assertEquals("Connection is strong!", connectionHealth.checkConnectionHealth("2222"));
+        for (int i = 0; i < 5; i++) {
+            connectionHealth.recordLatency("2222", 900);
+        }
+        assertEquals("WARNING: Network connection is unstable!", connectionHealth.checkConnectionHealth("2222"));
+        assertEquals(43, connectionHealth.estimateRoundTrip("0000", "0000") / 2, 1);
+    }
+
 
 }
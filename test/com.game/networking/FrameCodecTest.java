@@ -0,0 +1,155 @@
+package com.game.networking;
+
+import com.game.networking.protocol.BufferPool;
+import com.game.networking.protocol.Frame;
+import com.game.networking.protocol.FrameCodec;
+import com.game.networking.protocol.Opcode;
+import com.game.networking.protocol.WireFormat;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests encoding and decoding of binary frames and moves
+ */
+public class FrameCodecTest {
+
+    @Test
+    void moveAndTurnRoundTrip() {
+        UUID session = FrameCodec.sessionUuid("session-1");
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        FrameCodec.writeMove(buffer, session.getMostSignificantBits(), session.getLeastSignificantBits(), 1, 42);
+        FrameCodec.writeTurn(buffer, session.getMostSignificantBits(), session.getLeastSignificantBits(), 0);
+        assertEquals(FrameCodec.MOVE_FRAME_SIZE + FrameCodec.TURN_FRAME_SIZE, buffer.position());
+        buffer.flip();
+
+        Frame frame = new Frame();
+        assertTrue(frame.next(buffer));
+        assertEquals(Opcode.MOVE, frame.getOpcode());
+        assertEquals(session.getMostSignificantBits(), frame.getSessionHigh());
+        assertEquals(session.getLeastSignificantBits(), frame.getSessionLow());
+        assertEquals(1, frame.getSeat());
+        assertEquals(42, frame.getMove());
+
+        assertTrue(frame.next(buffer));
+        assertEquals(Opcode.TURN, frame.getOpcode());
+        assertEquals(0, frame.getSeat());
+        assertFalse(frame.next(buffer));
+    }
+
+    @Test
+    void partialFrameIsLeftInBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        FrameCodec.writePing(buffer, 123L);
+        buffer.flip();
+        buffer.limit(FrameCodec.PING_FRAME_SIZE - 1);
+
+        Frame frame = new Frame();
+        assertFalse(frame.next(buffer));
+        assertEquals(0, buffer.position());
+
+        buffer.limit(FrameCodec.PING_FRAME_SIZE);
+        assertTrue(frame.next(buffer));
+        assertEquals(Opcode.PING, frame.getOpcode());
+        assertEquals(123L, frame.getTimestamp());
+    }
+
+    @Test
+    void stringFramesRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        assertTrue(FrameCodec.writeText(buffer, Opcode.TEXT, "QUEUE_STATUS|hello"));
+        assertTrue(FrameCodec.writeMatchFound(buffer, 1L, 2L, GameType.CONNECT4.ordinal(), "bob", "Bob"));
+        buffer.flip();
+
+        Frame frame = new Frame();
+        assertTrue(frame.next(buffer));
+        assertEquals("QUEUE_STATUS|hello", frame.getText());
+        assertTrue(frame.next(buffer));
+        assertEquals(Opcode.MATCH_FOUND, frame.getOpcode());
+        assertEquals(GameType.CONNECT4.ordinal(), frame.getGameType());
+        assertEquals("bob", frame.getOpponentId());
+        assertEquals("Bob", frame.getOpponentName());
+    }
+
+    @Test
+    void corruptFrameIsRejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(FrameCodec.MAX_FRAME_LENGTH + 1);
+        buffer.flip();
+        assertThrows(IllegalStateException.class, () -> new Frame().next(buffer));
+    }
+
+    @Test
+    void truncatedFramesAreRejected() {
+        ByteBuffer move = ByteBuffer.allocate(32);
+        move.putInt(2 + 2).put(FrameCodec.VERSION).put(Opcode.MOVE.getCode()).putShort((short) 7); // 2 byte payload
+        FrameCodec.writePing(move, 5L); // must not be read as the rest of the MOVE
+        move.flip();
+        assertThrows(IllegalStateException.class, () -> new Frame().next(move));
+
+        ByteBuffer ping = ByteBuffer.allocate(16);
+        ping.putInt(2 + 4).put(FrameCodec.VERSION).put(Opcode.PING.getCode()).putInt(1);
+        ping.flip();
+        assertThrows(IllegalStateException.class, () -> new Frame().next(ping));
+
+        ByteBuffer empty = ByteBuffer.allocate(16);
+        empty.putInt(2).put(FrameCodec.VERSION).put(Opcode.TEXT.getCode());
+        empty.flip();
+        assertThrows(IllegalStateException.class, () -> new Frame().next(empty));
+    }
+
+    @Test
+    void stringLengthsPastTheFrameAreRejected() {
+        ByteBuffer text = ByteBuffer.allocate(32);
+        text.putInt(2 + 2 + 3).put(FrameCodec.VERSION).put(Opcode.TEXT.getCode()).putShort((short) 0xFFFF).put(new byte[3]);
+        text.flip();
+        assertThrows(IllegalStateException.class, () -> new Frame().next(text));
+
+        ByteBuffer match = ByteBuffer.allocate(64);
+        assertTrue(FrameCodec.writeMatchFound(match, 1L, 2L, 0, "bob", "Bob"));
+        match.putShort(FrameCodec.HEADER_SIZE + 17 + 2 + 3, (short) 40); // name length beyond the frame
+        match.flip();
+        assertThrows(IllegalStateException.class, () -> new Frame().next(match));
+    }
+
+    @Test
+    void textTooLongForBufferIsRefused() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        assertFalse(FrameCodec.writeText(buffer, Opcode.TEXT, "this string does not fit"));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void poolReusesReleasedBuffers() {
+        BufferPool pool = new BufferPool(2, 128);
+        ByteBuffer buffer = pool.acquire();
+        assertTrue(buffer.isDirect());
+        pool.release(buffer);
+        assertEquals(1, pool.getPooledCount());
+        assertSame(buffer, pool.acquire());
+        pool.release(ByteBuffer.allocate(128)); // heap buffers are not pooled
+        assertEquals(0, pool.getPooledCount());
+    }
+
+    @Test
+    void handshakeNegotiatesWireFormat() {
+        assertEquals(WireFormat.BINARY, WireFormat.fromHandshake("Alice,alice@mail.com,pass,alice,BINARY/1"));
+        assertEquals(WireFormat.TEXT, WireFormat.fromHandshake("Alice,alice@mail.com,pass,alice"));
+        assertEquals(WireFormat.TEXT, WireFormat.fromHandshake("Alice,alice@mail.com,pass,alice,BINARY/9"));
+    }
+
+    @Test
+    void movesRoundTripThroughCodec() {
+        assertEquals(4, MoveCodec.encode(GameType.TICTACTOE, "B2"));
+        assertEquals(4, MoveCodec.encode(GameType.TICTACTOE, "1,1"));
+        assertEquals("B2", MoveCodec.format(GameType.TICTACTOE, 4));
+        assertEquals(6, MoveCodec.encode(GameType.CONNECT4, "6"));
+        assertEquals(MoveCodec.INVALID, MoveCodec.encode(GameType.CONNECT4, "7"));
+        int checkersMove = MoveCodec.encode(GameType.CHECKERS, "5,0,4,1");
+        assertEquals("5,0,4,1", MoveCodec.format(GameType.CHECKERS, checkersMove));
+        assertEquals(MoveCodec.INVALID, MoveCodec.encode(GameType.TICTACTOE, "D9"));
+    }
+}
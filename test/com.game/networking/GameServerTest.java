@@ -1,5 +1,7 @@
 package com.game.networking;
 
+import com.game.leaderboard.Leaderboard;
+import com.game.matchmaking.RatingUpdater;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,7 @@ import java.io.PrintStream;
 import java.net.Socket;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,6 +57,7 @@ public class GameServerTest {
 
     @AfterEach
     void teardown() {
+        server.stop(); // releases the port for the next test
         server = null;
         senderHandler = null;
         recipientHandler = null;
@@ -113,8 +117,43 @@ public class GameServerTest {
         assertEquals(RequestStatus.ACCEPTED, receivedRequest.getStatus());
     }
 
+    @Test
+    void finishedGameBetweenLeaderboardPlayersIsRated() throws Exception {
+        List<com.game.leaderboard.Player> leaderboard = Leaderboard.getAllPlayers();
+        com.game.leaderboard.Player ratedAlice = new com.game.leaderboard.Player(9001, "RatedAlice", 1000, 1000, 1000, 0, 0, 0);
+        com.game.leaderboard.Player ratedBob = new com.game.leaderboard.Player(9002, "RatedBob", 1000, 1000, 1000, 0, 0, 0);
+        leaderboard.add(ratedAlice);
+        leaderboard.add(ratedBob);
+        RatingUpdater updater = new RatingUpdater(RatingUpdater.DEFAULT_K, RatingUpdater.DEFAULT_BATCH);
+        server.setRatingUpdater(updater);
+        try {
+            ClientHandler aliceHandler = new ClientHandler(null, server);
+            ClientHandler bobHandler = new ClientHandler(null, server);
+            Player alice = new Player("ratedAlice", "RatedAlice", "alice@mail.com", "pass", aliceHandler);
+            Player bob = new Player("ratedBob", "RatedBob", "bob@mail.com", "pass", bobHandler);
+            aliceHandler.setPlayer(alice);
+            bobHandler.setPlayer(bob);
+
+            server.matchPlayers(alice, bob, GameType.TICTACTOE);
+            GameSession session = aliceHandler.getGameSession();
+            String[] moves = {"A1", "B1", "A2", "B2", "A3"}; // alice takes row A
+            for (int i = 0; i < moves.length; i++) {
+                assertTrue(session.UpdateMove(i % 2 == 0 ? "ratedAlice" : "ratedBob", moves[i]));
+            }
+            updater.flush();
+
+            assertEquals(1016, ratedAlice.getElo(com.game.leaderboard.GameType.TICTACTOE));
+            assertEquals(984, ratedBob.getElo(com.game.leaderboard.GameType.TICTACTOE));
+            assertEquals(1, ratedAlice.getWins(com.game.leaderboard.GameType.TICTACTOE));
+        } finally {
+            updater.close();
+            leaderboard.remove(ratedAlice);
+            leaderboard.remove(ratedBob);
+        }
+    }
 
-
+    @Test
+    void gameWithoutLeaderboardPlayersIsUnrated() {
+        assertNull(server.ratedResult(sender, recipient, GameType.CONNECT4));
+    }
 }
-
-
@@ -0,0 +1,110 @@
+package com.game.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the hashed-wheel heartbeat scheduler by advancing it one tick at a time
+ */
+public class HeartbeatSchedulerTest {
+
+    /**
+     * ClientHandler that counts pings instead of writing them
+     */
+    private static class CountingHandler extends ClientHandler {
+        int pings;
+
+        CountingHandler() {
+            super(null, null);
+        }
+
+        @Override
+        void sendPing() {
+            pings++;
+        }
+    }
+
+    @Test
+    void pingsOncePerInterval() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler(300, 100); // 3 ticks per interval
+        CountingHandler handler = new CountingHandler();
+        scheduler.schedule(handler);
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.advance();
+        }
+        assertEquals(0, handler.pings);
+        scheduler.advance();
+        assertEquals(1, handler.pings);
+        for (int i = 0; i < 3; i++) {
+            scheduler.advance();
+        }
+        assertEquals(2, handler.pings);
+        assertEquals(2, scheduler.getHeartbeatsSent());
+    }
+
+    @Test
+    void disconnectedClientsLeaveTheWheel() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler(200, 100);
+        CountingHandler handler = new CountingHandler();
+        scheduler.schedule(handler);
+        handler.disconnect();
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.advance();
+        }
+        assertEquals(0, handler.pings);
+    }
+
+    @Test
+    void clientsAreSpreadByConnectTime() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler(200, 100);
+        CountingHandler first = new CountingHandler();
+        CountingHandler second = new CountingHandler();
+        scheduler.schedule(first);
+        scheduler.advance();
+        scheduler.schedule(second);
+        scheduler.advance();
+        scheduler.advance();
+        assertEquals(1, first.pings);
+        assertEquals(0, second.pings);
+        scheduler.advance();
+        assertEquals(1, second.pings);
+    }
+
+    @Test
+    void clientThatStopsReadingDoesNotStallTheWheel() throws Exception {
+        try (ServerSocketChannel listener = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+             SocketChannel peer = SocketChannel.open(listener.getLocalAddress());
+             SocketChannel accepted = listener.accept()) {
+            accepted.configureBlocking(false);
+            ByteBuffer filler = ByteBuffer.allocate(64 * 1024);
+            while (accepted.write(filler.clear()) > 0) { // fill both socket buffers, peer never reads
+            }
+            accepted.configureBlocking(true); // like a BLOCKING transport socket, the next write would block
+            assertTrue(peer.isConnected()); // the peer stays connected and never reads
+
+            HeartbeatScheduler scheduler = new HeartbeatScheduler(100, 100);
+            ClientHandler stuck = new ClientHandler(accepted.socket(), null);
+            stuck.setClientId("stuck");
+            CountingHandler other = new CountingHandler();
+            scheduler.schedule(stuck);
+            scheduler.schedule(other);
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+                for (int i = 0; i < 6; i++) {
+                    scheduler.advance();
+                }
+            });
+            assertEquals(5, other.pings);
+            assertEquals(10, scheduler.getHeartbeatsSent());
+            stuck.disconnect();
+        }
+    }
+}
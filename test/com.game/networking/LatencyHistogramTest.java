@@ -0,0 +1,82 @@
+package com.game.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the rolling latency histogram kept for each player
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    void percentilesComeFromTheWindow() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.recordLatency(i * 2); // 2..200ms
+        }
+        assertEquals(100, histogram.getP50(), 2);
+        assertEquals(190, histogram.getP95(), 2);
+        assertEquals(198, histogram.getP99(), 2);
+        assertEquals(200, histogram.getLatest());
+    }
+
+    @Test
+    void oldSamplesAreEvicted() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < LatencyHistogram.WINDOW; i++) {
+            histogram.recordLatency(900);
+        }
+        for (int i = 0; i < LatencyHistogram.WINDOW; i++) {
+            histogram.recordLatency(20);
+        }
+        assertEquals(21, histogram.getP99()); // upper edge of the 20-21ms bucket
+        assertEquals(LatencyHistogram.WINDOW, histogram.getSampleCount());
+    }
+
+    @Test
+    void lossIsMeasuredOverTheWindow() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(-1, histogram.getP50());
+        for (int i = 0; i < 9; i++) {
+            histogram.recordLatency(30);
+        }
+        histogram.recordLost();
+        assertEquals(10f, histogram.getLossPercent(), 0.01);
+        for (int i = 0; i < LatencyHistogram.WINDOW; i++) {
+            histogram.recordLatency(30);
+        }
+        assertEquals(0f, histogram.getLossPercent(), 0.01);
+    }
+
+    @Test
+    void jitterFollowsVariation() {
+        LatencyHistogram steady = new LatencyHistogram();
+        LatencyHistogram noisy = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            steady.recordLatency(50);
+            noisy.recordLatency(i % 2 == 0 ? 20 : 120);
+        }
+        assertEquals(0, steady.getJitter());
+        assertTrue(noisy.getJitter() > 50);
+    }
+
+    @Test
+    void concurrentWritersKeepCountsConsistent() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.recordLatency(i % 300);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        assertEquals(LatencyHistogram.WINDOW, histogram.getSampleCount());
+        assertTrue(histogram.getP99() >= histogram.getP50());
+    }
+}
@@ -0,0 +1,99 @@
+package com.game.networking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that MatchmakingService pairs players as they join and only uses the sweep for timeouts
+ */
+public class MatchmakingLaneTest {
+    private MatchmakingService matchmakingService;
+
+    @BeforeEach
+    void setup() {
+        matchmakingService = new MatchmakingService(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        matchmakingService.shutdown();
+    }
+
+    private Player newPlayer(String id) {
+        ClientHandler handler = new ClientHandler(null, null);
+        Player player = new Player(id, "user" + id, id + "@mail.com", "pass", handler);
+        handler.setPlayer(player);
+        return player;
+    }
+
+    @Test
+    void joinPairsWithLongestWaitingPlayer() {
+        Player first = newPlayer("1");
+        Player second = newPlayer("2");
+        Player third = newPlayer("3");
+
+        assertNull(matchmakingService.joinRandomQueue(first, GameType.CONNECT4));
+        assertNull(matchmakingService.joinRandomQueue(second, GameType.CHECKERS));
+        MatchmakingService.MatchedPair pair = matchmakingService.joinRandomQueue(third, GameType.CONNECT4);
+
+        assertNotNull(pair);
+        assertEquals("1", pair.getPlayer1Id());
+        assertEquals("3", pair.getPlayer2Id());
+        assertEquals(GameType.CONNECT4, pair.getGameType());
+        assertEquals(0, matchmakingService.getLaneSize(GameType.CONNECT4));
+        assertEquals(1, matchmakingService.getLaneSize(GameType.CHECKERS));
+    }
+
+    @Test
+    void playersWhoLeftAreSkipped() {
+        Player first = newPlayer("1");
+        Player second = newPlayer("2");
+        Player third = newPlayer("3");
+
+        matchmakingService.joinRandomQueue(first, GameType.TICTACTOE);
+        matchmakingService.joinRandomQueue(second, GameType.CHECKERS);
+        matchmakingService.leaveQueue("1");
+        assertTrue(first.getClientHandler().getMessagesSent().contains("QUEUE_LEFT|Search canceled"));
+
+        assertNull(matchmakingService.joinRandomQueue(third, GameType.TICTACTOE));
+        assertEquals(1, matchmakingService.getLaneSize(GameType.TICTACTOE));
+    }
+
+    @Test
+    void sweeperOnlyExpiresTimedOutPlayers() {
+        Player first = newPlayer("1");
+        Player second = newPlayer("2");
+        first.setState(PlayerState.MATCHMAKING);
+        second.setState(PlayerState.MATCHMAKING);
+        matchmakingService.joinRandomQueue(first, GameType.TICTACTOE);
+        matchmakingService.joinRandomQueue(second, GameType.CONNECT4);
+
+        long now = System.currentTimeMillis();
+        assertEquals(0, matchmakingService.expireQueuedPlayers(now));
+        assertEquals(2, matchmakingService.expireQueuedPlayers(now + MatchmakingService.QUEUE_TIMEOUT_MS));
+        assertEquals(PlayerState.LOBBY, first.getState());
+        assertEquals(0, matchmakingService.getLaneSize(GameType.TICTACTOE));
+        assertNull(matchmakingService.joinRandomQueue(newPlayer("3"), GameType.TICTACTOE));
+    }
+
+    @Test
+    void concurrentJoinsNeverLeaveTwoWaiting() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Player player = newPlayer(Integer.toString(i));
+            threads.add(new Thread(() -> matchmakingService.joinRandomQueue(player, GameType.CHECKERS)));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, matchmakingService.getLaneSize(GameType.CHECKERS));
+        assertTrue(matchmakingService.processImmediateMatch().isEmpty());
+    }
+}
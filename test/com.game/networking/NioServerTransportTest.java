@@ -0,0 +1,167 @@
+package com.game.networking;
+
+import com.game.networking.protocol.Frame;
+import com.game.networking.protocol.FrameCodec;
+import com.game.networking.protocol.Opcode;
+import com.game.networking.protocol.WireFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the GameServer running on the NIO transport with real sockets
+ */
+public class NioServerTransportTest {
+    private GameServer server;
+    private Socket socket;
+    private PrintWriter out;
+    private BufferedReader in;
+    private int port;
+
+    @BeforeEach
+    void setup() throws Exception {
+        port = 7000 + new Random().nextInt(1000);
+        server = new GameServer(port, TransportMode.NIO);
+        new Thread(() -> server.start()).start();
+
+        Thread.sleep(500);
+
+        socket = new Socket("localhost", port);
+        out = new PrintWriter(socket.getOutputStream(), true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        out.println("Alice,alice@mail.com,pass,sender");
+
+        Thread.sleep(500); // Let server register the player
+    }
+
+    @Test
+    void handshakeRegistersPlayer() {
+        assertEquals(TransportMode.NIO, server.getTransportMode());
+        Player player = server.getPlayerById("sender");
+        assertNotNull(player);
+        assertEquals("Alice", player.getUsername());
+        assertNotNull(server.getConnectedClients().get("sender"));
+    }
+
+    @Test
+    void messagesAreWrittenToSocket() throws Exception {
+        server.getPlayerById("sender").getClientHandler().sendMessage("QUEUE_STATUS|hello");
+        String line = in.readLine();
+        while ("PING".equals(line)) { // a heartbeat may arrive first
+            line = in.readLine();
+        }
+        assertEquals("QUEUE_STATUS|hello", line);
+    }
+
+    @Test
+    void binaryClientReceivesFrames() throws Exception {
+        try (Socket binarySocket = new Socket("localhost", port)) {
+            binarySocket.getOutputStream().write("Bob,bob@mail.com,pass,bob,BINARY/1\n".getBytes(StandardCharsets.UTF_8));
+            DataInputStream input = new DataInputStream(binarySocket.getInputStream());
+            assertEquals("PROTOCOL|BINARY/1", readLine(input));
+
+            ClientHandler handler = null;
+            for (int i = 0; i < 50 && handler == null; i++) {
+                Thread.sleep(20);
+                handler = server.getConnectedClients().get("bob");
+            }
+            assertNotNull(handler);
+            assertEquals(WireFormat.BINARY, handler.getWireFormat());
+            handler.sendMessage("QUEUE_STATUS|hello");
+
+            Frame frame = new Frame();
+            while (true) {
+                int length = input.readInt();
+                ByteBuffer buffer = ByteBuffer.allocate(FrameCodec.LENGTH_FIELD_SIZE + length);
+                buffer.putInt(length);
+                input.readFully(buffer.array(), FrameCodec.LENGTH_FIELD_SIZE, length);
+                assertTrue(frame.next(buffer.position(0)));
+                if (frame.getOpcode() == Opcode.TEXT) { // a PING frame may arrive first
+                    break;
+                }
+            }
+            assertEquals("QUEUE_STATUS|hello", frame.getText());
+        }
+    }
+
+    @Test
+    void malformedFrameOnlyDropsItsOwnConnection() throws Exception {
+        try (Socket binarySocket = new Socket("localhost", port)) {
+            binarySocket.getOutputStream().write("Bob,bob@mail.com,pass,bob,BINARY/1\n".getBytes(StandardCharsets.UTF_8));
+            DataInputStream input = new DataInputStream(binarySocket.getInputStream());
+            assertEquals("PROTOCOL|BINARY/1", readLine(input));
+
+            ByteBuffer move = ByteBuffer.allocate(8); // MOVE with a 2 byte payload
+            move.putInt(4).put(FrameCodec.VERSION).put(Opcode.MOVE.getCode()).putShort((short) 1);
+            binarySocket.getOutputStream().write(move.array());
+            binarySocket.setSoTimeout(2000);
+            while (input.read() >= 0) { // server closes Bob's socket, skipping any frame already queued
+            }
+        }
+        messagesAreWrittenToSocket(); // the event loop is still serving Alice
+    }
+
+    @Test
+    void frameLargerThanTheReadBufferIsDecoded() throws Exception {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try (Socket binarySocket = new Socket("localhost", port)) {
+            binarySocket.getOutputStream().write("Bob,bob@mail.com,pass,bob,BINARY/1\n".getBytes(StandardCharsets.UTF_8));
+            DataInputStream input = new DataInputStream(binarySocket.getInputStream());
+            assertEquals("PROTOCOL|BINARY/1", readLine(input));
+
+            String text = "x".repeat(40_000) + "END"; // needs a much bigger buffer than a connection starts with
+            ByteBuffer big = ByteBuffer.allocate(FrameCodec.HEADER_SIZE + 2 + text.length());
+            assertTrue(FrameCodec.writeText(big, Opcode.TEXT, text));
+            ByteBuffer small = ByteBuffer.allocate(FrameCodec.HEADER_SIZE + 2 + 5);
+            assertTrue(FrameCodec.writeText(small, Opcode.TEXT, "after"));
+            binarySocket.getOutputStream().write(big.array());
+            binarySocket.getOutputStream().write(small.array());
+
+            for (int i = 0; i < 100 && !captured.toString(StandardCharsets.UTF_8).contains("Received from bob: after"); i++) {
+                Thread.sleep(20);
+            }
+        } finally {
+            System.setOut(originalOut);
+        }
+        String output = captured.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("xxxEND"));
+        assertTrue(output.contains("Received from bob: after")); // and the connection keeps reading after it
+    }
+
+    private static String readLine(DataInputStream input) throws Exception {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = input.read()) != '\n' && b >= 0) {
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    @Test
+    void fromFlagDefaultsToBlocking() {
+        assertEquals(TransportMode.NIO, TransportMode.fromFlag("nio"));
+        assertEquals(TransportMode.BLOCKING, TransportMode.fromFlag(null));
+        assertEquals(TransportMode.BLOCKING, TransportMode.fromFlag("carrier-pigeon"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        socket.close();
+        server.stop();
+    }
+}
@@ -0,0 +1,113 @@
+package com.game.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the bounded outbound queue and its coalesced writes
+ */
+public class OutboundQueueTest {
+
+    /**
+     * Channel that counts write calls and accepts at most maxPerWrite bytes per call
+     */
+    private static class RecordingChannel implements GatheringByteChannel {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        int writeCalls;
+        int maxPerWrite = Integer.MAX_VALUE;
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            writeCalls++;
+            long total = 0;
+            for (int i = offset; i < offset + length && total < maxPerWrite; i++) {
+                while (srcs[i].hasRemaining() && total < maxPerWrite) {
+                    written.write(srcs[i].get());
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            return (int) write(new ByteBuffer[]{src});
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static ByteBuffer line(String text) {
+        return ByteBuffer.wrap((text + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void queuedMessagesAreCoalescedIntoOneWrite() throws Exception {
+        OutboundQueue queue = new OutboundQueue(16);
+        queue.offer(line("Move:0000:A1"));
+        queue.offer(line("Opponents turn"));
+        queue.offer(line("PING"));
+
+        RecordingChannel channel = new RecordingChannel();
+        assertTrue(queue.writeTo(channel));
+        assertEquals(1, channel.writeCalls);
+        assertEquals("Move:0000:A1\nOpponents turn\nPING\n", channel.written.toString(StandardCharsets.UTF_8));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void partialWriteKeepsRemainingBytes() throws Exception {
+        OutboundQueue queue = new OutboundQueue(16);
+        queue.offer(line("hello"));
+        queue.offer(line("world"));
+
+        RecordingChannel channel = new RecordingChannel();
+        channel.maxPerWrite = 4;
+        assertFalse(queue.writeTo(channel)); // channel full
+        assertEquals(2, queue.size());
+
+        channel.maxPerWrite = Integer.MAX_VALUE;
+        assertTrue(queue.writeTo(channel));
+        assertEquals("hello\nworld\n", channel.written.toString(StandardCharsets.UTF_8));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void offerFailsWhenFull() {
+        OutboundQueue queue = new OutboundQueue(2);
+        assertTrue(queue.offer(line("a")));
+        assertTrue(queue.offer(line("b")));
+        assertFalse(queue.offer(line("c")));
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertTrue(queue.offer(line("d")));
+    }
+
+    @Test
+    void handlerWithoutSocketRecordsMessages() {
+        ClientHandler handler = new ClientHandler(null, null);
+        handler.queueMessage("Move:0000:A1");
+        handler.queueMessage("Your turn");
+        handler.flush();
+        assertEquals(2, handler.getMessagesSent().size());
+        assertTrue(handler.getOutboundQueue().isEmpty());
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.Socket;
@@ -92,4 +93,29 @@ public class TicTacToeSessionTest {
         assertEquals(player1, ticTacToeSession.getPlayer1());// Verify current player changed back to player1
     }
 
+    @Test
+    public void testRejectsOccupiedCell() {
+        ticTacToeSession.start(player1Handler, player2Handler);
+        assertTrue(ticTacToeSession.UpdateMove("0000", "A1"));
+
+        assertFalse(ticTacToeSession.UpdateMove("1111", "A1")); // already taken
+        assertFalse(ticTacToeSession.UpdateMove("1111", "D4")); // off the board
+        assertFalse(player1Handler.getMessagesSent().contains("Move:1111:A1"));
+        assertTrue(player2Handler.getMessagesSent().contains("Move rejected: illegal move"));
+        assertEquals(player2, ticTacToeSession.currentPlayer);
+        assertTrue(ticTacToeSession.UpdateMove("1111", "B2"));
+    }
+
+    @Test
+    public void testFullBoardIsADraw() {
+        ticTacToeSession.start(player1Handler, player2Handler);
+        String[] moves = {"A1", "B2", "A3", "A2", "C2", "B3", "B1", "C1", "C3"}; // nobody gets three in a row
+        for (int i = 0; i < moves.length; i++) {
+            assertTrue(ticTacToeSession.UpdateMove(i % 2 == 0 ? "0000" : "1111", moves[i]));
+        }
+        assertFalse(ticTacToeSession.isActive());
+        assertTrue(player1Handler.getMessagesSent().contains("Game over: draw"));
+        assertTrue(player2Handler.getMessagesSent().contains("Game over: draw"));
+    }
+
 }
@@ -0,0 +1,60 @@
+package com.game.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the thread usage report used to compare the VIRTUAL and BLOCKING transports
+ */
+public class VirtualThreadMonitorTest {
+
+    @Test
+    void trackCountsActiveConnectionThreads() throws Exception {
+        VirtualThreadMonitor monitor = new VirtualThreadMonitor();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread thread = Thread.ofVirtual().start(monitor.track(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }));
+
+        running.await();
+        assertEquals(1, monitor.getActiveConnectionThreads());
+        release.countDown();
+        thread.join();
+        assertEquals(0, monitor.getActiveConnectionThreads());
+    }
+
+    @Test
+    void reportContainsThreadCounts() {
+        VirtualThreadMonitor monitor = new VirtualThreadMonitor();
+        String report = monitor.report();
+        assertTrue(report.contains("Platform threads:"));
+        assertTrue(report.contains("Carriers:"));
+        assertTrue(report.contains("Pinned: 0 events"));
+    }
+
+    @Test
+    void otherForkJoinPoolsAreNotCarriers() throws Exception {
+        Thread.ofVirtual().start(() -> { }).join(); // makes sure the scheduler has a carrier
+        assertTrue(VirtualThreadMonitor.getCarrierThreadCount() >= 1);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Thread worker = pool.submit(Thread::currentThread).get();
+            assertTrue(worker.getName().startsWith("ForkJoinPool-"));
+            assertFalse(VirtualThreadMonitor.isCarrier(worker));
+            assertFalse(VirtualThreadMonitor.isCarrier(Thread.currentThread()));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
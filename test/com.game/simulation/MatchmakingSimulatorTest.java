@@ -0,0 +1,56 @@
+package com.game.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the matchmaking load simulator on a short run
+ */
+class MatchmakingSimulatorTest {
+
+    private static SimulationConfig shortRun() {
+        return SimulationConfig.fromArgs(new String[]{"--rate=50", "--seconds=10", "--seed=7"});
+    }
+
+    @Test
+    void bothMatchmakersCreatePairs() {
+        List<SimulationReport> reports = new MatchmakingSimulator(shortRun()).run();
+        assertEquals(2, reports.size());
+        for (SimulationReport report : reports) {
+            assertTrue(report.getArrivals() > 0);
+            assertTrue(report.getMatches() > 0);
+            assertTrue(report.getMatches() * 2 <= report.getArrivals());
+            assertTrue(report.getTimeToMatchPercentile(99) >= report.getTimeToMatchPercentile(50));
+        }
+    }
+
+    @Test
+    void ratedPairsAreCloserThanRandomPairs() {
+        List<SimulationReport> reports = new MatchmakingSimulator(shortRun()).run();
+        SimulationReport service = reports.get(0);
+        SimulationReport rated = reports.get(1);
+        assertEquals("service", service.getName());
+        assertEquals("rated", rated.getName());
+        assertTrue(rated.getMeanEloSpread() < service.getMeanEloSpread());
+    }
+
+    @Test
+    void sameSeedGivesSameArrivals() {
+        SimulationConfig config = shortRun();
+        config.setTarget(SimulationConfig.Target.RATED);
+        SimulationReport first = new MatchmakingSimulator(config).run().get(0);
+        SimulationReport second = new MatchmakingSimulator(config).run().get(0);
+        assertEquals(first.getArrivals(), second.getArrivals());
+        assertEquals(first.getMatches(), second.getMatches());
+    }
+
+    @Test
+    void mixLimitsGames() {
+        SimulationConfig config = SimulationConfig.fromArgs(new String[]{"--mix=checkers:1"});
+        assertEquals(1.0, config.getGameMix().get(com.game.networking.GameType.CHECKERS));
+        assertEquals(0.0, config.getGameMix().get(com.game.networking.GameType.CONNECT4));
+    }
+}